@@ -0,0 +1,18 @@
+package org.core.accounts;
+
+/**
+ * A token account's (or a wallet's native SOL) balance differing from the one last stored, seen on a wallet load.
+ * @param accountAddress Token account address, or the wallet address for native SOL
+ * @param previousBalance 0 for an account not stored before
+ * @param balance 0 for an account no longer held
+ */
+public record BalanceChange(String walletAddress, String accountAddress, String mintAddress, double previousBalance, double balance) {
+
+    public double delta() {
+        return balance - previousBalance;
+    }
+
+    public boolean isNativeSol() {
+        return accountAddress.equals(walletAddress);
+    }
+}
@@ -1,11 +1,14 @@
 package org.core.accounts;
 
+import org.core.transactions.CostBasis;
+
 public class Position {
     private final String walletAddress;
     private final String accountAddress;
     private final Token token;
     private double tokenBalance; // balance in native ccy
-    private double usdBalance; // balance in USD
+    private volatile double usdBalance; // balance in USD
+    private volatile CostBasis costBasis; // from ingested transaction history, null until ingested
 
     public Position(String walletAddress, String accountAddress, Token token, double lamports) {
         this.walletAddress = walletAddress;
@@ -37,4 +40,12 @@ public class Position {
     public void setUsdBalance(double usdBalance) {
         this.usdBalance = usdBalance;
     }
+
+    public CostBasis getCostBasis() {
+        return costBasis;
+    }
+
+    public void setCostBasis(CostBasis costBasis) {
+        this.costBasis = costBasis;
+    }
 }
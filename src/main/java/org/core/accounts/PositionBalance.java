@@ -0,0 +1,7 @@
+package org.core.accounts;
+
+/**
+ * Balance of one token account (or a wallet's native SOL, keyed by the wallet address) as last stored.
+ */
+public record PositionBalance(String mintAddress, double balance) {
+}
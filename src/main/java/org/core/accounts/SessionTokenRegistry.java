@@ -0,0 +1,90 @@
+package org.core.accounts;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Tokens held by at least one live position this session, with a count of the positions holding each. Positions
+ * acquire their token when added to a wallet and release it when replaced or removed, so a mint drops out of the
+ * registry - and out of the Jupiter price sweeps - once no wallet holds it.
+ * <p>
+ * Each mint maps to a single Token instance while held, so every position reads the same market data.
+ */
+public class SessionTokenRegistry {
+
+    private final ConcurrentHashMap<String, Entry> m_entries = new ConcurrentHashMap<>();
+    private final Set<String> m_mints = Collections.unmodifiableSet(m_entries.keySet());
+    private final Consumer<String> m_onNewMint;
+
+    private static final class Entry {
+        private final Token token;
+        private int positionCount;
+
+        private Entry(Token token) {
+            this.token = token;
+        }
+    }
+
+    public SessionTokenRegistry() {
+        this(mintAddress -> {});
+    }
+
+    /**
+     * @param onNewMint Called with each mint that becomes held, on the acquiring thread - e.g. to price it straight away
+     */
+    public SessionTokenRegistry(Consumer<String> onNewMint) {
+        m_onNewMint = onNewMint;
+    }
+
+    /**
+     * Count one more position holding the token.
+     * @return the registry's instance for the mint - token itself if the mint was not yet held
+     */
+    public Token acquire(Token token) {
+        boolean[] newMint = new boolean[1];
+        Entry acquired = m_entries.compute(token.getMintAddress(), (mint, entry) -> {
+            if (entry == null) {
+                entry = new Entry(token);
+                newMint[0] = true;
+            }
+            entry.positionCount++;
+            return entry;
+        });
+        if (newMint[0]) {
+            m_onNewMint.accept(token.getMintAddress());
+        }
+        return acquired.token;
+    }
+
+    /**
+     * Count one fewer position holding the mint, dropping it when none are left.
+     */
+    public void release(String mintAddress) {
+        m_entries.computeIfPresent(mintAddress, (mint, entry) -> --entry.positionCount > 0 ? entry : null);
+    }
+
+    /**
+     * @return the held token, or null if no live position holds the mint
+     */
+    public Token get(String mintAddress) {
+        Entry entry = m_entries.get(mintAddress);
+        return entry == null ? null : entry.token;
+    }
+
+    /**
+     * Live, read-only view of the held mints.
+     */
+    public Set<String> mints() {
+        return m_mints;
+    }
+
+    public int size() {
+        return m_entries.size();
+    }
+
+    public boolean isEmpty() {
+        return m_entries.isEmpty();
+    }
+}
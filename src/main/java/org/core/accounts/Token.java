@@ -8,7 +8,7 @@ public class Token {
     private final String name; //human-readable name of the token
     private final String ticker; //human-readable name of the token
     private final int decimals;
-    private MarketData marketData;
+    private volatile MarketData marketData;
 
     public Token(String mintAddress, String name, String ticker, int decimals) {
         this.mintAddress = mintAddress;
@@ -8,9 +8,10 @@ public class Wallet {
 
     private final String address;
     private final String name;
-    private final double solBalance;
+    private volatile double solBalance;
     private final PublicKey publicKey;
     private final ConcurrentHashMap<String,Position> positions;
+    private volatile long refreshedAtMillis; // When token accounts were last loaded, 0 if never
 
     // TODO: Could store wallet total balance in terms of sum of all position balances? Can help evaluate what % of a persons total balance is in a particular token
 
@@ -26,8 +27,26 @@ public class Wallet {
         return positions;
     }
 
-    public void addPosition(Position position) {
-        positions.put(position.getAccountAddress(), position);
+    /**
+     * @return the position previously held for the token account, or null
+     */
+    public Position addPosition(Position position) {
+        return positions.put(position.getAccountAddress(), position);
+    }
+
+    /**
+     * @return the removed position, or null if the token account had none
+     */
+    public Position removePosition(String accountAddress) {
+        return positions.remove(accountAddress);
+    }
+
+    public long getRefreshedAtMillis() {
+        return refreshedAtMillis;
+    }
+
+    public void setRefreshedAtMillis(long refreshedAtMillis) {
+        this.refreshedAtMillis = refreshedAtMillis;
     }
 
     public String getAddress() {
@@ -38,6 +57,10 @@ public class Wallet {
         return solBalance;
     }
 
+    public void setLamports(long lamports) {
+        this.solBalance = lamports / 1000000000.0;
+    }
+
     public PublicKey getPublicKey() {
         return publicKey;
     }
@@ -0,0 +1,29 @@
+package org.core.alerts;
+
+/**
+ * A user-defined alert. mintAddress / walletAddress are null where the kind does not use them, windowSeconds is only
+ * used by PERCENT_MOVE.
+ */
+public record Alert(long id, AlertKind kind, AlertDirection direction, String mintAddress, String walletAddress,
+                    double threshold, long windowSeconds) {
+
+    /**
+     * Key of the value series this alert is indexed under.
+     */
+    public String seriesKey() {
+        return switch (kind) {
+            case TOKEN_PRICE -> mintAddress;
+            case PERCENT_MOVE -> percentMoveKey(mintAddress, windowSeconds);
+            case POSITION_VALUE -> positionKey(walletAddress, mintAddress);
+            case WALLET_TOTAL -> walletAddress;
+        };
+    }
+
+    static String percentMoveKey(String mintAddress, long windowSeconds) {
+        return mintAddress + "@" + windowSeconds;
+    }
+
+    static String positionKey(String walletAddress, String mintAddress) {
+        return walletAddress + "/" + mintAddress;
+    }
+}
@@ -0,0 +1,9 @@
+package org.core.alerts;
+
+/**
+ * Alerts fire when the watched value crosses the threshold in this direction, not while it stays beyond it.
+ */
+public enum AlertDirection {
+    ABOVE,
+    BELOW
+}
@@ -0,0 +1,201 @@
+package org.core.alerts;
+
+import org.core.history.PriceHistoryStore;
+import org.core.metrics.Counter;
+import org.core.metrics.MetricsRegistry;
+import org.core.portfolio.PortfolioSnapshot;
+import org.core.portfolio.PositionSnapshot;
+import org.core.portfolio.WalletSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Evaluates active alerts against price ticks and repricing snapshots using per-series threshold indexes, and delivers
+ * crossings to AlertListeners on a dedicated thread. Each alert fires at most once per cooldown, and at most
+ * maxPerMinute notifications are delivered per minute overall - the rest are dropped & counted.
+ */
+public class AlertEngine {
+
+    private static final Logger logger = Logger.getLogger(AlertEngine.class.getName());
+
+    private static final Counter s_alertsFired = MetricsRegistry.getInstance()
+            .counter("tracker_alerts_fired_total", "Alerts delivered to listeners");
+    private static final Counter s_alertsInCooldown = MetricsRegistry.getInstance()
+            .counter("tracker_alerts_suppressed_total{reason=\"cooldown\"}", "Alert crossings not delivered, by reason");
+    private static final Counter s_alertsRateLimited = MetricsRegistry.getInstance()
+            .counter("tracker_alerts_suppressed_total{reason=\"rate_limit\"}", "Alert crossings not delivered, by reason");
+
+    // Prices & percent moves are written by the market data thread, position & wallet values by the repricing thread
+    private final ThresholdIndex m_priceIndex = new ThresholdIndex();
+    private final ThresholdIndex m_percentMoveIndex = new ThresholdIndex();
+    private final ThresholdIndex m_valueIndex = new ThresholdIndex();
+
+    private final Map<Long, Alert> m_alerts = new ConcurrentHashMap<>();
+    private final Map<String, Set<Long>> m_percentWindowsByMint = new ConcurrentHashMap<>();
+    private final Map<Long, Long> m_lastFiredMillis = new ConcurrentHashMap<>();
+    private final PriceHistoryStore m_priceHistory;
+    private final long m_cooldownMillis;
+    private final int m_maxPerMinute;
+
+    private final List<AlertListener> m_listeners = new CopyOnWriteArrayList<>();
+    private final ExecutorService m_deliveryExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "alert-delivery");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Fixed one-minute delivery window, guarded by this
+    private long m_windowStartMillis;
+    private int m_deliveredInWindow;
+
+    /**
+     * @param priceHistory Reference prices for PERCENT_MOVE alerts, which are ignored if null
+     */
+    public AlertEngine(PriceHistoryStore priceHistory, long cooldownSeconds, int maxPerMinute) {
+        m_priceHistory = priceHistory;
+        m_cooldownMillis = cooldownSeconds * 1000;
+        m_maxPerMinute = maxPerMinute;
+        MetricsRegistry.getInstance().gauge("tracker_alerts_active", "Active alerts", m_alerts::size);
+    }
+
+    public void addListener(AlertListener listener) {
+        m_listeners.add(listener);
+    }
+
+    public void add(Alert alert) {
+        m_alerts.put(alert.id(), alert);
+        indexOf(alert).add(alert);
+        if (alert.kind() == AlertKind.PERCENT_MOVE) {
+            m_percentWindowsByMint.computeIfAbsent(alert.mintAddress(), k -> ConcurrentHashMap.newKeySet()).add(alert.windowSeconds());
+        }
+    }
+
+    public boolean remove(long alertId) {
+        Alert alert = m_alerts.remove(alertId);
+        if (alert == null) return false;
+        indexOf(alert).remove(alert);
+        m_lastFiredMillis.remove(alertId);
+        // Stale percent windows only cost an index miss, so they are left in place
+        return true;
+    }
+
+    public List<Alert> getAlerts() {
+        return List.copyOf(m_alerts.values());
+    }
+
+    /**
+     * Evaluate TOKEN_PRICE and PERCENT_MOVE alerts for a new price. Called per priced token of each Jupiter batch.
+     */
+    public void onPrice(String mintAddress, double usdPrice, long timestampMillis) {
+        // Most tokens have no alerts - skip without allocating
+        if (m_priceIndex.contains(mintAddress)) {
+            List<Alert> crossed = new ArrayList<>();
+            m_priceIndex.onValue(mintAddress, usdPrice, crossed);
+            if (!crossed.isEmpty()) deliver(crossed, usdPrice, timestampMillis);
+        }
+
+        Set<Long> windows = m_percentWindowsByMint.get(mintAddress);
+        if (windows == null || m_priceHistory == null) {
+            return;
+        }
+        for (long windowSeconds : windows) {
+            long windowMillis = windowSeconds * 1000;
+            double reference = m_priceHistory.valueAt(mintAddress, timestampMillis - windowMillis, windowMillis);
+            if (Double.isNaN(reference) || reference == 0) continue;
+
+            double percentMove = (usdPrice - reference) / reference * 100;
+            List<Alert> crossed = new ArrayList<>();
+            m_percentMoveIndex.onValue(Alert.percentMoveKey(mintAddress, windowSeconds), percentMove, crossed);
+            if (!crossed.isEmpty()) deliver(crossed, percentMove, timestampMillis);
+        }
+    }
+
+    /**
+     * Evaluate POSITION_VALUE and WALLET_TOTAL alerts against a repricing epoch.
+     */
+    public void onSnapshot(PortfolioSnapshot snapshot) {
+        if (m_valueIndex.size() == 0) {
+            return;
+        }
+        List<Alert> crossed = new ArrayList<>();
+        for (WalletSnapshot wallet : snapshot.wallets()) {
+            m_valueIndex.onValue(wallet.address(), wallet.usdValue(), crossed);
+            if (!crossed.isEmpty()) {
+                deliver(crossed, wallet.usdValue(), snapshot.timestampMillis());
+                crossed.clear();
+            }
+            for (PositionSnapshot position : wallet.positions()) {
+                String key = Alert.positionKey(wallet.address(), position.mintAddress());
+                m_valueIndex.onValue(key, position.usdValue(), crossed);
+                if (!crossed.isEmpty()) {
+                    deliver(crossed, position.usdValue(), snapshot.timestampMillis());
+                    crossed.clear();
+                }
+            }
+        }
+    }
+
+    public int size() {
+        return m_alerts.size();
+    }
+
+    public void shutdown() {
+        m_deliveryExecutor.shutdownNow();
+    }
+
+    private ThresholdIndex indexOf(Alert alert) {
+        return switch (alert.kind()) {
+            case TOKEN_PRICE -> m_priceIndex;
+            case PERCENT_MOVE -> m_percentMoveIndex;
+            case POSITION_VALUE, WALLET_TOTAL -> m_valueIndex;
+        };
+    }
+
+    private void deliver(List<Alert> crossed, double value, long timestampMillis) {
+        for (Alert alert : crossed) {
+            Long lastFired = m_lastFiredMillis.get(alert.id());
+            if (lastFired != null && timestampMillis - lastFired < m_cooldownMillis) {
+                s_alertsInCooldown.increment();
+                continue;
+            }
+            if (!tryAcquireDelivery(timestampMillis)) {
+                s_alertsRateLimited.increment();
+                continue;
+            }
+            m_lastFiredMillis.put(alert.id(), timestampMillis);
+            s_alertsFired.increment();
+
+            AlertNotification notification = new AlertNotification(alert, value, timestampMillis);
+            m_deliveryExecutor.execute(() -> {
+                for (AlertListener listener : m_listeners) {
+                    try {
+                        listener.onAlert(notification);
+                    } catch (Exception e) {
+                        logger.log(Level.SEVERE, "Alert listener threw an exception", e);
+                    }
+                }
+            });
+        }
+    }
+
+    private synchronized boolean tryAcquireDelivery(long nowMillis) {
+        if (nowMillis - m_windowStartMillis >= 60_000) {
+            m_windowStartMillis = nowMillis;
+            m_deliveredInWindow = 0;
+        }
+        if (m_deliveredInWindow >= m_maxPerMinute) {
+            return false;
+        }
+        m_deliveredInWindow++;
+        return true;
+    }
+}
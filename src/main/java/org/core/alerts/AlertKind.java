@@ -0,0 +1,12 @@
+package org.core.alerts;
+
+/**
+ * What an alert watches. Prices & percent moves are evaluated on each Jupiter price batch, position & wallet values on
+ * each repricing epoch.
+ */
+public enum AlertKind {
+    TOKEN_PRICE,    // USD price of mintAddress
+    PERCENT_MOVE,   // % change of mintAddress's price over the last windowSeconds (threshold e.g. 10 or -10)
+    POSITION_VALUE, // USD value of mintAddress held in walletAddress
+    WALLET_TOTAL    // USD value of walletAddress
+}
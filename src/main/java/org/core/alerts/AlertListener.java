@@ -0,0 +1,8 @@
+package org.core.alerts;
+
+/**
+ * Receives fired alerts on the alert delivery thread, after cooldown & rate limiting.
+ */
+public interface AlertListener {
+    void onAlert(AlertNotification notification);
+}
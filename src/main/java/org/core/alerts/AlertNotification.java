@@ -0,0 +1,18 @@
+package org.core.alerts;
+
+/**
+ * A fired alert with the value that crossed its threshold.
+ */
+public record AlertNotification(Alert alert, double value, long timestampMillis) {
+
+    public String describe() {
+        Alert alert = alert();
+        String subject = switch (alert.kind()) {
+            case TOKEN_PRICE -> String.format("%s price $%.8f", alert.mintAddress(), value);
+            case PERCENT_MOVE -> String.format("%s moved %+.2f%% in %ds", alert.mintAddress(), value, alert.windowSeconds());
+            case POSITION_VALUE -> String.format("%s position in %s worth $%,.2f", alert.mintAddress(), alert.walletAddress(), value);
+            case WALLET_TOTAL -> String.format("Wallet %s worth $%,.2f", alert.walletAddress(), value);
+        };
+        return String.format("Alert #%d: %s (%s %s)", alert.id(), subject, alert.direction().name().toLowerCase(), alert.threshold());
+    }
+}
@@ -0,0 +1,79 @@
+package org.core.alerts;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Alerts per value series, sorted by threshold. A new value only visits the thresholds between the previous and the
+ * new value (a sub-map range), so evaluation cost depends on how many alerts are crossed, not how many exist.
+ */
+final class ThresholdIndex {
+
+    private static final class Series {
+        private final TreeMap<Double, List<Alert>> m_above = new TreeMap<>();
+        private final TreeMap<Double, List<Alert>> m_below = new TreeMap<>();
+        private double m_lastValue = Double.NaN;
+
+        private TreeMap<Double, List<Alert>> side(AlertDirection direction) {
+            return direction == AlertDirection.ABOVE ? m_above : m_below;
+        }
+
+        private boolean isEmpty() {
+            return m_above.isEmpty() && m_below.isEmpty();
+        }
+    }
+
+    private final Map<String, Series> m_series = new HashMap<>();
+    private int m_size;
+
+    synchronized void add(Alert alert) {
+        m_series.computeIfAbsent(alert.seriesKey(), k -> new Series()).side(alert.direction())
+                .computeIfAbsent(alert.threshold(), k -> new ArrayList<>(1)).add(alert);
+        m_size++;
+    }
+
+    synchronized boolean remove(Alert alert) {
+        Series series = m_series.get(alert.seriesKey());
+        if (series == null) return false;
+
+        TreeMap<Double, List<Alert>> side = series.side(alert.direction());
+        List<Alert> alerts = side.get(alert.threshold());
+        if (alerts == null || !alerts.removeIf(a -> a.id() == alert.id())) return false;
+
+        if (alerts.isEmpty()) side.remove(alert.threshold());
+        if (series.isEmpty()) m_series.remove(alert.seriesKey());
+        m_size--;
+        return true;
+    }
+
+    /**
+     * Record the series' new value and add alerts whose threshold it crossed since the previous value to crossed:
+     * ABOVE thresholds in (previous, value], BELOW thresholds in [value, previous). The first value only sets the baseline.
+     */
+    synchronized void onValue(String key, double value, List<Alert> crossed) {
+        Series series = m_series.get(key);
+        if (series == null) return;
+
+        double previous = series.m_lastValue;
+        series.m_lastValue = value;
+        if (Double.isNaN(previous) || Double.isNaN(value) || value == previous) return;
+
+        Map<Double, List<Alert>> range = value > previous
+                ? series.m_above.subMap(previous, false, value, true)
+                : series.m_below.subMap(value, true, previous, false);
+        for (List<Alert> alerts : range.values()) {
+            crossed.addAll(alerts);
+        }
+    }
+
+    synchronized boolean contains(String key) {
+        return m_series.containsKey(key);
+    }
+
+    synchronized int size() {
+        return m_size;
+    }
+}
@@ -0,0 +1,458 @@
+package org.core.api;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.core.alerts.Alert;
+import org.core.alerts.AlertDirection;
+import org.core.alerts.AlertKind;
+import org.core.alerts.AlertNotification;
+import org.core.metrics.MetricsRegistry;
+import org.core.portfolio.*;
+import org.core.processors.Processor;
+import org.core.processors.ProcessorListener;
+import org.core.utils.ConfigUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Local HTTP/JSON API over the tracked portfolio - read-only apart from price alert management.
+ * Each published snapshot is serialised once into cached response bodies which are shared by all requests for that
+ * epoch, with ETag/If-None-Match support. Changes between epochs are pushed to /api/stream subscribers as SSE events.
+ * <p>
+ * Endpoints: /api/wallets, /api/holdings[?wallet=address], /api/totals, /api/overlaps, /api/stream, /api/alerts, /metrics
+ */
+public class PortfolioApiServer {
+
+    private static final Logger logger = Logger.getLogger(PortfolioApiServer.class.getName());
+
+    private static final String WALLETS_PATH = "/api/wallets";
+    private static final String HOLDINGS_PATH = "/api/holdings";
+    private static final String TOTALS_PATH = "/api/totals";
+    private static final String OVERLAPS_PATH = "/api/overlaps";
+    private static final String STREAM_PATH = "/api/stream";
+    private static final String ALERTS_PATH = "/api/alerts";
+    private static final String METRICS_PATH = "/metrics";
+    private static final String WALLET_HOLDINGS_KEY_PREFIX = HOLDINGS_PATH + "?wallet=";
+
+    private static final double MIN_OVERLAP_VALUE = 10000.0; // Same threshold as the overlapping tokens tab
+    private static final int SSE_CLIENT_QUEUE_CAPACITY = 64; // Pending events before a slow subscriber is dropped
+    private static final long SSE_HEARTBEAT_SECONDS = 15;
+    private static final byte[] SSE_HEARTBEAT = ": heartbeat\n\n".getBytes(StandardCharsets.UTF_8);
+
+    private final HttpServer m_httpServer;
+    private final Processor m_processor; // Alerts are managed through it, null to serve snapshots only
+    private final ExecutorService m_requestExecutor;
+    private final ObjectMapper m_mapper = new ObjectMapper();
+    private final Set<SseClient> m_sseClients = ConcurrentHashMap.newKeySet();
+
+    // ETags are prefixed with a per-process id so epochs from a previous run never match
+    private final String m_instanceId = Long.toHexString(System.currentTimeMillis());
+    private volatile CachedResponses m_cachedResponses;
+
+    // Wallet summary (positions omitted) for the /api/wallets endpoint
+    private record WalletSummary(String address, String name, double solBalance, double usdValue, int positionCount) {}
+
+    // POST /api/alerts body
+    record AlertRequest(AlertKind kind, AlertDirection direction, String mintAddress, String walletAddress, Double threshold,
+                        Long windowSeconds) {}
+
+    private record Totals(long epoch, long timestampMillis, int walletCount, int positionCount, double totalUsdValue,
+                          Map<String, Double> walletUsdValues) {}
+
+    // Serialised bodies for one snapshot, keyed by path (and wallet query for per-wallet holdings)
+    private record CachedResponses(PortfolioSnapshot snapshot, String etag, Map<String, byte[]> bodies) {}
+
+    private static final class SseClient {
+        private final BlockingQueue<byte[]> events = new ArrayBlockingQueue<>(SSE_CLIENT_QUEUE_CAPACITY);
+        private final Thread thread = Thread.currentThread();
+    }
+
+    public PortfolioApiServer(InetSocketAddress address) throws IOException {
+        this(address, null);
+    }
+
+    /**
+     * @param processor Target of /api/alerts requests, or null to serve snapshots only
+     */
+    public PortfolioApiServer(InetSocketAddress address, Processor processor) throws IOException {
+        m_processor = processor;
+        m_httpServer = HttpServer.create(address, 0);
+        m_requestExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        m_httpServer.setExecutor(m_requestExecutor);
+        m_httpServer.createContext(WALLETS_PATH, this::handleSnapshotRequest);
+        m_httpServer.createContext(HOLDINGS_PATH, this::handleSnapshotRequest);
+        m_httpServer.createContext(TOTALS_PATH, this::handleSnapshotRequest);
+        m_httpServer.createContext(OVERLAPS_PATH, this::handleSnapshotRequest);
+        m_httpServer.createContext(STREAM_PATH, this::handleStreamRequest);
+        m_httpServer.createContext(ALERTS_PATH, this::handleAlertsRequest);
+        m_httpServer.createContext(METRICS_PATH, this::handleMetricsRequest);
+        m_cachedResponses = serialise(PortfolioSnapshot.EMPTY);
+    }
+
+    /**
+     * Start the API if enabled in tracker.properties and serve the Processor's snapshot after each repricing.
+     * @return the running server, or null if disabled or it failed to start
+     */
+    public static PortfolioApiServer startIfEnabled(Processor processor) {
+        if (!ConfigUtil.getBoolean("tracker.api.enabled", false)) {
+            return null;
+        }
+
+        String host = ConfigUtil.getString("tracker.api.host", "127.0.0.1");
+        int port = ConfigUtil.getInt("tracker.api.port", 8787);
+
+        try {
+            PortfolioApiServer server = new PortfolioApiServer(new InetSocketAddress(host, port), processor);
+            processor.addListener(new ProcessorListener() {
+                @Override
+                public void onMarketDataUpdated() {
+                    server.publish(processor.getPortfolioSnapshot());
+                }
+
+                @Override
+                public void onAlert(AlertNotification notification) {
+                    server.publishAlert(notification);
+                }
+            });
+            server.start();
+            return server;
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, String.format("Failed to start portfolio API on %s:%d", host, port), e);
+            return null;
+        }
+    }
+
+    public void start() {
+        m_httpServer.start();
+        logger.log(Level.INFO, "Portfolio API listening on " + m_httpServer.getAddress());
+    }
+
+    public int getPort() {
+        return m_httpServer.getAddress().getPort();
+    }
+
+    /**
+     * Serialise a new snapshot for all endpoints and push its delta to stream subscribers.
+     */
+    public void publish(PortfolioSnapshot snapshot) {
+        try {
+            CachedResponses previous = m_cachedResponses;
+            m_cachedResponses = serialise(snapshot);
+
+            if (!m_sseClients.isEmpty()) {
+                PortfolioDelta delta = PortfolioDelta.between(previous.snapshot(), snapshot);
+                if (!delta.isEmpty()) {
+                    broadcast(toSseEvent("delta", snapshot.epoch(), m_mapper.writeValueAsBytes(delta)));
+                }
+            }
+        } catch (JsonProcessingException e) {
+            logger.log(Level.SEVERE, "Failed to serialise portfolio snapshot for epoch " + snapshot.epoch(), e);
+        }
+    }
+
+    /**
+     * Push a fired alert to stream subscribers as an "alert" event. It carries no SSE id, so a reconnecting client's
+     * Last-Event-ID stays the last epoch it saw; the alert id is in the data.
+     */
+    public void publishAlert(AlertNotification notification) {
+        if (m_sseClients.isEmpty()) {
+            return;
+        }
+        try {
+            broadcast(toSseEvent("alert", m_mapper.writeValueAsBytes(notification)));
+        } catch (JsonProcessingException e) {
+            logger.log(Level.SEVERE, "Failed to serialise alert " + notification.alert().id(), e);
+        }
+    }
+
+    private CachedResponses serialise(PortfolioSnapshot snapshot) throws JsonProcessingException {
+        Map<String, byte[]> bodies = new HashMap<>();
+
+        List<WalletSummary> walletSummaries = new ArrayList<>(snapshot.wallets().size());
+        List<PositionSnapshot> holdings = new ArrayList<>(snapshot.positionCount());
+        Map<String, Double> walletUsdValues = new LinkedHashMap<>();
+        for (WalletSnapshot wallet : snapshot.wallets()) {
+            walletSummaries.add(new WalletSummary(wallet.address(), wallet.name(), wallet.solBalance(), wallet.usdValue(), wallet.positions().size()));
+            holdings.addAll(wallet.positions());
+            walletUsdValues.put(wallet.address(), wallet.usdValue());
+            bodies.put(WALLET_HOLDINGS_KEY_PREFIX + wallet.address(), m_mapper.writeValueAsBytes(wallet.positions()));
+        }
+        holdings.sort((a, b) -> Double.compare(b.usdValue(), a.usdValue()));
+
+        bodies.put(WALLETS_PATH, m_mapper.writeValueAsBytes(walletSummaries));
+        bodies.put(HOLDINGS_PATH, m_mapper.writeValueAsBytes(holdings));
+        bodies.put(TOTALS_PATH, m_mapper.writeValueAsBytes(new Totals(snapshot.epoch(), snapshot.timestampMillis(),
+                snapshot.wallets().size(), holdings.size(), snapshot.totalUsdValue(), walletUsdValues)));
+        bodies.put(OVERLAPS_PATH, m_mapper.writeValueAsBytes(snapshot.overlaps(MIN_OVERLAP_VALUE)));
+
+        String etag = "\"" + m_instanceId + "-" + snapshot.epoch() + "\"";
+        return new CachedResponses(snapshot, etag, Map.copyOf(bodies));
+    }
+
+    private void handleSnapshotRequest(HttpExchange exchange) throws IOException {
+        try {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                exchange.sendResponseHeaders(405, -1);
+                return;
+            }
+
+            // Read the reference once so headers and body come from the same epoch
+            CachedResponses cached = m_cachedResponses;
+            byte[] body = cached.bodies().get(cacheKey(exchange));
+            if (body == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("ETag", cached.etag());
+            headers.set("Cache-Control", "no-cache");
+            headers.set("X-Portfolio-Epoch", Long.toString(cached.snapshot().epoch()));
+
+            if (matchesIfNoneMatch(exchange.getRequestHeaders().get("If-None-Match"), cached.etag())) {
+                exchange.sendResponseHeaders(304, -1);
+                return;
+            }
+
+            headers.set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * GET /api/alerts lists alerts, POST /api/alerts adds one from an AlertRequest body, DELETE /api/alerts/{id} removes one.
+     */
+    private void handleAlertsRequest(HttpExchange exchange) throws IOException {
+        try {
+            if (m_processor == null) {
+                exchange.sendResponseHeaders(404, -1);
+                return;
+            }
+
+            String path = exchange.getRequestURI().getPath();
+            boolean collection = ALERTS_PATH.equals(path) || (ALERTS_PATH + "/").equals(path);
+            switch (exchange.getRequestMethod()) {
+                case "GET" -> {
+                    if (collection) sendJson(exchange, 200, m_mapper.writeValueAsBytes(m_processor.getAlerts()));
+                    else exchange.sendResponseHeaders(404, -1);
+                }
+                case "POST" -> {
+                    if (collection) addAlert(exchange);
+                    else exchange.sendResponseHeaders(404, -1);
+                }
+                case "DELETE" -> removeAlert(exchange, path.substring(ALERTS_PATH.length()));
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void addAlert(HttpExchange exchange) throws IOException {
+        AlertRequest request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = m_mapper.readValue(in, AlertRequest.class);
+        } catch (JsonProcessingException e) {
+            sendError(exchange, "Invalid alert: " + e.getOriginalMessage());
+            return;
+        }
+
+        String invalid = validate(request);
+        if (invalid != null) {
+            sendError(exchange, invalid);
+            return;
+        }
+        Alert alert = m_processor.addAlert(request.kind(), request.direction(), request.mintAddress(), request.walletAddress(),
+                request.threshold(), request.windowSeconds() != null ? request.windowSeconds() : 0);
+        sendJson(exchange, 201, m_mapper.writeValueAsBytes(alert));
+    }
+
+    private void removeAlert(HttpExchange exchange, String idPath) throws IOException {
+        long alertId;
+        try {
+            alertId = Long.parseLong(idPath.startsWith("/") ? idPath.substring(1) : idPath);
+        } catch (NumberFormatException e) {
+            exchange.sendResponseHeaders(404, -1);
+            return;
+        }
+        exchange.sendResponseHeaders(m_processor.removeAlert(alertId) ? 204 : 404, -1);
+    }
+
+    /**
+     * @return Why the request cannot be added, or null if it is valid
+     */
+    private static String validate(AlertRequest request) {
+        if (request.kind() == null || request.direction() == null || request.threshold() == null) {
+            return "kind, direction and threshold are required";
+        }
+        boolean needsMint = request.kind() != AlertKind.WALLET_TOTAL;
+        boolean needsWallet = request.kind() == AlertKind.POSITION_VALUE || request.kind() == AlertKind.WALLET_TOTAL;
+        if (needsMint && (request.mintAddress() == null || request.mintAddress().isBlank())) {
+            return "mintAddress is required for " + request.kind();
+        }
+        if (needsWallet && (request.walletAddress() == null || request.walletAddress().isBlank())) {
+            return "walletAddress is required for " + request.kind();
+        }
+        if (request.kind() == AlertKind.PERCENT_MOVE && (request.windowSeconds() == null || request.windowSeconds() <= 0)) {
+            return "windowSeconds > 0 is required for PERCENT_MOVE";
+        }
+        return null;
+    }
+
+    private static void sendJson(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private void sendError(HttpExchange exchange, String message) throws IOException {
+        sendJson(exchange, 400, m_mapper.writeValueAsBytes(Map.of("error", message)));
+    }
+
+    /**
+     * Prometheus text endpoint. Rendered per scrape rather than cached as values change continuously.
+     */
+    private void handleMetricsRequest(HttpExchange exchange) throws IOException {
+        try {
+            byte[] body = MetricsRegistry.getInstance().renderPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * If-None-Match per RFC 9110: any of the comma-separated entity tags (on any header line) matching the current one
+     * by weak comparison, or *.
+     */
+    private static boolean matchesIfNoneMatch(List<String> headerValues, String etag) {
+        if (headerValues == null) return false;
+        String opaqueTag = stripWeakPrefix(etag);
+        for (String headerValue : headerValues) {
+            for (String candidate : headerValue.split(",")) {
+                String tag = candidate.trim();
+                if (tag.equals("*") || stripWeakPrefix(tag).equals(opaqueTag)) return true;
+            }
+        }
+        return false;
+    }
+
+    private static String stripWeakPrefix(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private static String cacheKey(HttpExchange exchange) {
+        String path = exchange.getRequestURI().getPath();
+        String wallet = HOLDINGS_PATH.equals(path) ? queryParameter(exchange.getRequestURI().getRawQuery(), "wallet") : null;
+        return wallet != null ? WALLET_HOLDINGS_KEY_PREFIX + wallet : path;
+    }
+
+    /**
+     * @return the decoded value of the first parameter with this name in a raw query string, or null if absent
+     */
+    private static String queryParameter(String rawQuery, String name) {
+        if (rawQuery == null) return null;
+        for (String parameter : rawQuery.split("&")) {
+            int separator = parameter.indexOf('=');
+            String key = separator < 0 ? parameter : parameter.substring(0, separator);
+            if (name.equals(URLDecoder.decode(key, StandardCharsets.UTF_8))) {
+                return separator < 0 ? "" : URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Server-sent events stream. Runs on its own virtual thread for the lifetime of the subscription, writing queued
+     * deltas and a heartbeat comment when idle.
+     */
+    private void handleStreamRequest(HttpExchange exchange) throws IOException {
+        SseClient client = new SseClient();
+        try {
+            Headers headers = exchange.getResponseHeaders();
+            headers.set("Content-Type", "text/event-stream");
+            headers.set("Cache-Control", "no-cache");
+            exchange.sendResponseHeaders(200, 0);
+
+            m_sseClients.add(client);
+            OutputStream out = exchange.getResponseBody();
+            long epoch = m_cachedResponses.snapshot().epoch();
+            out.write(toSseEvent("hello", epoch, ("{\"epoch\":" + epoch + "}").getBytes(StandardCharsets.UTF_8)));
+            out.flush();
+
+            while (!Thread.currentThread().isInterrupted()) {
+                byte[] event = client.events.poll(SSE_HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                out.write(event != null ? event : SSE_HEARTBEAT);
+                out.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            logger.log(Level.FINE, "Stream subscriber disconnected: " + e.getMessage());
+        } finally {
+            m_sseClients.remove(client);
+            exchange.close();
+        }
+    }
+
+    private void broadcast(byte[] event) {
+        for (SseClient client : m_sseClients) {
+            if (!client.events.offer(event)) {
+                // Subscriber is not keeping up - disconnect rather than buffer without bound
+                logger.log(Level.WARNING, "Dropping slow portfolio stream subscriber");
+                m_sseClients.remove(client);
+                client.thread.interrupt();
+            }
+        }
+    }
+
+    private static byte[] toSseEvent(String event, long id, byte[] data) {
+        return sseFrame("event: " + event + "\nid: " + id + "\ndata: ", data);
+    }
+
+    private static byte[] toSseEvent(String event, byte[] data) {
+        return sseFrame("event: " + event + "\ndata: ", data);
+    }
+
+    private static byte[] sseFrame(String header, byte[] data) {
+        byte[] headerBytes = header.getBytes(StandardCharsets.UTF_8);
+        byte[] result = new byte[headerBytes.length + data.length + 2];
+        System.arraycopy(headerBytes, 0, result, 0, headerBytes.length);
+        System.arraycopy(data, 0, result, headerBytes.length, data.length);
+        result[result.length - 2] = '\n';
+        result[result.length - 1] = '\n';
+        return result;
+    }
+
+    public void stop() {
+        logger.log(Level.INFO, "Stopping portfolio API...");
+        for (SseClient client : m_sseClients) {
+            client.thread.interrupt();
+        }
+        m_httpServer.stop(1);
+        m_requestExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,180 @@
+package org.core.cache;
+
+import org.core.accounts.SessionTokenRegistry;
+import org.core.accounts.Token;
+import org.core.metrics.Counter;
+import org.core.metrics.MetricsRegistry;
+import org.core.utils.DatabaseConnUtil;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Keeps the token cache and blacklist coherent across tracker instances sharing a DB. Rows added to token and
+ * BlacklistedTokens publish a NOTIFY (see DatabaseConnUtil); this instance LISTENs on a dedicated connection and applies
+ * other instances' additions, so a token one instance resolved or blacklisted is not looked up or priced again by the
+ * rest. Its own notifications, sent on the shared connection, are ignored.
+ * <p>
+ * Notifications sent while disconnected are lost, so the blacklist is reloaded on reconnecting. Missed tokens need
+ * nothing - they are found in the token table on the next cache miss.
+ */
+public class CacheSyncListener {
+
+    private static final Logger logger = Logger.getLogger(CacheSyncListener.class.getName());
+
+    private static final Counter s_tokensApplied = notifications("token", "applied");
+    private static final Counter s_tokensKnown = notifications("token", "known");
+    private static final Counter s_blacklistApplied = notifications("blacklist", "applied");
+    private static final Counter s_blacklistKnown = notifications("blacklist", "known");
+    private static final Counter s_pricingDropped = MetricsRegistry.getInstance()
+            .counter("tracker_cache_sync_pricing_dropped_total", "Held tokens dropped from pricing because another instance blacklisted them");
+    private static final Counter s_reconnects = MetricsRegistry.getInstance()
+            .counter("tracker_cache_sync_reconnects_total", "Times the cache sync listener connection was re-established");
+
+    private static final int POLL_TIMEOUT_MS = 1000;
+    private static final long RECONNECT_DELAY_MS = 5000;
+
+    private final TokenCache m_tokenCache;
+    private final CopyOnWriteArraySet<String> m_blacklistedTokens;
+    private final SessionTokenRegistry m_sessionTokens;
+    private final int m_ownBackendPid; // Backend of the shared connection this instance publishes on
+    private final Thread m_listener;
+    private volatile boolean m_stopped;
+    private Connection m_connection; // Listener thread only once started
+
+    private static Counter notifications(String channel, String result) {
+        return MetricsRegistry.getInstance().counter("tracker_cache_sync_notifications_total{channel=\"" + channel + "\",result=\"" + result + "\"}",
+                "Token & blacklist additions received from other tracker instances, by whether they were new to this one");
+    }
+
+    /**
+     * @param publishingConnection The shared connection token & blacklist rows are inserted on
+     */
+    public CacheSyncListener(TokenCache tokenCache, CopyOnWriteArraySet<String> blacklistedTokens, SessionTokenRegistry sessionTokens,
+                             Connection publishingConnection) {
+        m_tokenCache = tokenCache;
+        m_blacklistedTokens = blacklistedTokens;
+        m_sessionTokens = sessionTokens;
+        m_ownBackendPid = backendPid(publishingConnection);
+        m_listener = new Thread(this::listen, "cache-sync");
+        m_listener.setDaemon(true);
+    }
+
+    /**
+     * Connect & LISTEN on the calling thread, so additions made after this returns are not missed, then start polling.
+     */
+    public void start() {
+        try {
+            m_connection = connect();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Cache sync listener failed to connect, retrying in the background", e);
+        }
+        m_listener.start();
+    }
+
+    public void shutdown() {
+        m_stopped = true;
+        m_listener.interrupt();
+    }
+
+    private void listen() {
+        boolean reconnecting = m_connection == null;
+        while (!m_stopped) {
+            try {
+                if (m_connection == null) {
+                    m_connection = connect();
+                    if (reconnecting) {
+                        s_reconnects.increment();
+                        DatabaseConnUtil.loadBlacklistedTokensFromDb(m_connection, m_blacklistedTokens);
+                        reconnecting = false;
+                    }
+                }
+                PGNotification[] notifications = m_connection.unwrap(PGConnection.class).getNotifications(POLL_TIMEOUT_MS);
+                if (notifications == null) continue;
+                for (PGNotification notification : notifications) {
+                    if (notification.getPID() != m_ownBackendPid) apply(notification);
+                }
+            } catch (SQLException e) {
+                if (m_stopped) break;
+                logger.log(Level.WARNING, String.format("Cache sync listener disconnected, reconnecting in %dms", RECONNECT_DELAY_MS), e);
+                closeConnection();
+                reconnecting = true;
+                try {
+                    Thread.sleep(RECONNECT_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    break;
+                }
+            }
+        }
+        closeConnection();
+    }
+
+    private Connection connect() throws SQLException {
+        Connection connection = DatabaseConnUtil.openDbConnection();
+        if (connection == null) throw new SQLException("Cache sync listener connection unavailable");
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("LISTEN " + DatabaseConnUtil.TOKEN_CHANNEL);
+            stmt.execute("LISTEN " + DatabaseConnUtil.BLACKLIST_CHANNEL);
+        } catch (SQLException e) {
+            connection.close();
+            throw e;
+        }
+        logger.log(Level.INFO, "Cache sync listener connected");
+        return connection;
+    }
+
+    private void apply(PGNotification notification) {
+        String payload = notification.getParameter();
+        if (DatabaseConnUtil.BLACKLIST_CHANNEL.equals(notification.getName())) {
+            if (!m_blacklistedTokens.add(payload)) {
+                s_blacklistKnown.increment();
+                return;
+            }
+            s_blacklistApplied.increment();
+            // Excluded from the next pricing plan, which would otherwise find no price & blacklist it again
+            if (m_sessionTokens.get(payload) != null) s_pricingDropped.increment();
+            logger.log(Level.FINE, String.format("Token %s blacklisted by another instance", payload));
+            return;
+        }
+
+        try {
+            JSONObject json = new JSONObject(payload);
+            String mintAddress = json.getString("mint");
+            if (m_tokenCache.contains(mintAddress)) {
+                s_tokensKnown.increment();
+                return;
+            }
+            m_tokenCache.put(new Token(mintAddress, json.optString("name"), json.optString("ticker"), json.getInt("decimals")));
+            s_tokensApplied.increment();
+        } catch (JSONException e) {
+            logger.log(Level.WARNING, "Ignoring malformed token notification: " + payload, e);
+        }
+    }
+
+    private void closeConnection() {
+        if (m_connection == null) return;
+        try {
+            m_connection.close();
+        } catch (SQLException e) {
+            logger.log(Level.FINE, "Failed to close cache sync listener connection", e);
+        }
+        m_connection = null;
+    }
+
+    private static int backendPid(Connection connection) {
+        try {
+            return connection.unwrap(PGConnection.class).getBackendPID();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Could not identify the shared DB connection - this instance's own cache notifications will be re-applied", e);
+            return -1;
+        }
+    }
+}
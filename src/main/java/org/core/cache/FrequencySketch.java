@@ -0,0 +1,75 @@
+package org.core.cache;
+
+/**
+ * Approximate access frequency of keys: a count-min sketch of 4-bit counters, four per key, packed 16 to a long.
+ * Every counter is halved once the number of increments reaches ten times the cache size, so frequencies reflect
+ * recent popularity rather than all-time counts.
+ */
+final class FrequencySketch {
+
+    private static final long[] s_seeds = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] m_table;
+    private final int m_tableMask;
+    private final int m_sampleSize;
+    private int m_size;
+
+    FrequencySketch(int maximumSize) {
+        int length = Math.max(8, Integer.highestOneBit(Math.max(1, maximumSize) - 1) << 1);
+        m_table = new long[length];
+        m_tableMask = length - 1;
+        m_sampleSize = 10 * Math.max(1, maximumSize);
+    }
+
+    /**
+     * @return estimated number of recent increments for the key, at most 15
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int i = 0; i < 4; i++) {
+            frequency = Math.min(frequency, (int) ((m_table[indexOf(hash, i)] >>> offsetOf(hash, i)) & 0xF));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int offset = offsetOf(hash, i);
+            if (((m_table[index] >>> offset) & 0xF) != 0xF) {
+                m_table[index] += 1L << offset;
+                added = true;
+            }
+        }
+        if (added && ++m_size >= m_sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < m_table.length; i++) {
+            m_table[i] = (m_table[i] >>> 1) & RESET_MASK;
+        }
+        m_size /= 2;
+    }
+
+    private int indexOf(int hash, int depth) {
+        long h = (hash + s_seeds[depth]) * s_seeds[depth];
+        h += h >>> 32;
+        return (int) h & m_tableMask;
+    }
+
+    private static int offsetOf(int hash, int depth) {
+        return ((hash >>> (depth << 3)) & 0xF) << 2;
+    }
+
+    private static int spread(int hash) {
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+        return (hash >>> 16) ^ hash;
+    }
+}
@@ -0,0 +1,227 @@
+package org.core.cache;
+
+import org.core.accounts.Token;
+import org.core.metrics.Counter;
+import org.core.metrics.MetricsRegistry;
+import org.core.utils.DatabaseConnUtil;
+
+import java.sql.Connection;
+import java.util.*;
+
+/**
+ * Two-level token metadata cache: a size-bounded in-memory level in front of indexed lookups on the token table.
+ * Callers resolve whatever misses both levels from Helius and put the result back.
+ * <p>
+ * The in-memory level follows W-TinyLFU: new tokens enter a small LRU window, and a token leaving the window only
+ * displaces the main area's eviction candidate if it has been looked up more often recently (per FrequencySketch).
+ * The main area is a segmented LRU, so tokens seen once - one wallet's dust, a bulk import - cannot flush the tokens
+ * every wallet holds.
+ */
+public class TokenCache {
+
+    private static final Counter s_memoryHits = MetricsRegistry.getInstance()
+            .counter("tracker_token_metadata_lookups_total{source=\"memory\"}", "Token metadata lookups by source");
+    private static final Counter s_dbHits = MetricsRegistry.getInstance()
+            .counter("tracker_token_metadata_lookups_total{source=\"db\"}", "Token metadata lookups by source");
+    private static final Counter s_misses = MetricsRegistry.getInstance()
+            .counter("tracker_token_cache_misses_total", "Token metadata lookups found in neither the cache nor the DB");
+    private static final Counter s_evictions = MetricsRegistry.getInstance()
+            .counter("tracker_token_cache_evictions_total", "Tokens evicted from (or not admitted to) the in-memory token cache");
+
+    private final Connection m_dbConnection;
+    private final int m_maximumSize;
+    private final int m_maxWindowSize;
+    private final int m_maxProtectedSize;
+
+    // Access-ordered, eldest entry = LRU. All guarded by this
+    private final LinkedHashMap<String, Token> m_window = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Token> m_probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<String, Token> m_protected = new LinkedHashMap<>(16, 0.75f, true);
+    private final FrequencySketch m_sketch;
+
+    /**
+     * @param maximumSize Tokens held in memory
+     * @param dbConnection Second level, or null to use the in-memory level only
+     */
+    public TokenCache(int maximumSize, Connection dbConnection) {
+        m_dbConnection = dbConnection;
+        m_maximumSize = Math.max(1, maximumSize);
+        m_maxWindowSize = Math.max(1, m_maximumSize / 100);
+        m_maxProtectedSize = (int) ((m_maximumSize - m_maxWindowSize) * 0.8);
+        m_sketch = new FrequencySketch(m_maximumSize);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("tracker_token_cache_size", "Tokens held in the in-memory token cache", this::size);
+        metrics.gauge("tracker_token_cache_hit_ratio{level=\"memory\"}", "Token metadata lookups served by each cache level, of those reaching it",
+                () -> ratio(s_memoryHits.get(), s_memoryHits.get() + s_dbHits.get() + s_misses.get()));
+        metrics.gauge("tracker_token_cache_hit_ratio{level=\"db\"}", "Token metadata lookups served by each cache level, of those reaching it",
+                () -> ratio(s_dbHits.get(), s_dbHits.get() + s_misses.get()));
+    }
+
+    /**
+     * @return the token from memory or the DB, or null if neither has it
+     */
+    public Token get(String mintAddress) {
+        Token token = getFromMemory(mintAddress);
+        if (token != null) {
+            s_memoryHits.increment();
+            return token;
+        }
+
+        token = m_dbConnection == null ? null : DatabaseConnUtil.loadTokenFromDb(m_dbConnection, mintAddress);
+        if (token != null) {
+            s_dbHits.increment();
+            insert(token);
+        } else {
+            s_misses.increment();
+        }
+        return token;
+    }
+
+    /**
+     * Resolve many mints at once - those not in memory with a single DB query.
+     * @return the tokens found, keyed by mint address. Mints in neither level are absent
+     */
+    public Map<String, Token> getAll(Collection<String> mintAddresses) {
+        Map<String, Token> found = new HashMap<>();
+        List<String> notInMemory = new ArrayList<>();
+        for (String mintAddress : mintAddresses) {
+            if (found.containsKey(mintAddress)) continue;
+            Token token = getFromMemory(mintAddress);
+            if (token != null) {
+                s_memoryHits.increment();
+                found.put(mintAddress, token);
+            } else {
+                notInMemory.add(mintAddress);
+            }
+        }
+
+        if (!notInMemory.isEmpty()) {
+            Map<String, Token> fromDb = m_dbConnection == null ? Map.of() : DatabaseConnUtil.loadTokensFromDb(m_dbConnection, notInMemory);
+            for (Token token : fromDb.values()) {
+                insert(token);
+                found.put(token.getMintAddress(), token);
+            }
+            s_dbHits.add(fromDb.size());
+            s_misses.add(notInMemory.size() - fromDb.size());
+        }
+        return found;
+    }
+
+    /**
+     * Re-check for a token after a lookup missed, e.g. before resolving it elsewhere. Like contains, this does not count
+     * as a use - the lookup already did.
+     * @return the token if held in memory, else null. The DB is not queried
+     */
+    public synchronized Token getIfPresent(String mintAddress) {
+        Token token = m_window.get(mintAddress);
+        if (token == null) token = m_probation.get(mintAddress);
+        if (token == null) token = m_protected.get(mintAddress);
+        return token;
+    }
+
+    /**
+     * Whether the token is held in memory. Unlike a lookup, this does not count towards keeping it there.
+     */
+    public synchronized boolean contains(String mintAddress) {
+        return m_window.containsKey(mintAddress) || m_probation.containsKey(mintAddress) || m_protected.containsKey(mintAddress);
+    }
+
+    /**
+     * Add or replace a token not looked up first (bulk import, other instances' additions) in memory. It is not written
+     * to the DB. Counts as a use, so such tokens can win admission like looked-up ones.
+     */
+    public synchronized void put(Token token) {
+        m_sketch.increment(token.getMintAddress());
+        insert(token);
+    }
+
+    /**
+     * Add a token resolved elsewhere (e.g. Helius) after a lookup missed. Not counted again as a use - the lookup
+     * already was, so a token seen once enters no stronger than other once-seen tokens. It is not written to the DB.
+     */
+    public void fill(Token token) {
+        insert(token);
+    }
+
+    private synchronized void insert(Token token) {
+        String mintAddress = token.getMintAddress();
+        if (m_window.containsKey(mintAddress)) {
+            m_window.put(mintAddress, token);
+            return;
+        }
+        if (m_probation.containsKey(mintAddress)) {
+            m_probation.put(mintAddress, token);
+            return;
+        }
+        if (m_protected.containsKey(mintAddress)) {
+            m_protected.put(mintAddress, token);
+            return;
+        }
+
+        m_window.put(mintAddress, token);
+        if (m_window.size() > m_maxWindowSize) {
+            Map.Entry<String, Token> candidate = removeEldest(m_window);
+            admit(candidate.getKey(), candidate.getValue());
+        }
+    }
+
+    public synchronized int size() {
+        return m_window.size() + m_probation.size() + m_protected.size();
+    }
+
+    public int getMaximumSize() {
+        return m_maximumSize;
+    }
+
+    private synchronized Token getFromMemory(String mintAddress) {
+        m_sketch.increment(mintAddress);
+
+        Token token = m_window.get(mintAddress);
+        if (token != null) return token;
+
+        token = m_protected.get(mintAddress);
+        if (token != null) return token;
+
+        // Second hit in the main area - promote to protected, demoting its LRU entry if full
+        token = m_probation.remove(mintAddress);
+        if (token != null) {
+            m_protected.put(mintAddress, token);
+            if (m_protected.size() > m_maxProtectedSize) {
+                Map.Entry<String, Token> demoted = removeEldest(m_protected);
+                m_probation.put(demoted.getKey(), demoted.getValue());
+            }
+        }
+        return token;
+    }
+
+    /**
+     * Move a token leaving the window into the main area, if there is room or it is used more than the main area's
+     * eviction candidate.
+     */
+    private void admit(String mintAddress, Token token) {
+        if (m_probation.size() + m_protected.size() < m_maximumSize - m_maxWindowSize) {
+            m_probation.put(mintAddress, token);
+            return;
+        }
+
+        LinkedHashMap<String, Token> victimSegment = m_probation.isEmpty() ? m_protected : m_probation;
+        String victim = victimSegment.keySet().iterator().next();
+        s_evictions.increment();
+        if (m_sketch.frequency(mintAddress) > m_sketch.frequency(victim)) {
+            victimSegment.remove(victim);
+            m_probation.put(mintAddress, token);
+        }
+    }
+
+    private static Map.Entry<String, Token> removeEldest(LinkedHashMap<String, Token> segment) {
+        Iterator<Map.Entry<String, Token>> iterator = segment.entrySet().iterator();
+        Map.Entry<String, Token> eldest = iterator.next();
+        iterator.remove();
+        return Map.entry(eldest.getKey(), eldest.getValue());
+    }
+
+    private static double ratio(long hits, long lookups) {
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+}
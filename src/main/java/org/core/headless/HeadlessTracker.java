@@ -0,0 +1,100 @@
+package org.core.headless;
+
+import org.core.accounts.Wallet;
+import org.core.alerts.AlertNotification;
+import org.core.api.PortfolioApiServer;
+import org.core.portfolio.PortfolioSnapshot;
+import org.core.processors.Processor;
+import org.core.processors.ProcessorListener;
+import org.core.utils.ConfigUtil;
+import org.core.utils.RuntimeStatsUtil;
+import org.resources.ColourFormatter;
+
+import java.util.ServiceLoader;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless entry point - runs wallet loading, market data and repricing without the JavaFX toolkit.
+ * Additional listeners can be plugged in via META-INF/services/org.core.processors.ProcessorListener.
+ * Intervals are configured in tracker.properties (or -D overrides).
+ */
+public class HeadlessTracker {
+
+    static {
+        // Configure logging format before any loggers are used
+        ColourFormatter.installOnRootLogger();
+    }
+
+    private static final Logger logger = Logger.getLogger(HeadlessTracker.class.getName());
+    private static final int SUMMARY_INTERVAL_SECONDS = 60;
+
+    public static void main(String[] args) throws InterruptedException {
+        logger.log(Level.INFO, "Starting headless tracker...");
+        Processor processor = Processor.getInstance();
+        CountDownLatch shutdownLatch = new CountDownLatch(1);
+
+        processor.addListener(new ProcessorListener() {
+            @Override
+            public void onWalletLoaded(Wallet wallet) {
+                logger.log(Level.INFO, String.format("Wallet loaded: %s (%d positions)", wallet.getName(), wallet.getPositions().size()));
+            }
+
+            @Override
+            public void onWalletsLoaded() {
+                logger.log(Level.INFO, "All stored wallets loaded");
+                RuntimeStatsUtil.logStartupStats(logger, "Headless - wallets loaded");
+            }
+
+            @Override
+            public void onAlert(AlertNotification notification) {
+                logger.log(Level.WARNING, notification.describe());
+            }
+        });
+
+        for (ProcessorListener listener : ServiceLoader.load(ProcessorListener.class)) {
+            logger.log(Level.INFO, "Registering processor listener: " + listener.getClass().getName());
+            processor.addListener(listener);
+        }
+
+        // Periodic portfolio summary in place of the UI
+        ScheduledExecutorService summaryScheduler = Executors.newSingleThreadScheduledExecutor();
+        int summaryIntervalSeconds = ConfigUtil.getInt("tracker.headless.summaryIntervalSeconds", SUMMARY_INTERVAL_SECONDS);
+        if (summaryIntervalSeconds > 0) {
+            summaryScheduler.scheduleAtFixedRate(() -> logPortfolioSummary(processor),
+                    summaryIntervalSeconds, summaryIntervalSeconds, TimeUnit.SECONDS);
+        }
+
+        // Local query API (disabled unless tracker.api.enabled=true)
+        PortfolioApiServer apiServer = PortfolioApiServer.startIfEnabled(processor);
+
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            logger.log(Level.INFO, "Shutdown signal received, stopping headless tracker...");
+            summaryScheduler.shutdownNow();
+            if (apiServer != null) {
+                apiServer.stop();
+            }
+            processor.stop();
+            shutdownLatch.countDown();
+        }, "headless-shutdown"));
+
+        processor.start();
+        RuntimeStatsUtil.logStartupStats(logger, "Headless");
+
+        shutdownLatch.await();
+    }
+
+    private static void logPortfolioSummary(Processor processor) {
+        try {
+            PortfolioSnapshot snapshot = processor.getPortfolioSnapshot();
+            logger.log(Level.INFO, String.format("Portfolio (epoch %d): %d wallets, %d positions, total value $%,.2f",
+                    snapshot.epoch(), snapshot.wallets().size(), snapshot.positionCount(), snapshot.totalUsdValue()));
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Failed to log portfolio summary", e);
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.core.helius;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonSetter;
 
 @JsonIgnoreProperties(ignoreUnknown = true)
@@ -13,6 +14,7 @@ public class HeliusAssetResponse {
     @JsonIgnoreProperties(ignoreUnknown = true)
     public static class AssetResult {
         public String id;
+        @JsonProperty("interface")
         public String interfaceType;
         public Content content;
 
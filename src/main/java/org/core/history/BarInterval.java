@@ -0,0 +1,30 @@
+package org.core.history;
+
+/**
+ * OHLC bar widths kept by PriceHistoryStore. Each is built from the next finer level: ticks -> 1m -> 1h -> 1d.
+ */
+public enum BarInterval {
+    MINUTE(60_000L, 1440),
+    HOUR(3_600_000L, 720),
+    DAY(86_400_000L, 1825);
+
+    private final long m_widthMillis;
+    private final int m_defaultCapacity;
+
+    BarInterval(long widthMillis, int defaultCapacity) {
+        m_widthMillis = widthMillis;
+        m_defaultCapacity = defaultCapacity;
+    }
+
+    public long getWidthMillis() {
+        return m_widthMillis;
+    }
+
+    public int getDefaultCapacity() {
+        return m_defaultCapacity;
+    }
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
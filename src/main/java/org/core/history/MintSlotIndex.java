@@ -0,0 +1,67 @@
+package org.core.history;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-mint slot numbers shared by the tick & bar stores. Persisted as one mint address per line, slot = line number.
+ */
+final class MintSlotIndex {
+
+    private final Map<String, Integer> m_slots = new ConcurrentHashMap<>();
+    private final BufferedWriter m_writer;
+
+    MintSlotIndex(Path file) throws IOException {
+        if (Files.exists(file)) {
+            List<String> mints = Files.readAllLines(file, StandardCharsets.UTF_8);
+            for (int slot = 0; slot < mints.size(); slot++) {
+                m_slots.put(mints.get(slot), slot);
+            }
+        }
+        m_writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * @return The mint's slot, or -1 if it has no history
+     */
+    int slotOf(String key) {
+        Integer slot = m_slots.get(key);
+        return slot == null ? -1 : slot;
+    }
+
+    int getOrAssign(String key) {
+        Integer slot = m_slots.get(key);
+        return slot != null ? slot : assign(key);
+    }
+
+    private synchronized int assign(String key) {
+        Integer slot = m_slots.get(key);
+        if (slot != null) return slot;
+
+        int newSlot = m_slots.size();
+        try {
+            m_writer.write(key);
+            m_writer.newLine();
+            m_writer.flush();
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to update price history index", e);
+        }
+        m_slots.put(key, newSlot);
+        return newSlot;
+    }
+
+    Map<String, Integer> slots() {
+        return m_slots;
+    }
+
+    synchronized void close() throws IOException {
+        m_writer.close();
+    }
+}
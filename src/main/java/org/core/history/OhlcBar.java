@@ -0,0 +1,4 @@
+package org.core.history;
+
+public record OhlcBar(long startMillis, double open, double high, double low, double close) {
+}
@@ -0,0 +1,300 @@
+package org.core.history;
+
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.utils.ConfigUtil;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * On-disk value history per series key (a mint for token prices, a wallet for portfolio values). Raw (timestamp, value)
+ * ticks are appended to a memory-mapped ring per key and a background job rolls completed buckets up into 1 minute,
+ * 1 hour and 1 day OHLC bars (ticks -> 1m -> 1h -> 1d), each also a fixed-size ring, so the files never grow beyond
+ * capacity x keys.
+ * <p>
+ * Ticks for a key must be recorded from a single thread (e.g. the market data thread). Reads are safe from any thread.
+ */
+public class PriceHistoryStore {
+
+    private static final Logger logger = Logger.getLogger(PriceHistoryStore.class.getName());
+
+    private static final int DEFAULT_TICK_CAPACITY = 1024;
+    private static final int DEFAULT_SLOTS_PER_SEGMENT = 256;
+    private static final int DEFAULT_DOWNSAMPLE_INTERVAL_SECONDS = 60;
+
+    private final MintSlotIndex m_index;
+    private final RingSegmentStore m_ticks;
+    private final Map<BarInterval, RingSegmentStore> m_bars = new EnumMap<>(BarInterval.class);
+    private final Counter m_ticksRecorded;
+    private final Histogram m_downsampleDuration;
+    private ScheduledExecutorService m_downsampleScheduler;
+
+    // Downsampler thread only
+    private final long[] m_sourceTimestamps;
+    private final double[] m_sourceValues;
+
+    /**
+     * @param name Store label on metrics, e.g. prices
+     */
+    public PriceHistoryStore(String name, Path directory, int tickCapacity, Map<BarInterval, Integer> barCapacities, int slotsPerSegment) throws IOException {
+        m_ticks = new RingSegmentStore(directory, "ticks", 1, tickCapacity, slotsPerSegment);
+        int largestSource = tickCapacity;
+        for (BarInterval interval : BarInterval.values()) {
+            int capacity = barCapacities.getOrDefault(interval, interval.getDefaultCapacity());
+            m_bars.put(interval, new RingSegmentStore(directory, "bars-" + interval.label(), 4, capacity, slotsPerSegment));
+            largestSource = Math.max(largestSource, capacity);
+        }
+        m_index = new MintSlotIndex(directory.resolve("mints.idx"));
+        m_sourceTimestamps = new long[largestSource];
+        m_sourceValues = new double[largestSource * 4];
+
+        String label = "{store=\"" + name + "\"}";
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        m_ticksRecorded = metrics.counter("tracker_history_ticks_total" + label, "Ticks appended to a history store");
+        m_downsampleDuration = metrics.histogram("tracker_history_downsample_seconds" + label, "Duration of a history downsampling pass over all series");
+        metrics.gauge("tracker_history_series" + label, "Series with history on disk", () -> m_index.slots().size());
+    }
+
+    /**
+     * Open the store configured by &lt;configPrefix&gt;.* (dir, tickCapacity, minuteBars, hourBars, dayBars,
+     * slotsPerSegment, downsampleIntervalSeconds) and start downsampling.
+     * @return The store, or null if &lt;configPrefix&gt;.enabled=false or it cannot be opened
+     */
+    public static PriceHistoryStore openIfEnabled(String name, String configPrefix, String defaultDirectory) {
+        if (!ConfigUtil.getBoolean(configPrefix + ".enabled", true)) {
+            return null;
+        }
+
+        Path directory = Path.of(ConfigUtil.getString(configPrefix + ".dir", defaultDirectory));
+        Map<BarInterval, Integer> barCapacities = new EnumMap<>(BarInterval.class);
+        for (BarInterval interval : BarInterval.values()) {
+            barCapacities.put(interval, ConfigUtil.getInt(configPrefix + "." + interval.label() + "Bars", interval.getDefaultCapacity()));
+        }
+
+        try {
+            PriceHistoryStore store = new PriceHistoryStore(name, directory,
+                    ConfigUtil.getInt(configPrefix + ".tickCapacity", DEFAULT_TICK_CAPACITY),
+                    barCapacities,
+                    ConfigUtil.getInt(configPrefix + ".slotsPerSegment", DEFAULT_SLOTS_PER_SEGMENT));
+            store.startDownsampling(ConfigUtil.getInt(configPrefix + ".downsampleIntervalSeconds", DEFAULT_DOWNSAMPLE_INTERVAL_SECONDS));
+            logger.log(Level.INFO, String.format("%s history store opened at %s (%d series)", name, directory.toAbsolutePath(), store.m_index.slots().size()));
+            return store;
+        } catch (IOException | RuntimeException e) {
+            logger.log(Level.SEVERE, String.format("Failed to open %s history store, continuing without it", name), e);
+            return null;
+        }
+    }
+
+    /**
+     * Append a price tick. A tick at or before the mint's latest tick (e.g. the clock stepped back) is stamped 1ms after
+     * it instead, so each ring stays in time order without dropping the price.
+     */
+    public void recordPrice(String mint, long timestampMillis, double price) {
+        int slot = m_index.getOrAssign(mint);
+        long lastTimestamp = m_ticks.lastTimestamp(slot);
+        if (timestampMillis <= lastTimestamp) {
+            timestampMillis = lastTimestamp + 1;
+        }
+        m_ticks.append(slot, timestampMillis, price);
+        m_ticksRecorded.increment();
+    }
+
+    /**
+     * Copy the mint's ticks with fromMillis <= timestamp <= toMillis, oldest first, into the caller's arrays.
+     * @return Number of ticks copied (at most timestamps.length)
+     */
+    public int readTicks(String mint, long fromMillis, long toMillis, long[] timestamps, double[] prices) {
+        int slot = m_index.slotOf(mint);
+        return slot < 0 ? 0 : m_ticks.read(slot, fromMillis, toMillis, timestamps, prices);
+    }
+
+    public List<OhlcBar> readBars(String mint, BarInterval interval, long fromMillis, long toMillis) {
+        int slot = m_index.slotOf(mint);
+        if (slot < 0) {
+            return Collections.emptyList();
+        }
+
+        RingSegmentStore store = m_bars.get(interval);
+        long[] timestamps = new long[store.getCapacity()];
+        double[] values = new double[store.getCapacity() * 4];
+        int count = store.read(slot, fromMillis, toMillis, timestamps, values);
+
+        List<OhlcBar> bars = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            bars.add(new OhlcBar(timestamps[i], values[i * 4], values[i * 4 + 1], values[i * 4 + 2], values[i * 4 + 3]));
+        }
+        return bars;
+    }
+
+    /**
+     * The key's history from fromMillis to now at the finest resolution that still covers fromMillis (ticks, then
+     * 1m/1h/1d bars), or the one reaching furthest back if none does. Ticks are returned as flat bars, and the latest
+     * tick is appended to bar results so the series ends at the current value. At most max(capacity) points.
+     */
+    public List<OhlcBar> readSeries(String key, long fromMillis) {
+        int slot = m_index.slotOf(key);
+        if (slot < 0 || m_ticks.count(slot) == 0) {
+            return Collections.emptyList();
+        }
+
+        BarInterval resolution = null; // null = raw ticks
+        long earliest = m_ticks.firstTimestamp(slot);
+        for (BarInterval interval : BarInterval.values()) {
+            if (earliest <= fromMillis) break;
+            RingSegmentStore bars = m_bars.get(interval);
+            if (bars.count(slot) > 0 && bars.firstTimestamp(slot) < earliest) {
+                resolution = interval;
+                earliest = bars.firstTimestamp(slot);
+            }
+        }
+
+        if (resolution == null) {
+            long[] timestamps = new long[m_ticks.getCapacity()];
+            double[] values = new double[m_ticks.getCapacity()];
+            int count = m_ticks.read(slot, fromMillis, Long.MAX_VALUE, timestamps, values);
+            List<OhlcBar> points = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                points.add(new OhlcBar(timestamps[i], values[i], values[i], values[i], values[i]));
+            }
+            return points;
+        }
+
+        List<OhlcBar> points = new ArrayList<>(readBars(key, resolution, fromMillis, Long.MAX_VALUE));
+        long lastTick = m_ticks.lastTimestamp(slot);
+        long[] timestamp = new long[1];
+        double[] value = new double[1];
+        if (m_ticks.read(slot, lastTick, lastTick, timestamp, value) == 1) {
+            points.add(new OhlcBar(lastTick, value[0], value[0], value[0], value[0]));
+        }
+        return points;
+    }
+
+    /**
+     * Latest value at or before atMillis - the last tick within maxAgeMillis, else the close of the finest bar
+     * covering atMillis.
+     * @return The value, or NaN if the key has no history around atMillis
+     */
+    public double valueAt(String key, long atMillis, long maxAgeMillis) {
+        int slot = m_index.slotOf(key);
+        if (slot < 0) {
+            return Double.NaN;
+        }
+
+        // Point lookups in place - this runs per price tick for percent-move alerts
+        double value = m_ticks.valueAtOrBefore(slot, atMillis - maxAgeMillis, atMillis, 0);
+        if (!Double.isNaN(value)) {
+            return value;
+        }
+        for (BarInterval interval : BarInterval.values()) {
+            value = m_bars.get(interval).valueAtOrBefore(slot, atMillis - interval.getWidthMillis() + 1, atMillis, 3); // Close
+            if (!Double.isNaN(value)) {
+                return value;
+            }
+        }
+        return Double.NaN;
+    }
+
+    public int getTickCapacity() {
+        return m_ticks.getCapacity();
+    }
+
+    public synchronized void startDownsampling(int intervalSeconds) {
+        if (intervalSeconds <= 0 || m_downsampleScheduler != null) {
+            return;
+        }
+        m_downsampleScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "price-history-downsample");
+            thread.setDaemon(true);
+            return thread;
+        });
+        m_downsampleScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                downsample(System.currentTimeMillis());
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, "Price history downsampling failed", e);
+            }
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Roll every completed bucket (bucket end <= nowMillis) up into the next bar level. Only called from the downsampler
+     * thread, or directly when it is not running.
+     */
+    void downsample(long nowMillis) {
+        long startTime = System.nanoTime();
+        for (int slot : m_index.slots().values()) {
+            rollUp(m_ticks, slot, m_bars.get(BarInterval.MINUTE), BarInterval.MINUTE.getWidthMillis(), nowMillis);
+            rollUp(m_bars.get(BarInterval.MINUTE), slot, m_bars.get(BarInterval.HOUR), BarInterval.HOUR.getWidthMillis(), nowMillis);
+            rollUp(m_bars.get(BarInterval.HOUR), slot, m_bars.get(BarInterval.DAY), BarInterval.DAY.getWidthMillis(), nowMillis);
+        }
+        m_downsampleDuration.recordSince(startTime);
+    }
+
+    private void rollUp(RingSegmentStore source, int slot, RingSegmentStore target, long widthMillis, long nowMillis) {
+        long lastBar = target.lastTimestamp(slot);
+        long from = lastBar == Long.MIN_VALUE ? Long.MIN_VALUE : lastBar + widthMillis;
+        long completeBefore = Math.floorDiv(nowMillis, widthMillis) * widthMillis;
+        if (from >= completeBefore) {
+            return;
+        }
+
+        int count = source.read(slot, from, completeBefore - 1, m_sourceTimestamps, m_sourceValues);
+        int stride = source.getValuesPerRecord();
+        long bucket = Long.MIN_VALUE;
+        double open = 0, high = 0, low = 0, close = 0;
+
+        for (int i = 0; i < count; i++) {
+            long recordBucket = Math.floorDiv(m_sourceTimestamps[i], widthMillis) * widthMillis;
+            int base = i * stride;
+            // Ticks carry one price, bars carry open/high/low/close
+            double recordOpen = m_sourceValues[base];
+            double recordHigh = stride == 1 ? recordOpen : m_sourceValues[base + 1];
+            double recordLow = stride == 1 ? recordOpen : m_sourceValues[base + 2];
+            double recordClose = stride == 1 ? recordOpen : m_sourceValues[base + 3];
+
+            if (recordBucket != bucket) {
+                if (bucket != Long.MIN_VALUE) {
+                    target.append(slot, bucket, open, high, low, close);
+                }
+                bucket = recordBucket;
+                open = recordOpen;
+                high = recordHigh;
+                low = recordLow;
+            } else {
+                high = Math.max(high, recordHigh);
+                low = Math.min(low, recordLow);
+            }
+            close = recordClose;
+        }
+
+        if (bucket != Long.MIN_VALUE) {
+            target.append(slot, bucket, open, high, low, close);
+        }
+    }
+
+    public synchronized void close() {
+        if (m_downsampleScheduler != null) {
+            m_downsampleScheduler.shutdownNow();
+            m_downsampleScheduler = null;
+        }
+        m_ticks.force();
+        m_bars.values().forEach(RingSegmentStore::force);
+        try {
+            m_index.close();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to close price history index", e);
+        }
+    }
+}
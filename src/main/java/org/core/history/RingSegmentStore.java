@@ -0,0 +1,286 @@
+package org.core.history;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed-size ring of (timestamp, values...) records per slot, stored in memory-mapped segment files of
+ * slotsPerSegment slots each. Each slot is a 16 byte header (total records appended) followed by capacity records, so
+ * a slot never grows and the oldest records are overwritten once it is full. Each file starts with a header recording
+ * that layout; files written with a different one are moved aside to &lt;file&gt;.old on open rather than misread.
+ * <p>
+ * One writer thread per slot; any number of concurrent readers. The record count is published with release/acquire
+ * ordering after the record is written, and readers drop records overwritten while they were copying.
+ */
+final class RingSegmentStore {
+
+    private static final Logger logger = Logger.getLogger(RingSegmentStore.class.getName());
+
+    private static final int HEADER_BYTES = 16;
+    private static final int FILE_HEADER_BYTES = 64; // magic, version, capacity, record bytes, slots per segment; padded
+    private static final int MAGIC = 0x54524B52; // "TRKR"
+    private static final int VERSION = 1;
+    private static final VarHandle s_longView = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    private final Path m_directory;
+    private final String m_name;
+    private final int m_valuesPerRecord;
+    private final int m_recordBytes;
+    private final int m_capacity;
+    private final int m_slotsPerSegment;
+    private final int m_slotBytes;
+
+    private volatile MappedByteBuffer[] m_segments = new MappedByteBuffer[0];
+
+    RingSegmentStore(Path directory, String name, int valuesPerRecord, int capacity, int slotsPerSegment) throws IOException {
+        m_directory = directory;
+        m_name = name;
+        m_valuesPerRecord = valuesPerRecord;
+        m_recordBytes = Long.BYTES + valuesPerRecord * Double.BYTES;
+        m_capacity = capacity;
+        m_slotsPerSegment = slotsPerSegment;
+
+        long slotBytes = HEADER_BYTES + (long) capacity * m_recordBytes;
+        if (FILE_HEADER_BYTES + slotBytes * slotsPerSegment > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("%s segment of %d slots x %d bytes exceeds 2GB", name, slotsPerSegment, slotBytes));
+        }
+        m_slotBytes = (int) slotBytes;
+        Files.createDirectories(directory);
+        retireIncompatibleSegments();
+    }
+
+    int getCapacity() {
+        return m_capacity;
+    }
+
+    int getValuesPerRecord() {
+        return m_valuesPerRecord;
+    }
+
+    long count(int slot) {
+        return (long) s_longView.getAcquire(segment(slot), slotBase(slot));
+    }
+
+    /**
+     * Timestamp of the newest record, or Long.MIN_VALUE if the slot is empty.
+     */
+    long lastTimestamp(int slot) {
+        MappedByteBuffer segment = segment(slot);
+        int base = slotBase(slot);
+        long count = (long) s_longView.getAcquire(segment, base);
+        return count == 0 ? Long.MIN_VALUE : segment.getLong(recordOffset(base, count - 1));
+    }
+
+    /**
+     * Timestamp of the oldest record still held, or Long.MIN_VALUE if the slot is empty.
+     */
+    long firstTimestamp(int slot) {
+        MappedByteBuffer segment = segment(slot);
+        int base = slotBase(slot);
+        long count = (long) s_longView.getAcquire(segment, base);
+        return count == 0 ? Long.MIN_VALUE : segment.getLong(recordOffset(base, Math.max(0, count - m_capacity)));
+    }
+
+    void append(int slot, long timestamp, double value) {
+        MappedByteBuffer segment = segment(slot);
+        int base = slotBase(slot);
+        long count = (long) s_longView.getAcquire(segment, base);
+        int offset = recordOffset(base, count);
+        segment.putLong(offset, timestamp);
+        segment.putDouble(offset + 8, value);
+        s_longView.setRelease(segment, base, count + 1);
+    }
+
+    void append(int slot, long timestamp, double value0, double value1, double value2, double value3) {
+        MappedByteBuffer segment = segment(slot);
+        int base = slotBase(slot);
+        long count = (long) s_longView.getAcquire(segment, base);
+        int offset = recordOffset(base, count);
+        segment.putLong(offset, timestamp);
+        segment.putDouble(offset + 8, value0);
+        segment.putDouble(offset + 16, value1);
+        segment.putDouble(offset + 24, value2);
+        segment.putDouble(offset + 32, value3);
+        s_longView.setRelease(segment, base, count + 1);
+    }
+
+    /**
+     * Copy records with fromMillis <= timestamp <= toMillis, oldest first, into the caller's arrays.
+     * values receives valuesPerRecord doubles per record.
+     * @return Number of records copied (at most timestamps.length)
+     */
+    int read(int slot, long fromMillis, long toMillis, long[] timestamps, double[] values) {
+        MappedByteBuffer segment = segment(slot);
+        int base = slotBase(slot);
+        long count = (long) s_longView.getAcquire(segment, base);
+        long oldest = Math.max(0, count - m_capacity);
+
+        // Records are in timestamp order - binary search for the first one in range
+        long low = oldest;
+        long high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (segment.getLong(recordOffset(base, mid)) < fromMillis) low = mid + 1;
+            else high = mid;
+        }
+
+        int copied = 0;
+        for (long index = low; index < count && copied < timestamps.length; index++) {
+            int offset = recordOffset(base, index);
+            long timestamp = segment.getLong(offset);
+            if (timestamp > toMillis) break;
+            timestamps[copied] = timestamp;
+            for (int v = 0; v < m_valuesPerRecord; v++) {
+                values[copied * m_valuesPerRecord + v] = segment.getDouble(offset + 8 + v * 8);
+            }
+            copied++;
+        }
+
+        // Drop any records the writer overwrote while we were copying
+        long overwritten = (long) s_longView.getAcquire(segment, base) - m_capacity - low;
+        if (overwritten > 0) {
+            int drop = (int) Math.min(overwritten, copied);
+            System.arraycopy(timestamps, drop, timestamps, 0, copied - drop);
+            System.arraycopy(values, drop * m_valuesPerRecord, values, 0, (copied - drop) * m_valuesPerRecord);
+            copied -= drop;
+        }
+        return copied;
+    }
+
+    /**
+     * One value of the newest record with fromMillis <= timestamp <= toMillis, read in place - for point lookups on hot
+     * paths, where read() would copy up to a whole slot.
+     * @param valueIndex Which of the record's values to return
+     * @return The value, or NaN if there is no such record (or the writer overwrote it while it was being read)
+     */
+    double valueAtOrBefore(int slot, long fromMillis, long toMillis, int valueIndex) {
+        MappedByteBuffer segment = segment(slot);
+        int base = slotBase(slot);
+        long count = (long) s_longView.getAcquire(segment, base);
+        long oldest = Math.max(0, count - m_capacity);
+
+        // Binary search for the first record after toMillis - the one before it is the newest in range
+        long low = oldest;
+        long high = count;
+        while (low < high) {
+            long mid = (low + high) >>> 1;
+            if (segment.getLong(recordOffset(base, mid)) <= toMillis) low = mid + 1;
+            else high = mid;
+        }
+        long index = low - 1;
+        if (index < oldest) {
+            return Double.NaN;
+        }
+
+        int offset = recordOffset(base, index);
+        long timestamp = segment.getLong(offset);
+        double value = segment.getDouble(offset + 8 + valueIndex * 8);
+        if ((long) s_longView.getAcquire(segment, base) - m_capacity > index) {
+            return Double.NaN;
+        }
+        return timestamp >= fromMillis ? value : Double.NaN;
+    }
+
+    void force() {
+        for (MappedByteBuffer segment : m_segments) {
+            if (segment != null) segment.force();
+        }
+    }
+
+    private int slotBase(int slot) {
+        return FILE_HEADER_BYTES + (slot % m_slotsPerSegment) * m_slotBytes;
+    }
+
+    private int recordOffset(int slotBase, long index) {
+        return slotBase + HEADER_BYTES + (int) (index % m_capacity) * m_recordBytes;
+    }
+
+    private MappedByteBuffer segment(int slot) {
+        int segmentIndex = slot / m_slotsPerSegment;
+        MappedByteBuffer[] segments = m_segments;
+        if (segmentIndex < segments.length && segments[segmentIndex] != null) {
+            return segments[segmentIndex];
+        }
+        return mapSegment(segmentIndex);
+    }
+
+    private synchronized MappedByteBuffer mapSegment(int segmentIndex) {
+        MappedByteBuffer[] segments = m_segments;
+        if (segmentIndex < segments.length && segments[segmentIndex] != null) {
+            return segments[segmentIndex];
+        }
+
+        Path file = segmentFile(segmentIndex);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, FILE_HEADER_BYTES + (long) m_slotBytes * m_slotsPerSegment);
+            segment.order(ByteOrder.LITTLE_ENDIAN);
+            if (segment.getInt(0) == 0) {
+                writeFileHeader(segment); // New file
+            } else if (!matchesFileHeader(segment)) {
+                throw new IllegalStateException("Price history segment " + file + " was written with a different layout");
+            }
+
+            MappedByteBuffer[] grown = Arrays.copyOf(segments, Math.max(segments.length, segmentIndex + 1));
+            grown[segmentIndex] = segment;
+            m_segments = grown;
+            return segment;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to map price history segment " + file, e);
+        }
+    }
+
+    private Path segmentFile(int segmentIndex) {
+        return m_directory.resolve(String.format("%s-%04d.seg", m_name, segmentIndex));
+    }
+
+    /**
+     * Move aside segment files whose header doesn't match this store's layout (or that predate headers), so a changed
+     * capacity or record size starts the history afresh instead of reading records at the wrong offsets.
+     */
+    private void retireIncompatibleSegments() throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(m_directory, m_name + "-[0-9][0-9][0-9][0-9].seg")) {
+            for (Path file : files) {
+                retireIfIncompatible(file);
+            }
+        }
+    }
+
+    private void retireIfIncompatible(Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.read(header, 0);
+        }
+        if (header.getInt(0) == 0 || matchesFileHeader(header)) return; // Empty or compatible
+
+        Path retired = file.resolveSibling(file.getFileName() + ".old");
+        Files.move(file, retired, StandardCopyOption.REPLACE_EXISTING);
+        logger.log(Level.WARNING, String.format("Price history segment %s has a different layout than %d records of %d bytes x %d slots, moved to %s",
+                file, m_capacity, m_recordBytes, m_slotsPerSegment, retired.getFileName()));
+    }
+
+    private void writeFileHeader(ByteBuffer segment) {
+        segment.putInt(4, VERSION);
+        segment.putInt(8, m_capacity);
+        segment.putInt(12, m_recordBytes);
+        segment.putInt(16, m_slotsPerSegment);
+        segment.putInt(0, MAGIC);
+    }
+
+    private boolean matchesFileHeader(ByteBuffer segment) {
+        return segment.getInt(0) == MAGIC && segment.getInt(4) == VERSION && segment.getInt(8) == m_capacity
+                && segment.getInt(12) == m_recordBytes && segment.getInt(16) == m_slotsPerSegment;
+    }
+}
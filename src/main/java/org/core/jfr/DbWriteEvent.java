@@ -0,0 +1,27 @@
+package org.core.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.core.DbWrite")
+@Label("DB Write")
+@Category({"Wallet Tracker", "Database"})
+@Description("A single write through DatabaseConnUtil")
+@StackTrace(false)
+public class DbWriteEvent extends Event {
+
+    @Label("Table")
+    public String table;
+
+    @Label("Wallet")
+    public String wallet;
+
+    @Label("Mint")
+    public String mint;
+
+    @Label("Mint Count")
+    @Description("Rows written")
+    public int mintCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
@@ -0,0 +1,24 @@
+package org.core.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.core.HeliusMetadata")
+@Label("Helius Metadata Fetch")
+@Category({"Wallet Tracker", "Network"})
+@Description("Fetching and parsing token metadata from Helius getAsset (WalletService.createTokenUsingHelius)")
+@StackTrace(false)
+public class HeliusMetadataEvent extends Event {
+
+    @Label("Wallet")
+    public String wallet;
+
+    @Label("Mint")
+    public String mint;
+
+    @Label("Mint Count")
+    public int mintCount = 1;
+
+    @Label("Outcome")
+    @Description("ok, unknown_token, not_found, parse_error or error")
+    public String outcome;
+}
@@ -0,0 +1,57 @@
+package org.core.jfr;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.core.utils.ConfigUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Starts a continuous, size & age bounded JFR recording using the JDK default profile plus the tracker's own events
+ * (jfr/wallet-tracker.jfc). The recording is dumped on exit or on demand with: jcmd <pid> JFR.dump name=wallet-tracker
+ */
+public class JfrRecordingUtil {
+
+    private static final Logger logger = Logger.getLogger(JfrRecordingUtil.class.getName());
+    private static final String s_trackerProfile = "/jfr/wallet-tracker.jfc";
+
+    public static Recording startIfEnabled() {
+        if (!ConfigUtil.getBoolean("tracker.jfr.enabled", false)) {
+            return null;
+        }
+
+        try {
+            Map<String, String> settings = new HashMap<>(Configuration.getConfiguration("default").getSettings());
+            try (InputStream input = JfrRecordingUtil.class.getResourceAsStream(s_trackerProfile)) {
+                if (input != null) {
+                    settings.putAll(Configuration.create(new InputStreamReader(input, StandardCharsets.UTF_8)).getSettings());
+                }
+            }
+
+            Recording recording = new Recording(settings);
+            recording.setName("wallet-tracker");
+            recording.setToDisk(true);
+            recording.setMaxAge(Duration.ofMinutes(ConfigUtil.getLong("tracker.jfr.maxAgeMinutes", 60)));
+            recording.setMaxSize(ConfigUtil.getLong("tracker.jfr.maxSizeMb", 100) * 1024 * 1024);
+            recording.setDumpOnExit(true);
+            recording.setDestination(Path.of(ConfigUtil.getString("tracker.jfr.file", "wallet-tracker.jfr")));
+            recording.start();
+
+            logger.log(Level.INFO, "Started continuous JFR recording 'wallet-tracker', dumping to " + recording.getDestination());
+            return recording;
+        } catch (IOException | ParseException | IllegalStateException | SecurityException e) {
+            logger.log(Level.WARNING, "Failed to start JFR recording", e);
+            return null;
+        }
+    }
+}
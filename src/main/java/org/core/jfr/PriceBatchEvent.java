@@ -0,0 +1,31 @@
+package org.core.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.core.PriceBatch")
+@Label("Price Batch")
+@Category({"Wallet Tracker", "Network"})
+@Description("One Jupiter price request and the market data updates applied from it (MarketDataProcessor)")
+@StackTrace(false)
+public class PriceBatchEvent extends Event {
+
+    @Label("Batch")
+    public int batch;
+
+    @Label("Batch Count")
+    public int batchCount;
+
+    @Label("Mint Count")
+    @Description("Mints requested in this batch")
+    public int mintCount;
+
+    @Label("Priced")
+    public int pricedCount;
+
+    @Label("Blacklisted")
+    @Description("Mints blacklisted because Jupiter returned no price")
+    public int blacklistedCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
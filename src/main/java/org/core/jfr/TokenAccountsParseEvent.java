@@ -0,0 +1,32 @@
+package org.core.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.core.TokenAccountsParse")
+@Label("Token Accounts Parse")
+@Category({"Wallet Tracker", "Wallets"})
+@Description("Resolving a wallet's token accounts into positions, including waits on metadata lookups")
+@StackTrace(false)
+public class TokenAccountsParseEvent extends Event {
+
+    @Label("Wallet")
+    public String wallet;
+
+    @Label("Token Accounts")
+    public int accountCount;
+
+    @Label("Mint Count")
+    @Description("Token accounts with a non-zero balance")
+    public int mintCount;
+
+    @Label("Helius Fetches")
+    @Description("Mints not in the token cache that required a Helius lookup")
+    public int heliusFetches;
+
+    @Label("Skipped Accounts")
+    @Description("NFT, dust & blacklisted accounts skipped before metadata lookup")
+    public int skippedAccounts;
+
+    @Label("Outcome")
+    public String outcome;
+}
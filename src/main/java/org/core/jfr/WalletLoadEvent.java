@@ -0,0 +1,24 @@
+package org.core.jfr;
+
+import jdk.jfr.*;
+
+@Name("org.core.WalletLoad")
+@Label("Wallet Load")
+@Category({"Wallet Tracker", "Wallets"})
+@Description("Loading a wallet's SOL account and token positions (WalletService.processWalletForJavaFX)")
+@StackTrace(false)
+public class WalletLoadEvent extends Event {
+
+    @Label("Wallet")
+    public String wallet;
+
+    @Label("Wallet Name")
+    public String walletName;
+
+    @Label("Mint Count")
+    @Description("Positions held by the wallet after loading")
+    public int mintCount;
+
+    @Label("Outcome")
+    public String outcome;
+}
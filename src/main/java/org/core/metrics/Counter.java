@@ -0,0 +1,23 @@
+package org.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonically increasing count. Increments are contention-free (LongAdder) and allocation-free.
+ */
+public class Counter {
+
+    private final LongAdder m_count = new LongAdder();
+
+    public void increment() {
+        m_count.increment();
+    }
+
+    public void add(long amount) {
+        m_count.add(amount);
+    }
+
+    public long get() {
+        return m_count.sum();
+    }
+}
@@ -0,0 +1,171 @@
+package org.core.metrics;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide registry of counters, gauges and latency histograms.
+ * Metric names may carry Prometheus labels, e.g. tracker_db_write_seconds{table="token"}. Look metrics up once and keep
+ * the reference (e.g. in a static field) so the hot path only touches the metric itself.
+ */
+public class MetricsRegistry {
+
+    private static final Logger logger = Logger.getLogger(MetricsRegistry.class.getName());
+    private static final double[] s_quantiles = {0.5, 0.9, 0.99, 0.999};
+
+    private final Map<String, Counter> m_counters = new ConcurrentHashMap<>();
+    private final Map<String, DoubleSupplier> m_gauges = new ConcurrentHashMap<>();
+    private final Map<String, Histogram> m_histograms = new ConcurrentHashMap<>();
+    private final Map<String, String> m_help = new ConcurrentHashMap<>();
+    private ScheduledExecutorService m_dumpScheduler;
+
+    private MetricsRegistry() {
+    }
+
+    private static class SingletonHolder {
+        private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    }
+
+    public static MetricsRegistry getInstance() {
+        return SingletonHolder.INSTANCE;
+    }
+
+    public Counter counter(String name, String help) {
+        m_help.putIfAbsent(baseName(name), help);
+        return m_counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * Register (or replace) a gauge sampled when metrics are rendered.
+     */
+    public void gauge(String name, String help, DoubleSupplier supplier) {
+        m_help.putIfAbsent(baseName(name), help);
+        m_gauges.put(name, supplier);
+    }
+
+    public Histogram histogram(String name, String help) {
+        m_help.putIfAbsent(baseName(name), help);
+        return m_histograms.computeIfAbsent(name, k -> new Histogram());
+    }
+
+    /**
+     * Render all metrics in Prometheus text exposition format. Histograms are exposed as summaries in seconds.
+     */
+    public String renderPrometheus() {
+        StringBuilder sb = new StringBuilder(4096);
+
+        String previousBase = null;
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(m_counters).entrySet()) {
+            previousBase = appendHeader(sb, entry.getKey(), "counter", previousBase);
+            sb.append(entry.getKey()).append(' ').append(entry.getValue().get()).append('\n');
+        }
+
+        previousBase = null;
+        for (Map.Entry<String, DoubleSupplier> entry : new TreeMap<>(m_gauges).entrySet()) {
+            previousBase = appendHeader(sb, entry.getKey(), "gauge", previousBase);
+            double value;
+            try {
+                value = entry.getValue().getAsDouble();
+            } catch (Exception e) {
+                value = Double.NaN;
+            }
+            sb.append(entry.getKey()).append(' ').append(value).append('\n');
+        }
+
+        previousBase = null;
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(m_histograms).entrySet()) {
+            String name = entry.getKey();
+            Histogram histogram = entry.getValue();
+            previousBase = appendHeader(sb, name, "summary", previousBase);
+            for (double quantile : s_quantiles) {
+                sb.append(withLabel(name, "quantile", Double.toString(quantile))).append(' ')
+                        .append(toSeconds(histogram.getQuantileNanos(quantile))).append('\n');
+            }
+            sb.append(withSuffix(name, "_sum")).append(' ').append(toSeconds(histogram.getSumNanos())).append('\n');
+            sb.append(withSuffix(name, "_count")).append(' ').append(histogram.getCount()).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    /**
+     * Log a compact summary of all metrics every intervalSeconds. A no-op if already running or intervalSeconds <= 0.
+     */
+    public synchronized void startPeriodicDump(int intervalSeconds) {
+        if (intervalSeconds <= 0 || m_dumpScheduler != null) {
+            return;
+        }
+        m_dumpScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "metrics-dump");
+            thread.setDaemon(true);
+            return thread;
+        });
+        m_dumpScheduler.scheduleAtFixedRate(this::logSummary, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    public synchronized void stopPeriodicDump() {
+        if (m_dumpScheduler != null) {
+            m_dumpScheduler.shutdownNow();
+            m_dumpScheduler = null;
+        }
+    }
+
+    private void logSummary() {
+        StringBuilder sb = new StringBuilder("Metrics summary:");
+        for (Map.Entry<String, Histogram> entry : new TreeMap<>(m_histograms).entrySet()) {
+            Histogram histogram = entry.getValue();
+            if (histogram.getCount() == 0) continue;
+            sb.append(String.format("%n  %s count=%d p50=%.1fms p99=%.1fms max=%.1fms", entry.getKey(), histogram.getCount(),
+                    histogram.getQuantileNanos(0.5) / 1e6, histogram.getQuantileNanos(0.99) / 1e6, histogram.getMaxNanos() / 1e6));
+        }
+        for (Map.Entry<String, Counter> entry : new TreeMap<>(m_counters).entrySet()) {
+            sb.append(String.format("%n  %s %d", entry.getKey(), entry.getValue().get()));
+        }
+        for (Map.Entry<String, DoubleSupplier> entry : new TreeMap<>(m_gauges).entrySet()) {
+            try {
+                sb.append(String.format("%n  %s %.2f", entry.getKey(), entry.getValue().getAsDouble()));
+            } catch (Exception e) {
+                sb.append(String.format("%n  %s n/a", entry.getKey()));
+            }
+        }
+        logger.log(Level.INFO, sb.toString());
+    }
+
+    private String appendHeader(StringBuilder sb, String name, String type, String previousBase) {
+        String base = baseName(name);
+        if (!base.equals(previousBase)) {
+            sb.append("# HELP ").append(base).append(' ').append(m_help.getOrDefault(base, base)).append('\n');
+            sb.append("# TYPE ").append(base).append(' ').append(type).append('\n');
+        }
+        return base;
+    }
+
+    private static String baseName(String name) {
+        int labelStart = name.indexOf('{');
+        return labelStart < 0 ? name : name.substring(0, labelStart);
+    }
+
+    private static String withLabel(String name, String label, String value) {
+        int labelStart = name.indexOf('{');
+        if (labelStart < 0) {
+            return name + "{" + label + "=\"" + value + "\"}";
+        }
+        return name.substring(0, name.length() - 1) + "," + label + "=\"" + value + "\"}";
+    }
+
+    private static String withSuffix(String name, String suffix) {
+        int labelStart = name.indexOf('{');
+        return labelStart < 0 ? name + suffix : name.substring(0, labelStart) + suffix + name.substring(labelStart);
+    }
+
+    private static double toSeconds(long nanos) {
+        return nanos / 1_000_000_000.0;
+    }
+}
@@ -0,0 +1,149 @@
+package org.core.pipeline;
+
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * One stage of the wallet → metadata → pricing → aggregation pipeline: a bounded input queue drained by a fixed number
+ * of worker threads sized for the stage's upstream limits. Producers block in submit() while the queue is full, so a
+ * slow stage holds back the stages feeding it instead of buffering without limit.
+ * <p>
+ * Workers hand the handler up to maxBatchSize queued items at a time. With an idle time the handler is also called
+ * with an empty batch after that long without input, for stages that do periodic work as well.
+ */
+public class PipelineStage<T> {
+
+    private static final Logger logger = Logger.getLogger(PipelineStage.class.getName());
+
+    private final String m_name;
+    private final BlockingQueue<T> m_queue;
+    private final int m_maxBatchSize;
+    private final LongSupplier m_idleMillis; // Null to wait for input indefinitely
+    private final Consumer<List<T>> m_handler;
+    private final List<Thread> m_workers = new ArrayList<>();
+    private volatile boolean m_stopped;
+
+    private final Counter m_items;
+    private final Histogram m_batchLatency;
+    private final Histogram m_blocked;
+
+    /**
+     * @param name Stage name, used for worker thread names & the stage label of its metrics
+     * @param capacity Queued items before producers block
+     * @param workers Worker threads, i.e. the stage's concurrency
+     * @param maxBatchSize Most items handed to the handler in one call
+     * @param idleMillis Call the handler with an empty batch after this long without input, 0 to wait indefinitely
+     */
+    public PipelineStage(String name, int capacity, int workers, int maxBatchSize, long idleMillis, Consumer<List<T>> handler) {
+        this(name, capacity, workers, maxBatchSize, idleMillis > 0 ? () -> idleMillis : null, handler);
+    }
+
+    /**
+     * @param idleMillis Asked before each wait for input: how long until the handler is due with an empty batch (0 or
+     *                   less if already due). For stages that pace themselves
+     */
+    public PipelineStage(String name, int capacity, int workers, int maxBatchSize, LongSupplier idleMillis, Consumer<List<T>> handler) {
+        m_name = name;
+        m_queue = new ArrayBlockingQueue<>(Math.max(1, capacity));
+        m_maxBatchSize = Math.max(1, maxBatchSize);
+        m_idleMillis = idleMillis;
+        m_handler = handler;
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        String label = "{stage=\"" + name + "\"}";
+        m_items = metrics.counter("tracker_pipeline_items_total" + label, "Items processed by each pipeline stage");
+        m_batchLatency = metrics.histogram("tracker_pipeline_batch_seconds" + label, "Time each pipeline stage takes to handle a batch");
+        m_blocked = metrics.histogram("tracker_pipeline_blocked_seconds" + label, "Time producers wait for room in a full pipeline stage queue");
+        metrics.gauge("tracker_pipeline_queue_depth" + label, "Items waiting in each pipeline stage queue", m_queue::size);
+
+        for (int i = 0; i < Math.max(1, workers); i++) {
+            Thread worker = new Thread(this::runWorker, name + "-" + i);
+            worker.setDaemon(true);
+            m_workers.add(worker);
+        }
+    }
+
+    /**
+     * Start the workers. Items submitted before this wait in the queue.
+     */
+    public void start() {
+        m_workers.forEach(Thread::start);
+    }
+
+    /**
+     * Queue an item, waiting while the stage is full.
+     */
+    public void submit(T item) throws InterruptedException {
+        if (m_queue.offer(item)) return;
+
+        long startTime = System.nanoTime();
+        m_queue.put(item);
+        m_blocked.recordSince(startTime);
+    }
+
+    /**
+     * Queue an item unless the stage is full. For triggers where a full queue already means the work will happen.
+     * @return true if queued
+     */
+    public boolean offer(T item) {
+        return m_queue.offer(item);
+    }
+
+    /**
+     * Stop the workers, interrupting batches in progress.
+     * @return the items still queued, which will not be handled
+     */
+    public List<T> shutdown() {
+        m_stopped = true;
+        m_workers.forEach(Thread::interrupt);
+        List<T> unhandled = new ArrayList<>();
+        m_queue.drainTo(unhandled);
+        return unhandled;
+    }
+
+    public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        for (Thread worker : m_workers) {
+            worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+            if (worker.isAlive()) return false;
+        }
+        return true;
+    }
+
+    private void runWorker() {
+        List<T> batch = new ArrayList<>(m_maxBatchSize);
+        while (!m_stopped) {
+            try {
+                T first = m_idleMillis != null ? m_queue.poll(Math.max(0, m_idleMillis.getAsLong()), TimeUnit.MILLISECONDS) : m_queue.take();
+                if (first != null) {
+                    batch.add(first);
+                    m_queue.drainTo(batch, m_maxBatchSize - 1);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            long startTime = System.nanoTime();
+            try {
+                m_handler.accept(batch);
+            } catch (Exception e) {
+                logger.log(Level.SEVERE, String.format("Pipeline stage %s failed on a batch of %d", m_name, batch.size()), e);
+            } finally {
+                m_batchLatency.recordSince(startTime);
+                m_items.add(batch.size());
+                batch.clear();
+            }
+        }
+    }
+}
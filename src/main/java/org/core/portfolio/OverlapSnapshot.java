@@ -0,0 +1,13 @@
+package org.core.portfolio;
+
+import java.util.List;
+
+/**
+ * A token held by more than one wallet, with its combined USD value.
+ */
+public record OverlapSnapshot(String mintAddress, String name, String ticker, double totalUsdValue, List<String> walletNames) {
+
+    public int walletCount() {
+        return walletNames.size();
+    }
+}
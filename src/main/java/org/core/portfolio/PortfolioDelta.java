@@ -0,0 +1,40 @@
+package org.core.portfolio;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Positions that changed between two portfolio snapshots. Positions are matched by token account address.
+ */
+public record PortfolioDelta(long epoch, long previousEpoch, double totalUsdValue, List<PositionSnapshot> changed,
+                             List<String> removed) {
+
+    public static PortfolioDelta between(PortfolioSnapshot previous, PortfolioSnapshot next) {
+        Map<String, PositionSnapshot> previousPositions = new HashMap<>();
+        for (WalletSnapshot wallet : previous.wallets()) {
+            for (PositionSnapshot position : wallet.positions()) {
+                previousPositions.put(position.accountAddress(), position);
+            }
+        }
+
+        List<PositionSnapshot> changed = new ArrayList<>();
+        for (WalletSnapshot wallet : next.wallets()) {
+            for (PositionSnapshot position : wallet.positions()) {
+                PositionSnapshot previousPosition = previousPositions.remove(position.accountAddress());
+                if (!position.equals(previousPosition)) {
+                    changed.add(position);
+                }
+            }
+        }
+
+        // Anything left was not present in the new snapshot
+        List<String> removed = new ArrayList<>(previousPositions.keySet());
+        return new PortfolioDelta(next.epoch(), previous.epoch(), next.totalUsdValue(), changed, removed);
+    }
+
+    public boolean isEmpty() {
+        return changed.isEmpty() && removed.isEmpty();
+    }
+}
@@ -0,0 +1,80 @@
+package org.core.portfolio;
+
+import org.core.accounts.Wallet;
+
+import java.util.*;
+
+/**
+ * Immutable view of all tracked wallets at a single repricing epoch. Readers can hold on to a snapshot and iterate it
+ * freely while the live Wallet/Position objects continue to be updated.
+ */
+public record PortfolioSnapshot(long epoch, long timestampMillis, List<WalletSnapshot> wallets, double totalUsdValue) {
+
+    public static final PortfolioSnapshot EMPTY = new PortfolioSnapshot(0, 0, List.of(), 0);
+
+    public static PortfolioSnapshot capture(long epoch, Collection<Wallet> wallets) {
+        List<WalletSnapshot> walletSnapshots = new ArrayList<>(wallets.size());
+        double totalUsdValue = 0;
+        for (Wallet wallet : wallets) {
+            WalletSnapshot walletSnapshot = WalletSnapshot.of(wallet);
+            walletSnapshots.add(walletSnapshot);
+            totalUsdValue += walletSnapshot.usdValue();
+        }
+        return new PortfolioSnapshot(epoch, System.currentTimeMillis(), List.copyOf(walletSnapshots), totalUsdValue);
+    }
+
+    public int positionCount() {
+        int count = 0;
+        for (WalletSnapshot wallet : wallets) {
+            count += wallet.positions().size();
+        }
+        return count;
+    }
+
+    /**
+     * USD value held per mint across all wallets.
+     */
+    public Map<String, Double> usdValueByMint() {
+        Map<String, Double> valueByMint = new HashMap<>();
+        for (WalletSnapshot wallet : wallets) {
+            for (PositionSnapshot position : wallet.positions()) {
+                valueByMint.merge(position.mintAddress(), position.usdValue(), Double::sum);
+            }
+        }
+        return valueByMint;
+    }
+
+    /**
+     * Tokens held in more than one wallet with a combined value of at least minTotalValue, sorted by value descending.
+     */
+    public List<OverlapSnapshot> overlaps(double minTotalValue) {
+        Map<String, List<PositionSnapshot>> positionsByMint = new HashMap<>();
+        Map<String, String> walletNames = new HashMap<>();
+        for (WalletSnapshot wallet : wallets) {
+            walletNames.put(wallet.address(), wallet.name());
+            for (PositionSnapshot position : wallet.positions()) {
+                positionsByMint.computeIfAbsent(position.mintAddress(), k -> new ArrayList<>()).add(position);
+            }
+        }
+
+        List<OverlapSnapshot> overlaps = new ArrayList<>();
+        for (List<PositionSnapshot> positions : positionsByMint.values()) {
+            if (positions.size() <= 1) continue;
+
+            double totalValue = 0;
+            List<String> names = new ArrayList<>(positions.size());
+            for (PositionSnapshot position : positions) {
+                totalValue += position.usdValue();
+                names.add(walletNames.get(position.walletAddress()));
+            }
+
+            if (totalValue < minTotalValue) continue;
+
+            PositionSnapshot first = positions.get(0);
+            overlaps.add(new OverlapSnapshot(first.mintAddress(), first.name(), first.ticker(), totalValue, List.copyOf(names)));
+        }
+
+        overlaps.sort((a, b) -> Double.compare(b.totalUsdValue(), a.totalUsdValue()));
+        return overlaps;
+    }
+}
@@ -0,0 +1,67 @@
+package org.core.portfolio;
+
+import org.core.accounts.Wallet;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Publishes immutable portfolio snapshots with a monotonically increasing epoch.
+ * Only the repricing thread publishes; any number of readers call {@link #current()} without locking and get a
+ * portfolio that existed as a whole at one moment.
+ */
+public class PortfolioSnapshotPublisher {
+
+    private static final Logger logger = Logger.getLogger(PortfolioSnapshotPublisher.class.getName());
+    private static final Histogram s_publishLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_snapshot_publish_seconds", "Time to capture and publish a portfolio snapshot");
+
+    private final AtomicReference<PortfolioSnapshot> m_current = new AtomicReference<>(PortfolioSnapshot.EMPTY);
+
+    // Publishing cost, measured on the publishing thread
+    private final com.sun.management.ThreadMXBean m_threadMXBean;
+    private volatile long m_lastPublishNanos;
+    private volatile long m_lastPublishAllocatedBytes;
+
+    public PortfolioSnapshotPublisher() {
+        m_threadMXBean = ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported() ? bean : null;
+    }
+
+    /**
+     * Capture the given wallets as the next epoch and make it visible to readers.
+     */
+    public PortfolioSnapshot publish(Collection<Wallet> wallets) {
+        long allocatedBefore = m_threadMXBean != null ? m_threadMXBean.getCurrentThreadAllocatedBytes() : 0;
+        long startTime = System.nanoTime();
+
+        PortfolioSnapshot snapshot = PortfolioSnapshot.capture(m_current.get().epoch() + 1, wallets);
+        m_current.set(snapshot);
+
+        m_lastPublishNanos = System.nanoTime() - startTime;
+        s_publishLatency.record(m_lastPublishNanos);
+        m_lastPublishAllocatedBytes = m_threadMXBean != null ? m_threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore : -1;
+
+        logger.log(Level.INFO, String.format("Published portfolio snapshot epoch %d (%d wallets, %d positions) in %.3f ms, allocated %d KB",
+                snapshot.epoch(), snapshot.wallets().size(), snapshot.positionCount(),
+                m_lastPublishNanos / 1_000_000.0, m_lastPublishAllocatedBytes / 1024));
+        return snapshot;
+    }
+
+    public PortfolioSnapshot current() {
+        return m_current.get();
+    }
+
+    public long getLastPublishNanos() {
+        return m_lastPublishNanos;
+    }
+
+    public long getLastPublishAllocatedBytes() {
+        return m_lastPublishAllocatedBytes;
+    }
+}
@@ -0,0 +1,34 @@
+package org.core.portfolio;
+
+import org.core.accounts.Position;
+import org.core.accounts.Token;
+import org.core.prices.MarketData;
+
+/**
+ * Immutable copy of a Position at a given portfolio epoch. The USD value is derived from the single price read taken
+ * here, so a snapshot's price, value and totals always agree with each other. Illiquid positions keep their price but
+ * have a USD value of 0, so they never count towards wallet or portfolio totals.
+ */
+public record PositionSnapshot(String walletAddress, String accountAddress, String mintAddress, String name, String ticker,
+                               double tokenBalance, double usdPrice, double usdValue, boolean priced,
+                               double liquidityUsd, double priceChange24h, boolean illiquid) {
+
+    public static PositionSnapshot of(Position position) {
+        Token token = position.getToken();
+        MarketData marketData = token.getMarketData();
+        boolean priced = marketData != null;
+        double usdPrice = priced ? marketData.getUsdPrice() : 0;
+        boolean illiquid = priced && marketData.isIlliquid();
+        double tokenBalance = position.getTokenBalance();
+        return new PositionSnapshot(position.getWalletAddress(), position.getAccountAddress(), token.getMintAddress(),
+                token.getName(), token.getTicker(), tokenBalance, usdPrice, illiquid ? 0 : tokenBalance * usdPrice, priced,
+                priced ? marketData.getLiquidityUsd() : Double.NaN, priced ? marketData.getPriceChange24h() : Double.NaN, illiquid);
+    }
+
+    /**
+     * Balance at the quoted price, whether or not the position is liquid.
+     */
+    public double nominalUsdValue() {
+        return tokenBalance * usdPrice;
+    }
+}
@@ -0,0 +1,24 @@
+package org.core.portfolio;
+
+import org.core.accounts.Position;
+import org.core.accounts.Wallet;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Immutable copy of a Wallet and its positions at a given portfolio epoch.
+ */
+public record WalletSnapshot(String address, String name, double solBalance, double usdValue, List<PositionSnapshot> positions) {
+
+    public static WalletSnapshot of(Wallet wallet) {
+        List<PositionSnapshot> positions = new ArrayList<>(wallet.getPositions().size());
+        double usdValue = 0;
+        for (Position position : wallet.getPositions().values()) {
+            PositionSnapshot positionSnapshot = PositionSnapshot.of(position);
+            positions.add(positionSnapshot);
+            usdValue += positionSnapshot.usdValue();
+        }
+        return new WalletSnapshot(wallet.getAddress(), wallet.getName(), wallet.getSolBalance(), usdValue, List.copyOf(positions));
+    }
+}
@@ -3,7 +3,10 @@ package org.core.prices;
 public class MarketData {
 
     private final String mintAddress; //address of the mint (CA)
-    private double usdPrice;
+    private volatile double usdPrice; // written by the market data thread, read by repricing & UI
+    private volatile double liquidityUsd = Double.NaN; // NaN until Jupiter reports it
+    private volatile double priceChange24h = Double.NaN; // percent
+    private volatile boolean illiquid; // liquidity below tracker.jupiter.minLiquidityUsd - excluded from totals
 
 
     public MarketData(String mintAddress, double usdPrice) {
@@ -20,4 +23,28 @@ public class MarketData {
             this.usdPrice = usdPrice;
         }
     }
+
+    public double getLiquidityUsd() {
+        return liquidityUsd;
+    }
+
+    public void setLiquidityUsd(double liquidityUsd) {
+        this.liquidityUsd = liquidityUsd;
+    }
+
+    public double getPriceChange24h() {
+        return priceChange24h;
+    }
+
+    public void setPriceChange24h(double priceChange24h) {
+        this.priceChange24h = priceChange24h;
+    }
+
+    public boolean isIlliquid() {
+        return illiquid;
+    }
+
+    public void setIlliquid(boolean illiquid) {
+        this.illiquid = illiquid;
+    }
 }
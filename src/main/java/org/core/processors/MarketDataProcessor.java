@@ -1,8 +1,16 @@
 package org.core.processors;
 
 import org.core.accounts.Position;
+import org.core.accounts.SessionTokenRegistry;
 import org.core.accounts.Token;
+import org.core.alerts.AlertEngine;
+import org.core.history.PriceHistoryStore;
+import org.core.jfr.PriceBatchEvent;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.portfolio.PortfolioSnapshot;
 import org.core.prices.MarketData;
+import org.core.utils.ConfigUtil;
 import org.core.utils.DatabaseConnUtil;
 import org.core.utils.RestApiUtil;
 import org.json.JSONObject;
@@ -12,6 +20,7 @@ import java.sql.Connection;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,138 +28,233 @@ public class MarketDataProcessor {
 
     private static final Logger logger = Logger.getLogger(MarketDataProcessor.class.getName());
 
+    /**
+     Jupiter API has a limit of 50 tokens per request (recently reduced from 100), so limit calls to 50 tokens at a time
+     Jupiter Lite Price API docs: <a href="https://hub.jup.ag/docs/price-api/v3">...</a>
+     */
     private static final int s_jupTokenLimitRequest = 50;
+    private static final long JUPITER_BATCH_DELAY_MS = 4000;
+    private static final double MIN_LIQUIDITY_USD = 1000.0;
+
+    private static final Histogram s_sweepDuration = MetricsRegistry.getInstance()
+            .histogram("tracker_market_data_sweep_seconds", "Duration of a market data cycle over the tokens due for a price refresh");
 
     private final HttpClient m_httpClient;
-    private final ConcurrentHashMap<String, Token> m_sessionTokenMap;
+    private final SessionTokenRegistry m_sessionTokens;
     private final CopyOnWriteArraySet<String> m_blacklistedTokens;
     private final Connection m_dbConnection;
+    private final long m_batchDelayMs;
+    private long m_lastRequestNanos; // Last Jupiter call, for spacing calls by m_batchDelayMs across cycles. Pricing stage thread only
+    private final double m_minLiquidityUsd;
+    private final Set<String> m_illiquidTokens = ConcurrentHashMap.newKeySet();
+    private final Supplier<PortfolioSnapshot> m_portfolioSnapshot;
+    private final PriceHistoryStore m_priceHistory;
+    private final AlertEngine m_alertEngine;
+    private final PriceRefreshPlanner m_refreshPlanner = new PriceRefreshPlanner(s_jupTokenLimitRequest - 1);
 
-    public MarketDataProcessor(HttpClient httpClient, Connection dbConnection, ConcurrentHashMap<String, Token> sessionTokenMap,
-                               CopyOnWriteArraySet<String> blacklistedTokens) {
+    /**
+     * @param portfolioSnapshot Latest portfolio snapshot, used to tier tokens by the USD value held
+     * @param priceHistory Store each received price is appended to, or null to keep only the latest price
+     * @param alertEngine Evaluates price alerts on each received price, may be null
+     */
+    public MarketDataProcessor(HttpClient httpClient, Connection dbConnection, SessionTokenRegistry sessionTokens,
+                               CopyOnWriteArraySet<String> blacklistedTokens, Supplier<PortfolioSnapshot> portfolioSnapshot,
+                               PriceHistoryStore priceHistory, AlertEngine alertEngine) {
         m_httpClient = httpClient;
-        m_sessionTokenMap = sessionTokenMap;
+        m_portfolioSnapshot = portfolioSnapshot;
+        m_priceHistory = priceHistory;
+        m_alertEngine = alertEngine;
+        m_sessionTokens = sessionTokens;
         m_dbConnection = dbConnection;
         m_blacklistedTokens = blacklistedTokens;
+        m_batchDelayMs = ConfigUtil.getLong("tracker.jupiter.batchDelayMs", JUPITER_BATCH_DELAY_MS);
+        m_refreshPlanner.setBatchDelayMillis(m_batchDelayMs);
+        m_minLiquidityUsd = ConfigUtil.getDouble("tracker.jupiter.minLiquidityUsd", MIN_LIQUIDITY_USD);
+
+        MetricsRegistry.getInstance().gauge("tracker_session_tokens", "Tokens held by at least one live position", m_sessionTokens::size);
+        MetricsRegistry.getInstance().gauge("tracker_blacklisted_tokens", "Tokens excluded from pricing", m_blacklistedTokens::size);
+        MetricsRegistry.getInstance().gauge("tracker_illiquid_tokens", "Priced tokens below the liquidity floor, excluded from totals", m_illiquidTokens::size);
     }
 
-    public void processMarketData() {
-        logger.log(Level.INFO, "Fetching market data for token size: " + m_sessionTokenMap.size());
+    /**
+     * Run one market data cycle over the tokens due for a price - due hot tokens, then never-priced tokens first.
+     * @param onBatchApplied Called after each batch that priced at least one token, e.g. to queue repricing
+     * @return the number of tokens priced
+     */
+    public int processMarketData(Runnable onBatchApplied) {
+        long startTime = System.nanoTime();
+        try {
+            return fetchMarketData(onBatchApplied);
+        } finally {
+            s_sweepDuration.recordSince(startTime);
+        }
+    }
 
-        if (m_sessionTokenMap.isEmpty()) {
+    private int fetchMarketData(Runnable onBatchApplied) {
+        // Flags of tokens no position holds any more - re-checked on the first price if a wallet picks them up again
+        m_illiquidTokens.retainAll(m_sessionTokens.mints());
+        if (m_sessionTokens.isEmpty()) {
             logger.log(Level.WARNING, "No token IDs found to fetch market data");
-            return;
+            return 0;
         }
 
-        String[] tokenIdArray = appendTokenIds(m_sessionTokenMap, m_blacklistedTokens);
+        Map<String, Double> usdValueByMint = m_portfolioSnapshot.get().usdValueByMint();
+        List<String[]> batches = m_refreshPlanner.planBatches(m_sessionTokens.mints(), m_blacklistedTokens, m_illiquidTokens,
+                usdValueByMint, System.nanoTime());
+        if (batches.isEmpty()) {
+            logger.log(Level.FINE, "No token prices due for refresh");
+            return 0;
+        }
+        logger.log(Level.INFO, String.format("Fetching market data for %d batches of due tokens (%d session tokens)",
+                batches.size(), m_sessionTokens.size()));
 
-        if (tokenIdArray == null) return;
+        int pricedCount = 0;
+        for (int i = 0; i < batches.size(); i++) {
+            if (!awaitJupiterRateLimit()) break;
 
-        for (int i = 0; i < tokenIdArray.length; i++) {
-            logger.log(Level.INFO, "Fetching market data for token batch: " + (i + 1) + " of " + tokenIdArray.length);
-            JSONObject data = RestApiUtil.getMarketDataForTokens(m_httpClient, tokenIdArray[i]);
+            logger.log(Level.INFO, "Fetching market data for token batch: " + (i + 1) + " of " + batches.size());
+            PriceBatchEvent event = new PriceBatchEvent();
+            event.begin();
+            String[] batchMintAddresses = batches.get(i);
+            JSONObject data = RestApiUtil.getMarketDataForTokens(m_httpClient, String.join(",", batchMintAddresses));
+            m_lastRequestNanos = System.nanoTime();
 
-            if (data.isEmpty()) {
+            if (data == null || data.isEmpty()) {
                 logger.log(Level.WARNING, "Market Data response for last set of tokens is empty");
-                return;
+                commitPriceBatchEvent(event, i, batches.size(), batchMintAddresses.length, 0, 0, "empty_response");
+                return pricedCount;
             }
 
-            // Iterate over tokens just queried for mkt data and update market data object
-            for (String tokenMintAddress : tokenIdArray[i].split(",")) {
-                Token token = m_sessionTokenMap.get(tokenMintAddress);
-                if (data.has(tokenMintAddress)) {
-                    if(data.isNull(tokenMintAddress)){
-                        if (!m_blacklistedTokens.contains(tokenMintAddress)) {
-                            // TODO: Tokens without a price from Jupiter are most likely spam coins. Create a blacklist table for these tokens in db (Need to diff between good tokens not havent mkt data on a rare occassion)
-                            logger.log(Level.WARNING, "Token price data is null for tokenMintAddress: " + tokenMintAddress);
-                            m_blacklistedTokens.add(tokenMintAddress);
-                            DatabaseConnUtil.persistBlacklistedTokenToDb(m_dbConnection, token, m_blacklistedTokens);
-                        }
-                        continue;
-                    }
+            PriceBatchResult result = applyPriceBatch(data, batchMintAddresses);
+            m_refreshPlanner.markRefreshed(batchMintAddresses, System.nanoTime());
+            pricedCount += result.pricedCount();
 
-                    JSONObject tokenData = data.getJSONObject(tokenMintAddress);
-                    double price = tokenData.getDouble("usdPrice");
-                    MarketData existingMarketData = token.getMarketData();
-
-                    // Check if market data already exists for token
-                    if (existingMarketData != null) {
-                        if (existingMarketData.getUsdPrice() != price) existingMarketData.setUsdPrice(price);
-                    } else {
-                        logger.log(Level.INFO, String.format("Market data received from Jupiter for token: %s - %s ", tokenMintAddress, token.getTicker()));
-                        MarketData marketData = new MarketData(tokenMintAddress, price);
-                        token.setMarketData(marketData);
-                    }
-                } else {
-                    if (!m_blacklistedTokens.contains(tokenMintAddress)) {
-                        logger.log(Level.WARNING, String.format("No market data response found for token: %s - %s ", tokenMintAddress, token.getTicker()));
-                        m_blacklistedTokens.add(tokenMintAddress);
-                        DatabaseConnUtil.persistBlacklistedTokenToDb(m_dbConnection, token, m_blacklistedTokens);
-                    }
-                }
-            }
-
-            try {
-                logger.log(Level.INFO, "Sleeping for 4 seconds to manage jupiter price rate limits");
-                Thread.sleep(4000);
-            } catch (InterruptedException e) {
-                logger.log(Level.SEVERE, "Thread Sleep command for mkt data interrupted: " + e.getMessage());
-            }
+            // Committed before the rate limit sleep so the event duration is the Jupiter call & apply only
+            commitPriceBatchEvent(event, i, batches.size(), batchMintAddresses.length, result.pricedCount(), result.blacklistedCount(), "ok");
+            if (result.pricedCount() > 0) onBatchApplied.run();
         }
 
         logger.log(Level.INFO, "Fetching market data complete!");
+        return pricedCount;
     }
 
-    public void applyMarketDataToPosition(Position position) {
-        MarketData marketData = position.getToken().getMarketData();
-        if (marketData != null) {
-            double usdPrice = marketData.getUsdPrice();
-            double usdBalance = position.getTokenBalance() * usdPrice;
-            position.setUsdBalance(usdBalance);
-        }
+    public PriceRefreshPlanner getRefreshPlanner() {
+        return m_refreshPlanner;
+    }
+
+    public long getBatchDelayMs() {
+        return m_batchDelayMs;
     }
 
     /**
-     Jupiter API has a limit of 50 tokens per request (recently reduced from 100), so limit calls to 50 tokens at a time
-     Jupiter Lite Price API docs: <a href="https://hub.jup.ag/docs/price-api/v3">...</a>
+     * Wait until tracker.jupiter.batchDelayMs after the last Jupiter call. Cycles can now start as soon as new tokens
+     * are held, so calls are spaced across cycles as well as within one.
+     * @return false if interrupted
      */
-    private String[] appendTokenIds(Map<String, Token> sessionTokenMap, Set<String> tokensWithNoMktData) {
+    private boolean awaitJupiterRateLimit() {
+        long waitMillis = m_batchDelayMs - (System.nanoTime() - m_lastRequestNanos) / 1_000_000;
+        if (m_lastRequestNanos == 0 || waitMillis <= 0) return true;
         try {
-            // Remove tokens with no mkt data from list of tokens to query
-            Set<String> validTokensForMktDataQuery = sessionTokenMap.keySet();
-            validTokensForMktDataQuery.removeAll(tokensWithNoMktData);
-
-            int mktDataBatches = (int) Math.ceil((double) validTokensForMktDataQuery.size() / (s_jupTokenLimitRequest - 1));
-            String[] tokenIdArray = new String[mktDataBatches];
-
-            StringBuilder tokenIds = new StringBuilder();
-            int batchCounter = 0;
-            int tokenAppendCounter = 0;
-            for (String tokenMintAddress : validTokensForMktDataQuery) {
-                if (tokenAppendCounter != 0 && tokenAppendCounter % (s_jupTokenLimitRequest - 1) == 0 ) {
-                    tokenIdArray[batchCounter] = tokenIds.toString();
-                    batchCounter++;
-                    tokenIds = new StringBuilder();
-                    tokenAppendCounter = 0; // reset tokenAppendCounter
+            logger.log(Level.INFO, String.format("Sleeping for %dms to manage jupiter price rate limits", waitMillis));
+            Thread.sleep(waitMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.log(Level.WARNING, "Thread Sleep command for mkt data interrupted: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Apply one Jupiter price response to the session tokens in the batch, blacklisting tokens Jupiter has no price for
+     * and flagging tokens whose reported liquidity is below the floor as illiquid.
+     */
+    PriceBatchResult applyPriceBatch(JSONObject data, String[] batchMintAddresses) {
+        int pricedCount = 0;
+        int blacklistedCount = 0;
+        long receivedAtMillis = System.currentTimeMillis();
+
+        // Iterate over tokens just queried for mkt data and update market data object
+        for (String tokenMintAddress : batchMintAddresses) {
+            Token token = m_sessionTokens.get(tokenMintAddress);
+            if (token == null) continue; // Released while the batch was in flight
+            if (data.has(tokenMintAddress)) {
+                if(data.isNull(tokenMintAddress)){
+                    if (!m_blacklistedTokens.contains(tokenMintAddress)) {
+                        blacklistedCount++;
+                        // TODO: Tokens without a price from Jupiter are most likely spam coins. Create a blacklist table for these tokens in db (Need to diff between good tokens not havent mkt data on a rare occassion)
+                        logger.log(Level.WARNING, "Token price data is null for tokenMintAddress: " + tokenMintAddress);
+                        DatabaseConnUtil.persistBlacklistedTokenToDb(m_dbConnection, token, m_blacklistedTokens);
+                        m_blacklistedTokens.add(tokenMintAddress);
+                    }
+                    continue;
                 }
 
-                if (!tokensWithNoMktData.contains(tokenMintAddress)) {
-                    tokenIds.append(tokenMintAddress).append(",");
-                    tokenAppendCounter++;
+                JSONObject tokenData = data.getJSONObject(tokenMintAddress);
+                double price = tokenData.getDouble("usdPrice");
+                double liquidityUsd = tokenData.optDouble("liquidity", Double.NaN);
+                // Tokens Jupiter reports no liquidity for are left as they were
+                boolean illiquid = !Double.isNaN(liquidityUsd) && liquidityUsd < m_minLiquidityUsd;
+                pricedCount++;
+                if (m_priceHistory != null) m_priceHistory.recordPrice(tokenMintAddress, receivedAtMillis, price);
+                if (m_alertEngine != null) m_alertEngine.onPrice(tokenMintAddress, price, receivedAtMillis);
+                MarketData existingMarketData = token.getMarketData();
+
+                // Check if market data already exists for token
+                MarketData marketData = existingMarketData;
+                if (marketData != null) {
+                    if (marketData.getUsdPrice() != price) marketData.setUsdPrice(price);
+                } else {
+                    logger.log(Level.INFO, String.format("Market data received from Jupiter for token: %s - %s ", tokenMintAddress, token.getTicker()));
+                    marketData = new MarketData(tokenMintAddress, price);
+                }
+                marketData.setPriceChange24h(tokenData.optDouble("priceChange24h", Double.NaN));
+                if (!Double.isNaN(liquidityUsd)) {
+                    marketData.setLiquidityUsd(liquidityUsd);
+                    marketData.setIlliquid(illiquid);
+                    if (illiquid ? m_illiquidTokens.add(tokenMintAddress) : m_illiquidTokens.remove(tokenMintAddress)) {
+                        logger.log(Level.INFO, String.format("Token %s - %s is %s (liquidity $%,.0f)", tokenMintAddress, token.getTicker(),
+                                illiquid ? "illiquid, excluded from totals" : "liquid again", liquidityUsd));
+                    }
+                }
+                if (existingMarketData == null) token.setMarketData(marketData);
+            } else {
+                if (!m_blacklistedTokens.contains(tokenMintAddress)) {
+                    blacklistedCount++;
+                    logger.log(Level.WARNING, String.format("No market data response found for token: %s - %s ", tokenMintAddress, token.getTicker()));
+                    DatabaseConnUtil.persistBlacklistedTokenToDb(m_dbConnection, token, m_blacklistedTokens);
+                    m_blacklistedTokens.add(tokenMintAddress);
                 }
             }
+        }
 
-            if (!tokenIds.isEmpty()) {
-                // Add remaining token ids to last token Id array idx
-                tokenIdArray[batchCounter] = tokenIds.toString();
-            }
+        return new PriceBatchResult(pricedCount, blacklistedCount);
+    }
+
+    record PriceBatchResult(int pricedCount, int blacklistedCount) {
+    }
 
-            return tokenIdArray;
-        } catch (Exception e) {
-            logger.log(Level.SEVERE, "Encountered exception while appending token IDs: " + e.getMessage());
+    private static void commitPriceBatchEvent(PriceBatchEvent event, int batch, int batchCount, int mintCount,
+                                              int pricedCount, int blacklistedCount, String outcome) {
+        if (event.shouldCommit()) {
+            event.batch = batch + 1;
+            event.batchCount = batchCount;
+            event.mintCount = mintCount;
+            event.pricedCount = pricedCount;
+            event.blacklistedCount = blacklistedCount;
+            event.outcome = outcome;
+            event.commit();
         }
+    }
 
-        return null;
+    public void applyMarketDataToPosition(Position position) {
+        MarketData marketData = position.getToken().getMarketData();
+        if (marketData != null) {
+            double usdPrice = marketData.getUsdPrice();
+            // Illiquid tokens have a quote but could not be sold at it
+            double usdBalance = marketData.isIlliquid() ? 0 : position.getTokenBalance() * usdPrice;
+            position.setUsdBalance(usdBalance);
+        }
     }
 
 }
@@ -0,0 +1,158 @@
+package org.core.processors;
+
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.ObjectName;
+
+/**
+ * Paces market data cycles on the pricing stage's single worker. A cycle starts one interval after the previous one
+ * started, or as soon as it finishes if it overran - cycles never overlap or queue up behind each other. Mints newly
+ * held start a cycle straight away, and repricing is queued after every batch that priced something rather than on a
+ * timer of its own.
+ * <p>
+ * An overrunning cycle delays the next: the delay is recorded as lag, and each whole interval it covers as a skipped
+ * cycle.
+ */
+public class MarketDataScheduler implements MarketDataSchedulerMXBean {
+
+    private static final Logger logger = Logger.getLogger(MarketDataScheduler.class.getName());
+
+    private static final Counter s_scheduledCycles = MetricsRegistry.getInstance()
+            .counter("tracker_market_data_cycles_total{trigger=\"interval\"}", "Market data cycles run, by what started them");
+    private static final Counter s_newTokenCycles = MetricsRegistry.getInstance()
+            .counter("tracker_market_data_cycles_total{trigger=\"new_tokens\"}", "Market data cycles run, by what started them");
+    private static final Counter s_skippedCycles = MetricsRegistry.getInstance()
+            .counter("tracker_market_data_cycles_skipped_total", "Market data cycle intervals passed while the previous cycle was still running");
+    private static final Histogram s_cycleLag = MetricsRegistry.getInstance()
+            .histogram("tracker_market_data_cycle_lag_seconds", "How late scheduled market data cycles start after the previous cycle overran");
+
+    private final MarketDataProcessor m_marketDataProcessor;
+    private final Runnable m_onBatchApplied;
+    private volatile long m_intervalNanos;
+    private volatile double m_lastLagSeconds;
+    private long m_lastStartNanos; // Pricing stage thread only
+
+    /**
+     * @param onBatchApplied Called after each batch that priced a token, e.g. to queue repricing
+     */
+    public MarketDataScheduler(MarketDataProcessor marketDataProcessor, int intervalSeconds, Runnable onBatchApplied) {
+        m_marketDataProcessor = marketDataProcessor;
+        m_onBatchApplied = onBatchApplied;
+        m_intervalNanos = intervalSeconds * 1_000_000_000L;
+        m_marketDataProcessor.getRefreshPlanner().setCycleIntervalNanos(m_intervalNanos);
+
+        MetricsRegistry.getInstance().gauge("tracker_market_data_interval_seconds", "Target time between market data cycle starts",
+                () -> m_intervalNanos / 1e9);
+        checkBudget();
+    }
+
+    /**
+     * Register as org.core:type=MarketDataScheduler with the platform MBean server.
+     */
+    public void registerMBean() {
+        try {
+            ObjectName name = new ObjectName("org.core:type=MarketDataScheduler");
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Failed to register market data scheduler MBean", e);
+        }
+    }
+
+    /**
+     * Time until the next cycle is due, for the pricing stage's wait. 0 before the first cycle.
+     */
+    long millisUntilDue() {
+        if (m_lastStartNanos == 0) return 0;
+        return Math.ceilDiv(m_lastStartNanos + m_intervalNanos - System.nanoTime(), 1_000_000L);
+    }
+
+    /**
+     * Pricing stage handler - run a cycle if one is due or new mints arrived.
+     */
+    void onPricingBatch(List<String> newMints) {
+        long now = System.nanoTime();
+        long intervalNanos = m_intervalNanos;
+        boolean due = m_lastStartNanos == 0 || now - m_lastStartNanos >= intervalNanos;
+        if (!due && newMints.isEmpty()) return; // Woken early, e.g. the interval was lengthened
+
+        if (due) {
+            s_scheduledCycles.increment();
+            if (m_lastStartNanos != 0) recordLag(now - m_lastStartNanos - intervalNanos, intervalNanos);
+        } else {
+            s_newTokenCycles.increment();
+            logger.log(Level.INFO, String.format("Pricing %d newly held tokens", newMints.size()));
+        }
+
+        m_lastStartNanos = now;
+        m_marketDataProcessor.processMarketData(m_onBatchApplied);
+    }
+
+    /**
+     * Jupiter calls are spaced tracker.jupiter.batchDelayMs apart across cycles, so a fixed budget needing more than one
+     * interval of spacing cannot keep to the interval - every cycle would overrun into the next. The derived budget
+     * (-1) always fits.
+     */
+    private void checkBudget() {
+        int maxBatchesPerCycle = getMaxBatchesPerCycle();
+        long budgetMillis = maxBatchesPerCycle * m_marketDataProcessor.getBatchDelayMs();
+        if (maxBatchesPerCycle > 0 && budgetMillis > m_intervalNanos / 1_000_000L) {
+            logger.log(Level.WARNING, String.format("%d Jupiter batches per cycle take %dms at the rate limit, longer than the %ds interval - cycles will overrun",
+                    maxBatchesPerCycle, budgetMillis, getIntervalSeconds()));
+        }
+    }
+
+    private void recordLag(long lagNanos, long intervalNanos) {
+        // The idle wait ends on time, so any lag of note is the previous cycle overrunning
+        s_cycleLag.record(Math.max(0, lagNanos));
+        m_lastLagSeconds = Math.max(0, lagNanos) / 1e9;
+        long skipped = intervalNanos > 0 ? lagNanos / intervalNanos : 0;
+        if (skipped > 0) {
+            s_skippedCycles.add(skipped);
+            logger.log(Level.WARNING, String.format("Market data cycle started %.1fs late, %d cycle(s) skipped - the previous cycle overran the %ds interval",
+                    lagNanos / 1e9, skipped, getIntervalSeconds()));
+        }
+    }
+
+    @Override
+    public int getIntervalSeconds() {
+        return (int) (m_intervalNanos / 1_000_000_000L);
+    }
+
+    @Override
+    public void setIntervalSeconds(int intervalSeconds) {
+        m_intervalNanos = Math.max(1, intervalSeconds) * 1_000_000_000L;
+        m_marketDataProcessor.getRefreshPlanner().setCycleIntervalNanos(m_intervalNanos);
+        logger.log(Level.INFO, String.format("Market data interval set to %ds", getIntervalSeconds()));
+        checkBudget();
+    }
+
+    @Override
+    public int getMaxBatchesPerCycle() {
+        return m_marketDataProcessor.getRefreshPlanner().getMaxBatchesPerCycle();
+    }
+
+    @Override
+    public void setMaxBatchesPerCycle(int maxBatchesPerCycle) {
+        m_marketDataProcessor.getRefreshPlanner().setMaxBatchesPerCycle(maxBatchesPerCycle);
+        logger.log(Level.INFO, String.format("Market data budget set to %d batches per cycle", maxBatchesPerCycle));
+        checkBudget();
+    }
+
+    @Override
+    public double getLastLagSeconds() {
+        return m_lastLagSeconds;
+    }
+
+    @Override
+    public long getSkippedCycles() {
+        return s_skippedCycles.get();
+    }
+}
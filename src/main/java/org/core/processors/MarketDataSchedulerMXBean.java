@@ -0,0 +1,30 @@
+package org.core.processors;
+
+/**
+ * Market data cycle pacing, exposed over JMX as org.core:type=MarketDataScheduler so a running tracker (headless or
+ * UI) can be retuned with jconsole or any JMX client. Changes last until restart.
+ */
+public interface MarketDataSchedulerMXBean {
+
+    int getIntervalSeconds();
+
+    /**
+     * Target time between cycle starts. Takes effect from the next wait.
+     */
+    void setIntervalSeconds(int intervalSeconds);
+
+    int getMaxBatchesPerCycle();
+
+    /**
+     * Jupiter requests per cycle, -1 to derive it from the interval & rate limit, 0 for no limit. Takes effect from the
+     * next cycle.
+     */
+    void setMaxBatchesPerCycle(int maxBatchesPerCycle);
+
+    /**
+     * How late the last scheduled cycle started because the one before overran the interval.
+     */
+    double getLastLagSeconds();
+
+    long getSkippedCycles();
+}
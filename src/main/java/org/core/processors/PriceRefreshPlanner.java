@@ -0,0 +1,186 @@
+package org.core.processors;
+
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.utils.ConfigUtil;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decides which session tokens are re-priced in a market data cycle. Tokens are tiered by the USD value held across
+ * wallets and each tier has its own refresh interval. Due tokens are packed into Jupiter batches in priority order -
+ * hot first, then never priced, warm, cold and illiquid, oldest price first - up to the per-cycle request budget, so
+ * the few tokens holding most of the value are never stuck behind dust or a newly loaded wallet's backlog.
+ * <p>
+ * By default the budget is what the Jupiter rate limit allows: one call per tracker.jupiter.batchDelayMs since the
+ * last plan, fractions carried over (1.25 per 5s cycle at 4s spacing), at most ceil(interval / batchDelayMs) per cycle.
+ */
+public class PriceRefreshPlanner {
+
+    private static final double HOT_MIN_USD_VALUE = 10_000.0;
+    private static final double WARM_MIN_USD_VALUE = 100.0; // Matches the UI's display threshold
+    private static final int MAX_BATCHES_PER_CYCLE = -1; // Derived from the interval & Jupiter rate limit
+    private static final int NEVER_PRICED_PRIORITY = PriceTier.HOT.ordinal() + 1;
+
+    private static final PriceTier[] s_tiers = PriceTier.values();
+
+    private final int m_batchSize;
+    private volatile int m_maxBatchesPerCycle;
+    private volatile long m_batchDelayNanos;
+    private volatile long m_cycleIntervalNanos;
+    private double m_batchCredit; // Derived budget carried between plans. Pricing stage thread only
+    private long m_lastPlanNanos;
+    private final double m_hotMinUsdValue;
+    private final double m_warmMinUsdValue;
+    private final long[] m_refreshIntervalNanos = new long[s_tiers.length];
+    private final Histogram[] m_ageAtRefresh = new Histogram[s_tiers.length];
+
+    private final Map<String, Long> m_lastRefreshNanos = new ConcurrentHashMap<>();
+    private final Map<String, PriceTier> m_tierByMint = new ConcurrentHashMap<>();
+
+    // Per tier stats from the last plan, exposed as gauges
+    private volatile double[] m_maxStalenessSeconds = new double[s_tiers.length];
+    private volatile int[] m_tierTokenCounts = new int[s_tiers.length];
+    private volatile int m_deferredTokens;
+
+    public PriceRefreshPlanner(int batchSize) {
+        m_batchSize = batchSize;
+        m_maxBatchesPerCycle = ConfigUtil.getInt("tracker.priceTier.maxBatchesPerCycle", MAX_BATCHES_PER_CYCLE);
+        m_hotMinUsdValue = ConfigUtil.getDouble("tracker.priceTier.hot.minUsdValue", HOT_MIN_USD_VALUE);
+        m_warmMinUsdValue = ConfigUtil.getDouble("tracker.priceTier.warm.minUsdValue", WARM_MIN_USD_VALUE);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (PriceTier tier : s_tiers) {
+            int refreshSeconds = ConfigUtil.getInt("tracker.priceTier." + tier.label() + ".refreshSeconds", tier.getDefaultRefreshSeconds());
+            m_refreshIntervalNanos[tier.ordinal()] = refreshSeconds * 1_000_000_000L;
+            m_ageAtRefresh[tier.ordinal()] = metrics.histogram("tracker_price_age_at_refresh_seconds{tier=\"" + tier.label() + "\"}",
+                    "Age of a token's previous price when it is refreshed, by tier");
+            metrics.gauge("tracker_price_staleness_seconds{tier=\"" + tier.label() + "\"}",
+                    "Oldest price age in the tier as of the last refresh plan", () -> m_maxStalenessSeconds[tier.ordinal()]);
+            metrics.gauge("tracker_price_tier_tokens{tier=\"" + tier.label() + "\"}",
+                    "Priced tokens in the tier as of the last refresh plan", () -> m_tierTokenCounts[tier.ordinal()]);
+        }
+        metrics.gauge("tracker_price_refresh_deferred_tokens", "Due tokens left out of the last refresh plan by the per-cycle budget",
+                () -> m_deferredTokens);
+    }
+
+    public int getMaxBatchesPerCycle() {
+        return m_maxBatchesPerCycle;
+    }
+
+    /**
+     * Change the per-cycle Jupiter request budget from the next plan on. -1 to derive it from the rate limit, 0 for no
+     * limit.
+     */
+    public void setMaxBatchesPerCycle(int maxBatchesPerCycle) {
+        m_maxBatchesPerCycle = maxBatchesPerCycle;
+    }
+
+    /**
+     * Minimum time between Jupiter calls, for the derived budget. 0 for no limit.
+     */
+    public void setBatchDelayMillis(long batchDelayMillis) {
+        m_batchDelayNanos = batchDelayMillis * 1_000_000L;
+    }
+
+    /**
+     * Target time between market data cycle starts, for the derived budget.
+     */
+    public void setCycleIntervalNanos(long cycleIntervalNanos) {
+        m_cycleIntervalNanos = cycleIntervalNanos;
+    }
+
+    public PriceTier tierOf(double usdValue) {
+        if (usdValue >= m_hotMinUsdValue) return PriceTier.HOT;
+        if (usdValue >= m_warmMinUsdValue) return PriceTier.WARM;
+        return PriceTier.COLD;
+    }
+
+    /**
+     * Plan this cycle's Jupiter batches.
+     * @param sessionMints Tokens held by at least one live position. Refresh state of any other token is dropped
+     * @param blacklistedTokens Tokens never priced
+     * @param illiquidTokens Tokens refreshed on the ILLIQUID tier's interval regardless of value
+     * @param usdValueByMint USD value held per mint across all wallets (from the latest portfolio snapshot)
+     * @return Batches of mint addresses, highest priority first, at most the per-cycle budget
+     */
+    public List<String[]> planBatches(Set<String> sessionMints, Set<String> blacklistedTokens, Set<String> illiquidTokens,
+                                      Map<String, Double> usdValueByMint, long nowNanos) {
+        record Due(String mint, int priority, long ageNanos) {}
+
+        List<Due> due = new ArrayList<>();
+        double[] maxStalenessSeconds = new double[s_tiers.length];
+        int[] tierTokenCounts = new int[s_tiers.length];
+
+        for (String mint : sessionMints) {
+            if (blacklistedTokens.contains(mint)) continue;
+
+            PriceTier tier = illiquidTokens.contains(mint) ? PriceTier.ILLIQUID : tierOf(usdValueByMint.getOrDefault(mint, 0.0));
+            m_tierByMint.put(mint, tier);
+            Long lastRefresh = m_lastRefreshNanos.get(mint);
+            if (lastRefresh == null) {
+                // Never priced - behind due hot tokens only, so a large new wallet can't stall their refreshes
+                due.add(new Due(mint, NEVER_PRICED_PRIORITY, Long.MAX_VALUE));
+                continue;
+            }
+
+            long ageNanos = nowNanos - lastRefresh;
+            tierTokenCounts[tier.ordinal()]++;
+            maxStalenessSeconds[tier.ordinal()] = Math.max(maxStalenessSeconds[tier.ordinal()], ageNanos / 1e9);
+            if (ageNanos >= m_refreshIntervalNanos[tier.ordinal()]) {
+                due.add(new Due(mint, tier == PriceTier.HOT ? tier.ordinal() : tier.ordinal() + 1, ageNanos));
+            }
+        }
+        // A token picked up again after every position released it is priced as new
+        m_lastRefreshNanos.keySet().retainAll(sessionMints);
+        m_tierByMint.keySet().retainAll(sessionMints);
+        m_maxStalenessSeconds = maxStalenessSeconds;
+        m_tierTokenCounts = tierTokenCounts;
+
+        due.sort(Comparator.comparingInt(Due::priority).thenComparing(Comparator.comparingLong(Due::ageNanos).reversed()));
+
+        int tokenBudget = (int) Math.min(due.size(), (long) batchBudget(nowNanos) * m_batchSize);
+        m_deferredTokens = due.size() - tokenBudget;
+        List<String[]> batches = new ArrayList<>();
+        for (int start = 0; start < tokenBudget; start += m_batchSize) {
+            int end = Math.min(start + m_batchSize, tokenBudget);
+            String[] batch = new String[end - start];
+            for (int i = start; i < end; i++) {
+                batch[i - start] = due.get(i).mint();
+            }
+            batches.add(batch);
+        }
+        m_batchCredit = Math.max(0, m_batchCredit - batches.size());
+        return batches;
+    }
+
+    /**
+     * Batches this plan may use - the configured budget, or the calls the rate limit has allowed since the last plan.
+     */
+    private int batchBudget(long nowNanos) {
+        int maxBatchesPerCycle = m_maxBatchesPerCycle;
+        if (maxBatchesPerCycle > 0) return maxBatchesPerCycle;
+        long batchDelayNanos = m_batchDelayNanos;
+        if (maxBatchesPerCycle == 0 || batchDelayNanos <= 0) return Integer.MAX_VALUE;
+
+        double maxCredit = Math.max(1, Math.ceil((double) m_cycleIntervalNanos / batchDelayNanos));
+        m_batchCredit = m_lastPlanNanos == 0 ? maxCredit
+                : Math.min(maxCredit, m_batchCredit + (double) (nowNanos - m_lastPlanNanos) / batchDelayNanos);
+        m_lastPlanNanos = nowNanos;
+        return (int) m_batchCredit;
+    }
+
+    /**
+     * Record that these tokens were just priced.
+     */
+    public void markRefreshed(String[] mints, long nowNanos) {
+        for (String mint : mints) {
+            Long previous = m_lastRefreshNanos.put(mint, nowNanos);
+            PriceTier tier = m_tierByMint.get(mint);
+            if (previous != null && tier != null) {
+                m_ageAtRefresh[tier.ordinal()].record(nowNanos - previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package org.core.processors;
+
+/**
+ * Price refresh tiers by USD value held across all wallets, plus ILLIQUID for tokens whose Jupiter liquidity is below
+ * the configured floor whatever their nominal value. Intervals & thresholds are set in tracker.properties.
+ */
+public enum PriceTier {
+    HOT(5),
+    WARM(60),
+    COLD(900),
+    ILLIQUID(3600);
+
+    private final int m_defaultRefreshSeconds;
+
+    PriceTier(int defaultRefreshSeconds) {
+        m_defaultRefreshSeconds = defaultRefreshSeconds;
+    }
+
+    public int getDefaultRefreshSeconds() {
+        return m_defaultRefreshSeconds;
+    }
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
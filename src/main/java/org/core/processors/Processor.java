@@ -2,18 +2,39 @@ package org.core.processors;
 
 import org.apache.commons.lang3.tuple.Pair;
 import org.core.accounts.Position;
-import org.core.accounts.Token;
+import org.core.accounts.SessionTokenRegistry;
 import org.core.accounts.Wallet;
+import org.core.alerts.Alert;
+import org.core.alerts.AlertDirection;
+import org.core.alerts.AlertEngine;
+import org.core.alerts.AlertKind;
+import org.core.cache.CacheSyncListener;
+import org.core.cache.TokenCache;
+import org.core.history.OhlcBar;
+import org.core.history.PriceHistoryStore;
+import org.core.jfr.JfrRecordingUtil;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.pipeline.PipelineStage;
+import org.core.portfolio.PortfolioSnapshot;
+import org.core.portfolio.PortfolioSnapshotPublisher;
+import org.core.portfolio.WalletSnapshot;
+import org.core.traffic.TrafficCapture;
+import org.core.utils.ConfigUtil;
 import org.core.utils.DatabaseConnUtil;
+import org.core.utils.TokenListImporter;
 import org.core.utils.WalletService;
 import software.sava.rpc.json.http.SolanaNetwork;
 import software.sava.rpc.json.http.client.SolanaRpcClient;
 
+import java.net.URI;
 import java.net.http.HttpClient;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -25,8 +46,9 @@ public class Processor {
     // In-memory wallet map (DB stored + fetched wallets onchain)
     private final ConcurrentHashMap<String, Wallet> m_wallets = new ConcurrentHashMap<>();
 
-    // In-memory token map (includes db stored tokens + api fetched tokens)
-    private final ConcurrentHashMap<String, Token> m_tokenMap = new ConcurrentHashMap<>();
+    // Token metadata: bounded in-memory cache over token table lookups (Helius-fetched tokens are added to both)
+    private final TokenCache m_tokenCache;
+    private static final int TOKEN_CACHE_MAX_SIZE = 50_000;
 
     // In-memory copy of blacklisted tokens
     private final CopyOnWriteArraySet<String> m_blacklistedTokens = new CopyOnWriteArraySet<>();
@@ -34,32 +56,111 @@ public class Processor {
     private final WalletService m_walletService;
     private final Connection m_dbConnection;
     private final MarketDataProcessor m_marketDataProcessor;
+    private final MarketDataScheduler m_marketDataScheduler;
 
-    // Better use over raw threads which are self-managed
-    private final ScheduledExecutorService m_MarketDataAndPositionScheduler;
+    // On-disk tick & OHLC history per mint. Null when tracker.history.enabled=false
+    private final PriceHistoryStore m_priceHistory;
 
-    // Single-thread executor used for sequential wallet loading (rate-limited)
-    private final ExecutorService m_walletLoaderExecutor = Executors.newSingleThreadExecutor();
+    // Per-wallet & total USD value after each repricing epoch, keyed by wallet address / TOTAL_VALUE_SERIES. Null when disabled
+    private final PriceHistoryStore m_portfolioHistory;
+    public static final String TOTAL_VALUE_SERIES = "total";
+
+    // User-defined price/value alerts, evaluated on each price batch & repricing epoch
+    private final AlertEngine m_alertEngine;
+    private final AtomicLong m_localAlertIds = new AtomicLong(); // Negative ids for alerts not stored in the DB
+
+    // Immutable portfolio view published after each repricing - the consistent read path for UI/API readers
+    private final PortfolioSnapshotPublisher m_snapshotPublisher = new PortfolioSnapshotPublisher();
+
+    // Pipeline stages after the wallet scheduler (accounts) & WalletService's metadata stage. Newly held mints queue for
+    // pricing & wake it straight away; pricing, wallet loads & removals queue repricing, coalesced into one per batch
+    private final PipelineStage<String> m_pricingStage;
+    private final PipelineStage<String> m_aggregationStage;
+    private static final int PRICING_QUEUE_CAPACITY = 10_000;
+    private static final int AGGREGATION_QUEUE_CAPACITY = 64;
+
+    // Applies tokens & blacklist entries added by other tracker instances on the same DB. Null without a DB or when
+    // tracker.cacheSync.enabled=false
+    private final CacheSyncListener m_cacheSyncListener;
+
+    // Transaction history ingestion & cost basis (null when tracker.transactions.enabled=false), on its own thread as passes can take minutes
+    private final TransactionIngestionProcessor m_transactionIngestionProcessor;
+    private final ScheduledExecutorService m_transactionScheduler = Executors.newSingleThreadScheduledExecutor();
+
+    // Sequential, rate-limited wallet loads & refreshes - user-triggered work runs ahead of queued startup loads
+    private final WalletWorkScheduler m_walletScheduler;
     private CompletableFuture<Void> m_walletsLoadFuture;
 
-    // JavaFX callbacks
-    private Runnable m_onWalletsLoaded;
-    private Runnable m_onMarketDataUpdated;
-    private Consumer<Wallet> m_onWalletLoaded;
+    // Listeners notified of wallet loads & market data updates (JavaFX UI, headless daemon etc.)
+    private final List<ProcessorListener> m_listeners = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean m_stopped = new AtomicBoolean();
 
-    // Timing constants
-    private static final int MARKET_DATA_INTERVAL_SECONDS = 15;
+    // Timing defaults - overridable in tracker.properties
+    private static final int MARKET_DATA_INTERVAL_SECONDS = 5;
     private static final int POSITION_UPDATE_INTERVAL_SECONDS = 15;
     private static final int WALLET_API_RATE_LIMIT_SECONDS = 5;
+    private static final int SELECTED_WALLET_MAX_AGE_SECONDS = 300;
+    private static final int METRICS_DUMP_INTERVAL_SECONDS = 60;
+    private static final int TRANSACTION_INGEST_INTERVAL_SECONDS = 300;
+    private static final int ALERT_COOLDOWN_SECONDS = 300;
+    private static final int ALERT_MAX_PER_MINUTE = 30;
+
+    private static final Histogram s_repricingDuration = MetricsRegistry.getInstance()
+            .histogram("tracker_repricing_seconds", "Time to reprice all positions with the latest market data");
+    private volatile double m_startupWalletLoadSeconds = Double.NaN;
+
+    private final int m_marketDataIntervalSeconds;
+    private final int m_positionUpdateIntervalSeconds;
+    private final int m_walletApiRateLimitSeconds;
+    private final long m_selectedWalletMaxAgeMillis;
 
     private Processor() {
-        final HttpClient httpClient = HttpClient.newHttpClient();
-        final ConcurrentHashMap<String, Token> sessionTokenMap = new ConcurrentHashMap<>();
+        final HttpClient httpClient = TrafficCapture.wrap(HttpClient.newHttpClient());
+        final SessionTokenRegistry sessionTokens = new SessionTokenRegistry(this::queueForPricing);
         m_dbConnection = DatabaseConnUtil.getInstance().getDbConnection();
-        m_marketDataProcessor = new MarketDataProcessor(httpClient,m_dbConnection, sessionTokenMap, m_blacklistedTokens);
-        SolanaRpcClient solanaRpc = SolanaRpcClient.createClient(SolanaNetwork.MAIN_NET.getEndpoint(), httpClient);
-        m_walletService = new WalletService(solanaRpc, m_wallets, m_tokenMap, sessionTokenMap, m_dbConnection, m_blacklistedTokens);
-        m_MarketDataAndPositionScheduler = Executors.newScheduledThreadPool(2);
+        m_tokenCache = new TokenCache(ConfigUtil.getInt("tracker.tokenCache.maxSize", TOKEN_CACHE_MAX_SIZE), m_dbConnection);
+        m_priceHistory = PriceHistoryStore.openIfEnabled("prices", "tracker.history", "history");
+        m_portfolioHistory = PriceHistoryStore.openIfEnabled("portfolio", "tracker.portfolioHistory", "history/portfolio");
+        m_alertEngine = new AlertEngine(m_priceHistory, ConfigUtil.getInt("tracker.alerts.cooldownSeconds", ALERT_COOLDOWN_SECONDS),
+                ConfigUtil.getInt("tracker.alerts.maxPerMinute", ALERT_MAX_PER_MINUTE));
+        m_alertEngine.addListener(notification -> {
+            for (ProcessorListener listener : m_listeners) {
+                listener.onAlert(notification);
+            }
+        });
+        m_marketDataProcessor = new MarketDataProcessor(httpClient, m_dbConnection, sessionTokens, m_blacklistedTokens,
+                m_snapshotPublisher::current, m_priceHistory, m_alertEngine);
+        URI rpcEndpoint = URI.create(ConfigUtil.getString("tracker.rpc.endpoint", SolanaNetwork.MAIN_NET.getEndpoint().toString()));
+        SolanaRpcClient solanaRpc = SolanaRpcClient.createClient(rpcEndpoint, httpClient);
+        m_walletService = new WalletService(solanaRpc, m_wallets, m_tokenCache, sessionTokens, m_dbConnection, m_blacklistedTokens);
+        m_cacheSyncListener = m_dbConnection != null && ConfigUtil.getBoolean("tracker.cacheSync.enabled", true)
+                ? new CacheSyncListener(m_tokenCache, m_blacklistedTokens, sessionTokens, m_dbConnection) : null;
+        // Checkpoints only survive a restart in the DB - without one every start would re-ingest each wallet's backfill
+        boolean ingestTransactions = ConfigUtil.getBoolean("tracker.transactions.enabled", true);
+        if (ingestTransactions && m_dbConnection == null) {
+            logger.log(Level.WARNING, "Transaction history ingestion disabled - it needs the database to store its checkpoints");
+        }
+        m_transactionIngestionProcessor = ingestTransactions && m_dbConnection != null
+                ? new TransactionIngestionProcessor(httpClient, m_wallets, m_priceHistory, sessionTokens) : null;
+        m_marketDataIntervalSeconds = ConfigUtil.getInt("tracker.marketData.intervalSeconds", MARKET_DATA_INTERVAL_SECONDS);
+        m_positionUpdateIntervalSeconds = ConfigUtil.getInt("tracker.positionUpdate.intervalSeconds", POSITION_UPDATE_INTERVAL_SECONDS);
+        int pricingCapacity = ConfigUtil.getInt("tracker.pipeline.pricing.queueCapacity", PRICING_QUEUE_CAPACITY);
+        // One worker each: Jupiter calls are rate limited, and repricing publishes snapshots in order
+        m_aggregationStage = new PipelineStage<>("aggregation", AGGREGATION_QUEUE_CAPACITY, 1, AGGREGATION_QUEUE_CAPACITY,
+                m_positionUpdateIntervalSeconds * 1000L, this::repricePositions);
+        // Repricing is queued after each applied batch, so prices show while the rest of a long cycle runs
+        PipelineStage<String> aggregationStage = m_aggregationStage;
+        m_marketDataScheduler = new MarketDataScheduler(m_marketDataProcessor, m_marketDataIntervalSeconds,
+                () -> aggregationStage.offer("prices"));
+        m_pricingStage = new PipelineStage<>("pricing", pricingCapacity, 1, pricingCapacity,
+                m_marketDataScheduler::millisUntilDue, m_marketDataScheduler::onPricingBatch);
+        m_walletApiRateLimitSeconds = ConfigUtil.getInt("tracker.walletLoad.rateLimitSeconds", WALLET_API_RATE_LIMIT_SECONDS);
+        m_selectedWalletMaxAgeMillis = ConfigUtil.getInt("tracker.walletLoad.selectedMaxAgeSeconds", SELECTED_WALLET_MAX_AGE_SECONDS) * 1000L;
+        m_walletScheduler = new WalletWorkScheduler(m_walletApiRateLimitSeconds);
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("tracker_wallets", "Tracked wallets", m_wallets::size);
+        metrics.gauge("tracker_startup_wallet_load_seconds", "Time to load all stored wallets at startup", () -> m_startupWalletLoadSeconds);
     }
 
     public static class SingletonProcessor {
@@ -71,19 +172,56 @@ public class Processor {
     }
 
     /**
-     * Start the processor with JavaFX callbacks (UI-agnostic version).
+     * Start the processor with JavaFX callbacks.
      * @param onWalletLoaded Callback invoked each time a wallet is loaded
      * @param onWalletsLoaded Callback invoked when all wallets are finished loading from DB
      * @param onMarketDataUpdated Callback invoked when market data is updated
      */
     public void startJavaFX(Consumer<Wallet> onWalletLoaded, Runnable onWalletsLoaded, Runnable onMarketDataUpdated) {
-        this.m_onWalletLoaded = onWalletLoaded;
-        this.m_onWalletsLoaded = onWalletsLoaded;
-        this.m_onMarketDataUpdated = onMarketDataUpdated;
+        addListener(new ProcessorListener() {
+            @Override
+            public void onWalletLoaded(Wallet wallet) {
+                onWalletLoaded.accept(wallet);
+            }
+
+            @Override
+            public void onWalletsLoaded() {
+                onWalletsLoaded.run();
+            }
+
+            @Override
+            public void onMarketDataUpdated() {
+                onMarketDataUpdated.run();
+            }
+        });
+        start();
+    }
+
+    /**
+     * Start loading wallets and the market data & position update threads. Register listeners before calling this.
+     */
+    public void start() {
+        logger.log(Level.INFO, String.format("Starting processor (market data every %ds, position updates every %ds, wallet load delay %ds)",
+                m_marketDataIntervalSeconds, m_positionUpdateIntervalSeconds, m_walletApiRateLimitSeconds));
+        MetricsRegistry.getInstance().startPeriodicDump(ConfigUtil.getInt("tracker.metrics.dumpIntervalSeconds", METRICS_DUMP_INTERVAL_SECONDS));
+        JfrRecordingUtil.startIfEnabled();
+        // Listening before the blacklist is loaded, so no entry added in between is missed
+        if (m_cacheSyncListener != null) m_cacheSyncListener.start();
         DatabaseConnUtil.loadBlacklistedTokensFromDb(m_dbConnection, m_blacklistedTokens);
-        loadWalletsAndTokensFromDbJavaFX();
-        initiateMarketDataThreadJavaFX();
-        initiatePositionUpdateThreadJavaFX();
+        loadAlertsFromDb();
+        loadWalletsAndTokensFromDb();
+        m_marketDataScheduler.registerMBean();
+        m_pricingStage.start();
+        m_aggregationStage.start();
+        initiateTransactionIngestionThread();
+    }
+
+    public void addListener(ProcessorListener listener) {
+        m_listeners.add(listener);
+    }
+
+    public void removeListener(ProcessorListener listener) {
+        m_listeners.remove(listener);
     }
 
     /**
@@ -94,10 +232,17 @@ public class Processor {
     }
 
     /**
-     * Get the map of known tokens.
+     * Get the latest published portfolio snapshot. Lock-free and consistent across all wallets & positions.
+     */
+    public PortfolioSnapshot getPortfolioSnapshot() {
+        return m_snapshotPublisher.current();
+    }
+
+    /**
+     * Get the token metadata cache.
      */
-    public Map<String, Token> getTokenMap() {
-        return Collections.unmodifiableMap(m_tokenMap);
+    public TokenCache getTokenCache() {
+        return m_tokenCache;
     }
 
     /**
@@ -107,109 +252,244 @@ public class Processor {
      * @param callback Callback with the created Wallet (or null on failure)
      */
     public void addWalletAsync(String name, String address, Consumer<Wallet> callback) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                Pair<String, String> walletPair = Pair.of(name, address);
-                m_walletService.processWalletForJavaFX(walletPair);
-                Wallet wallet = m_wallets.get(address);
-                callback.accept(wallet);
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Error adding wallet: " + address, e);
-                callback.accept(null);
+        m_walletScheduler.submit(WalletWorkPriority.INTERACTIVE, address, () -> m_walletService.processWalletForJavaFX(Pair.of(name, address)))
+                .whenComplete((v, ex) -> {
+                    if (ex != null) {
+                        logger.log(Level.SEVERE, "Error adding wallet: " + address, ex);
+                    } else {
+                        m_aggregationStage.offer("wallet");
+                    }
+                    callback.accept(ex == null ? m_wallets.get(address) : null);
+                });
+    }
+
+    /**
+     * Asynchronously reload a tracked wallet's token accounts, ahead of any lower priority wallet work still queued.
+     * Listeners are notified with onWalletLoaded.
+     * @param callback Callback with the refreshed Wallet (or null if not tracked or the refresh failed)
+     */
+    public void refreshWalletAsync(String address, WalletWorkPriority priority, Consumer<Wallet> callback) {
+        Wallet wallet = m_wallets.get(address);
+        if (wallet == null) {
+            callback.accept(null);
+            return;
+        }
+        m_walletScheduler.submit(priority, address, () -> loadWallet(Pair.of(wallet.getName(), address)))
+                .whenComplete((v, ex) -> callback.accept(ex == null ? m_wallets.get(address) : null));
+    }
+
+    /**
+     * Refresh a wallet the UI is showing if it was last loaded more than tracker.walletLoad.selectedMaxAgeSeconds ago.
+     * @return true if a refresh was queued
+     */
+    public boolean refreshIfStale(Wallet wallet, Consumer<Wallet> callback) {
+        if (m_selectedWalletMaxAgeMillis <= 0 || System.currentTimeMillis() - wallet.getRefreshedAtMillis() < m_selectedWalletMaxAgeMillis) {
+            return false;
+        }
+        refreshWalletAsync(wallet.getAddress(), WalletWorkPriority.SELECTED, callback);
+        return true;
+    }
+
+    /**
+     * Asynchronously stop tracking a wallet: drop it from memory & the DB and stop pricing tokens no other wallet holds.
+     * Runs on the wallet loader thread so it cannot interleave with a load of the same wallet.
+     * @param callback Callback with true if the wallet was tracked
+     */
+    public void removeWalletAsync(String address, Consumer<Boolean> callback) {
+        m_walletScheduler.drop(address);
+        m_walletScheduler.execute(WalletWorkPriority.INTERACTIVE, () -> {
+            Wallet wallet = m_wallets.remove(address);
+            if (wallet != null) {
+                m_walletService.releasePositions(wallet);
+                DatabaseConnUtil.deleteWalletFromDb(m_dbConnection, address);
+                m_aggregationStage.offer("wallet");
+                logger.log(Level.INFO, String.format("Removed wallet %s (%s)", wallet.getName(), address));
             }
-        }, m_walletLoaderExecutor);
+            callback.accept(wallet != null);
+        });
     }
 
     /**
-     * JavaFX version: Market data thread with callback notification
+     * Called as a mint becomes held by its first position. Blocks while the pricing stage is full.
      */
-    private void initiateMarketDataThreadJavaFX() {
-        m_MarketDataAndPositionScheduler.scheduleAtFixedRate(() -> {
-            try {
-                m_marketDataProcessor.processMarketData();
-            } catch (Exception e) {
-                logger.log(Level.SEVERE, "Market Data Thread has thrown an Exception", e);
+    private void queueForPricing(String mintAddress) {
+        try {
+            m_pricingStage.submit(mintAddress);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Aggregation stage - reprices positions, publishes a snapshot and notifies listeners. Runs once per batch of queued
+     * triggers, else every tracker.positionUpdate.intervalSeconds.
+     * @param triggers What queued the repricing (prices, wallet), empty on the interval
+     */
+    private void repricePositions(List<String> triggers) {
+        try {
+            logger.log(Level.INFO, triggers.isEmpty() ? "Updating positions..." : "Updating positions after " + new TreeSet<>(triggers) + "...");
+            long startTime = System.nanoTime();
+            for (Wallet wallet : m_wallets.values()) {
+                for (Position position : wallet.getPositions().values()) {
+                    m_marketDataProcessor.applyMarketDataToPosition(position);
+                }
             }
-        }, 0, MARKET_DATA_INTERVAL_SECONDS, TimeUnit.SECONDS);
+            s_repricingDuration.recordSince(startTime);
+            logger.log(Level.INFO, "Positions updated!");
+            PortfolioSnapshot snapshot = m_snapshotPublisher.publish(m_wallets.values());
+            recordPortfolioValues(snapshot);
+            m_alertEngine.onSnapshot(snapshot);
+
+            // Notify listeners of market data update
+            for (ProcessorListener listener : m_listeners) {
+                listener.onMarketDataUpdated();
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Positions Update Thread has thrown an Exception", e);
+        }
     }
 
     /**
-     * JavaFX version: Position update thread with callback notification
+     * Transaction ingestion thread - pulls new transactions for all wallets and updates cost basis
      */
-    private void initiatePositionUpdateThreadJavaFX() {
-        m_MarketDataAndPositionScheduler.scheduleAtFixedRate(() -> {
+    private void initiateTransactionIngestionThread() {
+        int intervalSeconds = ConfigUtil.getInt("tracker.transactions.intervalSeconds", TRANSACTION_INGEST_INTERVAL_SECONDS);
+        if (m_transactionIngestionProcessor == null || intervalSeconds <= 0) {
+            return;
+        }
+        m_transactionIngestionProcessor.trackSolPrice();
+        // First pass after one interval so it doesn't compete with startup wallet loads for the RPC budget
+        m_transactionScheduler.scheduleWithFixedDelay(() -> {
             try {
-                logger.log(Level.INFO, "Updating positions...");
-                for (Wallet wallet : m_wallets.values()) {
-                    for (Position position : wallet.getPositions().values()) {
-                        m_marketDataProcessor.applyMarketDataToPosition(position);
-                    }
-                }
-                logger.log(Level.INFO, "Positions updated!");
-                // Notify JavaFX UI of market data update
-                if (m_onMarketDataUpdated != null) {
-                    m_onMarketDataUpdated.run();
-                }
+                m_transactionIngestionProcessor.processTransactions();
             } catch (Exception e) {
-                logger.log(Level.SEVERE, "Positions Update Thread has thrown an Exception", e);
+                logger.log(Level.SEVERE, "Transaction Ingestion Thread has thrown an Exception", e);
             }
-        }, 0, POSITION_UPDATE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        }, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    private void loadAlertsFromDb() {
+        List<Alert> alerts = new ArrayList<>();
+        DatabaseConnUtil.loadAlertsFromDb(m_dbConnection, alerts);
+        alerts.forEach(m_alertEngine::add);
+    }
+
+    /**
+     * Add and store an alert. mintAddress / walletAddress / windowSeconds are ignored where the kind does not use them.
+     */
+    public Alert addAlert(AlertKind kind, AlertDirection direction, String mintAddress, String walletAddress, double threshold, long windowSeconds) {
+        long id = DatabaseConnUtil.persistAlertToDb(m_dbConnection, kind, direction, mintAddress, walletAddress, threshold, windowSeconds);
+        if (id < 0) {
+            id = m_localAlertIds.decrementAndGet();
+        }
+        Alert alert = new Alert(id, kind, direction, mintAddress, walletAddress, threshold, windowSeconds);
+        m_alertEngine.add(alert);
+        logger.log(Level.INFO, String.format("Added alert #%d: %s %s %s", id, kind, direction, threshold));
+        return alert;
+    }
+
+    public boolean removeAlert(long alertId) {
+        boolean removed = m_alertEngine.remove(alertId);
+        if (removed && alertId > 0) {
+            DatabaseConnUtil.deleteAlertFromDb(m_dbConnection, alertId);
+        }
+        return removed;
+    }
+
+    public List<Alert> getAlerts() {
+        return m_alertEngine.getAlerts();
+    }
+
+    private void recordPortfolioValues(PortfolioSnapshot snapshot) {
+        if (m_portfolioHistory == null || snapshot.wallets().isEmpty()) {
+            return;
+        }
+        for (WalletSnapshot wallet : snapshot.wallets()) {
+            m_portfolioHistory.recordPrice(wallet.address(), snapshot.timestampMillis(), wallet.usdValue());
+        }
+        m_portfolioHistory.recordPrice(TOTAL_VALUE_SERIES, snapshot.timestampMillis(), snapshot.totalUsdValue());
+    }
+
+    /**
+     * USD value of a wallet (or TOTAL_VALUE_SERIES for all wallets) from fromMillis to now, downsampled to at most a few
+     * thousand points however long the range. Empty if portfolio history is disabled or the wallet has none yet.
+     */
+    public List<OhlcBar> getPortfolioValueHistory(String seriesKey, long fromMillis) {
+        return m_portfolioHistory == null ? List.of() : m_portfolioHistory.readSeries(seriesKey, fromMillis);
     }
 
     /**
      * Load wallets and complete token list from DB. Fetch wallet content asynchronously using CompletableFutures
      */
-    private void loadWalletsAndTokensFromDbJavaFX() {
+    private void loadWalletsAndTokensFromDb() {
         long startTime = System.nanoTime();
-        DatabaseConnUtil.loadTokensFromDb(m_dbConnection, m_tokenMap);
+        // Tokens are looked up in the token table as wallets need them, not loaded up front
+        TokenListImporter.importConfiguredList(m_tokenCache);
         Set<Pair<String, String>> walletAddresses = DatabaseConnUtil.loadWalletsFromDb(m_dbConnection);
 
-        m_walletsLoadFuture = CompletableFuture.runAsync(() -> {
-            for (Pair<String, String> walletAddress : walletAddresses) {
-                try {
-                    m_walletService.processWalletForJavaFX(walletAddress);
-                    // Notify UI that this wallet has been loaded
-                    Wallet wallet = m_wallets.get(walletAddress.getRight());
-                    if (wallet != null && m_onWalletLoaded != null) {
-                        m_onWalletLoaded.accept(wallet);
-                    }
-                } catch (Exception e) {
-                    logger.log(Level.SEVERE, "Exception while processing stored wallet: " + walletAddress, e);
-                }
+        // One background job per wallet, so wallets added or refreshed by the user are loaded in between
+        List<CompletableFuture<Void>> loads = new ArrayList<>(walletAddresses.size());
+        for (Pair<String, String> walletAddress : walletAddresses) {
+            loads.add(m_walletScheduler.submit(WalletWorkPriority.BACKGROUND, walletAddress.getRight(), () -> loadWallet(walletAddress)));
+        }
 
-                try {
-                    logger.log(Level.INFO, "Sleeping for " + WALLET_API_RATE_LIMIT_SECONDS + "s due to sava API rate limits...");
-                    Thread.sleep(WALLET_API_RATE_LIMIT_SECONDS * 1000L);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    logger.log(Level.WARNING, "Wallet loading thread interrupted while sleeping", e);
-                    break;
-                }
-            }
-        }, m_walletLoaderExecutor).whenComplete((v, ex) -> {
-            if (ex != null && !(ex instanceof CancellationException)) {
-                logger.log(Level.SEVERE, "Error while loading wallets", ex);
+        m_walletsLoadFuture = CompletableFuture.allOf(loads.toArray(new CompletableFuture[0])).whenComplete((v, ex) -> {
+            Throwable cause = ex instanceof CompletionException ? ex.getCause() : ex;
+            if (cause instanceof CancellationException) {
+                logger.log(Level.INFO, "Startup wallet loading cancelled");
+            } else if (cause != null) {
+                logger.log(Level.SEVERE, "Error while loading wallets", cause);
             } else {
-                logger.log(Level.INFO, "Finished loading wallets");
-                // Notify JavaFX UI that wallets are loaded
-                if (m_onWalletsLoaded != null) {
-                    m_onWalletsLoaded.run();
+                m_startupWalletLoadSeconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+                logger.log(Level.INFO, String.format("Finished loading %d wallets in %f seconds (from DB & Sava RPC APIs, incl. rate limit delays)",
+                        walletAddresses.size(), m_startupWalletLoadSeconds));
+                // Notify listeners that wallets are loaded
+                for (ProcessorListener listener : m_listeners) {
+                    listener.onWalletsLoaded();
                 }
             }
         });
 
-        long endTime = System.nanoTime();
-        double duration = (double) (endTime - startTime) / 1000000000; // Duration in seconds
-        logger.log(Level.INFO,String.format( "Startup Wallet & Token load (from DB & Sava RPC APIs took %f seconds", duration));
+        // Wallets continue loading in the background - the full load time is logged on completion
+        double duration = (double) (System.nanoTime() - startTime) / 1000000000; // Duration in seconds
+        logger.log(Level.INFO, String.format("Startup token & wallet list load from DB took %f seconds. Loading %d wallets in the background",
+                duration, walletAddresses.size()));
+    }
+
+    /**
+     * Load or reload a wallet and notify listeners.
+     * @param walletAddress Pair of wallet name (left) and address (right)
+     */
+    private void loadWallet(Pair<String, String> walletAddress) {
+        try {
+            m_walletService.processWalletForJavaFX(walletAddress);
+            Wallet wallet = m_wallets.get(walletAddress.getRight());
+            if (wallet != null) {
+                m_aggregationStage.offer("wallet");
+                for (ProcessorListener listener : m_listeners) {
+                    listener.onWalletLoaded(wallet);
+                }
+            }
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Exception while processing stored wallet: " + walletAddress, e);
+        }
     }
 
     public void stop() {
-        // Attempt graceful shutdown of scheduled tasks
+        // Both the UI close handler and JVM shutdown hooks may call stop()
+        if (!m_stopped.compareAndSet(false, true)) {
+            return;
+        }
+
+        MetricsRegistry.getInstance().stopPeriodicDump();
+
+        // Attempt graceful shutdown of the pricing & aggregation stages
         try {
-            logger.log(Level.INFO, "Shutting down scheduler...");
-            m_MarketDataAndPositionScheduler.shutdownNow();
-            if (!m_MarketDataAndPositionScheduler.awaitTermination(5, TimeUnit.SECONDS)) {
-                logger.log(Level.WARNING, "Scheduler did not terminate within timeout.");
+            logger.log(Level.INFO, "Shutting down pipeline stages...");
+            m_pricingStage.shutdown();
+            m_aggregationStage.shutdown();
+            if (!m_pricingStage.awaitTermination(5000) || !m_aggregationStage.awaitTermination(5000)) {
+                logger.log(Level.WARNING, "Pipeline stages did not terminate within timeout.");
             }
         } catch (InterruptedException e) {
             Thread.currentThread().interrupt();
@@ -223,8 +503,8 @@ public class Processor {
             if (m_walletsLoadFuture != null) {
                 m_walletsLoadFuture.cancel(true);
             }
-            m_walletLoaderExecutor.shutdownNow();
-            if (!m_walletLoaderExecutor.awaitTermination(3, TimeUnit.SECONDS)) {
+            m_walletScheduler.shutdown();
+            if (!m_walletScheduler.awaitTermination(3000)) {
                 logger.log(Level.WARNING, "Wallet loader executor did not terminate within timeout.");
             }
 
@@ -236,6 +516,24 @@ public class Processor {
             logger.log(Level.SEVERE, "Exception while shutting down wallet loader and/or thread executor", e);
         }
 
+        m_transactionScheduler.shutdownNow();
+        m_alertEngine.shutdown();
+        if (m_cacheSyncListener != null) {
+            m_cacheSyncListener.shutdown();
+        }
+        if (m_transactionIngestionProcessor != null) {
+            m_transactionIngestionProcessor.shutdown();
+        }
+
+        TrafficCapture.close();
+
+        if (m_priceHistory != null) {
+            m_priceHistory.close();
+        }
+        if (m_portfolioHistory != null) {
+            m_portfolioHistory.close();
+        }
+
         // Close DB connection
         try {
             if (m_dbConnection != null && !m_dbConnection.isClosed()) {
@@ -0,0 +1,32 @@
+package org.core.processors;
+
+import org.core.accounts.Wallet;
+import org.core.alerts.AlertNotification;
+
+/**
+ * Listener for Processor lifecycle events. Callbacks are invoked on Processor worker threads, so implementations must
+ * hand off to their own thread (e.g. the FX thread) if required. All methods are optional.
+ */
+public interface ProcessorListener {
+
+    /**
+     * Invoked each time a wallet has been loaded (or reloaded) with its positions.
+     */
+    default void onWalletLoaded(Wallet wallet) {}
+
+    /**
+     * Invoked once all stored wallets have finished loading at startup.
+     */
+    default void onWalletsLoaded() {}
+
+    /**
+     * Invoked after positions have been repriced with the latest market data and a new portfolio snapshot has been
+     * published (see Processor.getPortfolioSnapshot()).
+     */
+    default void onMarketDataUpdated() {}
+
+    /**
+     * Invoked on the alert delivery thread when an alert fires (after cooldown & rate limiting).
+     */
+    default void onAlert(AlertNotification notification) {}
+}
@@ -0,0 +1,301 @@
+package org.core.processors;
+
+import org.core.accounts.Position;
+import org.core.accounts.SessionTokenRegistry;
+import org.core.accounts.Token;
+import org.core.accounts.Wallet;
+import org.core.history.PriceHistoryStore;
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.prices.MarketData;
+import org.core.transactions.CostBasis;
+import org.core.transactions.SignatureInfo;
+import org.core.transactions.TokenBalanceDelta;
+import org.core.transactions.TransactionParser;
+import org.core.utils.ConfigUtil;
+import org.core.utils.DatabaseConnUtil;
+import org.core.utils.RestApiUtil;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.net.http.HttpClient;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Incremental transaction history ingestion. Each cycle pages getSignaturesForAddress for every tracked wallet back to
+ * its last-seen signature, fetches the new transactions in parallel (bounded by an RPC permit budget), and applies the
+ * wallet's token balance deltas oldest first to an average-cost basis per mint. Deltas, cost basis and the new
+ * checkpoint are stored together, so history is never re-scanned and a failed pass resumes from the old checkpoint.
+ */
+public class TransactionIngestionProcessor {
+
+    private static final Logger logger = Logger.getLogger(TransactionIngestionProcessor.class.getName());
+
+    private static final int RPC_MAX_CONCURRENT_REQUESTS = 2;
+    private static final long RPC_REQUEST_DELAY_MS = 250;
+    private static final int SIGNATURE_PAGE_SIZE = 1000;
+    private static final int MAX_BACKFILL_SIGNATURES = 500;
+    private static final long PRICE_LOOKUP_MAX_AGE_MILLIS = 3_600_000;
+
+    // Marks a transaction the node no longer has - skipped rather than retried
+    private static final JSONObject s_transactionNotFound = new JSONObject();
+
+    private static final Histogram s_ingestDuration = MetricsRegistry.getInstance()
+            .histogram("tracker_transaction_ingest_seconds", "Duration of a transaction ingestion pass over all wallets");
+    private static final Counter s_transactionsFetched = MetricsRegistry.getInstance()
+            .counter("tracker_transactions_fetched_total", "Transactions fetched with getTransaction");
+    private static final Counter s_transactionsDeduped = MetricsRegistry.getInstance()
+            .counter("tracker_transactions_deduped_total", "Transactions shared by several tracked wallets that were fetched once");
+    private static final Counter s_deltasIngested = MetricsRegistry.getInstance()
+            .counter("tracker_token_balance_deltas_total", "Token balance deltas ingested from transaction history");
+    private static final Counter s_unpricedSwaps = MetricsRegistry.getInstance()
+            .counter("tracker_transaction_ingest_unpriced_total", "Wallet passes stopped at a SOL swap with no SOL price to value it");
+
+    private final HttpClient m_httpClient;
+    private final Connection m_dbConnection;
+    private final Map<String, Wallet> m_wallets;
+    private final PriceHistoryStore m_priceHistory;
+    private final SessionTokenRegistry m_sessionTokens;
+
+    private final Map<String, String> m_lastSignatureByWallet = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, CostBasis>> m_costBasisByWallet = new ConcurrentHashMap<>();
+
+    private final ExecutorService m_virtualFetchExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Semaphore m_rpcRateLimiter;
+    private final long m_rpcRequestDelayMs;
+    private final int m_pageSize;
+    private final int m_maxBackfillSignatures;
+
+    /**
+     * @param priceHistory Used to value SOL legs at the time of the trade, may be null
+     * @param sessionTokens SOL's current price is read from its session token, priced by the pricing stage
+     */
+    public TransactionIngestionProcessor(HttpClient httpClient, Map<String, Wallet> wallets, PriceHistoryStore priceHistory,
+                                         SessionTokenRegistry sessionTokens) {
+        m_httpClient = httpClient;
+        m_wallets = wallets;
+        m_priceHistory = priceHistory;
+        m_sessionTokens = sessionTokens;
+        // Own connection - ingestion writes run in DB transactions that must not pick up other threads' writes
+        m_dbConnection = DatabaseConnUtil.openDbConnection();
+        m_rpcRateLimiter = new Semaphore(ConfigUtil.getInt("tracker.transactions.maxConcurrentRequests", RPC_MAX_CONCURRENT_REQUESTS));
+        m_rpcRequestDelayMs = ConfigUtil.getLong("tracker.transactions.requestDelayMs", RPC_REQUEST_DELAY_MS);
+        m_pageSize = ConfigUtil.getInt("tracker.transactions.pageSize", SIGNATURE_PAGE_SIZE);
+        m_maxBackfillSignatures = ConfigUtil.getInt("tracker.transactions.maxBackfillSignatures", MAX_BACKFILL_SIGNATURES);
+
+        DatabaseConnUtil.loadTransactionCheckpointsFromDb(m_dbConnection, m_lastSignatureByWallet);
+        DatabaseConnUtil.loadCostBasisFromDb(m_dbConnection, m_costBasisByWallet);
+    }
+
+    public void processTransactions() {
+        long startTime = System.nanoTime();
+        try {
+            // Shared across wallets for this pass so a transaction between two tracked wallets is fetched once
+            Map<String, CompletableFuture<JSONObject>> fetches = new ConcurrentHashMap<>();
+            double solUsdPrice = currentSolUsdPrice();
+            for (Wallet wallet : m_wallets.values()) {
+                ingestWallet(wallet, fetches, solUsdPrice);
+                attachCostBasis(wallet);
+            }
+        } finally {
+            s_ingestDuration.recordSince(startTime);
+        }
+    }
+
+    /**
+     * Hold SOL in the session for as long as the tracker runs, so the pricing stage keeps its price (& price history)
+     * current for valuing swaps. Call once the pricing stage is running.
+     */
+    public void trackSolPrice() {
+        m_sessionTokens.acquire(new Token(TransactionParser.WRAPPED_SOL_MINT, "Wrapped SOL", "SOL", 9));
+    }
+
+    public Map<String, CostBasis> getCostBasis(String walletAddress) {
+        return m_costBasisByWallet.getOrDefault(walletAddress, Map.of());
+    }
+
+    private void ingestWallet(Wallet wallet, Map<String, CompletableFuture<JSONObject>> fetches, double solUsdPrice) {
+        String walletAddress = wallet.getAddress();
+        List<SignatureInfo> signatures = fetchNewSignatures(walletAddress, m_lastSignatureByWallet.get(walletAddress));
+        if (signatures == null || signatures.isEmpty()) {
+            return;
+        }
+        Collections.reverse(signatures); // Oldest first
+
+        List<CompletableFuture<JSONObject>> transactions = new ArrayList<>(signatures.size());
+        for (SignatureInfo signature : signatures) {
+            if (signature.failed()) {
+                transactions.add(CompletableFuture.completedFuture(s_transactionNotFound));
+                continue;
+            }
+            CompletableFuture<JSONObject> existing = fetches.get(signature.signature());
+            if (existing != null) s_transactionsDeduped.increment();
+            transactions.add(existing != null ? existing : fetches.computeIfAbsent(signature.signature(), this::fetchTransactionAsync));
+        }
+
+        // Apply in order, stopping at the first transaction that could not be fetched or valued so the checkpoint stays contiguous
+        Map<String, CostBasis> costBasisByMint = new HashMap<>(getCostBasis(walletAddress));
+        Map<String, CostBasis> changed = new HashMap<>();
+        List<TokenBalanceDelta> deltas = new ArrayList<>();
+        SignatureInfo lastApplied = null;
+        int appliedCount = 0;
+        transactionLoop:
+        for (int i = 0; i < signatures.size(); i++) {
+            JSONObject transaction = transactions.get(i).join();
+            if (transaction == null) {
+                logger.log(Level.WARNING, String.format("Transaction %s for wallet %s could not be fetched, resuming from it next pass",
+                        signatures.get(i).signature(), wallet.getName()));
+                break;
+            }
+            if (transaction != s_transactionNotFound) {
+                List<TokenBalanceDelta> parsed = TransactionParser.parse(signatures.get(i).signature(), transaction, walletAddress);
+                double[] valuesUsd = new double[parsed.size()];
+                for (int j = 0; j < parsed.size(); j++) {
+                    TokenBalanceDelta delta = parsed.get(j);
+                    double solPriceUsd = delta.swap() && delta.quoteSol() != 0 ? solUsdPriceAt(delta, solUsdPrice) : 0;
+                    if (Double.isNaN(solPriceUsd)) {
+                        // Booking it as a transfer would store a wrong basis for good - wait for a SOL price instead
+                        s_unpricedSwaps.increment();
+                        logger.log(Level.WARNING, String.format("No SOL price to value transaction %s for wallet %s, resuming from it next pass",
+                                signatures.get(i).signature(), wallet.getName()));
+                        break transactionLoop;
+                    }
+                    valuesUsd[j] = counterValueUsd(delta, solPriceUsd);
+                }
+                for (int j = 0; j < parsed.size(); j++) {
+                    TokenBalanceDelta delta = parsed.get(j);
+                    CostBasis updated = costBasisByMint.getOrDefault(delta.mintAddress(), CostBasis.EMPTY)
+                            .apply(delta.amountDelta(), valuesUsd[j]);
+                    costBasisByMint.put(delta.mintAddress(), updated);
+                    changed.put(delta.mintAddress(), updated);
+                    deltas.add(delta);
+                }
+            }
+            lastApplied = signatures.get(i);
+            appliedCount++;
+        }
+
+        if (lastApplied == null || !DatabaseConnUtil.persistTransactionIngest(m_dbConnection, walletAddress, deltas, changed, lastApplied)) {
+            return;
+        }
+        m_lastSignatureByWallet.put(walletAddress, lastApplied.signature());
+        m_costBasisByWallet.put(walletAddress, Map.copyOf(costBasisByMint));
+        s_deltasIngested.add(deltas.size());
+        logger.log(Level.INFO, String.format("Ingested %d of %d new transactions (%d token balance deltas) for wallet %s",
+                appliedCount, signatures.size(), deltas.size(), wallet.getName()));
+    }
+
+    /**
+     * Signatures newer than lastSignature, newest first. Without a checkpoint at most maxBackfillSignatures of the most
+     * recent history are taken.
+     * @return The signatures, or null if a page could not be fetched (retried next pass)
+     */
+    private List<SignatureInfo> fetchNewSignatures(String walletAddress, String lastSignature) {
+        int limit = lastSignature == null ? m_maxBackfillSignatures : Integer.MAX_VALUE;
+        List<SignatureInfo> signatures = new ArrayList<>();
+        String before = null;
+
+        while (signatures.size() < limit) {
+            int pageSize = Math.min(m_pageSize, limit - signatures.size());
+            JSONArray page = withRpcPermit(() -> RestApiUtil.getSignaturesForAddress(m_httpClient, walletAddress, before(signatures), lastSignature, pageSize));
+            if (page == null) {
+                return null;
+            }
+            for (int i = 0; i < page.length(); i++) {
+                signatures.add(SignatureInfo.fromJson(page.getJSONObject(i)));
+            }
+            if (page.length() < pageSize) break;
+        }
+        return signatures;
+    }
+
+    private static String before(List<SignatureInfo> signatures) {
+        return signatures.isEmpty() ? null : signatures.get(signatures.size() - 1).signature();
+    }
+
+    private CompletableFuture<JSONObject> fetchTransactionAsync(String signature) {
+        return CompletableFuture.supplyAsync(() -> withRpcPermit(() -> {
+            JSONObject response = RestApiUtil.getTransaction(m_httpClient, signature);
+            if (response == null) return null;
+            s_transactionsFetched.increment();
+            JSONObject transaction = response.optJSONObject("result");
+            return transaction != null ? transaction : s_transactionNotFound;
+        }), m_virtualFetchExecutor);
+    }
+
+    private <T> T withRpcPermit(Callable<T> call) {
+        try {
+            m_rpcRateLimiter.acquire();
+            try {
+                return call.call();
+            } finally {
+                // Small delay to stay within the RPC node's rate limit (tracker.transactions.requestDelayMs)
+                Thread.sleep(m_rpcRequestDelayMs);
+                m_rpcRateLimiter.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Transaction history RPC call failed", e);
+            return null;
+        }
+    }
+
+    /**
+     * SOL price recorded around the trade when available, else the current price.
+     * @return The price, or NaN if neither is known
+     */
+    private double solUsdPriceAt(TokenBalanceDelta delta, double currentSolUsdPrice) {
+        double solUsdPrice = m_priceHistory != null
+                ? m_priceHistory.valueAt(TransactionParser.WRAPPED_SOL_MINT, delta.blockTimeSeconds() * 1000, PRICE_LOOKUP_MAX_AGE_MILLIS)
+                : Double.NaN;
+        return Double.isNaN(solUsdPrice) ? currentSolUsdPrice : solUsdPrice;
+    }
+
+    /**
+     * USD paid (acquisitions) or received (disposals) for a swap. NaN for transfers.
+     * @param solUsdPrice Price to value the SOL leg at, unused if the swap has none
+     */
+    private static double counterValueUsd(TokenBalanceDelta delta, double solUsdPrice) {
+        if (!delta.swap()) {
+            return Double.NaN;
+        }
+        double quoteUsd = (delta.quoteSol() == 0 ? 0 : delta.quoteSol() * solUsdPrice) + delta.quoteStableUsd();
+        return Math.max(0, delta.amountDelta() > 0 ? -quoteUsd : quoteUsd);
+    }
+
+    /**
+     * SOL's latest price from the pricing stage (see trackSolPrice), so ingestion makes no Jupiter calls of its own.
+     * @return The price, or NaN if SOL has not been priced yet
+     */
+    private double currentSolUsdPrice() {
+        Token sol = m_sessionTokens.get(TransactionParser.WRAPPED_SOL_MINT);
+        MarketData marketData = sol != null ? sol.getMarketData() : null;
+        return marketData != null ? marketData.getUsdPrice() : Double.NaN;
+    }
+
+    private void attachCostBasis(Wallet wallet) {
+        Map<String, CostBasis> costBasisByMint = getCostBasis(wallet.getAddress());
+        for (Position position : wallet.getPositions().values()) {
+            position.setCostBasis(costBasisByMint.get(position.getToken().getMintAddress()));
+        }
+    }
+
+    public void shutdown() {
+        m_virtualFetchExecutor.shutdownNow();
+        try {
+            if (m_dbConnection != null && !m_dbConnection.isClosed()) {
+                m_dbConnection.close();
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to close transaction ingestion DB connection", e);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.core.processors;
+
+/**
+ * Priority of a wallet load or refresh on the wallet work scheduler, highest first.
+ */
+public enum WalletWorkPriority {
+    INTERACTIVE, // The user added a wallet or asked for a refresh and is waiting on it
+    SELECTED,    // The wallet shown in the UI is stale
+    BACKGROUND;  // Startup loads of stored wallets
+
+    public String label() {
+        return name().toLowerCase();
+    }
+}
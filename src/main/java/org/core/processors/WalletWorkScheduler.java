@@ -0,0 +1,162 @@
+package org.core.processors;
+
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs wallet loads & refreshes one at a time, highest WalletWorkPriority first and in submission order within a
+ * priority, so a wallet the user is waiting on is next to run however many stored wallets are still queued.
+ * <p>
+ * RPC jobs are spaced by the Sava rate limit delay, taken before the next job is picked so a job submitted during the
+ * delay still goes first. Resubmitting a queued wallet raises its priority instead of loading it twice.
+ */
+public class WalletWorkScheduler {
+
+    private static final Logger logger = Logger.getLogger(WalletWorkScheduler.class.getName());
+    private static final WalletWorkPriority[] s_priorities = WalletWorkPriority.values();
+
+    private final PriorityBlockingQueue<Job> m_queue = new PriorityBlockingQueue<>();
+    private final Map<String, Job> m_queuedByWallet = new HashMap<>(); // Queued RPC jobs, guarded by this
+    private final AtomicLong m_sequence = new AtomicLong();
+    private final Histogram[] m_queueWait = new Histogram[s_priorities.length];
+    private final long m_rateLimitNanos;
+    private final Thread m_worker;
+    private volatile boolean m_stopped;
+
+    private record Job(WalletWorkPriority priority, long sequence, long enqueuedNanos, String walletAddress, Runnable task,
+                       boolean rateLimited, CompletableFuture<Void> future) implements Comparable<Job> {
+
+        @Override
+        public int compareTo(Job other) {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * @param rateLimitSeconds Minimum delay between the end of one RPC job and the start of the next
+     */
+    public WalletWorkScheduler(int rateLimitSeconds) {
+        m_rateLimitNanos = rateLimitSeconds * 1_000_000_000L;
+
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        for (WalletWorkPriority priority : s_priorities) {
+            m_queueWait[priority.ordinal()] = metrics.histogram("tracker_wallet_queue_wait_seconds{priority=\"" + priority.label() + "\"}",
+                    "Time wallet jobs wait on the wallet work scheduler before running, by priority");
+            metrics.gauge("tracker_wallet_queue_depth{priority=\"" + priority.label() + "\"}",
+                    "Wallet jobs waiting on the wallet work scheduler, by priority", () -> queuedCount(priority));
+        }
+
+        m_worker = new Thread(this::runJobs, "wallet-loader");
+        m_worker.setDaemon(true);
+        m_worker.start();
+    }
+
+    /**
+     * Queue a wallet load or refresh, which calls the Solana RPC and so is rate limited. If the wallet is already
+     * queued, its job is raised to this priority (if higher) and its future returned.
+     */
+    public synchronized CompletableFuture<Void> submit(WalletWorkPriority priority, String walletAddress, Runnable task) {
+        Job queued = m_queuedByWallet.get(walletAddress);
+        if (queued != null) {
+            if (priority.compareTo(queued.priority()) >= 0 || !m_queue.remove(queued)) {
+                return queued.future();
+            }
+            // Keeps its enqueue time, so the wait metric covers the whole time queued
+            Job raised = new Job(priority, m_sequence.incrementAndGet(), queued.enqueuedNanos(), walletAddress, queued.task(), true, queued.future());
+            m_queuedByWallet.put(walletAddress, raised);
+            m_queue.add(raised);
+            logger.log(Level.FINE, String.format("Wallet %s raised from %s to %s priority", walletAddress, queued.priority().label(), priority.label()));
+            return raised.future();
+        }
+
+        Job job = new Job(priority, m_sequence.incrementAndGet(), System.nanoTime(), walletAddress, task, true, new CompletableFuture<>());
+        m_queuedByWallet.put(walletAddress, job);
+        m_queue.add(job);
+        return job.future();
+    }
+
+    /**
+     * Queue work that must not interleave with wallet loads but makes no RPC calls, so is not rate limited.
+     */
+    public CompletableFuture<Void> execute(WalletWorkPriority priority, Runnable task) {
+        Job job = new Job(priority, m_sequence.incrementAndGet(), System.nanoTime(), null, task, false, new CompletableFuture<>());
+        m_queue.add(job);
+        return job.future();
+    }
+
+    /**
+     * Drop a wallet's queued job, if any, without running it. Its future completes normally.
+     */
+    public synchronized void drop(String walletAddress) {
+        Job queued = m_queuedByWallet.remove(walletAddress);
+        if (queued != null && m_queue.remove(queued)) {
+            queued.future().complete(null);
+        }
+    }
+
+    /**
+     * Stop the worker, interrupting the running job. Queued jobs are cancelled.
+     */
+    public void shutdown() {
+        m_stopped = true;
+        m_worker.interrupt();
+        Job job;
+        while ((job = m_queue.poll()) != null) {
+            job.future().cancel(false);
+        }
+    }
+
+    public boolean awaitTermination(long timeoutMillis) throws InterruptedException {
+        m_worker.join(timeoutMillis);
+        return !m_worker.isAlive();
+    }
+
+    private void runJobs() {
+        long nextRpcStartNanos = 0;
+        while (!m_stopped) {
+            Job job;
+            try {
+                // Wait out the rate limit before picking, so the job taken is the most urgent one at that point
+                long delayNanos = nextRpcStartNanos - System.nanoTime();
+                if (delayNanos > 0) {
+                    logger.log(Level.FINE, String.format("Waiting %dms before the next wallet load due to Sava API rate limits", delayNanos / 1_000_000));
+                    Thread.sleep(delayNanos / 1_000_000, (int) (delayNanos % 1_000_000));
+                }
+                job = m_queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            synchronized (this) {
+                if (job.walletAddress() != null) m_queuedByWallet.remove(job.walletAddress(), job);
+            }
+            m_queueWait[job.priority().ordinal()].recordSince(job.enqueuedNanos());
+
+            try {
+                job.task().run();
+                job.future().complete(null);
+            } catch (Throwable t) {
+                logger.log(Level.SEVERE, "Wallet job failed" + (job.walletAddress() != null ? " for " + job.walletAddress() : ""), t);
+                job.future().completeExceptionally(t);
+            }
+            if (job.rateLimited()) nextRpcStartNanos = System.nanoTime() + m_rateLimitNanos;
+        }
+    }
+
+    private int queuedCount(WalletWorkPriority priority) {
+        int count = 0;
+        for (Job job : m_queue) {
+            if (job.priority() == priority) count++;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,177 @@
+package org.core.traffic;
+
+import javax.net.ssl.SSLSession;
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.regex.Pattern;
+
+/**
+ * Helpers shared by the recording & replaying clients: capturing request bodies, feeding recorded bytes through the
+ * caller's BodyHandler and building request keys that are stable across sessions.
+ */
+final class HttpExchanges {
+
+    private static final Pattern s_apiKey = Pattern.compile("(api-key=)[^&]*");
+    private static final Pattern s_jsonRpcId = Pattern.compile("\"id\"\\s*:\\s*(\"[^\"]*\"|\\d+)");
+    private static final HttpHeaders s_noHeaders = HttpHeaders.of(Map.of(), (name, value) -> true);
+    private static final String SORTED_LIST_PARAM = "ids="; // Jupiter price batch mints, in whatever order they were planned
+
+    private HttpExchanges() {
+    }
+
+    /**
+     * URI with API keys removed, so recordings can be shared.
+     */
+    static String redactedUri(URI uri) {
+        return s_apiKey.matcher(uri.toString()).replaceAll("$1REDACTED");
+    }
+
+    /**
+     * Lookup key for a request. JSON-RPC ids are sequence numbers, so the first "id" is ignored for JSON-RPC bodies,
+     * and the comma-separated ids of a price request are sorted, as batch order varies between sessions.
+     */
+    static String requestKey(String method, String redactedUri, byte[] requestBody) {
+        String body = new String(requestBody, java.nio.charset.StandardCharsets.UTF_8);
+        if (body.startsWith("{") && body.contains("\"jsonrpc\"")) {
+            body = s_jsonRpcId.matcher(body).replaceFirst("\"id\":0");
+        }
+        return method + ' ' + normalisedUri(redactedUri) + '\n' + body;
+    }
+
+    private static String normalisedUri(String uri) {
+        int queryStart = uri.indexOf('?');
+        if (queryStart < 0) {
+            return uri;
+        }
+
+        String[] params = uri.substring(queryStart + 1).split("&");
+        for (int i = 0; i < params.length; i++) {
+            if (params[i].startsWith(SORTED_LIST_PARAM)) {
+                String[] values = params[i].substring(SORTED_LIST_PARAM.length()).split(",");
+                Arrays.sort(values);
+                params[i] = SORTED_LIST_PARAM + String.join(",", values);
+            }
+        }
+        return uri.substring(0, queryStart + 1) + String.join("&", params);
+    }
+
+    /**
+     * The response headers worth replaying: Content-Type and rate limit headers (Retry-After, X-RateLimit-*,
+     * RateLimit-*), with lower-cased names.
+     */
+    static Map<String, List<String>> recordedHeaders(HttpHeaders headers) {
+        Map<String, List<String>> recorded = new TreeMap<>();
+        headers.map().forEach((name, values) -> {
+            String lowerName = name.toLowerCase(Locale.ROOT);
+            if (lowerName.equals("content-type") || lowerName.equals("retry-after")
+                    || lowerName.startsWith("x-ratelimit") || lowerName.startsWith("ratelimit")) {
+                recorded.put(lowerName, List.copyOf(values));
+            }
+        });
+        return recorded;
+    }
+
+    static HttpHeaders headers(Map<String, List<String>> headers) {
+        return headers.isEmpty() ? s_noHeaders : HttpHeaders.of(headers, (name, value) -> true);
+    }
+
+    static byte[] requestBody(HttpRequest request) {
+        Optional<HttpRequest.BodyPublisher> publisher = request.bodyPublisher();
+        if (publisher.isEmpty() || publisher.get().contentLength() == 0) {
+            return new byte[0];
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        publisher.get().subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscription.request(Long.MAX_VALUE);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                byte[] bytes = new byte[item.remaining()];
+                item.get(bytes);
+                out.writeBytes(bytes);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                done.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                done.complete(null);
+            }
+        });
+        done.join();
+        return out.toByteArray();
+    }
+
+    /**
+     * Convert raw response bytes into whatever the caller's BodyHandler produces (String, byte[], InputStream...).
+     */
+    static <T> CompletionStage<T> toBody(HttpResponse.BodyHandler<T> handler, int statusCode, HttpHeaders headers,
+                                         HttpClient.Version version, byte[] body) {
+        HttpResponse.BodySubscriber<T> subscriber = handler.apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return statusCode;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return version;
+            }
+        });
+        subscriber.onSubscribe(new Flow.Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        if (body.length > 0) {
+            subscriber.onNext(List.of(ByteBuffer.wrap(body)));
+        }
+        subscriber.onComplete();
+        return subscriber.getBody();
+    }
+
+    record Response<T>(int statusCode, HttpRequest request, HttpHeaders headers, T body, URI uri,
+                       HttpClient.Version version) implements HttpResponse<T> {
+
+        @Override
+        public Optional<HttpResponse<T>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return Optional.empty();
+        }
+    }
+}
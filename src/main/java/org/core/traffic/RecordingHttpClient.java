@@ -0,0 +1,125 @@
+package org.core.traffic;
+
+import org.core.metrics.Counter;
+import org.core.metrics.MetricsRegistry;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HttpClient that forwards to a real client and appends every exchange, with its latency, to a TrafficLog.
+ */
+public class RecordingHttpClient extends HttpClient {
+
+    private static final Logger logger = Logger.getLogger(RecordingHttpClient.class.getName());
+    private static final Counter s_recorded = MetricsRegistry.getInstance()
+            .counter("tracker_traffic_recorded_total", "HTTP exchanges written to the traffic recording");
+
+    private final HttpClient m_delegate;
+    private final TrafficLog m_log;
+
+    public RecordingHttpClient(HttpClient delegate, TrafficLog log) {
+        m_delegate = delegate;
+        m_log = log;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) throws IOException, InterruptedException {
+        byte[] requestBody = HttpExchanges.requestBody(request);
+        long startTime = System.nanoTime();
+        HttpResponse<byte[]> response = m_delegate.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        record(request, requestBody, startTime, response);
+        T body = HttpExchanges.toBody(responseBodyHandler, response.statusCode(), response.headers(), response.version(), response.body())
+                .toCompletableFuture().join();
+        return new HttpExchanges.Response<>(response.statusCode(), request, response.headers(), body, response.uri(), response.version());
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+        byte[] requestBody = HttpExchanges.requestBody(request);
+        long startTime = System.nanoTime();
+        return m_delegate.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray()).thenCompose(response -> {
+            record(request, requestBody, startTime, response);
+            return HttpExchanges.toBody(responseBodyHandler, response.statusCode(), response.headers(), response.version(), response.body())
+                    .thenApply(body -> (HttpResponse<T>) new HttpExchanges.Response<>(response.statusCode(), request,
+                            response.headers(), body, response.uri(), response.version()));
+        });
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        // Push promises are not used by any of the APIs the tracker calls
+        return sendAsync(request, responseBodyHandler);
+    }
+
+    private void record(HttpRequest request, byte[] requestBody, long startTime, HttpResponse<byte[]> response) {
+        long endTime = System.nanoTime();
+        try {
+            m_log.append(new TrafficRecord(startTime - m_log.getSessionStartNanos(), endTime - startTime, request.method(),
+                    HttpExchanges.redactedUri(request.uri()), requestBody, response.statusCode(),
+                    HttpExchanges.recordedHeaders(response.headers()), response.body()));
+            s_recorded.increment();
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to record HTTP exchange for " + HttpExchanges.redactedUri(request.uri()), e);
+        }
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return m_delegate.cookieHandler();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return m_delegate.connectTimeout();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return m_delegate.followRedirects();
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return m_delegate.proxy();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        return m_delegate.sslContext();
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return m_delegate.sslParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return m_delegate.authenticator();
+    }
+
+    @Override
+    public Version version() {
+        return m_delegate.version();
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return m_delegate.executor();
+    }
+}
@@ -0,0 +1,155 @@
+package org.core.traffic;
+
+import org.core.metrics.Counter;
+import org.core.metrics.MetricsRegistry;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLParameters;
+import java.io.IOException;
+import java.net.Authenticator;
+import java.net.CookieHandler;
+import java.net.ProxySelector;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * HttpClient that answers from a traffic recording without touching the network. Identical requests are answered
+ * with their recorded responses (status, body, Content-Type & rate limit headers) in order; once those run out the
+ * last one is repeated. Requests that were never recorded get a 404.
+ */
+public class ReplayHttpClient extends HttpClient {
+
+    private static final Logger logger = Logger.getLogger(ReplayHttpClient.class.getName());
+    private static final byte[] s_missBody = "{\"error\":\"No recorded response\"}".getBytes(StandardCharsets.UTF_8);
+    private static final Map<String, List<String>> s_missHeaders = Map.of("content-type", List.of("application/json"));
+
+    private static final Counter s_replayed = MetricsRegistry.getInstance()
+            .counter("tracker_traffic_replayed_total", "HTTP requests answered from the traffic recording");
+    private static final Counter s_misses = MetricsRegistry.getInstance()
+            .counter("tracker_traffic_replay_misses_total", "HTTP requests with no recorded response");
+
+    private final Map<String, Deque<TrafficRecord>> m_responses = new HashMap<>();
+    private final boolean m_originalSpeed;
+
+    /**
+     * @param originalSpeed true to delay each response by its recorded latency, false to answer immediately
+     */
+    public ReplayHttpClient(List<TrafficRecord> records, boolean originalSpeed) {
+        m_originalSpeed = originalSpeed;
+        for (TrafficRecord record : records) {
+            String key = HttpExchanges.requestKey(record.method(), record.uri(), record.requestBody());
+            m_responses.computeIfAbsent(key, k -> new ArrayDeque<>()).add(record);
+        }
+        logger.log(Level.INFO, String.format("Replaying %d recorded HTTP exchanges (%d distinct requests) at %s speed",
+                records.size(), m_responses.size(), originalSpeed ? "original" : "full"));
+    }
+
+    private TrafficRecord next(HttpRequest request) {
+        String key = HttpExchanges.requestKey(request.method(), HttpExchanges.redactedUri(request.uri()), HttpExchanges.requestBody(request));
+        synchronized (m_responses) {
+            Deque<TrafficRecord> queue = m_responses.get(key);
+            if (queue == null) {
+                s_misses.increment();
+                logger.log(Level.WARNING, "No recorded response for " + request.method() + " " + HttpExchanges.redactedUri(request.uri()));
+                return new TrafficRecord(0, 0, request.method(), HttpExchanges.redactedUri(request.uri()), new byte[0], 404, s_missHeaders, s_missBody);
+            }
+            s_replayed.increment();
+            return queue.size() > 1 ? queue.poll() : queue.peek();
+        }
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) throws IOException, InterruptedException {
+        TrafficRecord record = next(request);
+        if (m_originalSpeed && record.durationNanos() > 0) {
+            TimeUnit.NANOSECONDS.sleep(record.durationNanos());
+        }
+        return toResponse(request, record, responseBodyHandler).join();
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler) {
+        TrafficRecord record = next(request);
+        if (m_originalSpeed && record.durationNanos() > 0) {
+            Executor delayed = CompletableFuture.delayedExecutor(record.durationNanos(), TimeUnit.NANOSECONDS);
+            return CompletableFuture.supplyAsync(() -> record, delayed)
+                    .thenCompose(r -> toResponse(request, r, responseBodyHandler));
+        }
+        return toResponse(request, record, responseBodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> responseBodyHandler,
+                                                            HttpResponse.PushPromiseHandler<T> pushPromiseHandler) {
+        return sendAsync(request, responseBodyHandler);
+    }
+
+    private static <T> CompletableFuture<HttpResponse<T>> toResponse(HttpRequest request, TrafficRecord record,
+                                                                    HttpResponse.BodyHandler<T> responseBodyHandler) {
+        HttpHeaders headers = HttpExchanges.headers(record.responseHeaders());
+        return HttpExchanges.toBody(responseBodyHandler, record.statusCode(), headers, Version.HTTP_1_1, record.responseBody())
+                .thenApply(body -> (HttpResponse<T>) new HttpExchanges.Response<>(record.statusCode(), request,
+                        headers, body, request.uri(), Version.HTTP_1_1))
+                .toCompletableFuture();
+    }
+
+    @Override
+    public Optional<CookieHandler> cookieHandler() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Optional<Duration> connectTimeout() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Redirect followRedirects() {
+        return Redirect.NEVER;
+    }
+
+    @Override
+    public Optional<ProxySelector> proxy() {
+        return Optional.empty();
+    }
+
+    @Override
+    public SSLContext sslContext() {
+        try {
+            return SSLContext.getDefault();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public SSLParameters sslParameters() {
+        return new SSLParameters();
+    }
+
+    @Override
+    public Optional<Authenticator> authenticator() {
+        return Optional.empty();
+    }
+
+    @Override
+    public Version version() {
+        return Version.HTTP_1_1;
+    }
+
+    @Override
+    public Optional<Executor> executor() {
+        return Optional.empty();
+    }
+}
@@ -0,0 +1,68 @@
+package org.core.traffic;
+
+import org.core.utils.ConfigUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpClient;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Entry point for record & replay of outbound HTTP/RPC traffic, configured with tracker.traffic.*:
+ * <ul>
+ *     <li>off - clients are used as is (default)</li>
+ *     <li>record - every exchange made through a wrapped client is appended to tracker.traffic.file</li>
+ *     <li>replay - responses are served from tracker.traffic.file at original or full speed, with no network access</li>
+ * </ul>
+ * All clients wrapped in one process share the same recording.
+ */
+public class TrafficCapture {
+
+    private static final Logger logger = Logger.getLogger(TrafficCapture.class.getName());
+
+    private static final String s_mode = ConfigUtil.getString("tracker.traffic.mode", "off").toLowerCase();
+    private static TrafficLog s_recording;
+    private static ReplayHttpClient s_replayClient;
+
+    public static synchronized HttpClient wrap(HttpClient client) {
+        Path file = Path.of(ConfigUtil.getString("tracker.traffic.file", "traffic.rec"));
+        try {
+            switch (s_mode) {
+                case "record" -> {
+                    if (s_recording == null) {
+                        s_recording = new TrafficLog(file);
+                        logger.log(Level.INFO, "Recording outbound HTTP traffic to " + file.toAbsolutePath());
+                    }
+                    return new RecordingHttpClient(client, s_recording);
+                }
+                case "replay" -> {
+                    if (s_replayClient == null) {
+                        List<TrafficRecord> records = TrafficLog.readAll(file);
+                        boolean originalSpeed = !"fast".equalsIgnoreCase(ConfigUtil.getString("tracker.traffic.replaySpeed", "original"));
+                        s_replayClient = new ReplayHttpClient(records, originalSpeed);
+                    }
+                    return s_replayClient;
+                }
+                default -> {
+                    return client;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open traffic recording " + file, e);
+        }
+    }
+
+    public static synchronized void close() {
+        if (s_recording != null) {
+            try {
+                s_recording.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Failed to close traffic recording", e);
+            }
+            s_recording = null;
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package org.core.traffic;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Append-only binary file of TrafficRecords. Bodies are deflated individually so the file stays valid (and readable
+ * up to the last complete record) if the process dies mid-session. Several sessions can be appended to one file.
+ * <p>
+ * Layout: "WTRF" + version, then per record: offsetNanos, durationNanos, method, uri, status, response header count &
+ * (name, value) pairs, request blob, response blob (blob = raw length, compressed length, deflated bytes). Version 1
+ * recordings, without headers, can still be read but not appended to.
+ */
+public class TrafficLog implements Closeable {
+
+    private static final int MAGIC = 0x57545246; // "WTRF"
+    private static final int VERSION = 2;
+    private static final int VERSION_WITHOUT_HEADERS = 1;
+
+    private final DataOutputStream m_out;
+    private final Deflater m_deflater = new Deflater(Deflater.BEST_SPEED);
+    private final long m_sessionStartNanos = System.nanoTime();
+
+    public TrafficLog(Path file) throws IOException {
+        boolean newFile = !Files.exists(file) || Files.size(file) == 0;
+        if (!newFile) {
+            try (DataInputStream in = new DataInputStream(Files.newInputStream(file))) {
+                if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                    throw new IOException("Cannot append to " + file + ": not a version " + VERSION + " traffic recording, record to a new file");
+                }
+            }
+        }
+        m_out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile(), true), 64 * 1024));
+        if (newFile) {
+            m_out.writeInt(MAGIC);
+            m_out.writeInt(VERSION);
+            m_out.flush();
+        }
+    }
+
+    public long getSessionStartNanos() {
+        return m_sessionStartNanos;
+    }
+
+    public synchronized void append(TrafficRecord record) throws IOException {
+        m_out.writeLong(record.offsetNanos());
+        m_out.writeLong(record.durationNanos());
+        m_out.writeUTF(record.method());
+        m_out.writeUTF(record.uri());
+        m_out.writeInt(record.statusCode());
+        m_out.writeInt(record.responseHeaders().values().stream().mapToInt(List::size).sum());
+        for (Map.Entry<String, List<String>> header : record.responseHeaders().entrySet()) {
+            for (String value : header.getValue()) {
+                m_out.writeUTF(header.getKey());
+                m_out.writeUTF(value);
+            }
+        }
+        writeBlob(record.requestBody());
+        writeBlob(record.responseBody());
+        m_out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        m_out.close();
+        m_deflater.end();
+    }
+
+    private void writeBlob(byte[] bytes) throws IOException {
+        m_deflater.reset();
+        m_deflater.setInput(bytes);
+        m_deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, bytes.length / 4));
+        byte[] buffer = new byte[8192];
+        while (!m_deflater.finished()) {
+            int count = m_deflater.deflate(buffer);
+            compressed.write(buffer, 0, count);
+        }
+        m_out.writeInt(bytes.length);
+        m_out.writeInt(compressed.size());
+        compressed.writeTo(m_out);
+    }
+
+    /**
+     * Read all complete records. A truncated trailing record (e.g. after a crash) is ignored.
+     */
+    public static List<TrafficRecord> readAll(Path file) throws IOException {
+        List<TrafficRecord> records = new ArrayList<>();
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 64 * 1024))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a traffic recording: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != VERSION_WITHOUT_HEADERS) {
+                throw new IOException("Unsupported traffic recording version " + version + ": " + file);
+            }
+
+            while (true) {
+                try {
+                    long offsetNanos = in.readLong();
+                    long durationNanos = in.readLong();
+                    String method = in.readUTF();
+                    String uri = in.readUTF();
+                    int status = in.readInt();
+                    Map<String, List<String>> headers = version == VERSION ? readHeaders(in) : Map.of();
+                    byte[] requestBody = readBlob(in, inflater);
+                    byte[] responseBody = readBlob(in, inflater);
+                    records.add(new TrafficRecord(offsetNanos, durationNanos, method, uri, requestBody, status, headers, responseBody));
+                } catch (EOFException e) {
+                    break;
+                }
+            }
+        } finally {
+            inflater.end();
+        }
+        return records;
+    }
+
+    private static Map<String, List<String>> readHeaders(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        Map<String, List<String>> headers = new TreeMap<>();
+        for (int i = 0; i < count; i++) {
+            headers.computeIfAbsent(in.readUTF(), name -> new ArrayList<>()).add(in.readUTF());
+        }
+        return headers;
+    }
+
+    private static byte[] readBlob(DataInputStream in, Inflater inflater) throws IOException {
+        int rawLength = in.readInt();
+        byte[] compressed = new byte[in.readInt()];
+        in.readFully(compressed);
+
+        byte[] raw = new byte[rawLength];
+        inflater.reset();
+        inflater.setInput(compressed);
+        try {
+            int read = 0;
+            while (read < rawLength && !inflater.finished()) {
+                int count = inflater.inflate(raw, read, rawLength - read);
+                if (count == 0 && inflater.needsInput()) {
+                    throw new IOException("Truncated traffic record body");
+                }
+                read += count;
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt traffic record body", e);
+        }
+        return raw;
+    }
+}
@@ -0,0 +1,12 @@
+package org.core.traffic;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One recorded HTTP exchange. Times are relative to the start of the recording session. Only the response headers
+ * callers act on are kept (see HttpExchanges.recordedHeaders).
+ */
+public record TrafficRecord(long offsetNanos, long durationNanos, String method, String uri, byte[] requestBody,
+                            int statusCode, Map<String, List<String>> responseHeaders, byte[] responseBody) {
+}
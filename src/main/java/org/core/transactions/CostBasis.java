@@ -0,0 +1,37 @@
+package org.core.transactions;
+
+/**
+ * Average-cost basis and realised P&L of one token in one wallet, built incrementally from TokenBalanceDeltas.
+ * Immutable - apply() returns the updated basis.
+ * @param quantity Tokens accounted for by ingested history (may be below the live balance if history was truncated)
+ * @param costUsd Cost of quantity
+ */
+public record CostBasis(double quantity, double costUsd, double realisedUsd) {
+
+    public static final CostBasis EMPTY = new CostBasis(0, 0, 0);
+
+    /**
+     * @param amountDelta Tokens received (positive) or sent (negative)
+     * @param valueUsd USD paid for received tokens or received for sent tokens, NaN if unknown (transfers). Unknown
+     *                 acquisitions are booked at zero cost and unknown disposals realise nothing.
+     */
+    public CostBasis apply(double amountDelta, double valueUsd) {
+        if (amountDelta > 0) {
+            return new CostBasis(quantity + amountDelta, costUsd + (Double.isNaN(valueUsd) ? 0 : valueUsd), realisedUsd);
+        }
+
+        // Only the part of the disposal covered by tracked quantity has a known cost
+        double disposed = Math.min(-amountDelta, quantity);
+        double costRemoved = quantity > 0 ? costUsd * disposed / quantity : 0;
+        double realised = Double.isNaN(valueUsd) || amountDelta == 0 ? 0 : valueUsd * disposed / -amountDelta - costRemoved;
+        return new CostBasis(quantity - disposed, costUsd - costRemoved, realisedUsd + realised);
+    }
+
+    public double averageCostUsd() {
+        return quantity > 0 ? costUsd / quantity : 0;
+    }
+
+    public double unrealisedUsd(double usdPrice) {
+        return quantity * usdPrice - costUsd;
+    }
+}
@@ -0,0 +1,15 @@
+package org.core.transactions;
+
+import org.json.JSONObject;
+
+/**
+ * One entry of a getSignaturesForAddress page.
+ * @param failed True if the transaction failed on chain (no balance changes to ingest)
+ */
+public record SignatureInfo(String signature, long slot, long blockTimeSeconds, boolean failed) {
+
+    public static SignatureInfo fromJson(JSONObject json) {
+        return new SignatureInfo(json.getString("signature"), json.getLong("slot"), json.optLong("blockTime", 0),
+                !json.isNull("err") && json.has("err"));
+    }
+}
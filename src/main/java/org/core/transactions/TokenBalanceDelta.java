@@ -0,0 +1,12 @@
+package org.core.transactions;
+
+/**
+ * Net change of one token in one wallet from one transaction, with the quote legs of the same transaction.
+ * @param quoteSol Native SOL + wrapped SOL change in the same transaction (negative when spent, fees included)
+ * @param quoteStableUsd USDC + USDT change in the same transaction
+ * @param swap True if this was the only non-quote token the wallet's balance changed in, so the quote legs are its price.
+ *             False for transfers, airdrops & multi-token transactions
+ */
+public record TokenBalanceDelta(String signature, String walletAddress, String mintAddress, long slot, long blockTimeSeconds,
+                                double amountDelta, double quoteSol, double quoteStableUsd, boolean swap) {
+}
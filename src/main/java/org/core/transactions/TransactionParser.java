@@ -0,0 +1,94 @@
+package org.core.transactions;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Extracts a wallet's token balance changes from a jsonParsed getTransaction result using meta pre/post token balances
+ * (by owner) and native lamport balances.
+ */
+public final class TransactionParser {
+
+    public static final String WRAPPED_SOL_MINT = "So11111111111111111111111111111111111111112";
+    private static final Set<String> s_stableMints = Set.of(
+            "EPjFWdd5AufqSSqeM2qN1xzybapC8G4wEGGkZwyTDt1v", // USDC
+            "Es9vMFrzaCERmJfrF4H2FYD4KCoNkY11McCe8BenwNYb"); // USDT
+    private static final double LAMPORTS_PER_SOL = 1_000_000_000.0;
+    // SOL moves below this are fees & token account rent rather than a price paid/received
+    private static final double MIN_QUOTE_SOL = 0.003;
+    private static final double MIN_QUOTE_STABLE_USD = 0.01;
+
+    private TransactionParser() {
+    }
+
+    /**
+     * @return One delta per non-quote mint whose balance changed for walletAddress. Empty for failed transactions.
+     */
+    public static List<TokenBalanceDelta> parse(String signature, JSONObject transaction, String walletAddress) {
+        JSONObject meta = transaction.optJSONObject("meta");
+        if (meta == null || (meta.has("err") && !meta.isNull("err"))) {
+            return List.of();
+        }
+
+        Map<String, Double> changeByMint = new HashMap<>();
+        accumulate(changeByMint, meta.optJSONArray("postTokenBalances"), walletAddress, 1);
+        accumulate(changeByMint, meta.optJSONArray("preTokenBalances"), walletAddress, -1);
+
+        double quoteSol = changeByMint.getOrDefault(WRAPPED_SOL_MINT, 0.0) + nativeSolChange(transaction, meta, walletAddress);
+        double quoteStableUsd = 0;
+        for (String stableMint : s_stableMints) {
+            quoteStableUsd += changeByMint.getOrDefault(stableMint, 0.0);
+        }
+
+        List<TokenBalanceDelta> deltas = new ArrayList<>();
+        for (Map.Entry<String, Double> change : changeByMint.entrySet()) {
+            String mint = change.getKey();
+            if (change.getValue() == 0 || WRAPPED_SOL_MINT.equals(mint) || s_stableMints.contains(mint)) continue;
+            deltas.add(new TokenBalanceDelta(signature, walletAddress, mint, transaction.getLong("slot"),
+                    transaction.optLong("blockTime", 0), change.getValue(), quoteSol, quoteStableUsd, false));
+        }
+
+        // A single token against a quote leg is a swap priced by that leg
+        if (deltas.size() == 1) {
+            TokenBalanceDelta delta = deltas.get(0);
+            boolean solQuoted = Math.abs(quoteSol) >= MIN_QUOTE_SOL && Math.signum(quoteSol) == -Math.signum(delta.amountDelta());
+            boolean stableQuoted = Math.abs(quoteStableUsd) >= MIN_QUOTE_STABLE_USD && Math.signum(quoteStableUsd) == -Math.signum(delta.amountDelta());
+            if (solQuoted || stableQuoted) {
+                deltas.set(0, new TokenBalanceDelta(signature, walletAddress, delta.mintAddress(), delta.slot(),
+                        delta.blockTimeSeconds(), delta.amountDelta(), quoteSol, quoteStableUsd, true));
+            }
+        }
+        return deltas;
+    }
+
+    private static void accumulate(Map<String, Double> changeByMint, JSONArray balances, String walletAddress, int sign) {
+        if (balances == null) return;
+        for (int i = 0; i < balances.length(); i++) {
+            JSONObject balance = balances.getJSONObject(i);
+            if (!walletAddress.equals(balance.optString("owner"))) continue;
+            double amount = Double.parseDouble(balance.getJSONObject("uiTokenAmount").optString("uiAmountString", "0"));
+            changeByMint.merge(balance.getString("mint"), sign * amount, Double::sum);
+        }
+    }
+
+    private static double nativeSolChange(JSONObject transaction, JSONObject meta, String walletAddress) {
+        JSONArray accountKeys = transaction.getJSONObject("transaction").getJSONObject("message").getJSONArray("accountKeys");
+        JSONArray preBalances = meta.getJSONArray("preBalances");
+        JSONArray postBalances = meta.getJSONArray("postBalances");
+        for (int i = 0; i < accountKeys.length() && i < preBalances.length(); i++) {
+            // jsonParsed keys are objects, json keys are plain strings
+            Object key = accountKeys.get(i);
+            String pubkey = key instanceof JSONObject keyObject ? keyObject.getString("pubkey") : key.toString();
+            if (walletAddress.equals(pubkey)) {
+                return (postBalances.getLong(i) - preBalances.getLong(i)) / LAMPORTS_PER_SOL;
+            }
+        }
+        return 0;
+    }
+}
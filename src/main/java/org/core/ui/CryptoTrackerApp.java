@@ -4,10 +4,11 @@ import javafx.application.Application;
 import javafx.application.Platform;
 import javafx.scene.Scene;
 import javafx.stage.Stage;
+import org.core.api.PortfolioApiServer;
 import org.core.processors.Processor;
+import org.core.utils.RuntimeStatsUtil;
 
 import java.util.Objects;
-import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import org.resources.ColourFormatter;
@@ -20,15 +21,7 @@ public class CryptoTrackerApp extends Application {
 
     static {
         // Configure logging format before any loggers are used
-        Logger rootLogger = Logger.getLogger("");
-        for (var handler : rootLogger.getHandlers()) {
-            rootLogger.removeHandler(handler);
-        }
-        ConsoleHandler consoleHandler = new ConsoleHandler();
-        consoleHandler.setFormatter(new ColourFormatter());
-        consoleHandler.setLevel(Level.ALL);
-        rootLogger.addHandler(consoleHandler);
-        rootLogger.setLevel(Level.INFO);
+        ColourFormatter.installOnRootLogger();
     }
 
     private static final Logger logger = Logger.getLogger(CryptoTrackerApp.class.getName());
@@ -38,6 +31,7 @@ public class CryptoTrackerApp extends Application {
 
     private Processor processor;
     private MainViewController mainViewController;
+    private PortfolioApiServer apiServer;
 
     @Override
     public void init() {
@@ -76,6 +70,9 @@ public class CryptoTrackerApp extends Application {
             // Show the stage
             primaryStage.show();
 
+            // Local query API (disabled unless tracker.api.enabled=true)
+            apiServer = PortfolioApiServer.startIfEnabled(processor);
+
             // Start the processor after UI is visible
             Platform.runLater(() -> {
                 mainViewController.initialize();
@@ -87,6 +84,7 @@ public class CryptoTrackerApp extends Application {
             });
 
             logger.log(Level.INFO, "Application started successfully");
+            RuntimeStatsUtil.logStartupStats(logger, "GUI");
 
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Failed to start application", e);
@@ -101,6 +99,10 @@ public class CryptoTrackerApp extends Application {
 
     private void shutdown() {
         logger.log(Level.INFO, "Shutting down application...");
+        if (apiServer != null) {
+            apiServer.stop();
+            apiServer = null;
+        }
         if (processor != null) {
             processor.stop();
         }
@@ -1,24 +1,39 @@
 package org.core.ui;
 
 import javafx.application.Platform;
+import javafx.beans.Observable;
+import javafx.beans.property.ReadOnlyDoubleProperty;
+import javafx.beans.property.ReadOnlyDoubleWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
+import javafx.collections.transformation.SortedList;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
+import javafx.scene.chart.LineChart;
+import javafx.scene.chart.NumberAxis;
+import javafx.scene.chart.XYChart;
 import javafx.scene.control.*;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.input.Clipboard;
 import javafx.scene.input.ClipboardContent;
 import javafx.scene.layout.*;
 import javafx.stage.Stage;
+import javafx.util.StringConverter;
 import org.apache.commons.lang3.tuple.Pair;
-import org.core.accounts.Position;
-import org.core.accounts.Token;
 import org.core.accounts.Wallet;
+import org.core.history.OhlcBar;
+import org.core.portfolio.OverlapSnapshot;
+import org.core.portfolio.PortfolioSnapshot;
+import org.core.portfolio.PositionSnapshot;
+import org.core.portfolio.WalletSnapshot;
 import org.core.processors.Processor;
+import org.core.processors.WalletWorkPriority;
 
+import java.text.DecimalFormat;
 import java.text.NumberFormat;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.logging.Level;
@@ -28,11 +43,15 @@ import java.util.logging.Logger;
  * Main view controller for the CryptoWalletTracker JavaFX application.
  * Manages the entire UI layout and interactions.
  */
-public class MainViewController {
+public class MainViewController implements UiUpdateChannel.Listener {
 
     private static final Logger logger = Logger.getLogger(MainViewController.class.getName());
     private static final double MIN_DISPLAY_VALUE = 100.0; // Filter positions below $100
     private static final double MIN_OVERLAP_VALUE = 10000.0; // Filter overlapping tokens below $10k
+    private static final long UI_PULSE_INTERVAL_MS = 250; // Max rate at which Processor events are applied to the UI
+    private static final ChartRange[] VALUE_CHART_RANGES = {
+            new ChartRange("1H", 3_600_000L), new ChartRange("1D", 86_400_000L), new ChartRange("1W", 7 * 86_400_000L),
+            new ChartRange("1M", 30 * 86_400_000L), new ChartRange("1Y", 365 * 86_400_000L), new ChartRange("All", Long.MAX_VALUE)};
 
     private final Processor processor;
     private final BorderPane root;
@@ -41,6 +60,10 @@ public class MainViewController {
     private ListView<Wallet> walletListView;
     private TableView<PositionRow> holdingsTable;
     private TableView<OverlapRow> overlapTable;
+    private Tab valueTab;
+    private Label valueChartTitle;
+    private final XYChart.Series<Number, Number> valueSeries = new XYChart.Series<>();
+    private long valueChartRangeMillis = VALUE_CHART_RANGES[1].millis();
     private Label statusLabel;
     private Label lastUpdateLabel;
     private Label totalValueLabel;
@@ -50,16 +73,36 @@ public class MainViewController {
 
     // Data
     private final ObservableList<Wallet> walletList = FXCollections.observableArrayList();
-    private final ObservableList<PositionRow> positionRows = FXCollections.observableArrayList();
+    private final Set<String> walletAddresses = new HashSet<>(); // Index of walletList for duplicate checks
     private final ObservableList<OverlapRow> overlapRows = FXCollections.observableArrayList();
 
+    // Position rows are keyed by token account address and updated in place on each tick. The extractor makes the
+    // SortedList re-position a row whenever its USD value changes, rather than re-sorting the whole list.
+    private final ObservableList<PositionRow> positionRows =
+            FXCollections.observableArrayList(row -> new Observable[]{row.usdValueProperty()});
+    private final SortedList<PositionRow> sortedPositionRows = new SortedList<>(positionRows);
+    private final Map<String, PositionRow> positionRowIndex = new HashMap<>();
+
+    // Current holdings view: a single wallet, or all wallets when showingAllHoldings is set
+    private Wallet displayedWallet;
+    private boolean showingAllHoldings;
+
     private final NumberFormat currencyFormat;
     private final DateTimeFormatter timeFormatter;
+    private final UiUpdateChannel updateChannel;
+
+    // Cell formatters - only used by visible cells, always on the FX thread
+    private static final NumberFormat s_cellCurrencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
+    private static final NumberFormat s_cellNumberFormat = NumberFormat.getNumberInstance(Locale.US);
+    private static final DecimalFormat s_cellPriceFormat = new DecimalFormat("$#,##0.0000000");
+    private static final DecimalFormat s_cellPercentFormat = new DecimalFormat("+0.00'%';-0.00'%'");
+    private static final DecimalFormat s_cellLiquidityFormat = new DecimalFormat("$#,##0");
 
     public MainViewController(Processor processor) {
         this.processor = processor;
         this.currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
         this.timeFormatter = DateTimeFormatter.ofPattern("HH:mm:ss");
+        this.updateChannel = new UiUpdateChannel(this, UI_PULSE_INTERVAL_MS);
         this.root = createLayout();
     }
 
@@ -132,10 +175,31 @@ public class MainViewController {
         walletListView.setPlaceholder(new Label("No wallets added yet"));
         VBox.setVgrow(walletListView, Priority.ALWAYS);
 
+        MenuItem refreshWallet = new MenuItem("Refresh Now");
+        refreshWallet.setOnAction(e -> {
+            Wallet selected = walletListView.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                setStatus("Refreshing " + selected.getName() + "...", true);
+                processor.refreshWalletAsync(selected.getAddress(), WalletWorkPriority.INTERACTIVE,
+                        wallet -> Platform.runLater(() -> onWalletRefreshed(selected, wallet)));
+            }
+        });
+        MenuItem removeWallet = new MenuItem("Remove Wallet");
+        removeWallet.setOnAction(e -> {
+            Wallet selected = walletListView.getSelectionModel().getSelectedItem();
+            if (selected != null) {
+                removeWallet(selected);
+            }
+        });
+        walletListView.setContextMenu(new ContextMenu(refreshWallet, removeWallet));
+
         // Selection listener
         walletListView.getSelectionModel().selectedItemProperty().addListener((obs, oldWallet, newWallet) -> {
             if (newWallet != null) {
                 displayWalletHoldings(newWallet);
+                if (processor.refreshIfStale(newWallet, wallet -> Platform.runLater(() -> onWalletRefreshed(newWallet, wallet)))) {
+                    setStatus("Refreshing " + newWallet.getName() + "...", true);
+                }
             }
         });
 
@@ -173,12 +237,18 @@ public class MainViewController {
         Tab overlapTab = new Tab("Overlapping Tokens");
         overlapTab.setContent(createOverlapTable());
 
-        tabPane.getTabs().addAll(holdingsTab, overlapTab);
+        // Portfolio value history tab
+        valueTab = new Tab("Value History");
+        valueTab.setContent(createValueChart());
+
+        tabPane.getTabs().addAll(holdingsTab, overlapTab, valueTab);
 
-        // Update overlap data when tab is selected
+        // Update overlap data / value chart when tab is selected
         tabPane.getSelectionModel().selectedItemProperty().addListener((obs, oldTab, newTab) -> {
             if (newTab == overlapTab) {
                 updateOverlapTable();
+            } else if (newTab == valueTab) {
+                updateValueChart();
             }
         });
 
@@ -190,7 +260,7 @@ public class MainViewController {
         VBox container = new VBox(10);
         container.setPadding(new Insets(10));
 
-        holdingsTable = new TableView<>(positionRows);
+        holdingsTable = new TableView<>(sortedPositionRows);
         holdingsTable.setPlaceholder(new Label("Select a wallet to view holdings"));
         VBox.setVgrow(holdingsTable, Priority.ALWAYS);
 
@@ -205,29 +275,51 @@ public class MainViewController {
         tickerCol.setPrefWidth(100);
 
         // Balance column
-        TableColumn<PositionRow, String> balanceCol = new TableColumn<>("Balance");
-        balanceCol.setCellValueFactory(new PropertyValueFactory<>("balance"));
+        TableColumn<PositionRow, Number> balanceCol = new TableColumn<>("Balance");
+        balanceCol.setCellValueFactory(cell -> cell.getValue().balanceProperty());
+        balanceCol.setCellFactory(col -> formattedCell(s_cellNumberFormat));
         balanceCol.setPrefWidth(150);
         balanceCol.setStyle("-fx-alignment: CENTER-RIGHT;");
 
         // USD Price column
-        TableColumn<PositionRow, String> priceCol = new TableColumn<>("USD Price");
-        priceCol.setCellValueFactory(new PropertyValueFactory<>("usdPrice"));
+        TableColumn<PositionRow, Number> priceCol = new TableColumn<>("USD Price");
+        priceCol.setCellValueFactory(cell -> cell.getValue().usdPriceProperty());
+        priceCol.setCellFactory(col -> formattedCell(s_cellPriceFormat));
         priceCol.setPrefWidth(120);
         priceCol.setStyle("-fx-alignment: CENTER-RIGHT;");
 
         // USD Value column
-        TableColumn<PositionRow, String> valueCol = new TableColumn<>("USD Value");
-        valueCol.setCellValueFactory(new PropertyValueFactory<>("usdValue"));
+        TableColumn<PositionRow, Number> valueCol = new TableColumn<>("USD Value");
+        valueCol.setCellValueFactory(cell -> cell.getValue().usdValueProperty());
+        valueCol.setCellFactory(col -> formattedCell(s_cellCurrencyFormat));
         valueCol.setPrefWidth(130);
         valueCol.setStyle("-fx-alignment: CENTER-RIGHT;");
+        valueCol.setSortType(TableColumn.SortType.DESCENDING);
+
+        // 24h price change column
+        TableColumn<PositionRow, Number> changeCol = new TableColumn<>("24h");
+        changeCol.setCellValueFactory(cell -> cell.getValue().priceChange24hProperty());
+        changeCol.setCellFactory(col -> priceChangeCell());
+        changeCol.setPrefWidth(80);
+        changeCol.setStyle("-fx-alignment: CENTER-RIGHT;");
+
+        // Liquidity column - illiquid positions are shown but excluded from the total
+        TableColumn<PositionRow, Number> liquidityCol = new TableColumn<>("Liquidity");
+        liquidityCol.setCellValueFactory(cell -> cell.getValue().liquidityProperty());
+        liquidityCol.setCellFactory(col -> liquidityCell());
+        liquidityCol.setPrefWidth(130);
+        liquidityCol.setStyle("-fx-alignment: CENTER-RIGHT;");
 
         // Mint Address column
         TableColumn<PositionRow, String> mintCol = new TableColumn<>("Mint Address");
         mintCol.setCellValueFactory(new PropertyValueFactory<>("mintAddress"));
         mintCol.setPrefWidth(150);
 
-        holdingsTable.getColumns().addAll(nameCol, tickerCol, balanceCol, priceCol, valueCol, mintCol);
+        holdingsTable.getColumns().addAll(nameCol, tickerCol, balanceCol, priceCol, valueCol, changeCol, liquidityCol, mintCol);
+
+        // Sort by USD value descending by default. Binding the comparator lets header clicks re-sort the SortedList
+        holdingsTable.getSortOrder().add(valueCol);
+        sortedPositionRows.comparatorProperty().bind(holdingsTable.comparatorProperty());
 
         // Double-click to copy mint address
         holdingsTable.setRowFactory(tv -> {
@@ -304,6 +396,94 @@ public class MainViewController {
         return container;
     }
 
+    private VBox createValueChart() {
+        VBox container = new VBox(10);
+        container.setPadding(new Insets(10));
+
+        valueChartTitle = new Label();
+        valueChartTitle.getStyleClass().add("label-secondary");
+
+        // Range selector
+        HBox rangeBar = new HBox(5);
+        rangeBar.setAlignment(Pos.CENTER_LEFT);
+        ToggleGroup rangeGroup = new ToggleGroup();
+        for (ChartRange range : VALUE_CHART_RANGES) {
+            ToggleButton button = new ToggleButton(range.label());
+            button.setToggleGroup(rangeGroup);
+            button.setSelected(range.millis() == valueChartRangeMillis);
+            button.setOnAction(e -> {
+                valueChartRangeMillis = range.millis();
+                button.setSelected(true); // Keep one range selected
+                updateValueChart();
+            });
+            rangeBar.getChildren().add(button);
+        }
+        Region spacer = new Region();
+        HBox.setHgrow(spacer, Priority.ALWAYS);
+        rangeBar.getChildren().addAll(spacer, valueChartTitle);
+
+        NumberAxis timeAxis = new NumberAxis();
+        timeAxis.setForceZeroInRange(false);
+        timeAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override
+            public String toString(Number millis) {
+                Instant instant = Instant.ofEpochMilli(millis.longValue());
+                String pattern = valueChartRangeMillis <= 86_400_000L ? "HH:mm" : "dd MMM yy";
+                return DateTimeFormatter.ofPattern(pattern).withZone(ZoneId.systemDefault()).format(instant);
+            }
+
+            @Override
+            public Number fromString(String text) {
+                return 0;
+            }
+        });
+
+        NumberAxis valueAxis = new NumberAxis();
+        valueAxis.setForceZeroInRange(false);
+        valueAxis.setTickLabelFormatter(new StringConverter<>() {
+            @Override
+            public String toString(Number value) {
+                return s_cellCurrencyFormat.format(value.doubleValue());
+            }
+
+            @Override
+            public Number fromString(String text) {
+                return 0;
+            }
+        });
+
+        LineChart<Number, Number> chart = new LineChart<>(timeAxis, valueAxis);
+        chart.setAnimated(false);
+        chart.setCreateSymbols(false);
+        chart.setLegendVisible(false);
+        chart.getData().add(valueSeries);
+        VBox.setVgrow(chart, Priority.ALWAYS);
+
+        container.getChildren().addAll(rangeBar, chart);
+        return container;
+    }
+
+    /**
+     * Reload the value chart for the displayed wallet (or all wallets). History reads are downsampled to a few thousand
+     * points at most, so this is cheap enough for the FX thread on every repricing tick.
+     */
+    private void updateValueChart() {
+        long startTime = System.nanoTime();
+        String seriesKey = displayedWallet != null ? displayedWallet.getAddress() : Processor.TOTAL_VALUE_SERIES;
+        long fromMillis = valueChartRangeMillis == Long.MAX_VALUE ? Long.MIN_VALUE : System.currentTimeMillis() - valueChartRangeMillis;
+
+        List<XYChart.Data<Number, Number>> points = new ArrayList<>();
+        for (OhlcBar bar : processor.getPortfolioValueHistory(seriesKey, fromMillis)) {
+            points.add(new XYChart.Data<>(bar.startMillis(), bar.close()));
+        }
+        valueSeries.getData().setAll(points);
+        valueChartTitle.setText(displayedWallet != null ? displayedWallet.getName() : "All wallets");
+
+        logger.log(Level.FINE, String.format("Value chart loaded %d points in %.3f ms", points.size(), (System.nanoTime() - startTime) / 1_000_000.0));
+    }
+
+    private record ChartRange(String label, long millis) {}
+
     private HBox createFooter() {
         HBox footer = new HBox(20);
         footer.getStyleClass().add("footer-bar");
@@ -347,9 +527,7 @@ public class MainViewController {
         processor.addWalletAsync(name, address, wallet -> Platform.runLater(() -> {
             if (wallet != null) {
                 // Add to list if not already present
-                boolean exists = walletList.stream()
-                        .anyMatch(w -> w.getAddress().equals(wallet.getAddress()));
-                if (!exists) {
+                if (walletAddresses.add(wallet.getAddress())) {
                     walletList.add(wallet);
                     updateWalletCount();
                 }
@@ -363,155 +541,224 @@ public class MainViewController {
         }));
     }
 
-    private void displayWalletHoldings(Wallet wallet) {
-        positionRows.clear();
-
-        int filteredCount = 0;
-        int noMarketDataCount = 0;
-        double totalValue = 0;
-
-        for (Position position : wallet.getPositions().values()) {
-            Token token = position.getToken();
+    /**
+     * @param refreshed The refreshed wallet, or null if the refresh failed
+     */
+    private void onWalletRefreshed(Wallet wallet, Wallet refreshed) {
+        if (refreshed == null) {
+            setStatus("Failed to refresh " + wallet.getName(), false);
+            return;
+        }
+        if (displayedWallet == refreshed) {
+            displayWalletHoldings(refreshed);
+        }
+        setStatus(wallet.getName() + " refreshed", false);
+    }
 
-            if (token.getMarketData() == null) {
-                noMarketDataCount++;
-                continue;
-            }
+    private void removeWallet(Wallet wallet) {
+        setStatus("Removing wallet...", true);
 
-            if (position.getUsdBalance() < MIN_DISPLAY_VALUE) {
-                filteredCount++;
-                continue;
+        // Tokens no other wallet holds stop being priced once the processor releases the wallet's positions
+        processor.removeWalletAsync(wallet.getAddress(), removed -> Platform.runLater(() -> {
+            walletAddresses.remove(wallet.getAddress());
+            walletList.remove(wallet);
+            updateWalletCount();
+            if (displayedWallet == wallet) {
+                displayedWallet = null;
+                clearPositionRows();
+                totalValueLabel.setText(currencyFormat.format(0));
             }
+            setStatus(removed ? "Wallet removed" : "Wallet was not tracked", false);
+        }));
+    }
 
-            positionRows.add(new PositionRow(position));
-            totalValue += position.getUsdBalance();
+    private void displayWalletHoldings(Wallet wallet) {
+        if (showingAllHoldings || displayedWallet != wallet) {
+            clearPositionRows();
         }
+        displayedWallet = wallet;
+        showingAllHoldings = false;
 
-        // Sort by USD value descending
-        positionRows.sort((a, b) -> Double.compare(b.getUsdValueRaw(), a.getUsdValueRaw()));
-
-        totalValueLabel.setText(currencyFormat.format(totalValue));
+        HoldingsSyncResult result = syncPositionRows(List.of(snapshotOf(wallet)), false);
+        totalValueLabel.setText(currencyFormat.format(result.totalValue()));
+        if (valueTab.isSelected()) {
+            updateValueChart();
+        }
 
         logger.log(Level.INFO, String.format(
-                "Displaying %d positions for wallet %s (filtered: %d below $100, %d no market data)",
-                positionRows.size(), wallet.getName(), filteredCount, noMarketDataCount
+                "Displaying %d positions for wallet %s (filtered: %d below $100, %d no market data, %d illiquid excluded from total)",
+                positionRows.size(), wallet.getName(), result.filteredCount(), result.noMarketDataCount(), result.illiquidCount()
         ));
     }
 
     private void displayAllHoldings() {
         walletListView.getSelectionModel().clearSelection();
-        positionRows.clear();
+        if (!showingAllHoldings) {
+            clearPositionRows();
+        }
+        displayedWallet = null;
+        showingAllHoldings = true;
 
-        double totalValue = 0;
-        Map<String, Wallet> wallets = processor.getWallets();
+        HoldingsSyncResult result = syncPositionRows(processor.getPortfolioSnapshot().wallets(), true);
+        totalValueLabel.setText(currencyFormat.format(result.totalValue()));
+        if (valueTab.isSelected()) {
+            updateValueChart();
+        }
+    }
 
-        for (Wallet wallet : wallets.values()) {
-            for (Position position : wallet.getPositions().values()) {
-                Token token = position.getToken();
+    /**
+     * Wallet as of the latest published portfolio snapshot. Falls back to a one-off capture for a wallet that has
+     * loaded since the last repricing epoch.
+     */
+    private WalletSnapshot snapshotOf(Wallet wallet) {
+        for (WalletSnapshot walletSnapshot : processor.getPortfolioSnapshot().wallets()) {
+            if (walletSnapshot.address().equals(wallet.getAddress())) {
+                return walletSnapshot;
+            }
+        }
+        return WalletSnapshot.of(wallet);
+    }
 
-                if (token.getMarketData() == null) {
+    /**
+     * Diff the displayed rows against the given wallets' positions. Existing rows (keyed by token account address) are
+     * updated in place, new positions are appended and positions that no longer qualify are removed, so selection and
+     * scroll position survive a tick.
+     */
+    private HoldingsSyncResult syncPositionRows(Collection<WalletSnapshot> wallets, boolean includeWalletName) {
+        Set<String> liveAccounts = new HashSet<>();
+        List<PositionRow> addedRows = new ArrayList<>();
+        int filteredCount = 0;
+        int noMarketDataCount = 0;
+        int illiquidCount = 0;
+        double totalValue = 0;
+
+        for (WalletSnapshot wallet : wallets) {
+            for (PositionSnapshot position : wallet.positions()) {
+                if (!position.priced()) {
+                    noMarketDataCount++;
                     continue;
                 }
 
-                if (position.getUsdBalance() < MIN_DISPLAY_VALUE) {
+                // Illiquid positions are listed at their quoted value so they can be spotted, but not totalled
+                if (position.nominalUsdValue() < MIN_DISPLAY_VALUE) {
+                    filteredCount++;
                     continue;
                 }
+                if (position.illiquid()) illiquidCount++;
+
+                liveAccounts.add(position.accountAddress());
+                PositionRow row = positionRowIndex.get(position.accountAddress());
+                if (row == null) {
+                    row = new PositionRow(position, includeWalletName ? wallet.name() : null);
+                    positionRowIndex.put(position.accountAddress(), row);
+                    addedRows.add(row);
+                } else {
+                    row.update(position);
+                }
+                totalValue += position.usdValue();
+            }
+        }
 
-                positionRows.add(new PositionRow(position, wallet.getName()));
-                totalValue += position.getUsdBalance();
+        List<PositionRow> removedRows = new ArrayList<>();
+        for (PositionRow row : positionRows) {
+            if (!liveAccounts.contains(row.getAccountAddress())) {
+                removedRows.add(row);
+                positionRowIndex.remove(row.getAccountAddress());
             }
         }
 
-        // Sort by USD value descending
-        positionRows.sort((a, b) -> Double.compare(b.getUsdValueRaw(), a.getUsdValueRaw()));
+        // Bulk operations so the table receives a single change event for each
+        if (!removedRows.isEmpty()) positionRows.removeAll(removedRows);
+        if (!addedRows.isEmpty()) positionRows.addAll(addedRows);
+
+        return new HoldingsSyncResult(totalValue, filteredCount, noMarketDataCount, illiquidCount);
+    }
 
-        totalValueLabel.setText(currencyFormat.format(totalValue));
+    private void clearPositionRows() {
+        positionRows.clear();
+        positionRowIndex.clear();
     }
 
+    private record HoldingsSyncResult(double totalValue, int filteredCount, int noMarketDataCount, int illiquidCount) {}
+
     private void updateOverlapTable() {
         overlapRows.clear();
 
-        Map<String, Wallet> wallets = processor.getWallets();
-        Map<String, Token> tokenMap = processor.getTokenMap();
-        Map<String, List<Position>> tokenToPositions = new HashMap<>();
-
-        // Group positions by token mint address
-        for (Wallet wallet : wallets.values()) {
-            for (Position position : wallet.getPositions().values()) {
-                String mintAddress = position.getToken().getMintAddress();
-                tokenToPositions.computeIfAbsent(mintAddress, k -> new ArrayList<>()).add(position);
-            }
+        // Tokens in multiple wallets with significant value, sorted by total value descending
+        PortfolioSnapshot snapshot = processor.getPortfolioSnapshot();
+        for (OverlapSnapshot overlap : snapshot.overlaps(MIN_OVERLAP_VALUE)) {
+            overlapRows.add(new OverlapRow(overlap));
         }
+    }
 
-        // Filter for tokens in multiple wallets with significant value
-        for (Map.Entry<String, List<Position>> entry : tokenToPositions.entrySet()) {
-            List<Position> positions = entry.getValue();
+    // === Callbacks for Processor ===
+    // Invoked on Processor threads. Events are coalesced by the update channel and applied on the FX thread below.
 
-            if (positions.size() <= 1) {
-                continue;
-            }
+    public void onWalletLoaded(Wallet wallet) {
+        updateChannel.postWalletAdded(wallet);
+    }
+
+    public void onWalletsLoaded() {
+        updateChannel.postWalletsLoaded();
+    }
 
-            double totalValue = positions.stream().mapToDouble(Position::getUsdBalance).sum();
+    public void onMarketDataUpdated() {
+        updateChannel.postPositionsChanged();
+    }
 
-            if (totalValue < MIN_OVERLAP_VALUE) {
-                continue;
-            }
+    // === Coalesced updates (FX thread) ===
 
-            Token token = tokenMap.get(entry.getKey());
-            if (token == null) {
-                continue;
+    @Override
+    public void applyWalletsAdded(List<Wallet> wallets) {
+        List<Wallet> newWallets = new ArrayList<>();
+        for (Wallet wallet : wallets) {
+            if (walletAddresses.add(wallet.getAddress())) {
+                newWallets.add(wallet);
             }
+        }
 
-            overlapRows.add(new OverlapRow(token, positions, wallets));
+        if (newWallets.isEmpty()) {
+            return;
         }
 
-        // Sort by total value descending
-        overlapRows.sort((a, b) -> Double.compare(b.getTotalValueRaw(), a.getTotalValueRaw()));
+        boolean firstWallets = walletList.isEmpty();
+        walletList.addAll(newWallets);
+        updateWalletCount();
+        setStatus("Loading all stored wallets... (" + newWallets.get(newWallets.size() - 1).getName() + ")", true);
+
+        // Select the first wallet when it's added
+        if (firstWallets) {
+            walletListView.getSelectionModel().selectFirst();
+        }
     }
 
-    // === Callbacks for Processor ===
+    @Override
+    public void applyWalletsLoaded() {
+        updateWalletCount();
+        setStatus("Ready", false);
 
-    public void onWalletLoaded(Wallet wallet) {
-        Platform.runLater(() -> {
-            // Add wallet if not already present
-            boolean exists = walletList.stream()
-                    .anyMatch(w -> w.getAddress().equals(wallet.getAddress()));
-            if (!exists) {
-                walletList.add(wallet);
-                updateWalletCount();
-                setStatus("Loading all stored wallets... (" + wallet.getName() + ")", true);
-
-                // Select the first wallet when it's added
-                if (walletList.size() == 1) {
-                    walletListView.getSelectionModel().selectFirst();
-                }
-            }
-        });
+        if (!walletList.isEmpty() && walletListView.getSelectionModel().isEmpty()) {
+            walletListView.getSelectionModel().selectFirst();
+        }
     }
 
-    public void onWalletsLoaded() {
-        Platform.runLater(() -> {
-            updateWalletCount();
-            setStatus("Ready", false);
+    @Override
+    public void applyPositionsChanged() {
+        long startTime = System.nanoTime();
 
-            if (!walletList.isEmpty() && walletListView.getSelectionModel().isEmpty()) {
-                walletListView.getSelectionModel().selectFirst();
-            }
-        });
-    }
+        // Refresh current view
+        Wallet selectedWallet = walletListView.getSelectionModel().getSelectedItem();
+        if (selectedWallet != null) {
+            displayWalletHoldings(selectedWallet);
+        } else if (showingAllHoldings) {
+            displayAllHoldings();
+        }
 
-    public void onMarketDataUpdated() {
-        Platform.runLater(() -> {
-            // Refresh current view
-            Wallet selectedWallet = walletListView.getSelectionModel().getSelectedItem();
-            if (selectedWallet != null) {
-                displayWalletHoldings(selectedWallet);
-            } else if (!positionRows.isEmpty()) {
-                displayAllHoldings();
-            }
+        lastUpdateLabel.setText("Last updated: " + timeFormatter.format(LocalDateTime.now()));
 
-            lastUpdateLabel.setText("Last updated: " + timeFormatter.format(LocalDateTime.now()));
-        });
+        double durationMs = (System.nanoTime() - startTime) / 1_000_000.0;
+        logger.log(Level.FINE, String.format("Market data tick applied to %d holdings rows on FX thread in %.3f ms (%d redundant refreshes dropped)",
+                positionRows.size(), durationMs, updateChannel.getDroppedRefreshes()));
     }
 
     // === Helper Methods ===
@@ -535,6 +782,61 @@ public class MainViewController {
         setStatus("Copied to clipboard", false);
     }
 
+    /**
+     * Table cell that formats its numeric value on render, so formatting cost is only paid for visible rows.
+     */
+    private static TableCell<PositionRow, Number> formattedCell(NumberFormat format) {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                setText(empty || value == null ? null : format.format(value.doubleValue()));
+            }
+        };
+    }
+
+    private static TableCell<PositionRow, Number> priceChangeCell() {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                getStyleClass().removeAll("value-positive", "value-negative");
+                if (empty || value == null || Double.isNaN(value.doubleValue())) {
+                    setText(null);
+                    return;
+                }
+                setText(s_cellPercentFormat.format(value.doubleValue()));
+                getStyleClass().add(value.doubleValue() >= 0 ? "value-positive" : "value-negative");
+            }
+        };
+    }
+
+    /**
+     * Liquidity cell, flagging positions below the liquidity floor.
+     */
+    private static TableCell<PositionRow, Number> liquidityCell() {
+        return new TableCell<>() {
+            @Override
+            protected void updateItem(Number value, boolean empty) {
+                super.updateItem(value, empty);
+                getStyleClass().remove("value-negative");
+                setTooltip(null);
+                if (empty || value == null || Double.isNaN(value.doubleValue())) {
+                    setText(null);
+                    return;
+                }
+                PositionRow row = getTableRow() != null ? getTableRow().getItem() : null;
+                if (row != null && row.isIlliquid()) {
+                    setText("Illiquid " + s_cellLiquidityFormat.format(value.doubleValue()));
+                    getStyleClass().add("value-negative");
+                    setTooltip(new Tooltip("Liquidity below the configured floor - excluded from totals"));
+                } else {
+                    setText(s_cellLiquidityFormat.format(value.doubleValue()));
+                }
+            }
+        };
+    }
+
     private void showError(String title, String message) {
         Alert alert = new Alert(Alert.AlertType.ERROR);
         alert.setTitle(title);
@@ -546,49 +848,56 @@ public class MainViewController {
     // === Inner Classes for Table Rows ===
 
     public static class PositionRow {
+        private final String accountAddress;
         private final String tokenName;
         private final String ticker;
-        private final String balance;
-        private final String usdPrice;
-        private final String usdValue;
-        private final double usdValueRaw;
         private final String mintAddress;
         private final String walletName;
-
-        private static final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
-        private static final NumberFormat numberFormat = NumberFormat.getNumberInstance(Locale.US);
-        private static final java.text.DecimalFormat priceFormat = new java.text.DecimalFormat("$#,##0.0000000");
-
-        public PositionRow(Position position) {
+        private final ReadOnlyDoubleWrapper balance = new ReadOnlyDoubleWrapper();
+        private final ReadOnlyDoubleWrapper usdPrice = new ReadOnlyDoubleWrapper();
+        private final ReadOnlyDoubleWrapper usdValue = new ReadOnlyDoubleWrapper();
+        private final ReadOnlyDoubleWrapper priceChange24h = new ReadOnlyDoubleWrapper();
+        private final ReadOnlyDoubleWrapper liquidity = new ReadOnlyDoubleWrapper();
+        private boolean illiquid;
+
+        public PositionRow(PositionSnapshot position) {
             this(position, null);
         }
 
-        public PositionRow(Position position, String walletName) {
-            Token token = position.getToken();
-            this.tokenName = token.getName();
-            this.ticker = token.getTicker();
-            this.balance = numberFormat.format(position.getTokenBalance());
-            this.mintAddress = token.getMintAddress();
+        public PositionRow(PositionSnapshot position, String walletName) {
+            this.accountAddress = position.accountAddress();
+            this.tokenName = position.name();
+            this.ticker = position.ticker();
+            this.mintAddress = position.mintAddress();
             this.walletName = walletName;
-            this.usdValueRaw = position.getUsdBalance();
+            update(position);
+        }
 
-            if (token.getMarketData() != null) {
-                this.usdPrice = priceFormat.format(token.getMarketData().getUsdPrice());
-                this.usdValue = currencyFormat.format(position.getUsdBalance());
-            } else {
-                this.usdPrice = "N/A";
-                this.usdValue = "N/A";
-            }
+        /**
+         * Refresh the numeric properties from the position. Properties only fire when their value actually changes.
+         */
+        public void update(PositionSnapshot position) {
+            balance.set(position.tokenBalance());
+            usdPrice.set(position.usdPrice());
+            usdValue.set(position.nominalUsdValue());
+            priceChange24h.set(position.priceChange24h());
+            // Set before liquidity so the liquidity cell sees the new flag when it re-renders
+            illiquid = position.illiquid();
+            liquidity.set(position.liquidityUsd());
         }
 
+        public String getAccountAddress() { return accountAddress; }
         public String getTokenName() { return tokenName; }
         public String getTicker() { return ticker; }
-        public String getBalance() { return balance; }
-        public String getUsdPrice() { return usdPrice; }
-        public String getUsdValue() { return usdValue; }
-        public double getUsdValueRaw() { return usdValueRaw; }
         public String getMintAddress() { return mintAddress; }
         public String getWalletName() { return walletName; }
+        public double getUsdValueRaw() { return usdValue.get(); }
+        public boolean isIlliquid() { return illiquid; }
+        public ReadOnlyDoubleProperty balanceProperty() { return balance.getReadOnlyProperty(); }
+        public ReadOnlyDoubleProperty usdPriceProperty() { return usdPrice.getReadOnlyProperty(); }
+        public ReadOnlyDoubleProperty usdValueProperty() { return usdValue.getReadOnlyProperty(); }
+        public ReadOnlyDoubleProperty priceChange24hProperty() { return priceChange24h.getReadOnlyProperty(); }
+        public ReadOnlyDoubleProperty liquidityProperty() { return liquidity.getReadOnlyProperty(); }
     }
 
     public static class OverlapRow {
@@ -601,22 +910,13 @@ public class MainViewController {
 
         private static final NumberFormat currencyFormat = NumberFormat.getCurrencyInstance(Locale.US);
 
-        public OverlapRow(Token token, List<Position> positions, Map<String, Wallet> wallets) {
-            this.tokenName = token.getName();
-            this.ticker = token.getTicker();
-            this.walletCount = positions.size();
-            this.totalValueRaw = positions.stream().mapToDouble(Position::getUsdBalance).sum();
+        public OverlapRow(OverlapSnapshot overlap) {
+            this.tokenName = overlap.name();
+            this.ticker = overlap.ticker();
+            this.walletCount = overlap.walletCount();
+            this.totalValueRaw = overlap.totalUsdValue();
             this.totalValue = currencyFormat.format(totalValueRaw);
-
-            StringBuilder names = new StringBuilder();
-            for (Position pos : positions) {
-                Wallet wallet = wallets.get(pos.getWalletAddress());
-                if (wallet != null) {
-                    if (names.length() > 0) names.append(", ");
-                    names.append(wallet.getName());
-                }
-            }
-            this.walletNames = names.toString();
+            this.walletNames = String.join(", ", overlap.walletNames());
         }
 
         public String getTokenName() { return tokenName; }
@@ -0,0 +1,112 @@
+package org.core.ui;
+
+import javafx.animation.PauseTransition;
+import javafx.application.Platform;
+import javafx.util.Duration;
+import org.core.accounts.Wallet;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Notification channel between Processor threads and the FX thread.
+ * Events posted from any thread are merged and delivered in at most one FX pulse per configured interval:
+ * pending wallet additions are drained as a single batch and repeated position refreshes collapse into one.
+ */
+public class UiUpdateChannel {
+
+    /**
+     * Receives coalesced notifications on the FX thread.
+     */
+    public interface Listener {
+        void applyWalletsAdded(List<Wallet> wallets);
+        void applyWalletsLoaded();
+        void applyPositionsChanged();
+    }
+
+    private final Listener listener;
+    private final long minIntervalNanos;
+
+    private final ConcurrentLinkedQueue<Wallet> pendingWallets = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean walletsLoadedPending = new AtomicBoolean();
+    private final AtomicBoolean positionsChangedPending = new AtomicBoolean();
+    private final AtomicBoolean pulseScheduled = new AtomicBoolean();
+
+    // Stats for redundant refreshes that were merged into an already pending pulse
+    private final AtomicLong droppedRefreshes = new AtomicLong();
+
+    // FX thread only
+    private long lastPulseNanos;
+
+    /**
+     * @param listener FX-thread receiver of coalesced events
+     * @param minIntervalMs Minimum gap between pulses. 0 delivers on the next FX frame.
+     */
+    public UiUpdateChannel(Listener listener, long minIntervalMs) {
+        this.listener = listener;
+        this.minIntervalNanos = minIntervalMs * 1_000_000L;
+    }
+
+    public void postWalletAdded(Wallet wallet) {
+        pendingWallets.add(wallet);
+        schedulePulse();
+    }
+
+    public void postWalletsLoaded() {
+        walletsLoadedPending.set(true);
+        schedulePulse();
+    }
+
+    public void postPositionsChanged() {
+        if (!positionsChangedPending.compareAndSet(false, true)) {
+            droppedRefreshes.incrementAndGet();
+            return;
+        }
+        schedulePulse();
+    }
+
+    public long getDroppedRefreshes() {
+        return droppedRefreshes.get();
+    }
+
+    private void schedulePulse() {
+        if (pulseScheduled.compareAndSet(false, true)) {
+            Platform.runLater(this::pulse);
+        }
+    }
+
+    private void pulse() {
+        long waitNanos = lastPulseNanos + minIntervalNanos - System.nanoTime();
+        if (lastPulseNanos != 0 && waitNanos > 0) {
+            // Too soon after the previous pulse - defer without blocking the FX thread
+            PauseTransition delay = new PauseTransition(Duration.millis(waitNanos / 1_000_000.0));
+            delay.setOnFinished(e -> pulse());
+            delay.play();
+            return;
+        }
+
+        // Clear before draining so events posted during delivery schedule the next pulse
+        pulseScheduled.set(false);
+        lastPulseNanos = System.nanoTime();
+
+        List<Wallet> wallets = new ArrayList<>();
+        Wallet wallet;
+        while ((wallet = pendingWallets.poll()) != null) {
+            wallets.add(wallet);
+        }
+        if (!wallets.isEmpty()) {
+            listener.applyWalletsAdded(wallets);
+        }
+
+        if (walletsLoadedPending.getAndSet(false)) {
+            listener.applyWalletsLoaded();
+        }
+
+        if (positionsChangedPending.getAndSet(false)) {
+            listener.applyPositionsChanged();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.core.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Application settings. Values are read from tracker.properties on the classpath and can be overridden with
+ * -D system properties of the same name.
+ */
+public class ConfigUtil {
+
+    private static final Logger logger = Logger.getLogger(ConfigUtil.class.getName());
+    private static final String s_configFile = "tracker.properties";
+    private static final Properties s_properties = loadProperties();
+
+    private static Properties loadProperties() {
+        Properties props = new Properties();
+        try (InputStream input = ConfigUtil.class.getClassLoader().getResourceAsStream(s_configFile)) {
+            if (input != null) {
+                props.load(input);
+            }
+        } catch (IOException e) {
+            logger.log(Level.WARNING, "Failed to load " + s_configFile + ", using defaults", e);
+        }
+        return props;
+    }
+
+    public static String getString(String key, String defaultValue) {
+        String value = System.getProperty(key, s_properties.getProperty(key));
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    public static int getInt(String key, int defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, String.format("Invalid integer for %s: %s, using %d", key, value, defaultValue));
+            return defaultValue;
+        }
+    }
+
+    public static long getLong(String key, long defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, String.format("Invalid long for %s: %s, using %d", key, value, defaultValue));
+            return defaultValue;
+        }
+    }
+
+    public static double getDouble(String key, double defaultValue) {
+        String value = getString(key, null);
+        try {
+            return value == null ? defaultValue : Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            logger.log(Level.WARNING, String.format("Invalid double for %s: %s, using %f", key, value, defaultValue));
+            return defaultValue;
+        }
+    }
+
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getString(key, null);
+        return value == null ? defaultValue : Boolean.parseBoolean(value);
+    }
+}
@@ -2,13 +2,35 @@ package org.core.utils;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
+import org.core.accounts.BalanceChange;
+import org.core.accounts.PositionBalance;
 import org.core.accounts.Token;
 import org.core.accounts.Wallet;
+import org.core.alerts.Alert;
+import org.core.alerts.AlertDirection;
+import org.core.alerts.AlertKind;
+import org.core.jfr.DbWriteEvent;
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.transactions.CostBasis;
+import org.core.transactions.SignatureInfo;
+import org.core.transactions.TokenBalanceDelta;
+import org.core.transactions.TransactionParser;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -20,8 +42,27 @@ public class DatabaseConnUtil {
 
     private static final Logger logger = Logger.getLogger(DatabaseConnUtil.class.getName());
 
+    // NOTIFY channels for rows added to the token & BlacklistedTokens tables
+    public static final String TOKEN_CHANNEL = "tracker_token";
+    public static final String BLACKLIST_CHANNEL = "tracker_blacklist";
+
+    private static final Histogram s_tokenWriteLatency = writeLatency("token");
+    private static final Histogram s_blacklistWriteLatency = writeLatency("blacklisted_tokens");
+    private static final Histogram s_walletWriteLatency = writeLatency("wallet");
+    private static final Histogram s_transactionIngestWriteLatency = writeLatency("token_balance_delta");
+    private static final Histogram s_alertWriteLatency = writeLatency("price_alert");
+    private static final Histogram s_tokenReadLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_db_read_seconds{table=\"token\"}", "DB read latency by table");
+    private static volatile YearMonth s_balanceChangePartition; // Last month whose balance_change partition was ensured
+    private static final Counter s_writeErrors = MetricsRegistry.getInstance()
+            .counter("tracker_db_write_errors_total", "Failed DB writes");
+
     private final Connection m_dbConnection;
 
+    private static Histogram writeLatency(String table) {
+        return MetricsRegistry.getInstance().histogram("tracker_db_write_seconds{table=\"" + table + "\"}", "DB write latency by table");
+    }
+
     private DatabaseConnUtil() {
         m_dbConnection = initiateDbConnection();
     }
@@ -41,14 +82,26 @@ public class DatabaseConnUtil {
     private static String getDbPassword() throws IOException {
         Properties props = new Properties();
         try (InputStream input = DatabaseConnUtil.class.getClassLoader().getResourceAsStream("secrets.properties")) {
+            if (input == null) {
+                throw new IOException("secrets.properties not found on classpath");
+            }
             props.load(input);
         }
         return props.getProperty("db.password");
     }
 
+    /**
+     * Connect using tracker.db.* settings. Returns null if the DB is disabled or unreachable, in which case all
+     * loads & writes below are skipped and the tracker runs in memory only.
+     */
     private static Connection initiateDbConnection() {
-        String jdbcUrl = "jdbc:postgresql://localhost:5432/postgres";
-        String username = "postgres";
+        if (!ConfigUtil.getBoolean("tracker.db.enabled", true)) {
+            logger.log(Level.WARNING, "Database disabled (tracker.db.enabled=false) - tokens & wallets will not be persisted");
+            return null;
+        }
+
+        String jdbcUrl = ConfigUtil.getString("tracker.db.url", "jdbc:postgresql://localhost:5432/postgres");
+        String username = ConfigUtil.getString("tracker.db.user", "postgres");
 
         try {
             String password = getDbPassword();
@@ -62,8 +115,17 @@ public class DatabaseConnUtil {
         return null;
     }
 
+    /**
+     * A new connection, separate from the shared one, for writers that need their own DB transactions.
+     * Null if the DB is disabled or unreachable.
+     */
+    public static Connection openDbConnection() {
+        return initiateDbConnection();
+    }
+
     // TODO: Update to use instance version of DB connection?
     public static void persistTokenToDb(Connection connection, Token token, CopyOnWriteArraySet<String> blacklistedTokens) {
+        if (connection == null) return;
 
         if ("Unknown Token".equals(token.getName())) {
             logger.log(Level.WARNING, String.format("Token %s is null or has an unknown name. Persisting to BlacklistedTokens table.", token.getMintAddress()));
@@ -71,21 +133,130 @@ public class DatabaseConnUtil {
             return;
         }
 
-        String sql = "INSERT INTO token (mint_address, name, ticker, decimals, date_added) VALUES (?, ?, ?, ?, ?)";
-
+        // Other tracker instances on this DB pick the token up from the notification (see CacheSyncListener)
+        String sql = """
+                WITH inserted AS (INSERT INTO token (mint_address, name, ticker, decimals, date_added) VALUES (?, ?, ?, ?, ?)
+                 RETURNING mint_address, name, ticker, decimals)
+                SELECT pg_notify('%s', json_build_object('mint', mint_address, 'name', name, 'ticker', ticker, 'decimals', decimals)::text) FROM inserted
+                """.formatted(TOKEN_CHANNEL);
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, token.getMintAddress());
             stmt.setString(2, token.getName());
             stmt.setString(3, token.getTicker());
             stmt.setInt(4, token.getDecimals());
             stmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
-            stmt.executeUpdate();
+            stmt.execute();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to persist token to database", e);
+            s_writeErrors.increment();
+            outcome = "error";
+        } finally {
+            s_tokenWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "token", null, token.getMintAddress(), outcome);
+        }
+    }
+
+    /**
+     * Bulk-load a token list into the token table. Rows are streamed with COPY into a temporary staging table, then
+     * inserted in one statement, skipping mints already in the table (and duplicates within the file).
+     *
+     * @return number of tokens added, or -1 if there is no DB or the import failed (nothing is written on failure)
+     */
+    public static long copyTokensToDb(Connection connection, TokenListReader reader) {
+        if (connection == null) return -1;
+
+        String insertSql = """
+                INSERT INTO token (mint_address, name, ticker, decimals, date_added)
+                 SELECT DISTINCT ON (i.mint_address) i.mint_address, i.name, i.ticker, i.decimals, now() FROM token_import i
+                 WHERE NOT EXISTS (SELECT 1 FROM token t WHERE t.mint_address = i.mint_address)
+                """;
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
+        long copied = 0;
+        long inserted = -1;
+        try {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("CREATE TEMP TABLE token_import (mint_address VARCHAR(44), name TEXT, ticker TEXT, decimals INT) ON COMMIT DROP");
+            }
+
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn("COPY token_import (mint_address, name, ticker, decimals) FROM STDIN WITH (FORMAT csv)");
+            try {
+                StringBuilder rows = new StringBuilder(1 << 16);
+                Token token;
+                while ((token = reader.next()) != null) {
+                    rows.append(token.getMintAddress()).append(',');
+                    appendCsvField(rows, token.getName());
+                    rows.append(',');
+                    appendCsvField(rows, token.getTicker());
+                    rows.append(',').append(token.getDecimals()).append('\n');
+                    copied++;
+                    if (rows.length() >= 1 << 16) {
+                        writeToCopy(copyIn, rows);
+                    }
+                }
+                writeToCopy(copyIn, rows);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) copyIn.cancelCopy();
+            }
+
+            try (Statement stmt = connection.createStatement()) {
+                inserted = stmt.executeUpdate(insertSql);
+            }
+            connection.commit();
+            logger.log(Level.INFO, String.format("Token list import: %d rows copied, %d new tokens, %d rows skipped", copied, inserted, reader.getSkipped()));
+            return inserted;
+        } catch (SQLException | IOException e) {
+            logger.log(Level.SEVERE, String.format("Failed to import token list after %d rows", copied), e);
+            s_writeErrors.increment();
+            outcome = "error";
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                logger.log(Level.SEVERE, "Failed to roll back token list import", rollbackException);
+            }
+            return -1;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to restore auto-commit", e);
+            }
+            s_tokenWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "token", null, null, (int) Math.min(Integer.MAX_VALUE, Math.max(inserted, 0)), outcome);
+        }
+    }
+
+    private static void appendCsvField(StringBuilder rows, String value) {
+        if (value == null) return; // Unquoted empty field = NULL
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == 0) continue; // Not allowed in PostgreSQL text
+            if (c == '"') rows.append('"');
+            rows.append(c);
         }
+        rows.append('"');
+    }
+
+    private static void writeToCopy(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
     }
 
     public static void persistBlacklistedTokenToDb(Connection connection, Token token, CopyOnWriteArraySet<String> blacklistedTokens) {
+        if (connection == null) return;
         logger.log(Level.INFO, String.format("Persisting Token: %s - %s to BlacklistedTokens DB Table", token.getTicker(), token.getMintAddress()));
 
         if (blacklistedTokens.contains(token.getMintAddress())) {
@@ -93,41 +264,324 @@ public class DatabaseConnUtil {
             return;
         }
 
-        String sql = "INSERT INTO BlacklistedTokens (mint_address, name, ticker, date_added) VALUES (?, ?, ?, ?)";
-
+        String sql = """
+                WITH inserted AS (INSERT INTO BlacklistedTokens (mint_address, name, ticker, date_added) VALUES (?, ?, ?, ?) RETURNING mint_address)
+                SELECT pg_notify('%s', mint_address) FROM inserted
+                """.formatted(BLACKLIST_CHANNEL);
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
             stmt.setString(1, token.getMintAddress());
             stmt.setString(2, token.getName());
             stmt.setString(3, token.getTicker());
             stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
-            stmt.executeUpdate();
+            stmt.execute();
         } catch (SQLException e) {
             logger.log(Level.SEVERE, "Failed to persist token to database", e);
+            s_writeErrors.increment();
+            outcome = "error";
+        } finally {
+            s_blacklistWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "blacklisted_tokens", null, token.getMintAddress(), outcome);
+        }
+    }
+
+    /**
+     * Store a wallet load's balance changes in a single DB transaction: the wallet row if its SOL balance changed (or
+     * it is new), an upsert or delete per changed position, and one balance_change row each. The connection must not be
+     * shared with other writers.
+     * @return True if stored (or the DB is disabled)
+     */
+    public static boolean persistWalletChanges(Connection connection, Wallet wallet, List<BalanceChange> changes) {
+        if (connection == null) return true;
+
+        String walletSql = """
+                INSERT INTO wallet (wallet_address, wallet_name, sol_balance, date_added, date_updated)
+                 VALUES (?, ?, ?, ?, ?) ON CONFLICT (wallet_address) DO UPDATE SET sol_balance = EXCLUDED.sol_balance, date_updated = EXCLUDED.date_updated
+                """;
+        String positionSql = """
+                INSERT INTO wallet_position (wallet_address, account_address, mint_address, token_balance, date_updated)
+                 VALUES (?, ?, ?, ?, ?) ON CONFLICT (wallet_address, account_address)
+                 DO UPDATE SET token_balance = EXCLUDED.token_balance, date_updated = EXCLUDED.date_updated
+                """;
+        String deletePositionSql = "DELETE FROM wallet_position WHERE wallet_address = ? AND account_address = ?";
+        String changeSql = """
+                INSERT INTO balance_change (wallet_address, account_address, mint_address, change_time, balance, balance_delta)
+                 VALUES (?, ?, ?, ?, ?, ?)
+                """;
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
+        LocalDateTime now = LocalDateTime.now();
+        Timestamp timestamp = Timestamp.valueOf(now);
+        try {
+            ensureBalanceChangePartition(connection, YearMonth.from(now));
+            connection.setAutoCommit(false);
+            try (PreparedStatement walletStmt = connection.prepareStatement(walletSql);
+                 PreparedStatement positionStmt = connection.prepareStatement(positionSql);
+                 PreparedStatement deletePositionStmt = connection.prepareStatement(deletePositionSql);
+                 PreparedStatement changeStmt = connection.prepareStatement(changeSql)) {
+                for (BalanceChange change : changes) {
+                    if (change.isNativeSol()) {
+                        walletStmt.setString(1, wallet.getAddress());
+                        walletStmt.setString(2, wallet.getName());
+                        walletStmt.setDouble(3, change.balance());
+                        walletStmt.setTimestamp(4, timestamp);
+                        walletStmt.setTimestamp(5, timestamp);
+                        walletStmt.executeUpdate();
+                    } else if (change.balance() == 0) {
+                        deletePositionStmt.setString(1, change.walletAddress());
+                        deletePositionStmt.setString(2, change.accountAddress());
+                        deletePositionStmt.addBatch();
+                    } else {
+                        positionStmt.setString(1, change.walletAddress());
+                        positionStmt.setString(2, change.accountAddress());
+                        positionStmt.setString(3, change.mintAddress());
+                        positionStmt.setDouble(4, change.balance());
+                        positionStmt.setTimestamp(5, timestamp);
+                        positionStmt.addBatch();
+                    }
+
+                    changeStmt.setString(1, change.walletAddress());
+                    changeStmt.setString(2, change.accountAddress());
+                    changeStmt.setString(3, change.mintAddress());
+                    changeStmt.setTimestamp(4, timestamp);
+                    changeStmt.setDouble(5, change.balance());
+                    changeStmt.setDouble(6, change.delta());
+                    changeStmt.addBatch();
+                }
+                // Positions reference the wallet row, written above
+                positionStmt.executeBatch();
+                deletePositionStmt.executeBatch();
+                changeStmt.executeBatch();
+            }
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, String.format("Failed to persist balance changes for wallet %s", wallet.getAddress()), e);
+            s_writeErrors.increment();
+            outcome = "error";
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                logger.log(Level.SEVERE, "Failed to roll back balance change write", rollbackException);
+            }
+            return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to restore auto-commit", e);
+            }
+            s_walletWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "balance_change", wallet.getAddress(), null, changes.size(), outcome);
+        }
+    }
+
+    /**
+     * balance_change is range partitioned by month - create the month's partition the first time it is written to.
+     */
+    private static void ensureBalanceChangePartition(Connection connection, YearMonth month) throws SQLException {
+        if (month.equals(s_balanceChangePartition)) return;
+
+        String sql = String.format("CREATE TABLE IF NOT EXISTS balance_change_%d_%02d PARTITION OF balance_change FOR VALUES FROM ('%s') TO ('%s')",
+                month.getYear(), month.getMonthValue(), month.atDay(1), month.plusMonths(1).atDay(1));
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute(sql);
+        }
+        s_balanceChangePartition = month;
+    }
+
+    /**
+     * Store one ingestion pass for a wallet in a single DB transaction: the new token balance deltas, the updated cost
+     * basis of the mints they touched and the wallet's new last-seen signature. Either all are stored or none, so a
+     * failed pass is simply retried from the previous checkpoint. The connection must not be shared with other writers.
+     * @return True if stored (or the DB is disabled)
+     */
+    public static boolean persistTransactionIngest(Connection connection, String walletAddress, List<TokenBalanceDelta> deltas,
+                                                   Map<String, CostBasis> costBasisByMint, SignatureInfo checkpoint) {
+        if (connection == null) return true;
+
+        String deltaSql = """
+                INSERT INTO token_balance_delta (signature, wallet_address, mint_address, slot, block_time, amount_delta, quote_sol, quote_stable_usd, swap)
+                 VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?) ON CONFLICT DO NOTHING
+                """;
+        String costBasisSql = """
+                INSERT INTO position_cost_basis (wallet_address, mint_address, quantity, cost_usd, realised_usd, date_updated)
+                 VALUES (?, ?, ?, ?, ?, ?) ON CONFLICT (wallet_address, mint_address)
+                 DO UPDATE SET quantity = EXCLUDED.quantity, cost_usd = EXCLUDED.cost_usd, realised_usd = EXCLUDED.realised_usd, date_updated = EXCLUDED.date_updated
+                """;
+        String checkpointSql = """
+                INSERT INTO transaction_checkpoint (wallet_address, last_signature, last_slot, date_updated) VALUES (?, ?, ?, ?)
+                 ON CONFLICT (wallet_address) DO UPDATE SET last_signature = EXCLUDED.last_signature, last_slot = EXCLUDED.last_slot, date_updated = EXCLUDED.date_updated
+                """;
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        try {
+            connection.setAutoCommit(false);
+            try (PreparedStatement stmt = connection.prepareStatement(deltaSql)) {
+                for (TokenBalanceDelta delta : deltas) {
+                    stmt.setString(1, delta.signature());
+                    stmt.setString(2, delta.walletAddress());
+                    stmt.setString(3, delta.mintAddress());
+                    stmt.setLong(4, delta.slot());
+                    stmt.setTimestamp(5, new Timestamp(delta.blockTimeSeconds() * 1000));
+                    stmt.setDouble(6, delta.amountDelta());
+                    stmt.setDouble(7, delta.quoteSol());
+                    stmt.setDouble(8, delta.quoteStableUsd());
+                    stmt.setBoolean(9, delta.swap());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(costBasisSql)) {
+                for (Map.Entry<String, CostBasis> entry : costBasisByMint.entrySet()) {
+                    stmt.setString(1, walletAddress);
+                    stmt.setString(2, entry.getKey());
+                    stmt.setDouble(3, entry.getValue().quantity());
+                    stmt.setDouble(4, entry.getValue().costUsd());
+                    stmt.setDouble(5, entry.getValue().realisedUsd());
+                    stmt.setTimestamp(6, now);
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
+            }
+            try (PreparedStatement stmt = connection.prepareStatement(checkpointSql)) {
+                stmt.setString(1, walletAddress);
+                stmt.setString(2, checkpoint.signature());
+                stmt.setLong(3, checkpoint.slot());
+                stmt.setTimestamp(4, now);
+                stmt.executeUpdate();
+            }
+            connection.commit();
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, String.format("Failed to persist transaction history for wallet %s", walletAddress), e);
+            s_writeErrors.increment();
+            outcome = "error";
+            try {
+                connection.rollback();
+            } catch (SQLException rollbackException) {
+                logger.log(Level.SEVERE, "Failed to roll back transaction history write", rollbackException);
+            }
+            return false;
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                logger.log(Level.WARNING, "Failed to restore auto-commit", e);
+            }
+            s_transactionIngestWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "token_balance_delta", walletAddress, null, deltas.size(), outcome);
         }
     }
 
-    public static void persistWalletToDb(Connection connection, Wallet wallet) {
+    /**
+     * @return The new alert's id, or -1 if the DB is disabled or the insert failed
+     */
+    public static long persistAlertToDb(Connection connection, AlertKind kind, AlertDirection direction, String mintAddress,
+                                        String walletAddress, double threshold, long windowSeconds) {
+        if (connection == null) return -1;
+
         String sql = """
-                       INSERT INTO wallet (wallet_address, wallet_name, sol_balance, date_added, date_updated)
-                        VALUES (?, ?, ?, ?, ?) ON CONFLICT (wallet_address) DO UPDATE SET sol_balance = ?, date_updated = ?
+                INSERT INTO price_alert (kind, direction, mint_address, wallet_address, threshold, window_seconds, date_added)
+                 VALUES (?, ?, ?, ?, ?, ?, ?) RETURNING alert_id
                 """;
 
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
         try (PreparedStatement stmt = connection.prepareStatement(sql)) {
-            stmt.setString(1, wallet.getAddress());
-            stmt.setString(2, wallet.getName());
-            stmt.setDouble(3, wallet.getSolBalance());
-            stmt.setTimestamp(4, new Timestamp(System.currentTimeMillis()));
-            stmt.setTimestamp(5, new Timestamp(System.currentTimeMillis()));
-            stmt.setDouble(6, wallet.getSolBalance());
+            stmt.setString(1, kind.name());
+            stmt.setString(2, direction.name());
+            stmt.setString(3, mintAddress);
+            stmt.setString(4, walletAddress);
+            stmt.setDouble(5, threshold);
+            stmt.setLong(6, windowSeconds);
             stmt.setTimestamp(7, new Timestamp(System.currentTimeMillis()));
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                return resultSet.next() ? resultSet.getLong(1) : -1;
+            }
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to persist alert to database", e);
+            s_writeErrors.increment();
+            outcome = "error";
+            return -1;
+        } finally {
+            s_alertWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "price_alert", walletAddress, mintAddress, outcome);
+        }
+    }
+
+    public static void deleteWalletFromDb(Connection connection, String walletAddress) {
+        if (connection == null) return;
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM wallet WHERE wallet_address = ?")) {
+            stmt.setString(1, walletAddress);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            logger.log(Level.SEVERE, "Failed to delete wallet from database", e);
+            s_writeErrors.increment();
+            outcome = "error";
+        } finally {
+            s_walletWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "wallet", walletAddress, null, outcome);
+        }
+    }
+
+    public static void deleteAlertFromDb(Connection connection, long alertId) {
+        if (connection == null) return;
+
+        long startTime = System.nanoTime();
+        DbWriteEvent event = new DbWriteEvent();
+        event.begin();
+        String outcome = "ok";
+        try (PreparedStatement stmt = connection.prepareStatement("DELETE FROM price_alert WHERE alert_id = ?")) {
+            stmt.setLong(1, alertId);
             stmt.executeUpdate();
         } catch (SQLException e) {
-            logger.log(Level.SEVERE, "Failed to persist wallet to database", e);
+            logger.log(Level.SEVERE, "Failed to delete alert from database", e);
+            s_writeErrors.increment();
+            outcome = "error";
+        } finally {
+            s_alertWriteLatency.recordSince(startTime);
+            commitDbWriteEvent(event, "price_alert", null, null, outcome);
+        }
+    }
+
+    private static void commitDbWriteEvent(DbWriteEvent event, String table, String walletAddress, String mintAddress, String outcome) {
+        commitDbWriteEvent(event, table, walletAddress, mintAddress, 1, outcome);
+    }
+
+    private static void commitDbWriteEvent(DbWriteEvent event, String table, String walletAddress, String mintAddress, int mintCount, String outcome) {
+        if (event.shouldCommit()) {
+            event.table = table;
+            event.wallet = walletAddress;
+            event.mint = mintAddress;
+            event.mintCount = mintCount;
+            event.outcome = outcome;
+            event.commit();
         }
     }
 
     public static Set<Pair<String,String>> loadWalletsFromDb(Connection connection) {
         HashSet<Pair<String,String>> wallets = new HashSet<>();
+        if (connection == null) return wallets;
+
         String sql = "SELECT * FROM wallet";
 
         try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
@@ -144,29 +598,135 @@ public class DatabaseConnUtil {
         return wallets;
     }
 
-    public static void loadTokensFromDb(Connection connection, ConcurrentHashMap<String, Token> tokensMap) {
-        String sql = "SELECT * FROM token";
+    /**
+     * Load a wallet's balances as last stored: native SOL (keyed by the wallet address) and each position's token
+     * account. Nothing is added if the wallet is not stored.
+     * @return False if the lookup failed
+     */
+    public static boolean loadWalletBalancesFromDb(Connection connection, String walletAddress, Map<String, PositionBalance> balances) {
+        if (connection == null) return false;
+
+        String walletSql = "SELECT sol_balance FROM wallet WHERE wallet_address = ?";
+        String positionSql = "SELECT account_address, mint_address, token_balance FROM wallet_position WHERE wallet_address = ?";
+
+        try (PreparedStatement walletStmt = connection.prepareStatement(walletSql);
+             PreparedStatement positionStmt = connection.prepareStatement(positionSql)) {
+            walletStmt.setString(1, walletAddress);
+            try (ResultSet resultSet = walletStmt.executeQuery()) {
+                if (!resultSet.next()) return true;
+                balances.put(walletAddress, new PositionBalance(TransactionParser.WRAPPED_SOL_MINT, resultSet.getDouble("sol_balance")));
+            }
+            positionStmt.setString(1, walletAddress);
+            try (ResultSet resultSet = positionStmt.executeQuery()) {
+                while (resultSet.next()) {
+                    balances.put(resultSet.getString("account_address"),
+                            new PositionBalance(resultSet.getString("mint_address"), resultSet.getDouble("token_balance")));
+                }
+            }
+            return true;
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, String.format("Error loading stored balances for wallet %s", walletAddress), e);
+            balances.clear();
+            return false;
+        }
+    }
+
+    /**
+     * Look up one token by mint address.
+     * @return the token, or null if not in the table or the lookup failed
+     */
+    public static Token loadTokenFromDb(Connection connection, String mintAddress) {
+        Map<String, Token> tokens = loadTokensFromDb(connection, List.of(mintAddress));
+        return tokens.get(mintAddress);
+    }
+
+    /**
+     * Look up tokens by mint address in one query.
+     * @return the tokens found, keyed by mint address
+     */
+    public static Map<String, Token> loadTokensFromDb(Connection connection, Collection<String> mintAddresses) {
+        Map<String, Token> tokens = new HashMap<>();
+        if (connection == null || mintAddresses.isEmpty()) return tokens;
+
+        String sql = "SELECT mint_address, name, ticker, decimals FROM token WHERE mint_address = ANY (?)";
+
+        long startTime = System.nanoTime();
+        try (PreparedStatement stmt = connection.prepareStatement(sql)) {
+            stmt.setArray(1, connection.createArrayOf("varchar", mintAddresses.toArray()));
+            try (ResultSet resultSet = stmt.executeQuery()) {
+                while (resultSet.next()) {
+                    String mintAddress = resultSet.getString("mint_address");
+                    tokens.put(mintAddress, new Token(mintAddress, resultSet.getString("name"), resultSet.getString("ticker"),
+                            resultSet.getInt("decimals")));
+                }
+            }
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, String.format("Error looking up %d tokens in database", mintAddresses.size()), e);
+        } finally {
+            s_tokenReadLatency.recordSince(startTime);
+        }
+        return tokens;
+    }
+
+    public static void loadTransactionCheckpointsFromDb(Connection connection, Map<String, String> lastSignatureByWallet) {
+        if (connection == null) return;
+
+        String sql = "SELECT wallet_address, last_signature FROM transaction_checkpoint";
 
         try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
             while (resultSet.next()) {
-                String mintAddress = resultSet.getString("mint_address");
-                String name = resultSet.getString("name");
-                String ticker = resultSet.getString("ticker");
-                int decimals = resultSet.getInt("decimals");
+                lastSignatureByWallet.put(resultSet.getString("wallet_address"), resultSet.getString("last_signature"));
+            }
+
+            logger.log(Level.INFO, String.format("Transaction checkpoints loaded from database: %d", lastSignatureByWallet.size()));
+        } catch (SQLException e) {
+            logger.log(Level.INFO, "Error loading transaction checkpoints from database");
+        }
+    }
+
+    public static void loadCostBasisFromDb(Connection connection, Map<String, Map<String, CostBasis>> costBasisByWallet) {
+        if (connection == null) return;
 
-                // Create a Token object and add it to your map or list
-                Token token = new Token(mintAddress, name, ticker, decimals);
-                // Add token to your map or list
-                tokensMap.put(mintAddress, token);
+        String sql = "SELECT wallet_address, mint_address, quantity, cost_usd, realised_usd FROM position_cost_basis";
+
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                CostBasis costBasis = new CostBasis(resultSet.getDouble("quantity"), resultSet.getDouble("cost_usd"), resultSet.getDouble("realised_usd"));
+                costBasisByWallet.computeIfAbsent(resultSet.getString("wallet_address"), k -> new HashMap<>())
+                        .put(resultSet.getString("mint_address"), costBasis);
             }
 
-            logger.log(Level.INFO, String.format("Tokens loaded from database: %d", tokensMap.size()));
+            logger.log(Level.INFO, String.format("Cost basis loaded from database for %d wallets", costBasisByWallet.size()));
         } catch (SQLException e) {
-            logger.log(Level.INFO, "Error loading tokens from database");
+            logger.log(Level.INFO, "Error loading cost basis from database");
+        }
+    }
+
+    public static void loadAlertsFromDb(Connection connection, List<Alert> alerts) {
+        if (connection == null) return;
+
+        String sql = "SELECT * FROM price_alert";
+
+        try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                alerts.add(new Alert(resultSet.getLong("alert_id"),
+                        AlertKind.valueOf(resultSet.getString("kind")),
+                        AlertDirection.valueOf(resultSet.getString("direction")),
+                        resultSet.getString("mint_address"),
+                        resultSet.getString("wallet_address"),
+                        resultSet.getDouble("threshold"),
+                        resultSet.getLong("window_seconds")));
+            }
+
+            logger.log(Level.INFO, String.format("Alerts loaded from database: %d", alerts.size()));
+        } catch (SQLException | IllegalArgumentException e) {
+            logger.log(Level.INFO, "Error loading alerts from database");
         }
     }
 
     public static void loadBlacklistedTokensFromDb(Connection connection, CopyOnWriteArraySet<String> blacklistedTokens) {
+        if (connection == null) return;
+
         String sql = "SELECT * FROM BlacklistedTokens";
 
         try (Statement statement = connection.createStatement(); ResultSet resultSet = statement.executeQuery(sql)) {
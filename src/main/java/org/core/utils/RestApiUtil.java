@@ -5,7 +5,12 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import org.apache.commons.lang3.StringUtils;
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
 import org.core.processors.MarketDataProcessor;
+import org.core.traffic.TrafficCapture;
+import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -22,12 +27,30 @@ import java.util.logging.Logger;
 public class RestApiUtil {
 
     private static final Logger logger = Logger.getLogger(MarketDataProcessor.class.getName());
-    private static final String s_jupiterPriceApi = "https://lite-api.jup.ag/price/v3?ids=";
-    private static final String s_heliusTokenApi = "https://mainnet.helius-rpc.com/?api-key=";
+    // Endpoints are configurable so the tracker can be pointed at local stub servers (see perf TrackerLoadTest)
+    private static final String s_jupiterPriceApi = ConfigUtil.getString("tracker.jupiter.priceApi", "https://lite-api.jup.ag/price/v3?ids=");
+    private static final String s_heliusTokenApi = ConfigUtil.getString("tracker.helius.endpoint", "https://mainnet.helius-rpc.com/?api-key=");
+    private static final String s_solanaRpcEndpoint = ConfigUtil.getString("tracker.rpc.endpoint", "https://api.mainnet-beta.solana.com");
     private static final String s_getRequest = "GET";
     private static final String s_postRequest = "POST";
     private static final String s_heliusTokenApiKey;
 
+    // Shared by all Helius calls (previously a new client per call); wrapped for traffic record/replay
+    private static final HttpClient s_heliusHttpClient = TrafficCapture.wrap(HttpClient.newHttpClient());
+
+    private static final Histogram s_jupiterBatchLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_jupiter_batch_seconds", "Jupiter price API batch request latency");
+    private static final Histogram s_heliusCallLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_helius_call_seconds", "Helius getAsset request latency");
+    private static final Histogram s_getSignaturesLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_rpc_call_seconds{method=\"getSignaturesForAddress\"}", "Solana RPC call latency by method");
+    private static final Histogram s_getTransactionLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_rpc_call_seconds{method=\"getTransaction\"}", "Solana RPC call latency by method");
+    private static final Counter s_rateLimitedRequests = MetricsRegistry.getInstance()
+            .counter("tracker_http_rate_limited_total", "HTTP requests rejected with 429 by Jupiter/Helius");
+    private static final Counter s_failedRequests = MetricsRegistry.getInstance()
+            .counter("tracker_http_failed_total", "HTTP requests that failed with an exception or unparseable body");
+
     static {
         String tempHeliusTokenApiKey;
         try {
@@ -42,6 +65,9 @@ public class RestApiUtil {
     public static String getHeliusApiKey() throws IOException {
         Properties props = new Properties();
         try (InputStream input = RestApiUtil.class.getClassLoader().getResourceAsStream("secrets.properties")) {
+            if (input == null) {
+                throw new IOException("secrets.properties not found on classpath");
+            }
             props.load(input);
         }
 
@@ -71,12 +97,17 @@ public class RestApiUtil {
                 .POST(HttpRequest.BodyPublishers.ofString(requestBody))
                 .build();
 
-        return sendHttpRequest(HttpClient.newHttpClient(), request);
+        long startTime = System.nanoTime();
+        JSONObject response = sendHttpRequest(s_heliusHttpClient, request);
+        s_heliusCallLatency.recordSince(startTime);
+        return response;
     }
 
     public static JSONObject getMarketDataForTokens(HttpClient httpClient, String tokenIds) {
         HttpRequest request = getHttpRequest(s_getRequest, s_jupiterPriceApi + tokenIds);
+        long startTime = System.nanoTime();
         JSONObject response = sendHttpRequest(httpClient, request);
+        s_jupiterBatchLatency.recordSince(startTime);
 
         if (response != null) { // TODO: Encountered exception here where "data" not found in response
             if (ValidationUtil.checkRateLimitException(response)){
@@ -89,6 +120,53 @@ public class RestApiUtil {
         return response;
     }
 
+    /**
+     * Signatures for transactions involving the address, newest first. Pages backwards from before (exclusive) and stops
+     * at until (exclusive); either may be null.
+     * @return The result array, or null if the call failed
+     */
+    public static JSONArray getSignaturesForAddress(HttpClient httpClient, String address, String before, String until, int limit) {
+        JSONObject options = new JSONObject().put("limit", limit).put("commitment", "finalized");
+        if (before != null) options.put("before", before);
+        if (until != null) options.put("until", until);
+
+        long startTime = System.nanoTime();
+        JSONObject response = sendJsonRpc(httpClient, "getSignaturesForAddress", new JSONArray().put(address).put(options));
+        s_getSignaturesLatency.recordSince(startTime);
+        return response != null ? response.optJSONArray("result") : null;
+    }
+
+    /**
+     * A finalized transaction in jsonParsed encoding (including pre/post token balances in meta).
+     * @return The full JSON-RPC response ("result" is null if the node no longer has the transaction), or null if the call failed
+     */
+    public static JSONObject getTransaction(HttpClient httpClient, String signature) {
+        JSONObject options = new JSONObject().put("encoding", "jsonParsed").put("commitment", "finalized")
+                .put("maxSupportedTransactionVersion", 0);
+
+        long startTime = System.nanoTime();
+        JSONObject response = sendJsonRpc(httpClient, "getTransaction", new JSONArray().put(signature).put(options));
+        s_getTransactionLatency.recordSince(startTime);
+        return response;
+    }
+
+    private static JSONObject sendJsonRpc(HttpClient httpClient, String method, JSONArray params) {
+        JSONObject body = new JSONObject().put("jsonrpc", "2.0").put("id", 1).put("method", method).put("params", params);
+        HttpRequest request = HttpRequest.newBuilder()
+                .uri(URI.create(s_solanaRpcEndpoint))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+
+        JSONObject response = sendHttpRequest(httpClient, request);
+        if (response != null && response.has("error")) {
+            logger.log(Level.SEVERE, String.format("Solana RPC %s failed: %s", method, response.get("error")));
+            s_failedRequests.increment();
+            return null;
+        }
+        return response;
+    }
+
     private static HttpRequest getHttpRequest(String requestType, String url) {
 
         switch (requestType) {
@@ -112,6 +190,7 @@ public class RestApiUtil {
 
             if (ValidationUtil.checkRateLimitException(response)) {
                 logger.log(Level.SEVERE, "Rate limit exceeded for Jupiter API");
+                s_rateLimitedRequests.increment();
                 return null;
             }
 
@@ -119,6 +198,7 @@ public class RestApiUtil {
             return new JSONObject(responseBody);
         } catch (IOException | InterruptedException | JSONException e) {
             logger.log(Level.SEVERE, e.toString());
+            s_failedRequests.increment();
         }
 
         return null;
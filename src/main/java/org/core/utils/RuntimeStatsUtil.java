@@ -0,0 +1,45 @@
+package org.core.utils;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * JVM startup time and memory figures, logged by each entry point so headless and GUI modes can be compared.
+ */
+public class RuntimeStatsUtil {
+
+    private static final Path s_procStatus = Path.of("/proc/self/status");
+
+    public static void logStartupStats(Logger logger, String mode) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        long heapUsedMb = memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+        long nonHeapUsedMb = memory.getNonHeapMemoryUsage().getUsed() / (1024 * 1024);
+        int loadedClasses = ManagementFactory.getClassLoadingMXBean().getLoadedClassCount();
+        long rssKb = getResidentSetKb();
+
+        logger.log(Level.INFO, String.format("[%s] Startup took %d ms since JVM start. Heap used: %d MB, non-heap used: %d MB, RSS: %s, loaded classes: %d",
+                mode, uptimeMs, heapUsedMb, nonHeapUsedMb, rssKb < 0 ? "n/a" : (rssKb / 1024) + " MB", loadedClasses));
+    }
+
+    /**
+     * Resident set size from /proc (Linux only), or -1 when unavailable.
+     */
+    public static long getResidentSetKb() {
+        try {
+            for (String line : Files.readAllLines(s_procStatus)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.replaceAll("\\D+", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Not on Linux or not readable
+        }
+        return -1;
+    }
+}
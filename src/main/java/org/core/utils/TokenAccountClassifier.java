@@ -0,0 +1,137 @@
+package org.core.utils;
+
+import org.core.accounts.Token;
+import org.core.metrics.Counter;
+import org.core.metrics.MetricsRegistry;
+import org.core.prices.MarketData;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Decides from cheap signals whether a token account is worth a metadata lookup, a Position and a slot in the Jupiter
+ * price batches. Accounts that cannot matter are skipped for this load only, so a dust balance that grows is picked
+ * up on the wallet's next refresh.
+ */
+public class TokenAccountClassifier {
+
+    private static final Logger logger = Logger.getLogger(TokenAccountClassifier.class.getName());
+
+    // Helius DAS interfaces of fungible tokens, anything else (V1_NFT, ProgrammableNFT, MplCoreAsset...) is an NFT
+    private static final Set<String> s_fungibleInterfaces = Set.of("FungibleToken", "FungibleAsset");
+
+    private static final Counter s_heliusCallsSaved = MetricsRegistry.getInstance()
+            .counter("tracker_helius_calls_saved_total", "Helius metadata lookups avoided by token account classification");
+    private static final Map<Classification, Counter> s_skipped = new EnumMap<>(Classification.class);
+
+    static {
+        for (Classification classification : Classification.values()) {
+            if (classification == Classification.TRACK) continue;
+            s_skipped.put(classification, MetricsRegistry.getInstance().counter("tracker_token_accounts_skipped_total{reason=\""
+                    + classification.label() + "\"}", "Token accounts skipped before metadata & price lookups, by reason"));
+        }
+    }
+
+    public enum Classification {
+        TRACK,
+        EMPTY,
+        NON_FUNGIBLE,
+        DUST,
+        BLACKLISTED;
+
+        public String label() {
+            return name().toLowerCase();
+        }
+    }
+
+    private final Map<String, Long> m_minRawAmountByMint;
+    private final double m_minUsdValue;
+    private final boolean m_skipSingleUnit;
+
+    /**
+     * @param minRawAmountByMint Balances below these raw amounts are dust for the given mints
+     * @param minUsdValue Balances of priced tokens worth less than this are dust, 0 to disable
+     * @param skipSingleUnit Skip balances of exactly one raw unit - an NFT, or dust for any token with decimals
+     */
+    public TokenAccountClassifier(Map<String, Long> minRawAmountByMint, double minUsdValue, boolean skipSingleUnit) {
+        m_minRawAmountByMint = Map.copyOf(minRawAmountByMint);
+        m_minUsdValue = minUsdValue;
+        m_skipSingleUnit = skipSingleUnit;
+    }
+
+    public static TokenAccountClassifier fromConfig() {
+        return new TokenAccountClassifier(parseMinRawAmounts(ConfigUtil.getString("tracker.classify.minRawAmounts", "")),
+                ConfigUtil.getDouble("tracker.classify.minUsdValue", 0.01),
+                ConfigUtil.getBoolean("tracker.classify.skipSingleUnit", true));
+    }
+
+    /**
+     * Classify a token account and count it if skipped.
+     *
+     * @param cachedToken Token metadata if already known, else null (classifying as anything but TRACK saves a lookup)
+     */
+    public Classification classify(String mintAddress, long rawAmount, Token cachedToken, boolean blacklisted) {
+        Classification classification = evaluate(mintAddress, rawAmount, cachedToken, blacklisted);
+        if (classification != Classification.TRACK) {
+            s_skipped.get(classification).increment();
+            if (cachedToken == null && classification != Classification.EMPTY) {
+                s_heliusCallsSaved.increment();
+            }
+        }
+        return classification;
+    }
+
+    private Classification evaluate(String mintAddress, long rawAmount, Token cachedToken, boolean blacklisted) {
+        if (rawAmount == 0) return Classification.EMPTY;
+
+        // Unknown or unpriceable metadata already found in an earlier session - the lookup would only repeat that
+        if (blacklisted && cachedToken == null) return Classification.BLACKLISTED;
+
+        Long minRawAmount = m_minRawAmountByMint.get(mintAddress);
+        if (minRawAmount != null && rawAmount < minRawAmount) return Classification.DUST;
+
+        if (m_skipSingleUnit && rawAmount == 1) {
+            return cachedToken == null || cachedToken.getDecimals() == 0 ? Classification.NON_FUNGIBLE : Classification.DUST;
+        }
+
+        if (cachedToken != null && m_minUsdValue > 0) {
+            MarketData marketData = cachedToken.getMarketData();
+            if (marketData != null && rawAmount / Math.pow(10, cachedToken.getDecimals()) * marketData.getUsdPrice() < m_minUsdValue) {
+                return Classification.DUST;
+            }
+        }
+        return Classification.TRACK;
+    }
+
+    /**
+     * @return true if a Helius asset interface denotes an NFT. Unknown (null) interfaces are treated as fungible.
+     */
+    public static boolean isNonFungibleInterface(String interfaceType) {
+        return interfaceType != null && !s_fungibleInterfaces.contains(interfaceType);
+    }
+
+    public static void recordSkippedAfterLookup(Classification classification) {
+        s_skipped.get(classification).increment();
+    }
+
+    /**
+     * Parse "mint:rawAmount,mint:rawAmount" into a map, skipping malformed entries.
+     */
+    static Map<String, Long> parseMinRawAmounts(String value) {
+        Map<String, Long> minRawAmounts = new HashMap<>();
+        for (String entry : value.split(",")) {
+            if (entry.isBlank()) continue;
+            int separator = entry.lastIndexOf(':');
+            try {
+                minRawAmounts.put(entry.substring(0, separator).trim(), Long.parseLong(entry.substring(separator + 1).trim()));
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, String.format("Invalid tracker.classify.minRawAmounts entry: %s", entry));
+            }
+        }
+        return minRawAmounts;
+    }
+}
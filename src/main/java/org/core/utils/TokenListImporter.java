@@ -0,0 +1,112 @@
+package org.core.utils;
+
+import org.core.accounts.Token;
+import org.core.cache.TokenCache;
+import org.resources.ColourFormatter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Pre-seeds token metadata from a token-list file (see TokenListReader for the formats), so cold starts resolve
+ * mints locally instead of one Helius lookup each.
+ * <p>
+ * Run once to load the list into the token table with COPY:
+ * java -cp ... org.core.utils.TokenListImporter tokens.json
+ * <p>
+ * or set tracker.tokenList.file to seed the in-memory token cache from the file at every startup (e.g. with the DB
+ * disabled).
+ */
+public class TokenListImporter {
+
+    private static final Logger logger = Logger.getLogger(TokenListImporter.class.getName());
+
+    public record ImportResult(long rows, long added, long skipped, long bytes, long nanos) {
+
+        public double rowsPerSecond() {
+            return nanos == 0 ? 0 : rows / (nanos / 1e9);
+        }
+
+        public String describe() {
+            return String.format("%,d rows (%,d new, %,d skipped) from %,.1f MB in %.2fs - %,.0f rows/s",
+                    rows, added, skipped, bytes / (1024.0 * 1024.0), nanos / 1e9, rowsPerSecond());
+        }
+    }
+
+    /**
+     * Add the file's tokens to the in-memory token cache. Once the cache is full, further tokens are only admitted in
+     * place of ones used less, so a list larger than tracker.tokenCache.maxSize is not held in full.
+     */
+    public static ImportResult importIntoCache(Path file, TokenCache tokenCache) throws IOException {
+        long startTime = System.nanoTime();
+        int sizeBefore = tokenCache.size();
+        try (TokenListReader reader = TokenListReader.open(file)) {
+            Token token;
+            while ((token = reader.next()) != null) {
+                tokenCache.put(token);
+            }
+            return new ImportResult(reader.getTokensRead(), tokenCache.size() - sizeBefore, reader.getSkipped(),
+                    reader.getFileSize(), System.nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Seed the token cache from tracker.tokenList.file, if set. Failures are logged and leave the cache as it was.
+     */
+    public static void importConfiguredList(TokenCache tokenCache) {
+        String file = ConfigUtil.getString("tracker.tokenList.file", null);
+        if (file == null) return;
+
+        Path path = Path.of(file);
+        if (!Files.isRegularFile(path)) {
+            logger.log(Level.WARNING, String.format("Token list %s not found, skipping import", path.toAbsolutePath()));
+            return;
+        }
+        try {
+            ImportResult result = importIntoCache(path, tokenCache);
+            logger.log(Level.INFO, String.format("Token list %s imported: %s", path, result.describe()));
+        } catch (IOException e) {
+            logger.log(Level.SEVERE, "Failed to import token list " + path, e);
+        }
+    }
+
+    /**
+     * Copy the token list into the token table, new mints only.
+     */
+    public static ImportResult importIntoDb(Connection connection, Path file) throws IOException {
+        long startTime = System.nanoTime();
+        try (TokenListReader reader = TokenListReader.open(file)) {
+            long added = DatabaseConnUtil.copyTokensToDb(connection, reader);
+            if (added < 0) {
+                throw new IOException("Token list import into the database failed, see log");
+            }
+            return new ImportResult(reader.getTokensRead(), added, reader.getSkipped(), reader.getFileSize(), System.nanoTime() - startTime);
+        }
+    }
+
+    public static void main(String[] args) {
+        ColourFormatter.installOnRootLogger();
+        if (args.length != 1) {
+            System.err.println("Usage: TokenListImporter <token-list.json|csv>");
+            System.exit(2);
+        }
+
+        Connection connection = DatabaseConnUtil.openDbConnection();
+        if (connection == null) {
+            System.err.println("No database connection - check tracker.db.* settings");
+            System.exit(1);
+        }
+        try (connection) {
+            ImportResult result = importIntoDb(connection, Path.of(args[0]));
+            System.out.println("Imported " + result.describe());
+        } catch (IOException | SQLException e) {
+            logger.log(Level.SEVERE, "Token list import failed", e);
+            System.exit(1);
+        }
+    }
+}
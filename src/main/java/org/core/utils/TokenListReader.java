@@ -0,0 +1,293 @@
+package org.core.utils;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.core.accounts.Token;
+
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streams tokens out of a token-list file without loading it whole: the file is memory-mapped a window at a time and
+ * parsed incrementally, so memory use is bounded by the window whatever the file size.
+ * <p>
+ * Accepted formats, detected from the first non-blank byte:
+ * <ul>
+ *   <li>JSON - an array of token objects, or an object whose first array field holds them (e.g. {"tokens": [...]}),
+ *   as exported by Jupiter and the Solana token lists</li>
+ *   <li>CSV - a header row naming the columns, then one token per line. Quoted fields may contain commas but not
+ *   line breaks</li>
+ * </ul>
+ * Columns / fields are matched by name: address, mint, mint_address or id for the mint; name; symbol or ticker;
+ * decimals. Rows without a plausible mint address or decimals are skipped and counted.
+ */
+public class TokenListReader implements Closeable {
+
+    private static final long WINDOW_BYTES = 64L * 1024 * 1024;
+
+    private final MappedFileInputStream m_input;
+    private final JsonParser m_jsonParser;
+    private final BufferedReader m_csvReader;
+    private int m_mintColumn = -1;
+    private int m_nameColumn = -1;
+    private int m_symbolColumn = -1;
+    private int m_decimalsColumn = -1;
+    private long m_tokensRead;
+    private long m_skipped;
+
+    private TokenListReader(MappedFileInputStream input) throws IOException {
+        m_input = input;
+        if (input.firstNonBlankByte() == '[' || input.firstNonBlankByte() == '{') {
+            m_jsonParser = new JsonFactory().createParser(input);
+            m_csvReader = null;
+            // Position on the token list - the root array, or the first array field of a wrapper object
+            if (m_jsonParser.nextToken() == JsonToken.START_OBJECT) {
+                while (m_jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                    if (m_jsonParser.nextToken() == JsonToken.START_ARRAY) break;
+                    m_jsonParser.skipChildren();
+                }
+            }
+        } else {
+            m_jsonParser = null;
+            m_csvReader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8), 1 << 16);
+            readCsvHeader();
+        }
+    }
+
+    public static TokenListReader open(Path file) throws IOException {
+        return new TokenListReader(new MappedFileInputStream(file));
+    }
+
+    /**
+     * @return the next valid token, or null at the end of the list
+     */
+    public Token next() throws IOException {
+        return m_jsonParser != null ? nextJson() : nextCsv();
+    }
+
+    public long getTokensRead() {
+        return m_tokensRead;
+    }
+
+    /**
+     * Rows skipped so far for a missing or invalid mint address or decimals.
+     */
+    public long getSkipped() {
+        return m_skipped;
+    }
+
+    public long getBytesRead() {
+        return m_input.position();
+    }
+
+    public long getFileSize() {
+        return m_input.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (m_jsonParser != null) m_jsonParser.close();
+        if (m_csvReader != null) m_csvReader.close();
+        m_input.close();
+    }
+
+    private Token nextJson() throws IOException {
+        JsonToken jsonToken;
+        while ((jsonToken = m_jsonParser.nextToken()) != null && jsonToken != JsonToken.END_ARRAY) {
+            if (jsonToken != JsonToken.START_OBJECT) {
+                m_jsonParser.skipChildren();
+                m_skipped++;
+                continue;
+            }
+
+            String mint = null;
+            String name = null;
+            String symbol = null;
+            Integer decimals = null;
+            while (m_jsonParser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = m_jsonParser.currentName();
+                JsonToken value = m_jsonParser.nextToken();
+                if (value == JsonToken.START_OBJECT || value == JsonToken.START_ARRAY) {
+                    m_jsonParser.skipChildren();
+                    continue;
+                }
+                switch (field) {
+                    case "address", "mint", "mint_address", "id" -> mint = mint == null ? m_jsonParser.getValueAsString() : mint;
+                    case "name" -> name = m_jsonParser.getValueAsString();
+                    case "symbol", "ticker" -> symbol = m_jsonParser.getValueAsString();
+                    case "decimals" -> decimals = value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_STRING
+                            ? parseDecimals(m_jsonParser.getValueAsString()) : null;
+                    default -> {
+                    }
+                }
+            }
+
+            Token token = toToken(mint, name, symbol, decimals);
+            if (token != null) return token;
+        }
+        return null;
+    }
+
+    private void readCsvHeader() throws IOException {
+        String header = m_csvReader.readLine();
+        if (header == null) return;
+
+        List<String> columns = splitCsvLine(header.startsWith("\uFEFF") ? header.substring(1) : header);
+        for (int i = 0; i < columns.size(); i++) {
+            switch (columns.get(i).trim().toLowerCase()) {
+                case "address", "mint", "mint_address", "id" -> m_mintColumn = m_mintColumn < 0 ? i : m_mintColumn;
+                case "name" -> m_nameColumn = i;
+                case "symbol", "ticker" -> m_symbolColumn = i;
+                case "decimals" -> m_decimalsColumn = i;
+                default -> {
+                }
+            }
+        }
+        if (m_mintColumn < 0 || m_decimalsColumn < 0) {
+            throw new IOException("Token list CSV header needs mint address & decimals columns: " + header);
+        }
+    }
+
+    private Token nextCsv() throws IOException {
+        String line;
+        while ((line = m_csvReader.readLine()) != null) {
+            if (line.isBlank()) continue;
+
+            List<String> fields = splitCsvLine(line);
+            Token token = toToken(field(fields, m_mintColumn), field(fields, m_nameColumn), field(fields, m_symbolColumn),
+                    parseDecimals(field(fields, m_decimalsColumn)));
+            if (token != null) return token;
+        }
+        return null;
+    }
+
+    private Token toToken(String mint, String name, String symbol, Integer decimals) {
+        // Base58 public keys are 32-44 characters
+        if (mint == null || mint.length() < 32 || mint.length() > 44 || decimals == null || decimals < 0 || decimals > 18) {
+            m_skipped++;
+            return null;
+        }
+        m_tokensRead++;
+        return new Token(mint, name == null || name.isBlank() ? symbol : name, symbol, decimals);
+    }
+
+    private static Integer parseDecimals(String value) {
+        if (value == null) return null;
+        try {
+            return Integer.parseInt(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String field(List<String> fields, int column) {
+        return column >= 0 && column < fields.size() ? fields.get(column) : null;
+    }
+
+    static List<String> splitCsvLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * Sequential InputStream over a file mapped read-only one window at a time. Only the current window is mapped,
+     * and the OS pages it in and out as needed.
+     */
+    private static class MappedFileInputStream extends InputStream {
+
+        private final FileChannel m_channel;
+        private final long m_size;
+        private long m_windowStart;
+        private MappedByteBuffer m_window;
+
+        MappedFileInputStream(Path file) throws IOException {
+            m_channel = FileChannel.open(file, StandardOpenOption.READ);
+            m_size = m_channel.size();
+            mapWindow(0);
+        }
+
+        int firstNonBlankByte() {
+            for (int i = m_window.position(); i < m_window.limit(); i++) {
+                int b = m_window.get(i) & 0xFF;
+                // Skip whitespace & a UTF-8 byte order mark
+                if (!Character.isWhitespace(b) && b != 0xEF && b != 0xBB && b != 0xBF) return b;
+            }
+            return -1;
+        }
+
+        long position() {
+            return m_windowStart + m_window.position();
+        }
+
+        long size() {
+            return m_size;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!m_window.hasRemaining() && !nextWindow()) return -1;
+            return m_window.get() & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (length == 0) return 0;
+            if (!m_window.hasRemaining() && !nextWindow()) return -1;
+            int count = Math.min(length, m_window.remaining());
+            m_window.get(buffer, offset, count);
+            return count;
+        }
+
+        @Override
+        public int available() {
+            return m_window.remaining();
+        }
+
+        @Override
+        public void close() throws IOException {
+            m_channel.close();
+        }
+
+        private boolean nextWindow() throws IOException {
+            long next = m_windowStart + m_window.limit();
+            if (next >= m_size) return false;
+            mapWindow(next);
+            return true;
+        }
+
+        private void mapWindow(long start) throws IOException {
+            m_windowStart = start;
+            m_window = m_channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(WINDOW_BYTES, m_size - start));
+        }
+    }
+}
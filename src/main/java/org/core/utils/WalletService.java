@@ -3,10 +3,22 @@ package org.core.utils;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.commons.lang3.tuple.Pair;
+import org.core.cache.TokenCache;
 import org.core.helius.HeliusAssetResponse;
+import org.core.jfr.HeliusMetadataEvent;
+import org.core.jfr.TokenAccountsParseEvent;
+import org.core.jfr.WalletLoadEvent;
+import org.core.accounts.BalanceChange;
 import org.core.accounts.Position;
+import org.core.accounts.PositionBalance;
+import org.core.accounts.SessionTokenRegistry;
 import org.core.accounts.Token;
 import org.core.accounts.Wallet;
+import org.core.metrics.Counter;
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.pipeline.PipelineStage;
+import org.core.transactions.TransactionParser;
 import org.json.JSONException;
 import org.json.JSONObject;
 import software.sava.core.accounts.PublicKey;
@@ -14,8 +26,8 @@ import software.sava.core.accounts.token.TokenAccount;
 import software.sava.rpc.json.http.client.SolanaRpcClient;
 import software.sava.rpc.json.http.response.AccountInfo;
 
-import javax.swing.*;
 import java.sql.Connection;
+import java.sql.SQLException;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.*;
@@ -27,32 +39,66 @@ public class WalletService {
 
     private final SolanaRpcClient m_solanaRpc;
     private final Map<String, Wallet> m_wallets;
-    private final ConcurrentHashMap<String, Token> m_tokenMap;
-    private final ConcurrentHashMap<String, Token> m_sessionTokenMap;
+    private final TokenCache m_tokenCache;
+    private final SessionTokenRegistry m_sessionTokens;
     private final CopyOnWriteArraySet<String> m_blacklistedTokens;
     private final Connection m_dbConnection;
+    private final TokenAccountClassifier m_classifier;
+
+    // Own connection - balance change writes run in DB transactions that must not pick up other threads' writes
+    private final Connection m_balanceDbConnection;
+    // Balances as last stored per wallet, keyed by token account (wallet address for SOL). Wallet work scheduler thread only
+    private final Map<String, Map<String, PositionBalance>> m_storedBalances = new ConcurrentHashMap<>();
 
     private static final Logger logger = Logger.getLogger(WalletService.class.getName());
     private static final PublicKey s_Token_Program_Public_Key = PublicKey.fromBase58Encoded("TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA");
     private static final String s_unknownToken = "Unknown Token";
     private static final String s_unknownSymbol = "Unknown Symbol";
 
-    // Virtual thread executor for fetching tokens
-    private final ExecutorService m_virtualTokenThreadExecutor;
+    private static final Histogram s_getAccountInfoLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_rpc_call_seconds{method=\"getAccountInfo\"}", "Solana RPC call latency by method");
+    private static final Histogram s_getTokenAccountsLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_rpc_call_seconds{method=\"getTokenAccountsForProgramByOwner\"}", "Solana RPC call latency by method");
+    private static final Histogram s_walletLoadLatency = MetricsRegistry.getInstance()
+            .histogram("tracker_wallet_load_seconds", "Time to load a wallet's account & token positions");
+    private static final Counter s_tokenHeliusLookups = MetricsRegistry.getInstance()
+            .counter("tracker_token_metadata_lookups_total{source=\"helius\"}", "Token metadata lookups by source");
+    private static final Counter s_heliusLookupsSaved = MetricsRegistry.getInstance()
+            .counter("tracker_helius_lookups_saved_total", "Queued Helius lookups skipped because the token was resolved or blacklisted meanwhile, e.g. by another instance");
+    private static final Counter s_unchangedWalletLoads = MetricsRegistry.getInstance()
+            .counter("tracker_wallet_persists_total{result=\"unchanged\"}", "Wallet loads by whether any balance changed & was stored");
+    private static final Counter s_changedWalletLoads = MetricsRegistry.getInstance()
+            .counter("tracker_wallet_persists_total{result=\"changed\"}", "Wallet loads by whether any balance changed & was stored");
+    private static final Counter s_balanceChanges = MetricsRegistry.getInstance()
+            .counter("tracker_balance_changes_total", "Balance changes appended to the balance_change audit table");
+
+    // Metadata pipeline stage: one worker per concurrent Helius request, so the worker count is the Helius rate limit
+    private final PipelineStage<MetadataRequest> m_metadataStage;
+    private final long m_heliusRequestDelayMs;
+    private static final int HELIUS_MAX_CONCURRENT_REQUESTS = 5;
+    private static final long HELIUS_REQUEST_DELAY_MS = 200;
+    private static final int METADATA_QUEUE_CAPACITY = 1000;
 
-    // Rate limiter to manage Helius API rate limits + non-blocking on main thread
-    private final Semaphore m_heliusRateLimiter;
+    /**
+     * A token account whose mint needs a Helius lookup before it becomes a position.
+     */
+    private record MetadataRequest(String tokenMintAddress, Wallet wallet, TokenAccount tokenAccount, CompletableFuture<Void> done) {
+    }
 
-    public WalletService(SolanaRpcClient solanaRpc, Map<String, Wallet> wallets, ConcurrentHashMap<String, Token> tokenMap,
-                         ConcurrentHashMap<String, Token> sessionTokenMap, Connection dbConnection, CopyOnWriteArraySet<String> blacklistedTokens) {
+    public WalletService(SolanaRpcClient solanaRpc, Map<String, Wallet> wallets, TokenCache tokenCache,
+                         SessionTokenRegistry sessionTokens, Connection dbConnection, CopyOnWriteArraySet<String> blacklistedTokens) {
         m_solanaRpc = solanaRpc;
         m_wallets = wallets;
-        m_tokenMap = tokenMap;
+        m_tokenCache = tokenCache;
         m_dbConnection = dbConnection;
-        m_sessionTokenMap = sessionTokenMap;
-        m_virtualTokenThreadExecutor = Executors.newVirtualThreadPerTaskExecutor();
-        m_heliusRateLimiter = new Semaphore(5);
+        m_balanceDbConnection = dbConnection != null ? DatabaseConnUtil.openDbConnection() : null;
+        m_sessionTokens = sessionTokens;
+        m_metadataStage = new PipelineStage<>("metadata", ConfigUtil.getInt("tracker.pipeline.metadata.queueCapacity", METADATA_QUEUE_CAPACITY),
+                ConfigUtil.getInt("tracker.helius.maxConcurrentRequests", HELIUS_MAX_CONCURRENT_REQUESTS), 1, 0, this::resolveMetadata);
+        m_metadataStage.start();
+        m_heliusRequestDelayMs = ConfigUtil.getLong("tracker.helius.requestDelayMs", HELIUS_REQUEST_DELAY_MS);
         m_blacklistedTokens = blacklistedTokens;
+        m_classifier = TokenAccountClassifier.fromConfig();
     }
 
     public void processWalletTokens(Wallet wallet) {
@@ -61,115 +107,256 @@ public class WalletService {
 
         if (accountInfoList != null) {
             parseTokenAccounts(accountInfoList, wallet);
+            wallet.setRefreshedAtMillis(System.currentTimeMillis());
         }
     }
 
     private void parseTokenAccounts(List<AccountInfo<TokenAccount>> accountInfoList, Wallet wallet) {
         List<CompletableFuture<Void>> futures = new ArrayList<>();
+        TokenAccountsParseEvent parseEvent = new TokenAccountsParseEvent();
+        parseEvent.begin();
 
         //Log time taken to parse through all token accounts for a given wallet
         long startTime = System.nanoTime();
         int mapFetchedTokens = 0;
         int heliusFetchedTokens = 0;
+        int skippedAccounts = 0;
+
+        // Tokens already held this session, else the token cache (memory, then one DB query for the rest)
+        Map<String, Token> knownTokens = new HashMap<>();
+        List<String> lookupMints = new ArrayList<>();
+        for (AccountInfo<TokenAccount> accountInfo : accountInfoList) {
+            if (accountInfo.data().amount() == 0) continue;
+            String mintAddress = accountInfo.data().mint().toBase58();
+            Token sessionToken = m_sessionTokens.get(mintAddress);
+            if (sessionToken != null) {
+                knownTokens.put(mintAddress, sessionToken);
+            } else {
+                lookupMints.add(mintAddress);
+            }
+        }
+        knownTokens.putAll(m_tokenCache.getAll(lookupMints));
+
+        // Token accounts still tracked - positions for any other account were sold, closed or are now dust
+        Set<String> trackedAccounts = new HashSet<>();
 
         for (AccountInfo<TokenAccount> accountInfo : accountInfoList) {
             TokenAccount tokenAccount = accountInfo.data();
             final String tokenMintAddress = tokenAccount.mint().toBase58();
 
-            // Filter accounts whose balance is 0
-            if (tokenAccount.amount() == 0) continue;
-
-            boolean tokenExistsinMap = m_tokenMap.containsKey(tokenMintAddress);
+            // Filter empty, NFT & dust accounts before they cost a metadata lookup, a position and a price batch slot
+            Token cachedToken = knownTokens.get(tokenMintAddress);
+            TokenAccountClassifier.Classification classification = m_classifier.classify(tokenMintAddress, tokenAccount.amount(),
+                    cachedToken, m_blacklistedTokens.contains(tokenMintAddress));
+            if (classification != TokenAccountClassifier.Classification.TRACK) {
+                if (classification != TokenAccountClassifier.Classification.EMPTY) {
+                    skippedAccounts++;
+                    logger.log(Level.FINE, String.format("Skipping token account %s (%s): %s", tokenAccount.address().toBase58(),
+                            tokenMintAddress, classification.label()));
+                }
+                continue;
+            }
+            trackedAccounts.add(tokenAccount.address().toBase58());
 
-            if (!tokenExistsinMap) {
-                heliusFetchedTokens++;
-                logger.log(Level.INFO, String.format("Fetching Metadata for Token #%d: %s from Helius", heliusFetchedTokens + mapFetchedTokens, tokenMintAddress));
-            } else {
+            if (cachedToken != null) {
                 mapFetchedTokens++;
-                logger.log(Level.INFO, String.format("Token #%d: %s exists in Token map", mapFetchedTokens + heliusFetchedTokens, tokenMintAddress));
+                logger.log(Level.FINE, String.format("Token #%d: %s exists in Token cache", mapFetchedTokens + heliusFetchedTokens, tokenMintAddress));
+                addPosition(wallet, tokenAccount, cachedToken);
+                continue;
             }
 
-            futures.add(fetchTokenDetails(tokenMintAddress, wallet, tokenAccount, tokenExistsinMap));
+            heliusFetchedTokens++;
+            logger.log(Level.INFO, String.format("Fetching Metadata for Token #%d: %s from Helius", heliusFetchedTokens + mapFetchedTokens, tokenMintAddress));
+            MetadataRequest request = new MetadataRequest(tokenMintAddress, wallet, tokenAccount, new CompletableFuture<>());
+            try {
+                // Blocks while the metadata stage is full - this wallet's load waits rather than queueing without limit
+                m_metadataStage.submit(request);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                logger.log(Level.WARNING, "Interrupted while queueing token metadata lookups for wallet: " + wallet.getName());
+                break;
+            }
+            futures.add(request.done());
         }
 
         if (!futures.isEmpty()) {
             CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-            logger.log(Level.INFO, "Completed fetching token details using futures for wallet: " + wallet.getName());
-        } else {
-            logger.log(Level.SEVERE, String.format("Futures call to fetch token details is empty for wallet: %s. Something has gone wrong while processing tokens", wallet.getName()));
+            logger.log(Level.INFO, "Completed fetching token details from Helius for wallet: " + wallet.getName());
+        }
+        if (trackedAccounts.isEmpty()) {
+            logger.log(Level.SEVERE, String.format("No token accounts to track for wallet: %s. Something has gone wrong while processing tokens", wallet.getName()));
+        }
+        removeUntrackedPositions(wallet, trackedAccounts);
+
+        if (parseEvent.shouldCommit()) {
+            parseEvent.wallet = wallet.getAddress();
+            parseEvent.accountCount = accountInfoList.size();
+            parseEvent.mintCount = mapFetchedTokens + heliusFetchedTokens;
+            parseEvent.heliusFetches = heliusFetchedTokens;
+            parseEvent.skippedAccounts = skippedAccounts;
+            parseEvent.outcome = trackedAccounts.isEmpty() ? "empty" : "ok";
+            parseEvent.commit();
         }
 
         long endTime = System.nanoTime();
         double duration = (double) (endTime - startTime) / 1000000000; // Duration in seconds
-        logger.log(Level.INFO,String.format( "ParseTokenAccounts() execution time for wallet %s & %d tokens: %f seconds", wallet.getAddress(), mapFetchedTokens + heliusFetchedTokens, duration));
+        logger.log(Level.INFO,String.format( "ParseTokenAccounts() execution time for wallet %s & %d tokens (%d NFT/dust accounts skipped): %f seconds",
+                wallet.getAddress(), mapFetchedTokens + heliusFetchedTokens, skippedAccounts, duration));
     }
 
     /**
-     * Fetch token details asynchronously using Completable Futures and virtual threads.
-     * Use of virtual threads due to less memory overhead vs threads + token calls are I/O bound operations
+     * Metadata stage handler: look each token up on Helius, persist it and add the wallet's position.
      */
-    private CompletableFuture<Void> fetchTokenDetails(String tokenMintAddress, Wallet wallet,
-                                                      TokenAccount tokenAccount, boolean tokenExistsinMap) {
-
-        // Asynchronously fetch token details - runAsync uses the configured executor (virtual threads when available)
-        return CompletableFuture.runAsync(() -> {
+    private void resolveMetadata(List<MetadataRequest> requests) {
+        for (MetadataRequest request : requests) {
+            String tokenMintAddress = request.tokenMintAddress();
             try {
-                Token token;
-                if (tokenExistsinMap) {
-                    token = m_tokenMap.get(tokenMintAddress);
-                } else {
-                    // Fetch token detail from Helius API - acquire rate limit permit
-                    m_heliusRateLimiter.acquire();
-                    try {
-                        // Query Helius API for token & persist to DB
-                        token = createTokenUsingHelius(tokenMintAddress);
-                        DatabaseConnUtil.persistTokenToDb(m_dbConnection, token, m_blacklistedTokens);
-                        m_tokenMap.put(tokenMintAddress, token);
-
-                        // Add small delay to respect rate limits (adjustable)
-                        Thread.sleep(200); // 200ms = ~5 requests/second
-                    } finally {
-                        // Always release the permit
-                        m_heliusRateLimiter.release();
-                    }
+                // Resolved by another worker or tracker instance (CacheSyncListener) while this request was queued
+                Token resolved = m_tokenCache.getIfPresent(tokenMintAddress);
+                if (resolved != null || m_blacklistedTokens.contains(tokenMintAddress)) {
+                    s_heliusLookupsSaved.increment();
+                    if (resolved != null) addPosition(request.wallet(), request.tokenAccount(), resolved);
+                    continue;
                 }
 
-                m_sessionTokenMap.put(tokenMintAddress, token);
-                double balance = tokenAccount.amount() / Math.pow(10, token.getDecimals());
-                Position position = new Position(wallet.getAddress(), tokenAccount.address().toBase58(), token, balance);
-
-                // TODO: TO BE REVIEWED, do we want to store position in db?
-                //DatabaseConnUtil.persistPositionToDb(dbConn, wallet.getAddress(), position.getAccountAddress(), tokenMintAddress, token.getTicker(), balance);
-                wallet.addPosition(position);
+                // Query Helius API for token & persist to DB
+                s_tokenHeliusLookups.increment();
+                Token token = createTokenUsingHelius(tokenMintAddress, request.wallet().getAddress());
+                if (token != null) {
+                    DatabaseConnUtil.persistTokenToDb(m_dbConnection, token, m_blacklistedTokens);
+                    m_tokenCache.fill(token);
+                    addPosition(request.wallet(), request.tokenAccount(), token);
+                }
+                // NFT found by its Helius interface (token == null) - blacklisted, no position
 
+                // Add small delay to respect rate limits (tracker.helius.requestDelayMs, default 200ms = ~5 requests/second)
+                Thread.sleep(m_heliusRequestDelayMs);
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 logger.log(Level.SEVERE, "Thread interrupted while processing token: " + tokenMintAddress, e);
             } catch (Exception e) {
                 logger.log(Level.SEVERE, "Error processing token: " + tokenMintAddress, e);
+            } finally {
+                request.done().complete(null);
             }
+        }
+    }
+
+    private void addPosition(Wallet wallet, TokenAccount tokenAccount, Token token) {
+        // One instance per mint in the session - it carries the market data every position reads
+        token = m_sessionTokens.acquire(token);
+        double balance = tokenAccount.amount() / Math.pow(10, token.getDecimals());
+        Position position = new Position(wallet.getAddress(), tokenAccount.address().toBase58(), token, balance);
+
+        Position replaced = wallet.addPosition(position);
+        if (replaced != null) m_sessionTokens.release(replaced.getToken().getMintAddress());
+    }
 
-        }, m_virtualTokenThreadExecutor);
+    /**
+     * Drop a reloaded wallet's positions in token accounts no longer tracked. Positions whose lookup failed this time
+     * keep their account tracked, so they are kept rather than lost to a transient error.
+     */
+    private void removeUntrackedPositions(Wallet wallet, Set<String> trackedAccounts) {
+        for (String accountAddress : new ArrayList<>(wallet.getPositions().keySet())) {
+            if (trackedAccounts.contains(accountAddress)) continue;
+            Position removed = wallet.removePosition(accountAddress);
+            if (removed != null) {
+                m_sessionTokens.release(removed.getToken().getMintAddress());
+                logger.log(Level.INFO, String.format("Removed position %s (%s) from wallet %s - no longer held",
+                        accountAddress, removed.getToken().getTicker(), wallet.getName()));
+            }
+        }
     }
 
-    private Token createTokenUsingHelius(String tokenMintAddress) {
+    /**
+     * Store the wallet's SOL & position balances that differ from those last stored, appending each difference to the
+     * balance_change audit table. A load that changed nothing writes nothing.
+     */
+    private void persistBalanceChanges(Wallet wallet) {
+        if (m_balanceDbConnection == null) return;
+
+        String walletAddress = wallet.getAddress();
+        Map<String, PositionBalance> stored = m_storedBalances.get(walletAddress);
+        if (stored == null) {
+            stored = new HashMap<>();
+            if (!DatabaseConnUtil.loadWalletBalancesFromDb(m_balanceDbConnection, walletAddress, stored)) return; // Retried next load
+        }
+
+        Map<String, PositionBalance> current = new HashMap<>();
+        current.put(walletAddress, new PositionBalance(TransactionParser.WRAPPED_SOL_MINT, wallet.getSolBalance()));
+        for (Position position : wallet.getPositions().values()) {
+            // Zero balances are stored as deleted positions - keeping them here would re-record them after a restart
+            if (position.getTokenBalance() == 0) continue;
+            current.put(position.getAccountAddress(), new PositionBalance(position.getToken().getMintAddress(), position.getTokenBalance()));
+        }
+
+        List<BalanceChange> changes = new ArrayList<>();
+        for (Map.Entry<String, PositionBalance> entry : current.entrySet()) {
+            PositionBalance previous = stored.get(entry.getKey());
+            if (previous == null || previous.balance() != entry.getValue().balance()) {
+                changes.add(new BalanceChange(walletAddress, entry.getKey(), entry.getValue().mintAddress(),
+                        previous != null ? previous.balance() : 0, entry.getValue().balance()));
+            }
+        }
+        for (Map.Entry<String, PositionBalance> entry : stored.entrySet()) {
+            if (!current.containsKey(entry.getKey())) {
+                changes.add(new BalanceChange(walletAddress, entry.getKey(), entry.getValue().mintAddress(), entry.getValue().balance(), 0));
+            }
+        }
+
+        if (changes.isEmpty()) {
+            s_unchangedWalletLoads.increment();
+        } else {
+            if (!DatabaseConnUtil.persistWalletChanges(m_balanceDbConnection, wallet, changes)) {
+                m_storedBalances.put(walletAddress, stored); // Still what the DB holds - the same changes are retried next load
+                return;
+            }
+            s_changedWalletLoads.increment();
+            s_balanceChanges.add(changes.size());
+            logger.log(Level.INFO, String.format("Stored %d balance changes for wallet %s", changes.size(), wallet.getName()));
+        }
+        m_storedBalances.put(walletAddress, current);
+    }
+
+    /**
+     * Release the session tokens held by a wallet's positions, e.g. once the wallet is no longer tracked.
+     */
+    public void releasePositions(Wallet wallet) {
+        m_storedBalances.remove(wallet.getAddress());
+        for (String accountAddress : new ArrayList<>(wallet.getPositions().keySet())) {
+            Position removed = wallet.removePosition(accountAddress);
+            if (removed != null) m_sessionTokens.release(removed.getToken().getMintAddress());
+        }
+    }
+
+    /**
+     * @return the token, or null if Helius reports a non-fungible asset (which is then blacklisted)
+     */
+    private Token createTokenUsingHelius(String tokenMintAddress, String walletAddress) {
         JSONObject tokenDetailsHelius;
+        HeliusMetadataEvent event = new HeliusMetadataEvent();
+        event.begin();
 
         try {
             tokenDetailsHelius = RestApiUtil.getTokenMetadataFromHelius(tokenMintAddress);
         } catch (Exception e) {
             logger.log(Level.SEVERE, "Error fetching token metadata from Helius: " + e.getMessage());
+            commitHeliusEvent(event, tokenMintAddress, walletAddress, "error");
             return new Token(tokenMintAddress, s_unknownToken, s_unknownSymbol, 0);
         }
 
         if (tokenDetailsHelius == null){
             logger.log(Level.WARNING, "Token details not found for mint address: " + tokenMintAddress);
+            commitHeliusEvent(event, tokenMintAddress, walletAddress, "not_found");
             return new Token(tokenMintAddress, s_unknownToken, s_unknownSymbol, 0);
         }
 
+        String outcome = "ok";
+
         String tokenName;
         String tokenSymbol;
         int tokenDecimals;
+        String interfaceType = null;
         Token token;
 
         try {
@@ -195,8 +382,14 @@ public class WalletService {
                     .map(r -> r.tokenInfo)
                     .map(d -> d.decimals)
                     .orElse(0);
+
+            interfaceType = Optional.ofNullable(response)
+                    .map(r -> r.result)
+                    .map(r -> r.interfaceType)
+                    .orElse(null);
         } catch (JSONException | JsonProcessingException e) {
             logger.log(Level.WARNING, "Error parsing token details: " + e);
+            outcome = "parse_error";
             tokenName = s_unknownToken;
             tokenSymbol = s_unknownSymbol;
             tokenDecimals = 0;
@@ -204,20 +397,45 @@ public class WalletService {
 
         token = new Token(tokenMintAddress, tokenName, tokenSymbol, tokenDecimals);
 
+        if (TokenAccountClassifier.isNonFungibleInterface(interfaceType)) {
+            logger.log(Level.INFO, String.format("Skipping %s asset %s - %s", interfaceType, tokenMintAddress, tokenName));
+            TokenAccountClassifier.recordSkippedAfterLookup(TokenAccountClassifier.Classification.NON_FUNGIBLE);
+            // Blacklisted so later loads classify the mint without a lookup
+            DatabaseConnUtil.persistBlacklistedTokenToDb(m_dbConnection, token, m_blacklistedTokens);
+            m_blacklistedTokens.add(tokenMintAddress);
+            commitHeliusEvent(event, tokenMintAddress, walletAddress, "non_fungible");
+            return null;
+        }
+
         if (s_unknownToken.equals(tokenName)){
             logger.log(Level.WARNING, "Unknown Token for mint address: " + tokenMintAddress);
             logger.log(Level.WARNING, tokenDetailsHelius.toString());
+            if ("ok".equals(outcome)) {
+                outcome = "unknown_token";
+            }
 
             DatabaseConnUtil.persistBlacklistedTokenToDb(m_dbConnection, token, m_blacklistedTokens);
+            m_blacklistedTokens.add(tokenMintAddress);
         }
 
+        commitHeliusEvent(event, tokenMintAddress, walletAddress, outcome);
         return token;
     }
 
+    private static void commitHeliusEvent(HeliusMetadataEvent event, String tokenMintAddress, String walletAddress, String outcome) {
+        if (event.shouldCommit()) {
+            event.mint = tokenMintAddress;
+            event.wallet = walletAddress;
+            event.outcome = outcome;
+            event.commit();
+        }
+    }
+
 
     private AccountInfo<byte[]> getAccount(SolanaRpcClient rpcClient, PublicKey publicKey) {
         AccountInfo<byte[]> accountInfo = null;
 
+        long startTime = System.nanoTime();
         try {
             CompletableFuture<AccountInfo<byte[]>> accountInfoFuture = rpcClient.getAccountInfo(publicKey);
             accountInfo = accountInfoFuture.get();
@@ -225,6 +443,8 @@ public class WalletService {
             System.out.println("Exception while retrieving accountInfo: " + e);
         } catch (Exception e) {
             System.out.println("HTTP Connection Timeout Exception: " + e);
+        } finally {
+            s_getAccountInfoLatency.recordSince(startTime);
         }
 
         return accountInfo;
@@ -233,11 +453,14 @@ public class WalletService {
     private List<AccountInfo<TokenAccount>> getAccountList(SolanaRpcClient rpcClient, PublicKey publicKey) {
         List<AccountInfo<TokenAccount>> accountList = null;
 
+        long startTime = System.nanoTime();
         CompletableFuture<List<AccountInfo<TokenAccount>>> accountListFuture = rpcClient.getTokenAccountsForProgramByOwner(publicKey, s_Token_Program_Public_Key);
         try {
             accountList = accountListFuture.get();
         } catch (InterruptedException | ExecutionException e) {
             logger.log(Level.SEVERE, "Exception while retrieving accountInfo: " + e);
+        } finally {
+            s_getTokenAccountsLatency.recordSince(startTime);
         }
 
         return accountList;
@@ -245,20 +468,21 @@ public class WalletService {
     }
 
     /**
-     * Shutdown the executor when the service is no longer needed
+     * Stop the metadata stage when the service is no longer needed
      * Call this when your application is shutting down
      */
     public void shutdown() {
-        logger.log(Level.INFO, "Shutting down WalletService virtual thread executor...");
-        m_virtualTokenThreadExecutor.shutdown();
+        logger.log(Level.INFO, "Shutting down WalletService metadata stage...");
+        // Release any wallet load still waiting on queued lookups
+        for (MetadataRequest request : m_metadataStage.shutdown()) {
+            request.done().complete(null);
+        }
         try {
-            if (!m_virtualTokenThreadExecutor.awaitTermination(30, TimeUnit.SECONDS)) {
-                m_virtualTokenThreadExecutor.shutdownNow();
-                logger.log(Level.WARNING, "Executor did not terminate in time, forced shutdown");
+            if (m_balanceDbConnection != null && !m_balanceDbConnection.isClosed()) {
+                m_balanceDbConnection.close();
             }
-        } catch (InterruptedException e) {
-            m_virtualTokenThreadExecutor.shutdownNow();
-            Thread.currentThread().interrupt();
+        } catch (SQLException e) {
+            logger.log(Level.WARNING, "Failed to close balance change DB connection", e);
         }
     }
 
@@ -273,11 +497,19 @@ public class WalletService {
         String walletName = walletAddressAndLabel.getLeft();
 
         logger.log(Level.INFO, "Fetching wallet details for: " + walletName);
+        long startTime = System.nanoTime();
+        WalletLoadEvent event = new WalletLoadEvent();
+        event.begin();
 
         if (m_wallets.containsKey(walletAddress)) {
             wallet = m_wallets.get(walletAddress);
-            DatabaseConnUtil.persistWalletToDb(m_dbConnection, wallet);
+            // Re-read lamports so a refresh picks up SOL balance changes too
+            AccountInfo<byte[]> accountInfo = getAccount(m_solanaRpc, wallet.getPublicKey());
+            if (accountInfo != null) {
+                wallet.setLamports(accountInfo.lamports());
+            }
             processWalletTokens(wallet);
+            persistBalanceChanges(wallet);
         } else {
             PublicKey publicKey = PublicKey.fromBase58Encoded(walletAddress);
             AccountInfo<byte[]> accountInfo = getAccount(m_solanaRpc, publicKey);
@@ -285,7 +517,7 @@ public class WalletService {
             if (accountInfo != null) {
                 wallet = new Wallet(walletAddress, walletName, accountInfo.lamports(), publicKey);
                 processWalletTokens(wallet);
-                DatabaseConnUtil.persistWalletToDb(m_dbConnection, wallet);
+                persistBalanceChanges(wallet);
                 m_wallets.put(walletAddress, wallet);
             } else {
                 wallet = null;
@@ -293,6 +525,14 @@ public class WalletService {
             }
         }
 
+        s_walletLoadLatency.recordSince(startTime);
+        if (event.shouldCommit()) {
+            event.wallet = walletAddress;
+            event.walletName = walletName;
+            event.mintCount = wallet != null ? wallet.getPositions().size() : 0;
+            event.outcome = wallet != null ? "loaded" : "not_found";
+            event.commit();
+        }
         if (wallet != null) {
             logger.log(Level.INFO, String.format("Wallet contents for %s retrieved successfully. Active positions: %d",
                     walletAddress, wallet.getPositions().size()));
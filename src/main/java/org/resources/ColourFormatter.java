@@ -4,8 +4,11 @@ import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.logging.ConsoleHandler;
 import java.util.logging.Formatter;
+import java.util.logging.Level;
 import java.util.logging.LogRecord;
+import java.util.logging.Logger;
 
 public class ColourFormatter extends Formatter {
 
@@ -16,6 +19,22 @@ public class ColourFormatter extends Formatter {
     private static final String CYAN = "\u001B[36m";
     private static final String GREEN = "\u001B[32m";
 
+    /**
+     * Replace the root logger's handlers with a console handler using this formatter.
+     * Call before any loggers are used.
+     */
+    public static void installOnRootLogger() {
+        Logger rootLogger = Logger.getLogger("");
+        for (var handler : rootLogger.getHandlers()) {
+            rootLogger.removeHandler(handler);
+        }
+        ConsoleHandler consoleHandler = new ConsoleHandler();
+        consoleHandler.setFormatter(new ColourFormatter());
+        consoleHandler.setLevel(Level.ALL);
+        rootLogger.addHandler(consoleHandler);
+        rootLogger.setLevel(Level.INFO);
+    }
+
     @Override
     public String format(LogRecord record) {
         final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
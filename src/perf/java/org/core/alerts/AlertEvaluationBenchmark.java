@@ -0,0 +1,99 @@
+package org.core.alerts;
+
+import org.core.bench.WhaleFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-tick cost of evaluating TOKEN_PRICE alerts: AlertEngine's sorted threshold index against a naive scan of every
+ * alert on the ticked mint. Thresholds are spread +/-50% around each mint's starting price and ticks move the price by
+ * up to +/-0.1%, so almost every tick crosses nothing - the common case the index is built for.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@BenchmarkMode(Mode.AverageTime)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertEvaluationBenchmark {
+
+    private static final int MINT_COUNT = 2000;
+    private static final int TICK_COUNT = 1 << 16;
+
+    @Param({"10000", "100000"})
+    public int alertCount;
+
+    private AlertEngine m_engine;
+    private final Map<String, List<Alert>> m_alertsByMint = new HashMap<>();
+    private final Map<String, Double> m_lastPrices = new HashMap<>();
+
+    private String[] m_tickMints;
+    private double[] m_tickPrices;
+    private int m_index;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        String[] mints = new String[MINT_COUNT];
+        double[] prices = new double[MINT_COUNT];
+        for (int i = 0; i < MINT_COUNT; i++) {
+            mints[i] = WhaleFixtures.mintAddress(i);
+            prices[i] = 0.001 * (i + 1);
+        }
+
+        // Delivery is rate limited to 0 per minute so crossings cost only the index lookup
+        m_engine = new AlertEngine(null, 300, 0);
+        for (int id = 0; id < alertCount; id++) {
+            int mint = id % MINT_COUNT;
+            AlertDirection direction = random.nextBoolean() ? AlertDirection.ABOVE : AlertDirection.BELOW;
+            double threshold = prices[mint] * (0.5 + random.nextDouble());
+            Alert alert = new Alert(id, AlertKind.TOKEN_PRICE, direction, mints[mint], null, threshold, 0);
+            m_engine.add(alert);
+            m_alertsByMint.computeIfAbsent(mints[mint], k -> new ArrayList<>()).add(alert);
+        }
+
+        // Pre-generated random walk so both benchmarks see the same ticks
+        m_tickMints = new String[TICK_COUNT];
+        m_tickPrices = new double[TICK_COUNT];
+        for (int tick = 0; tick < TICK_COUNT; tick++) {
+            int mint = random.nextInt(MINT_COUNT);
+            prices[mint] *= 1 + (random.nextDouble() - 0.5) * 0.002;
+            m_tickMints[tick] = mints[mint];
+            m_tickPrices[tick] = prices[mint];
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        m_engine.shutdown();
+    }
+
+    @Benchmark
+    public void thresholdIndex() {
+        int tick = m_index++ & (TICK_COUNT - 1);
+        m_engine.onPrice(m_tickMints[tick], m_tickPrices[tick], tick);
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        int tick = m_index++ & (TICK_COUNT - 1);
+        String mint = m_tickMints[tick];
+        double price = m_tickPrices[tick];
+        Double previous = m_lastPrices.put(mint, price);
+        if (previous == null) return;
+
+        for (Alert alert : m_alertsByMint.get(mint)) {
+            boolean crossed = alert.direction() == AlertDirection.ABOVE
+                    ? previous < alert.threshold() && price >= alert.threshold()
+                    : previous > alert.threshold() && price <= alert.threshold();
+            if (crossed) blackhole.consume(alert);
+        }
+    }
+}
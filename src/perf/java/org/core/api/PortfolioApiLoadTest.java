@@ -0,0 +1,167 @@
+package org.core.api;
+
+import org.core.portfolio.PortfolioSnapshot;
+import org.core.portfolio.PositionSnapshot;
+import org.core.portfolio.WalletSnapshot;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load test for PortfolioApiServer against a synthetic snapshot.
+ * The server runs in its own JVM limited to one CPU (-XX:ActiveProcessorCount=1, one virtual thread carrier, and
+ * taskset -c loadtest.serverCpu where taskset exists), so the clients in this JVM don't compete with it for the core
+ * and the reported figures are requests per second served by a single core.
+ * <p>
+ * mvn -Pperf compile exec:exec -Dperf.mainClass=org.core.api.PortfolioApiLoadTest
+ * <p>
+ * Tunables (system properties): loadtest.wallets, loadtest.positionsPerWallet, loadtest.clients, loadtest.seconds,
+ * loadtest.serverCpu (default 0)
+ */
+public class PortfolioApiLoadTest {
+
+    private static final String READY_PREFIX = "ready ";
+
+    public static void main(String[] args) throws Exception {
+        int walletCount = Integer.getInteger("loadtest.wallets", 50);
+        int positionsPerWallet = Integer.getInteger("loadtest.positionsPerWallet", 200);
+        int clients = Integer.getInteger("loadtest.clients", 32);
+        int seconds = Integer.getInteger("loadtest.seconds", 10);
+
+        Process server = startServer(walletCount, positionsPerWallet, Integer.getInteger("loadtest.serverCpu", 0));
+        try {
+            BufferedReader serverOut = new BufferedReader(new InputStreamReader(server.getInputStream(), StandardCharsets.UTF_8));
+            String ready = serverOut.readLine();
+            if (ready == null || !ready.startsWith(READY_PREFIX)) {
+                throw new IllegalStateException("Load test server failed to start: " + ready);
+            }
+
+            String baseUrl = "http://127.0.0.1:" + ready.substring(READY_PREFIX.length());
+            System.out.printf("Snapshot: %d wallets x %d positions, %d clients, %ds per phase%n", walletCount, positionsPerWallet, clients, seconds);
+            for (String path : List.of("/api/totals", "/api/wallets", "/api/holdings", "/api/overlaps")) {
+                runPhase(baseUrl + path, false, clients, seconds);
+                runPhase(baseUrl + path, true, clients, seconds);
+            }
+        } finally {
+            server.getOutputStream().close(); // Server stops on stdin EOF
+            if (!server.waitFor(10, TimeUnit.SECONDS)) server.destroyForcibly();
+        }
+    }
+
+    /**
+     * Launch Server in a child JVM on this classpath, limited to one CPU.
+     */
+    private static Process startServer(int walletCount, int positionsPerWallet, int cpu) throws IOException {
+        List<String> command = new ArrayList<>();
+        if (Files.isExecutable(Path.of("/usr/bin/taskset"))) {
+            command.addAll(List.of("/usr/bin/taskset", "-c", Integer.toString(cpu)));
+        } else {
+            System.out.println("taskset not found - the server is limited to one CPU's worth of threads but not pinned to a core");
+        }
+        command.addAll(List.of(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-XX:ActiveProcessorCount=1", "-Djdk.virtualThreadScheduler.parallelism=1",
+                "-cp", System.getProperty("java.class.path"), Server.class.getName(),
+                Integer.toString(walletCount), Integer.toString(positionsPerWallet)));
+        return new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+    }
+
+    /**
+     * Child JVM entry point - serves a synthetic snapshot on an ephemeral port, printed as "ready &lt;port&gt;", until
+     * stdin is closed.
+     */
+    public static class Server {
+
+        public static void main(String[] args) throws Exception {
+            PortfolioApiServer server = new PortfolioApiServer(new InetSocketAddress("127.0.0.1", 0));
+            server.start();
+            server.publish(syntheticSnapshot(Integer.parseInt(args[0]), Integer.parseInt(args[1])));
+            System.out.println(READY_PREFIX + server.getPort());
+            System.out.flush();
+            try {
+                while (System.in.read() != -1) {
+                    // Wait for the parent to close stdin
+                }
+            } finally {
+                server.stop();
+            }
+        }
+    }
+
+    private static void runPhase(String url, boolean conditional, int clients, int seconds) throws Exception {
+        HttpClient httpClient = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+        HttpResponse<byte[]> first = httpClient.send(HttpRequest.newBuilder(URI.create(url)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+        String etag = first.headers().firstValue("ETag").orElse("");
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (conditional) {
+            builder.header("If-None-Match", etag);
+        }
+        HttpRequest request = builder.build();
+
+        LongAdder completed = new LongAdder();
+        LongAdder errors = new LongAdder();
+        LongAdder bytes = new LongAdder();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+
+        try (ExecutorService clientExecutor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                clientExecutor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            HttpResponse<byte[]> response = httpClient.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                            if (response.statusCode() == 200 || response.statusCode() == 304) {
+                                completed.increment();
+                                bytes.add(response.body().length);
+                            } else {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+                    }
+                });
+            }
+        }
+
+        System.out.printf("%-45s %-12s %10.0f req/s  %8.1f MB/s  errors=%d  body=%d bytes%n", url,
+                conditional ? "304" : "200", completed.sum() / (double) seconds,
+                bytes.sum() / (double) seconds / (1024 * 1024), errors.sum(), first.body().length);
+    }
+
+    private static PortfolioSnapshot syntheticSnapshot(int walletCount, int positionsPerWallet) {
+        List<WalletSnapshot> wallets = new ArrayList<>(walletCount);
+        double total = 0;
+        for (int w = 0; w < walletCount; w++) {
+            String walletAddress = "Wallet" + w + "1111111111111111111111111111111";
+            List<PositionSnapshot> positions = new ArrayList<>(positionsPerWallet);
+            double walletValue = 0;
+            for (int p = 0; p < positionsPerWallet; p++) {
+                // Overlapping mints across wallets so /api/overlaps has work to do
+                String mint = "Mint" + (p * 7 + w) % (positionsPerWallet * 2) + "pump";
+                double balance = 1_000 + p * 13.5;
+                double price = 0.0001 * (p + 1);
+                positions.add(new PositionSnapshot(walletAddress, "Acct" + w + "_" + p, mint, "Token " + p, "TKN" + p,
+                        balance, price, balance * price * 100, true, 250_000, 1.5, false));
+                walletValue += balance * price * 100;
+            }
+            wallets.add(new WalletSnapshot(walletAddress, "Wallet " + w, 12.5, walletValue, List.copyOf(positions)));
+            total += walletValue;
+        }
+        return new PortfolioSnapshot(1, System.currentTimeMillis(), List.copyOf(wallets), total);
+    }
+}
@@ -0,0 +1,75 @@
+package org.core.bench;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JMH JSON result files and exits non-zero if any benchmark regressed by more than the threshold
+ * (bench.threshold system property, default 10%).
+ * <p>
+ * mvn -Pperf compile exec:exec -Dperf.mainClass=org.core.bench.BenchmarkCompare -Dperf.args="baseline.json target/jmh-result.json"
+ */
+public class BenchmarkCompare {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkCompare <baseline.json> <current.json>");
+            System.exit(2);
+        }
+
+        double threshold = Double.parseDouble(System.getProperty("bench.threshold", "10"));
+        Map<String, JSONObject> baseline = load(Path.of(args[0]));
+        Map<String, JSONObject> current = load(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Current", "Change");
+        for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+            JSONObject previous = baseline.get(entry.getKey());
+            JSONObject metric = entry.getValue().getJSONObject("primaryMetric");
+            String unit = metric.getString("scoreUnit");
+            double score = metric.getDouble("score");
+
+            if (previous == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  %s%n", entry.getKey(), "-", score, "new", unit);
+                continue;
+            }
+
+            double previousScore = previous.getJSONObject("primaryMetric").getDouble("score");
+            double changePercent = (score - previousScore) / previousScore * 100;
+            // Throughput modes are better when higher, time modes when lower
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().getString("mode"));
+            double regressionPercent = higherIsBetter ? -changePercent : changePercent;
+            boolean regressed = regressionPercent > threshold;
+            if (regressed) regressions++;
+
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), previousScore, score, changePercent,
+                    unit, regressed ? "  REGRESSION" : "");
+        }
+
+        System.out.printf("%d benchmark(s) regressed by more than %.1f%%%n", regressions, threshold);
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    private static Map<String, JSONObject> load(Path path) throws Exception {
+        JSONArray results = new JSONArray(Files.readString(path));
+        Map<String, JSONObject> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < results.length(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            StringBuilder key = new StringBuilder(result.getString("benchmark"));
+            JSONObject params = result.optJSONObject("params");
+            if (params != null) {
+                // Sorted so parameter order does not affect matching
+                Map<String, Object> sorted = new TreeMap<>(params.toMap());
+                sorted.forEach((name, value) -> key.append(' ').append(name).append('=').append(value));
+            }
+            byKey.put(key.toString(), result);
+        }
+        return byKey;
+    }
+}
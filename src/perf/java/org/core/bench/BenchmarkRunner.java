@@ -0,0 +1,34 @@
+package org.core.bench;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks and writes results as JSON (target/jmh-result.json unless -rff is given) so runs from
+ * different builds can be compared with BenchmarkCompare. Accepts the usual JMH command line, e.g. a benchmark regex
+ * or -p sessionTokens=20000.
+ * <p>
+ * mvn -Pperf compile exec:exec -Dperf.mainClass=org.core.bench.BenchmarkRunner [-Dperf.args="MarketData -f 2"]
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws Exception {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include("org\\.core\\..*Benchmark");
+        }
+        if (!commandLine.getResultFormat().hasValue()) {
+            options.resultFormat(ResultFormatType.JSON);
+        }
+        if (!commandLine.getResult().hasValue()) {
+            options.result("target/jmh-result.json");
+        }
+
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,69 @@
+package org.core.bench;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Blacklist membership checks as done per token in MarketDataProcessor and DatabaseConnUtil. The blacklist is a
+ * CopyOnWriteArraySet (linear scan); a hash set of the same mints is measured alongside for reference.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlacklistLookupBenchmark {
+
+    @Param({"1000", "10000"})
+    public int blacklistSize;
+
+    private CopyOnWriteArraySet<String> m_blacklist;
+    private Set<String> m_hashBlacklist;
+    private String[] m_hits;
+    private String[] m_misses;
+    private int m_index;
+
+    @Setup
+    public void setUp() {
+        m_blacklist = WhaleFixtures.blacklist(0, blacklistSize);
+        m_hashBlacklist = ConcurrentHashMap.newKeySet();
+        m_hashBlacklist.addAll(m_blacklist);
+
+        m_hits = new String[1024];
+        m_misses = new String[1024];
+        for (int i = 0; i < m_hits.length; i++) {
+            // Fresh String instances so equals() compares contents, as for mints parsed from a response
+            m_hits[i] = new String(WhaleFixtures.mintAddress((i * 7919) % blacklistSize));
+            m_misses[i] = WhaleFixtures.mintAddress(blacklistSize + i);
+        }
+    }
+
+    @Benchmark
+    public boolean copyOnWriteHit() {
+        return m_blacklist.contains(m_hits[next()]);
+    }
+
+    @Benchmark
+    public boolean copyOnWriteMiss() {
+        return m_blacklist.contains(m_misses[next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetHit() {
+        return m_hashBlacklist.contains(m_hits[next()]);
+    }
+
+    @Benchmark
+    public boolean hashSetMiss() {
+        return m_hashBlacklist.contains(m_misses[next()]);
+    }
+
+    private int next() {
+        return m_index = (m_index + 1) & 1023;
+    }
+}
@@ -0,0 +1,49 @@
+package org.core.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.core.helius.HeliusAssetResponse;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HeliusAssetResponse deserialisation. walletServicePath mirrors WalletService.createTokenUsingHelius (JSONObject from
+ * RestApiUtil re-serialised and read with a new ObjectMapper per token); sharedMapper is the cost of the read alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HeliusDeserialisationBenchmark {
+
+    private static final ObjectMapper s_mapper = new ObjectMapper();
+
+    private String m_responseBody;
+    private JSONObject m_responseJson;
+
+    @Setup
+    public void setUp() {
+        m_responseBody = WhaleFixtures.heliusAssetResponse(WhaleFixtures.mintAddress(1));
+        m_responseJson = new JSONObject(m_responseBody);
+    }
+
+    @Benchmark
+    public HeliusAssetResponse walletServicePath() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        return mapper.readValue(m_responseJson.toString(), HeliusAssetResponse.class);
+    }
+
+    @Benchmark
+    public HeliusAssetResponse sharedMapper() throws Exception {
+        return s_mapper.readValue(m_responseBody, HeliusAssetResponse.class);
+    }
+
+    @Benchmark
+    public JSONObject restApiUtilParse() {
+        // RestApiUtil.sendHttpRequest parses every response body into a JSONObject first
+        return new JSONObject(m_responseBody);
+    }
+}
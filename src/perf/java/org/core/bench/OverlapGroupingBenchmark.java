@@ -0,0 +1,55 @@
+package org.core.bench;
+
+import org.core.accounts.Position;
+import org.core.accounts.Token;
+import org.core.accounts.Wallet;
+import org.core.portfolio.OverlapSnapshot;
+import org.core.portfolio.PortfolioSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overlap grouping behind MainViewController.updateOverlapTable and /api/overlaps, plus the snapshot capture that
+ * feeds it on every repricing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OverlapGroupingBenchmark {
+
+    @Param({"20", "50"})
+    public int walletCount;
+
+    @Param({"500", "2000"})
+    public int positionsPerWallet;
+
+    private List<Wallet> m_wallets;
+    private PortfolioSnapshot m_snapshot;
+
+    @Setup
+    public void setUp() {
+        List<Token> tokens = WhaleFixtures.tokens(positionsPerWallet * 3, true);
+        m_wallets = WhaleFixtures.wallets(walletCount, positionsPerWallet, tokens);
+        for (Wallet wallet : m_wallets) {
+            for (Position position : wallet.getPositions().values()) {
+                position.setUsdBalance(position.getTokenBalance() * position.getToken().getMarketData().getUsdPrice());
+            }
+        }
+        m_snapshot = PortfolioSnapshot.capture(1, m_wallets);
+    }
+
+    @Benchmark
+    public List<OverlapSnapshot> overlaps() {
+        return m_snapshot.overlaps(10_000);
+    }
+
+    @Benchmark
+    public PortfolioSnapshot capture() {
+        return PortfolioSnapshot.capture(2, m_wallets);
+    }
+}
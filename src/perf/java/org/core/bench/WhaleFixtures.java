@@ -0,0 +1,144 @@
+package org.core.bench;
+
+import org.core.accounts.Position;
+import org.core.accounts.SessionTokenRegistry;
+import org.core.accounts.Token;
+import org.core.accounts.Wallet;
+import org.core.prices.MarketData;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * Deterministic synthetic data sized like real whale portfolios: tens of wallets, thousands of token accounts each,
+ * heavy mint overlap between wallets and a large blacklist of spam mints.
+ */
+public final class WhaleFixtures {
+
+    private static final char[] s_base58 = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+
+    private WhaleFixtures() {
+    }
+
+    /**
+     * Base58 mint address (44 chars like real SPL mints), stable for a given index.
+     */
+    public static String mintAddress(int index) {
+        return address(index, "pump");
+    }
+
+    public static String walletAddress(int index) {
+        return address(1_000_000 + index, "");
+    }
+
+    private static String address(int index, String suffix) {
+        Random random = new Random(index * 31L + 7);
+        StringBuilder sb = new StringBuilder(44);
+        for (int i = 0; i < 44 - suffix.length(); i++) {
+            sb.append(s_base58[random.nextInt(s_base58.length)]);
+        }
+        return sb.append(suffix).toString();
+    }
+
+    public static List<Token> tokens(int count, boolean withMarketData) {
+        Random random = new Random(42);
+        List<Token> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String mint = mintAddress(i);
+            Token token = new Token(mint, "Token " + i, "TKN" + i, 6 + random.nextInt(4));
+            if (withMarketData) {
+                token.setMarketData(new MarketData(mint, price(random)));
+            }
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    public static SessionTokenRegistry sessionTokens(List<Token> tokens) {
+        SessionTokenRegistry sessionTokens = new SessionTokenRegistry();
+        for (Token token : tokens) {
+            sessionTokens.acquire(token);
+        }
+        return sessionTokens;
+    }
+
+    /**
+     * Blacklisted spam mints, disjoint from the first tokenCount mints (blacklisted tokens are removed from the session
+     * map after the first sweep, so this is the steady state).
+     */
+    public static CopyOnWriteArraySet<String> blacklist(int tokenCount, int count) {
+        List<String> mints = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            mints.add(mintAddress(tokenCount + i));
+        }
+        return new CopyOnWriteArraySet<>(mints);
+    }
+
+    /**
+     * Wallets holding positionsPerWallet tokens each. Consecutive wallets share most of their mints, as copy-trading
+     * and team wallets do.
+     */
+    public static List<Wallet> wallets(int walletCount, int positionsPerWallet, List<Token> tokens) {
+        Random random = new Random(7);
+        List<Wallet> wallets = new ArrayList<>(walletCount);
+        for (int w = 0; w < walletCount; w++) {
+            Wallet wallet = new Wallet(walletAddress(w), "Whale " + w, 1_000_000_000L * (10 + random.nextInt(5_000)), null);
+            for (int p = 0; p < positionsPerWallet; p++) {
+                Token token = tokens.get((p * 7 + w * 13) % tokens.size());
+                double balance = Math.pow(10, 2 + random.nextInt(7)) * random.nextDouble();
+                wallet.addPosition(new Position(wallet.getAddress(), address(5_000_000 + w * positionsPerWallet + p, ""), token, balance));
+            }
+            wallets.add(wallet);
+        }
+        return wallets;
+    }
+
+    /**
+     * Jupiter price/v3 response body for one batch. Every nullEvery-th mint has a null price (0 to disable).
+     */
+    public static String jupiterPriceResponse(String[] mintAddresses, int nullEvery) {
+        Random random = new Random(mintAddresses.length);
+        JSONObject response = new JSONObject();
+        for (int i = 0; i < mintAddresses.length; i++) {
+            if (nullEvery > 0 && i % nullEvery == nullEvery - 1) {
+                response.put(mintAddresses[i], JSONObject.NULL);
+                continue;
+            }
+            JSONObject price = new JSONObject();
+            price.put("usdPrice", price(random));
+            price.put("blockId", 348_000_000 + random.nextInt(1_000_000));
+            price.put("decimals", 6);
+            price.put("priceChange24h", random.nextGaussian() * 12);
+            response.put(mintAddresses[i], price);
+        }
+        return response.toString();
+    }
+
+    /**
+     * Helius DAS getAsset response for a fungible token, with the fields real responses carry.
+     */
+    public static String heliusAssetResponse(String mintAddress) {
+        return """
+                {"jsonrpc":"2.0","id":"1","result":{"interface":"FungibleToken","id":"%1$s",
+                "content":{"$schema":"https://schema.metaplex.com/nft1.0.json","json_uri":"https://ipfs.io/ipfs/QmYfe8zVGHA1heej47AkBX3Nnetg2h2kqj5yymz1xyKeHb",
+                "files":[{"uri":"https://ipfs.io/ipfs/QmYfe8zVGHA1heej47AkBX3Nnetg2h2kqj5yymz1xyKeHb","cdn_uri":"https://cdn.helius-rpc.com/cdn-cgi/image//https://ipfs.io/ipfs/QmYfe8zVGHA1heej47AkBX3Nnetg2h2kqj5yymz1xyKeHb","mime":"image/png"}],
+                "metadata":{"description":"The community token of the Solana ecosystem. Fair launched, no team allocation.","name":"Whale Token","symbol":"WHALE","token_standard":"Fungible"},
+                "links":{"image":"https://ipfs.io/ipfs/QmYfe8zVGHA1heej47AkBX3Nnetg2h2kqj5yymz1xyKeHb","external_url":"https://whale.example"}},
+                "authorities":[{"address":"TSLvdd1pWpHVjahSpsvCXUbgwsL3JAcvokwaKt1eokM","scopes":["full"]}],
+                "compression":{"eligible":false,"compressed":false,"data_hash":"","creator_hash":"","asset_hash":"","tree":"","seq":0,"leaf_id":0},
+                "grouping":[],"royalty":{"royalty_model":"creators","target":null,"percent":0.0,"basis_points":0,"primary_sale_happened":false,"locked":false},
+                "creators":[],"ownership":{"frozen":false,"delegated":false,"delegate":null,"ownership_model":"token","owner":""},
+                "supply":null,"mutable":false,"burnt":false,
+                "token_info":{"supply":999843127430102,"decimals":6,"token_program":"TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA",
+                "price_info":{"price_per_token":0.0123,"currency":"USDC"}}}}
+                """.formatted(mintAddress);
+    }
+
+    private static double price(Random random) {
+        // Memecoin-like spread from sub-cent to a few hundred dollars
+        return Math.pow(10, -6 + random.nextDouble() * 8);
+    }
+}
@@ -0,0 +1,95 @@
+package org.core.history;
+
+import org.core.bench.WhaleFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Tick append throughput and range-read latency of PriceHistoryStore over a temporary directory. The store is
+ * pre-filled with a full tick ring per mint (one tick every 5s, the hot tier interval) and downsampled, so reads and
+ * appends run against full rings.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriceHistoryBenchmark {
+
+    private static final long TICK_INTERVAL_MILLIS = 5_000;
+
+    @Param({"100", "2000"})
+    public int mintCount;
+
+    private Path m_directory;
+    private PriceHistoryStore m_store;
+    private String[] m_mints;
+    private long m_clock;
+    private int m_index;
+
+    private final long[] m_timestamps = new long[1024];
+    private final double[] m_prices = new double[1024];
+
+    @Setup
+    public void setUp() throws IOException {
+        m_directory = Files.createTempDirectory("price-history-bench");
+        m_store = new PriceHistoryStore("bench", m_directory, 1024, Map.of(), 256);
+        m_mints = new String[mintCount];
+        for (int i = 0; i < mintCount; i++) {
+            m_mints[i] = WhaleFixtures.mintAddress(i);
+        }
+
+        long start = System.currentTimeMillis() - m_store.getTickCapacity() * TICK_INTERVAL_MILLIS;
+        for (int tick = 0; tick < m_store.getTickCapacity(); tick++) {
+            for (int i = 0; i < mintCount; i++) {
+                m_store.recordPrice(m_mints[i], start + tick * TICK_INTERVAL_MILLIS, 0.001 * (i + 1) + tick * 1e-6);
+            }
+        }
+        m_clock = System.currentTimeMillis();
+        m_store.downsample(m_clock);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        m_store.close();
+        try (Stream<Path> files = Files.walk(m_directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public void recordPrice() {
+        // Round-robin over mints, advancing the clock once per lap so each mint's ticks stay in time order
+        int index = next();
+        if (index == 0) m_clock++;
+        m_store.recordPrice(m_mints[index], m_clock, 1.25);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public int readLastHourOfTicks() {
+        return m_store.readTicks(m_mints[next()], m_clock - 3_600_000, m_clock, m_timestamps, m_prices);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public List<OhlcBar> readLastDayOfMinuteBars() {
+        return m_store.readBars(m_mints[next()], BarInterval.MINUTE, m_clock - 86_400_000, m_clock);
+    }
+
+    private int next() {
+        if (++m_index == mintCount) m_index = 0;
+        return m_index;
+    }
+}
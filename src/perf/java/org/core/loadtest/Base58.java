@@ -0,0 +1,43 @@
+package org.core.loadtest;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Minimal base58 encoding and deterministic 32 byte keys for the stub servers.
+ */
+final class Base58 {
+
+    private static final String s_alphabet = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz";
+    private static final BigInteger s_base = BigInteger.valueOf(58);
+
+    private Base58() {
+    }
+
+    static String encode(byte[] bytes) {
+        StringBuilder sb = new StringBuilder();
+        BigInteger value = new BigInteger(1, bytes);
+        while (value.signum() > 0) {
+            BigInteger[] divRem = value.divideAndRemainder(s_base);
+            sb.append(s_alphabet.charAt(divRem[1].intValue()));
+            value = divRem[0];
+        }
+        for (int i = 0; i < bytes.length && bytes[i] == 0; i++) {
+            sb.append('1');
+        }
+        return sb.reverse().toString();
+    }
+
+    /**
+     * 32 byte public key derived from a label, stable across runs.
+     */
+    static byte[] key(String label) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(label.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.core.loadtest;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency & failure injection for one stub service. Read from system properties, e.g. loadtest.latencyMs applies to
+ * every service and loadtest.helius.latencyMs overrides it for Helius only.
+ *
+ * @param latencyMs Fixed delay added to every response
+ * @param jitterMs Extra uniformly random delay (0..jitterMs)
+ * @param errorRate Fraction of requests answered with HTTP 500
+ * @param rateLimitRate Fraction of requests answered with HTTP 429
+ */
+public record FaultProfile(long latencyMs, long jitterMs, double errorRate, double rateLimitRate) {
+
+    public enum Outcome { OK, ERROR, RATE_LIMITED }
+
+    public static FaultProfile fromProperties(String service) {
+        return new FaultProfile(
+                Long.parseLong(property(service, "latencyMs", "20")),
+                Long.parseLong(property(service, "jitterMs", "10")),
+                Double.parseDouble(property(service, "errorRate", "0")),
+                Double.parseDouble(property(service, "rateLimitRate", "0")));
+    }
+
+    private static String property(String service, String name, String defaultValue) {
+        return System.getProperty("loadtest." + service + "." + name, System.getProperty("loadtest." + name, defaultValue));
+    }
+
+    /**
+     * Sleep for the configured latency and pick the outcome of this request.
+     */
+    public Outcome apply() throws InterruptedException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long delay = latencyMs + (jitterMs > 0 ? random.nextLong(jitterMs + 1) : 0);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+
+        double roll = random.nextDouble();
+        if (roll < rateLimitRate) return Outcome.RATE_LIMITED;
+        if (roll < rateLimitRate + errorRate) return Outcome.ERROR;
+        return Outcome.OK;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("latency=%d+%dms errors=%.1f%% 429s=%.1f%%", latencyMs, jitterMs, errorRate * 100, rateLimitRate * 100);
+    }
+}
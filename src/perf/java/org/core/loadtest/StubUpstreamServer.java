@@ -0,0 +1,334 @@
+package org.core.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-ins for the upstream APIs the tracker calls, serving a synthetic portfolio:
+ * <ul>
+ *     <li>/rpc - Solana JSON-RPC getAccountInfo & getTokenAccountsByOwner (base64 or jsonParsed)</li>
+ *     <li>/jupiter/price/v3?ids= - Jupiter prices. Every spamEvery-th mint has a null price</li>
+ *     <li>/helius - Helius DAS getAsset & getAssetBatch</li>
+ * </ul>
+ * Wallet w holds tokensPerWallet consecutive mints starting at w * walletMintStride, so neighbouring wallets overlap.
+ * Each service has its own FaultProfile for latency, 500s and 429s.
+ */
+public class StubUpstreamServer {
+
+    private static final String s_tokenProgram = "TokenkegQfeZyiNwAJbNbGKPFXCWuBvf9Ss623VQ5DA";
+    private static final String s_systemProgram = "11111111111111111111111111111111";
+    private static final int s_tokenAccountSize = 165;
+    private static final BigInteger s_maxRentEpoch = new BigInteger("18446744073709551615");
+
+    private final HttpServer m_server;
+    private final int m_tokensPerWallet;
+    private final int m_mintUniverse;
+    private final int m_walletMintStride;
+    private final int m_spamEvery;
+    private final FaultProfile m_rpcFaults;
+    private final FaultProfile m_jupiterFaults;
+    private final FaultProfile m_heliusFaults;
+
+    private final String[] m_walletAddresses;
+    private final byte[][] m_walletKeys;
+    private final Map<String, Integer> m_walletIndex = new HashMap<>();
+    private final String[] m_mintAddresses;
+    private final byte[][] m_mintKeys;
+    private final Map<String, Integer> m_mintIndex = new HashMap<>();
+
+    private final Map<String, LongAdder> m_requestCounts = new HashMap<>();
+
+    public StubUpstreamServer(int walletCount, int tokensPerWallet, int mintUniverse, int spamEvery,
+                              FaultProfile rpcFaults, FaultProfile jupiterFaults, FaultProfile heliusFaults) throws IOException {
+        m_tokensPerWallet = tokensPerWallet;
+        m_mintUniverse = Math.max(mintUniverse, tokensPerWallet);
+        m_walletMintStride = Math.max(1, m_mintUniverse / Math.max(1, walletCount));
+        m_spamEvery = spamEvery;
+        m_rpcFaults = rpcFaults;
+        m_jupiterFaults = jupiterFaults;
+        m_heliusFaults = heliusFaults;
+
+        m_walletAddresses = new String[walletCount];
+        m_walletKeys = new byte[walletCount][];
+        for (int w = 0; w < walletCount; w++) {
+            m_walletKeys[w] = Base58.key("wallet-" + w);
+            m_walletAddresses[w] = Base58.encode(m_walletKeys[w]);
+            m_walletIndex.put(m_walletAddresses[w], w);
+        }
+        m_mintAddresses = new String[m_mintUniverse];
+        m_mintKeys = new byte[m_mintUniverse][];
+        for (int i = 0; i < m_mintUniverse; i++) {
+            m_mintKeys[i] = Base58.key("mint-" + i);
+            m_mintAddresses[i] = Base58.encode(m_mintKeys[i]);
+            m_mintIndex.put(m_mintAddresses[i], i);
+        }
+        for (String service : new String[]{"rpc", "jupiter", "helius"}) {
+            for (FaultProfile.Outcome outcome : FaultProfile.Outcome.values()) {
+                m_requestCounts.put(service + "." + outcome, new LongAdder());
+            }
+        }
+
+        m_server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 1024);
+        m_server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        m_server.createContext("/rpc", exchange -> handle(exchange, "rpc", m_rpcFaults, this::handleRpc));
+        m_server.createContext("/jupiter/price/v3", exchange -> handle(exchange, "jupiter", m_jupiterFaults, this::handleJupiter));
+        m_server.createContext("/helius", exchange -> handle(exchange, "helius", m_heliusFaults, this::handleHelius));
+    }
+
+    public void start() {
+        m_server.start();
+    }
+
+    public void stop() {
+        m_server.stop(0);
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + m_server.getAddress().getPort();
+    }
+
+    public String walletAddress(int index) {
+        return m_walletAddresses[index];
+    }
+
+    public int walletCount() {
+        return m_walletAddresses.length;
+    }
+
+    /**
+     * Positions the tracker should end up pricing, i.e. all positions except those in spam (null price) mints.
+     */
+    public long expectedPricedPositions() {
+        long priced = 0;
+        for (int w = 0; w < m_walletAddresses.length; w++) {
+            for (int k = 0; k < m_tokensPerWallet; k++) {
+                if (!isSpam(mintOf(w, k))) priced++;
+            }
+        }
+        return priced;
+    }
+
+    public long requestCount(String service, FaultProfile.Outcome outcome) {
+        return m_requestCounts.get(service + "." + outcome).sum();
+    }
+
+    private int mintOf(int wallet, int k) {
+        return (wallet * m_walletMintStride + k) % m_mintUniverse;
+    }
+
+    private boolean isSpam(int mint) {
+        return m_spamEvery > 0 && mint % m_spamEvery == m_spamEvery - 1;
+    }
+
+    private static int decimalsOf(int mint) {
+        return 6 + mint % 4;
+    }
+
+    private interface Handler {
+        JSONObject respond(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String service, FaultProfile faults, Handler handler) throws IOException {
+        try (exchange) {
+            FaultProfile.Outcome outcome = faults.apply();
+            m_requestCounts.get(service + "." + outcome).increment();
+            switch (outcome) {
+                case RATE_LIMITED -> send(exchange, 429, "{\"jsonrpc\":\"2.0\",\"error\":{\"code\":429,\"message\":\"Rate limit exceeded\"}}");
+                case ERROR -> send(exchange, 500, "{\"error\":\"Injected failure\"}");
+                case OK -> send(exchange, 200, handler.respond(exchange).toString());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            send(exchange, 400, new JSONObject().put("error", String.valueOf(e.getMessage())).toString());
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static JSONObject readJson(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new JSONObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static JSONObject rpcResult(JSONObject request, Object result) {
+        return new JSONObject().put("jsonrpc", "2.0").put("id", request.opt("id")).put("result", result);
+    }
+
+    private static JSONObject rpcContext(Object value) {
+        return new JSONObject().put("context", new JSONObject().put("slot", 348_000_000L)).put("value", value);
+    }
+
+    private JSONObject handleRpc(HttpExchange exchange) throws IOException {
+        JSONObject request = readJson(exchange);
+        JSONArray params = request.optJSONArray("params");
+        String method = request.optString("method");
+
+        return switch (method) {
+            case "getAccountInfo" -> {
+                Integer wallet = m_walletIndex.get(params.getString(0));
+                if (wallet == null) {
+                    yield rpcResult(request, rpcContext(JSONObject.NULL));
+                }
+                JSONObject account = new JSONObject()
+                        .put("data", new JSONArray().put("").put("base64"))
+                        .put("executable", false)
+                        .put("lamports", 1_000_000_000L * (1 + wallet % 500))
+                        .put("owner", s_systemProgram)
+                        .put("rentEpoch", s_maxRentEpoch)
+                        .put("space", 0);
+                yield rpcResult(request, rpcContext(account));
+            }
+            case "getTokenAccountsByOwner" -> {
+                Integer wallet = m_walletIndex.get(params.getString(0));
+                JSONObject config = params.optJSONObject(2);
+                boolean jsonParsed = config != null && "jsonParsed".equals(config.optString("encoding"));
+                JSONArray accounts = new JSONArray();
+                if (wallet != null) {
+                    for (int k = 0; k < m_tokensPerWallet; k++) {
+                        accounts.put(tokenAccount(wallet, k, jsonParsed));
+                    }
+                }
+                yield rpcResult(request, rpcContext(accounts));
+            }
+            default -> new JSONObject().put("jsonrpc", "2.0").put("id", request.opt("id"))
+                    .put("error", new JSONObject().put("code", -32601).put("message", "Method not found: " + method));
+        };
+    }
+
+    private JSONObject tokenAccount(int wallet, int k, boolean jsonParsed) {
+        int mint = mintOf(wallet, k);
+        long amount = 1_000L * (k + 1) * (long) Math.pow(10, decimalsOf(mint));
+        String accountAddress = Base58.encode(Base58.key("account-" + wallet + "-" + k));
+
+        Object data;
+        if (jsonParsed) {
+            JSONObject tokenAmount = new JSONObject()
+                    .put("amount", Long.toString(amount))
+                    .put("decimals", decimalsOf(mint))
+                    .put("uiAmount", amount / Math.pow(10, decimalsOf(mint)))
+                    .put("uiAmountString", Double.toString(amount / Math.pow(10, decimalsOf(mint))));
+            JSONObject info = new JSONObject()
+                    .put("isNative", false)
+                    .put("mint", m_mintAddresses[mint])
+                    .put("owner", m_walletAddresses[wallet])
+                    .put("state", "initialized")
+                    .put("tokenAmount", tokenAmount);
+            data = new JSONObject().put("program", "spl-token").put("space", s_tokenAccountSize)
+                    .put("parsed", new JSONObject().put("info", info).put("type", "account"));
+        } else {
+            // SPL token account layout: mint, owner, amount, delegate, state, is_native, delegated_amount, close_authority
+            ByteBuffer buffer = ByteBuffer.allocate(s_tokenAccountSize).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.put(m_mintKeys[mint]);
+            buffer.put(m_walletKeys[wallet]);
+            buffer.putLong(amount);
+            buffer.position(108);
+            buffer.put((byte) 1);
+            data = new JSONArray().put(Base64.getEncoder().encodeToString(buffer.array())).put("base64");
+        }
+
+        JSONObject account = new JSONObject()
+                .put("data", data)
+                .put("executable", false)
+                .put("lamports", 2_039_280L)
+                .put("owner", s_tokenProgram)
+                .put("rentEpoch", s_maxRentEpoch)
+                .put("space", s_tokenAccountSize);
+        return new JSONObject().put("pubkey", accountAddress).put("account", account);
+    }
+
+    private JSONObject handleJupiter(HttpExchange exchange) {
+        String query = exchange.getRequestURI().getRawQuery();
+        JSONObject response = new JSONObject();
+        if (query == null || !query.startsWith("ids=")) {
+            return response;
+        }
+
+        for (String mintAddress : URLDecoder.decode(query.substring(4), StandardCharsets.UTF_8).split(",")) {
+            Integer mint = m_mintIndex.get(mintAddress);
+            if (mintAddress.isEmpty() || mint == null) continue;
+            if (isSpam(mint)) {
+                response.put(mintAddress, JSONObject.NULL);
+                continue;
+            }
+            response.put(mintAddress, new JSONObject()
+                    .put("usdPrice", 0.0001 * (1 + mint % 10_000))
+                    .put("blockId", 348_000_000L)
+                    .put("decimals", decimalsOf(mint))
+                    .put("priceChange24h", (mint % 200) - 100.0));
+        }
+        return response;
+    }
+
+    private JSONObject handleHelius(HttpExchange exchange) throws IOException {
+        JSONObject request = readJson(exchange);
+        JSONObject params = request.optJSONObject("params");
+        String method = request.optString("method");
+
+        return switch (method) {
+            case "getAsset" -> rpcResult(request, asset(params.getString("id")));
+            case "getAssetBatch" -> {
+                JSONArray ids = params.getJSONArray("ids");
+                JSONArray assets = new JSONArray();
+                for (int i = 0; i < ids.length(); i++) {
+                    assets.put(asset(ids.getString(i)));
+                }
+                yield rpcResult(request, assets);
+            }
+            default -> new JSONObject().put("jsonrpc", "2.0").put("id", request.opt("id"))
+                    .put("error", new JSONObject().put("code", -32601).put("message", "Method not found: " + method));
+        };
+    }
+
+    private Object asset(String mintAddress) {
+        Integer mint = m_mintIndex.get(mintAddress);
+        if (mint == null) {
+            return JSONObject.NULL;
+        }
+        JSONObject metadata = new JSONObject()
+                .put("name", "Stub Token " + mint)
+                .put("symbol", "STUB" + mint)
+                .put("description", "Synthetic token served by StubUpstreamServer")
+                .put("token_standard", "Fungible");
+        JSONObject content = new JSONObject()
+                .put("$schema", "https://schema.metaplex.com/nft1.0.json")
+                .put("json_uri", "https://example.invalid/" + mintAddress + ".json")
+                .put("metadata", metadata);
+        JSONObject tokenInfo = new JSONObject()
+                .put("supply", 1_000_000_000_000_000L)
+                .put("decimals", decimalsOf(mint))
+                .put("token_program", s_tokenProgram);
+        return new JSONObject()
+                .put("interface", "FungibleToken")
+                .put("id", mintAddress)
+                .put("content", content)
+                .put("token_info", tokenInfo)
+                .put("mutable", false)
+                .put("burnt", false);
+    }
+}
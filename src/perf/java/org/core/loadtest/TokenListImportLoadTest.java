@@ -0,0 +1,101 @@
+package org.core.loadtest;
+
+import org.core.bench.WhaleFixtures;
+import org.core.cache.TokenCache;
+import org.core.utils.DatabaseConnUtil;
+import org.core.utils.TokenListImporter;
+import org.core.utils.TokenListReader;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+
+/**
+ * Writes synthetic CSV & JSON token lists of loadtest.tokens rows and reports the import rate for each: a scan that
+ * discards every token (reader cost & heap without the cache), then an import into an empty token cache sized to hold
+ * the whole list. With
+ * -Dloadtest.db=true the CSV is also copied into the configured database's token table.
+ * <p>
+ * mvn -Pperf compile exec:exec -Dperf.mainClass=org.core.loadtest.TokenListImportLoadTest -Dperf.jvmArgs="-Xmx2g -Dloadtest.tokens=3000000"
+ */
+public class TokenListImportLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int tokenCount = Integer.getInteger("loadtest.tokens", 2_000_000);
+        boolean copyToDb = Boolean.getBoolean("loadtest.db");
+
+        Path directory = Files.createTempDirectory("token-list-import");
+        Path csv = directory.resolve("tokens.csv");
+        Path json = directory.resolve("tokens.json");
+        try {
+            writeCsv(csv, tokenCount);
+            writeJson(json, tokenCount);
+
+            // Scans first, so their heap figures are not inflated by a populated cache
+            scan(csv);
+            scan(json);
+            for (Path file : new Path[]{csv, json}) {
+                TokenCache tokenCache = new TokenCache(tokenCount, null);
+                TokenListImporter.ImportResult result = TokenListImporter.importIntoCache(file, tokenCache);
+                System.out.printf("%-12s into cache: %s, heap used %d MB%n", file.getFileName(), result.describe(), heapUsedMb());
+            }
+
+            if (copyToDb) {
+                try (Connection connection = DatabaseConnUtil.openDbConnection()) {
+                    TokenListImporter.ImportResult result = TokenListImporter.importIntoDb(connection, csv);
+                    System.out.printf("%-12s into DB:    %s%n", csv.getFileName(), result.describe());
+                }
+            }
+        } finally {
+            Files.deleteIfExists(csv);
+            Files.deleteIfExists(json);
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private static void scan(Path file) throws IOException {
+        System.gc();
+        long startTime = System.nanoTime();
+        long peakHeapMb = 0;
+        try (TokenListReader reader = TokenListReader.open(file)) {
+            while (reader.next() != null) {
+                if ((reader.getTokensRead() & 0xFFFF) == 0) peakHeapMb = Math.max(peakHeapMb, heapUsedMb());
+            }
+            double seconds = (System.nanoTime() - startTime) / 1e9;
+            System.out.printf("%-12s scan:     %,d rows from %,.1f MB in %.2fs - %,.0f rows/s, peak heap %d MB%n", file.getFileName(),
+                    reader.getTokensRead(), reader.getFileSize() / (1024.0 * 1024.0), seconds, reader.getTokensRead() / seconds, peakHeapMb);
+        }
+    }
+
+    private static void writeCsv(Path file, int tokenCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("address,name,symbol,decimals,logoURI\n");
+            for (int i = 0; i < tokenCount; i++) {
+                writer.write(WhaleFixtures.mintAddress(i) + ",\"Token " + i + ", Inc\",TKN" + i + "," + (6 + i % 4)
+                        + ",https://example.invalid/logo/" + i + ".png\n");
+            }
+        }
+    }
+
+    private static void writeJson(Path file, int tokenCount) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("{\"name\":\"synthetic\",\"tokens\":[\n");
+            for (int i = 0; i < tokenCount; i++) {
+                if (i > 0) writer.write(",\n");
+                writer.write("{\"chainId\":101,\"address\":\"" + WhaleFixtures.mintAddress(i) + "\",\"symbol\":\"TKN" + i
+                        + "\",\"name\":\"Token " + i + "\",\"decimals\":" + (6 + i % 4) + ",\"tags\":[\"community\"],\"extensions\":{\"website\":\"x\"}}");
+            }
+            writer.write("]}\n");
+        }
+    }
+
+    private static long heapUsedMb() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        return memory.getHeapMemoryUsage().getUsed() / (1024 * 1024);
+    }
+}
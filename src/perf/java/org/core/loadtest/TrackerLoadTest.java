@@ -0,0 +1,181 @@
+package org.core.loadtest;
+
+import org.core.metrics.Histogram;
+import org.core.metrics.MetricsRegistry;
+import org.core.portfolio.PortfolioSnapshot;
+import org.core.portfolio.PositionSnapshot;
+import org.core.portfolio.WalletSnapshot;
+import org.core.processors.Processor;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * End-to-end load test: starts StubUpstreamServer, points the Processor at it (DB disabled, rate limit delays
+ * removed) and adds loadtest.wallets wallets. Reports time until every wallet is loaded, time until every non-spam
+ * position is priced in the published snapshot, and peak heap.
+ * <p>
+ * mvn -Pperf compile exec:exec -Dperf.mainClass=org.core.loadtest.TrackerLoadTest -Dperf.jvmArgs="-Xmx4g -Dloadtest.wallets=1000"
+ * <p>
+ * Scenario: loadtest.wallets (1000), loadtest.tokensPerWallet (500), loadtest.mintUniverse (20000),
+ * loadtest.spamEvery (10, every n-th mint has no price), loadtest.timeoutSeconds (1800).
+ * Faults: loadtest[.rpc|.jupiter|.helius].latencyMs / jitterMs / errorRate / rateLimitRate.
+ * Any tracker.* setting can also be overridden, e.g. -Dtracker.helius.maxConcurrentRequests=5 to test real limits.
+ */
+public class TrackerLoadTest {
+
+    public static void main(String[] args) throws Exception {
+        int walletCount = Integer.getInteger("loadtest.wallets", 1000);
+        int tokensPerWallet = Integer.getInteger("loadtest.tokensPerWallet", 500);
+        int mintUniverse = Integer.getInteger("loadtest.mintUniverse", 20_000);
+        int spamEvery = Integer.getInteger("loadtest.spamEvery", 10);
+        int timeoutSeconds = Integer.getInteger("loadtest.timeoutSeconds", 1800);
+
+        StubUpstreamServer stub = new StubUpstreamServer(walletCount, tokensPerWallet, mintUniverse, spamEvery,
+                FaultProfile.fromProperties("rpc"), FaultProfile.fromProperties("jupiter"), FaultProfile.fromProperties("helius"));
+        stub.start();
+
+        // Must be set before Processor & RestApiUtil are initialised. Explicit -D values win
+        setDefault("tracker.rpc.endpoint", stub.baseUrl() + "/rpc");
+        setDefault("tracker.jupiter.priceApi", stub.baseUrl() + "/jupiter/price/v3?ids=");
+        setDefault("tracker.helius.endpoint", stub.baseUrl() + "/helius?api-key=");
+        setDefault("tracker.db.enabled", "false");
+        setDefault("tracker.jupiter.batchDelayMs", "0");
+        setDefault("tracker.priceTier.maxBatchesPerCycle", "0");
+        setDefault("tracker.helius.requestDelayMs", "0");
+        setDefault("tracker.helius.maxConcurrentRequests", "64");
+        setDefault("tracker.marketData.intervalSeconds", "1");
+        setDefault("tracker.positionUpdate.intervalSeconds", "1");
+        setDefault("tracker.metrics.dumpIntervalSeconds", "0");
+        setDefault("tracker.history.enabled", "false");
+        setDefault("tracker.portfolioHistory.enabled", "false");
+        setDefault("tracker.transactions.enabled", "false");
+        quietLogging();
+
+        long expectedPriced = stub.expectedPricedPositions();
+        System.out.printf("Scenario: %d wallets x %d tokens (%d mints, every %dth spam) - %d positions to price%n",
+                walletCount, tokensPerWallet, mintUniverse, spamEvery, expectedPriced);
+        System.out.printf("Faults: rpc[%s] jupiter[%s] helius[%s]%n", FaultProfile.fromProperties("rpc"),
+                FaultProfile.fromProperties("jupiter"), FaultProfile.fromProperties("helius"));
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+
+        long startTime = System.nanoTime();
+        Processor processor = Processor.getInstance();
+        processor.start();
+
+        AtomicInteger loaded = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        for (int w = 0; w < walletCount; w++) {
+            processor.addWalletAsync("Load " + w, stub.walletAddress(w), wallet -> {
+                if (wallet != null) loaded.incrementAndGet();
+                else failed.incrementAndGet();
+            });
+        }
+
+        long walletsDoneNanos = 0;
+        long pricedNanos = 0;
+        long peakHeapSampled = 0;
+        long priced = 0;
+        long nextProgress = System.nanoTime();
+        long deadline = startTime + timeoutSeconds * 1_000_000_000L;
+
+        while (System.nanoTime() < deadline) {
+            peakHeapSampled = Math.max(peakHeapSampled, ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed());
+            if (walletsDoneNanos == 0 && loaded.get() + failed.get() == walletCount) {
+                walletsDoneNanos = System.nanoTime() - startTime;
+            }
+
+            priced = pricedPositions(processor.getPortfolioSnapshot());
+            if (priced >= expectedPriced) {
+                pricedNanos = System.nanoTime() - startTime;
+                break;
+            }
+
+            if (System.nanoTime() >= nextProgress) {
+                System.out.printf("  t=%5.1fs wallets loaded=%d failed=%d, priced positions=%d/%d, heap=%dMB%n",
+                        (System.nanoTime() - startTime) / 1e9, loaded.get(), failed.get(), priced, expectedPriced,
+                        ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed() >> 20);
+                nextProgress = System.nanoTime() + 5_000_000_000L;
+            }
+            Thread.sleep(100);
+        }
+
+        System.out.println();
+        System.out.printf("Wallets loaded:        %d ok, %d failed%s%n", loaded.get(), failed.get(),
+                walletsDoneNanos > 0 ? String.format(" in %.1fs", walletsDoneNanos / 1e9) : " (not finished)");
+        System.out.printf("Time to fully priced:  %s%n", pricedNanos > 0 ? String.format("%.1fs", pricedNanos / 1e9)
+                : String.format("timed out after %ds with %d/%d positions priced", timeoutSeconds, priced, expectedPriced));
+        System.out.printf("Peak heap:             %dMB sampled, %dMB pool peaks (max %dMB)%n", peakHeapSampled >> 20,
+                heapPoolPeaks() >> 20, Runtime.getRuntime().maxMemory() >> 20);
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            System.out.printf("GC %-22s %d collections, %dms%n", gc.getName() + ":", gc.getCollectionCount(), gc.getCollectionTime());
+        }
+        for (String service : new String[]{"rpc", "jupiter", "helius"}) {
+            System.out.printf("Stub %-8s requests: %d ok, %d 500s, %d 429s%n", service,
+                    stub.requestCount(service, FaultProfile.Outcome.OK), stub.requestCount(service, FaultProfile.Outcome.ERROR),
+                    stub.requestCount(service, FaultProfile.Outcome.RATE_LIMITED));
+        }
+        printLatency("tracker_wallet_load_seconds");
+        printLatency("tracker_rpc_call_seconds{method=\"getTokenAccountsForProgramByOwner\"}");
+        printLatency("tracker_helius_call_seconds");
+        printLatency("tracker_jupiter_batch_seconds");
+        printLatency("tracker_market_data_sweep_seconds");
+        printLatency("tracker_repricing_seconds");
+
+        processor.stop();
+        stub.stop();
+        System.exit(pricedNanos > 0 ? 0 : 1);
+    }
+
+    private static long pricedPositions(PortfolioSnapshot snapshot) {
+        long priced = 0;
+        for (WalletSnapshot wallet : snapshot.wallets()) {
+            for (PositionSnapshot position : wallet.positions()) {
+                if (position.priced()) priced++;
+            }
+        }
+        return priced;
+    }
+
+    private static long heapPoolPeaks() {
+        long total = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+                total += pool.getPeakUsage().getUsed();
+            }
+        }
+        return total;
+    }
+
+    private static void printLatency(String name) {
+        Histogram histogram = MetricsRegistry.getInstance().histogram(name, name);
+        if (histogram.getCount() == 0) return;
+        System.out.printf("%-75s n=%-7d p50=%8.1fms p99=%8.1fms max=%8.1fms%n", name, histogram.getCount(),
+                histogram.getQuantileNanos(0.5) / 1e6, histogram.getQuantileNanos(0.99) / 1e6, histogram.getMaxNanos() / 1e6);
+    }
+
+    private static void setDefault(String key, String value) {
+        if (System.getProperty(key) == null) {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static void quietLogging() {
+        // Per-token INFO logging would dominate the run at this scale
+        Level level = Level.parse(System.getProperty("loadtest.logLevel", "WARNING"));
+        Logger root = Logger.getLogger("");
+        root.setLevel(level);
+        for (Handler handler : root.getHandlers()) {
+            handler.setLevel(level);
+        }
+    }
+}
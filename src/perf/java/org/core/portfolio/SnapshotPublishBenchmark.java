@@ -0,0 +1,56 @@
+package org.core.portfolio;
+
+import org.core.accounts.Position;
+import org.core.accounts.Token;
+import org.core.accounts.Wallet;
+import org.core.bench.WhaleFixtures;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Cost of publishing a portfolio snapshot after each repricing: capture of every wallet & position plus the epoch
+ * swap readers see. Average and sampled (percentile) latency per publish; run with -prof gc for the bytes allocated per
+ * publish (gc.alloc.rate.norm), e.g.
+ * -Dperf.args="SnapshotPublish -prof gc"
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotPublishBenchmark {
+
+    @Param({"20", "50"})
+    public int walletCount;
+
+    @Param({"500", "2000"})
+    public int positionsPerWallet;
+
+    private List<Wallet> m_wallets;
+    private PortfolioSnapshotPublisher m_publisher;
+
+    @Setup
+    public void setUp() {
+        // Per-publish INFO line would otherwise be part of what's measured
+        Logger.getLogger(PortfolioSnapshotPublisher.class.getName()).setLevel(Level.WARNING);
+
+        List<Token> tokens = WhaleFixtures.tokens(positionsPerWallet * 3, true);
+        m_wallets = WhaleFixtures.wallets(walletCount, positionsPerWallet, tokens);
+        for (Wallet wallet : m_wallets) {
+            for (Position position : wallet.getPositions().values()) {
+                position.setUsdBalance(position.getTokenBalance() * position.getToken().getMarketData().getUsdPrice());
+            }
+        }
+        m_publisher = new PortfolioSnapshotPublisher();
+    }
+
+    @Benchmark
+    public PortfolioSnapshot publish() {
+        return m_publisher.publish(m_wallets);
+    }
+}
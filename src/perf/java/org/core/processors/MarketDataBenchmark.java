@@ -0,0 +1,105 @@
+package org.core.processors;
+
+import org.core.accounts.Position;
+import org.core.accounts.SessionTokenRegistry;
+import org.core.accounts.Token;
+import org.core.accounts.Wallet;
+import org.core.bench.WhaleFixtures;
+import org.core.portfolio.PortfolioSnapshot;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MarketDataProcessor hot paths: planning tiered Jupiter batches, parsing & applying a Jupiter price batch, and
+ * repricing every position of a whale portfolio. No network or DB - prices are applied to tokens that already have
+ * market data (steady state), so no blacklist writes happen.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MarketDataBenchmark {
+
+    @Param({"2000", "20000"})
+    public int sessionTokens;
+
+    @Param({"5000"})
+    public int blacklistSize;
+
+    @Param({"20"})
+    public int walletCount;
+
+    @Param({"2000"})
+    public int positionsPerWallet;
+
+    private SessionTokenRegistry m_sessionTokens;
+    private CopyOnWriteArraySet<String> m_blacklistedTokens;
+    private MarketDataProcessor m_processor;
+    private PriceRefreshPlanner m_planner;
+    private Map<String, Double> m_usdValueByMint;
+    private String[] m_batchMintAddresses;
+    private String m_jupiterResponse;
+    private Position[] m_positions;
+
+    @Setup
+    public void setUp() {
+        List<Token> tokens = WhaleFixtures.tokens(sessionTokens, true);
+        m_sessionTokens = WhaleFixtures.sessionTokens(tokens);
+        m_blacklistedTokens = WhaleFixtures.blacklist(sessionTokens, blacklistSize);
+        m_processor = new MarketDataProcessor(null, null, m_sessionTokens, m_blacklistedTokens, () -> PortfolioSnapshot.EMPTY, null, null);
+
+        List<Wallet> wallets = WhaleFixtures.wallets(walletCount, positionsPerWallet, tokens);
+        m_positions = wallets.stream()
+                .map(Wallet::getPositions)
+                .flatMap(positions -> positions.values().stream())
+                .toArray(Position[]::new);
+        for (Position position : m_positions) {
+            m_processor.applyMarketDataToPosition(position);
+        }
+        m_usdValueByMint = PortfolioSnapshot.capture(1, wallets).usdValueByMint();
+
+        // Steady state: every token priced once, at staggered times so all tiers have due tokens
+        m_planner = new PriceRefreshPlanner(49);
+        long now = System.nanoTime();
+        String[] mints = m_sessionTokens.mints().toArray(new String[0]);
+        for (int i = 0; i < mints.length; i++) {
+            m_planner.markRefreshed(new String[]{mints[i]}, now - (i % 1000) * 1_000_000_000L);
+        }
+
+        m_batchMintAddresses = m_planner.planBatches(m_sessionTokens.mints(), m_blacklistedTokens, Set.of(), m_usdValueByMint, now).get(0);
+        m_jupiterResponse = WhaleFixtures.jupiterPriceResponse(m_batchMintAddresses, 0);
+    }
+
+    @Benchmark
+    public List<String[]> planTieredBatches() {
+        return m_planner.planBatches(m_sessionTokens.mints(), m_blacklistedTokens, Set.of(), m_usdValueByMint, System.nanoTime());
+    }
+
+    @Benchmark
+    public JSONObject parseJupiterResponse() {
+        return new JSONObject(m_jupiterResponse);
+    }
+
+    @Benchmark
+    public MarketDataProcessor.PriceBatchResult parseAndApplyJupiterBatch() {
+        return m_processor.applyPriceBatch(new JSONObject(m_jupiterResponse), m_batchMintAddresses);
+    }
+
+    @Benchmark
+    public double applyMarketDataToPositions() {
+        double total = 0;
+        for (Position position : m_positions) {
+            m_processor.applyMarketDataToPosition(position);
+            total += position.getUsdBalance();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,76 @@
+package org.core.transactions;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CostBasisTest {
+
+    private static final double EPSILON = 1e-9;
+
+    @Test
+    void acquisitionsAccumulateQuantityAndCost() {
+        CostBasis basis = CostBasis.EMPTY.apply(100, 50).apply(50, 100);
+
+        assertEquals(150, basis.quantity(), EPSILON);
+        assertEquals(150, basis.costUsd(), EPSILON);
+        assertEquals(1, basis.averageCostUsd(), EPSILON);
+        assertEquals(0, basis.realisedUsd(), EPSILON);
+    }
+
+    @Test
+    void partialDisposalRealisesAgainstAverageCost() {
+        CostBasis basis = CostBasis.EMPTY.apply(100, 50).apply(-40, 60);
+
+        assertEquals(60, basis.quantity(), EPSILON);
+        assertEquals(30, basis.costUsd(), EPSILON);
+        assertEquals(60 - 20, basis.realisedUsd(), EPSILON);
+        assertEquals(0.5, basis.averageCostUsd(), EPSILON); // Unchanged by a sale
+    }
+
+    @Test
+    void disposalWithoutTrackedHistoryRealisesNothing() {
+        // History truncated before the buy - the cost of what is sold is unknown
+        CostBasis basis = CostBasis.EMPTY.apply(-10, 5);
+
+        assertEquals(0, basis.quantity(), EPSILON);
+        assertEquals(0, basis.costUsd(), EPSILON);
+        assertEquals(0, basis.realisedUsd(), EPSILON);
+    }
+
+    @Test
+    void disposalBeyondTrackedQuantityOnlyRealisesTheTrackedPart() {
+        // 10 tracked at $1 each, 20 sold for $40: only the tracked half of the proceeds has a known cost
+        CostBasis basis = CostBasis.EMPTY.apply(10, 10).apply(-20, 40);
+
+        assertEquals(0, basis.quantity(), EPSILON);
+        assertEquals(0, basis.costUsd(), EPSILON);
+        assertEquals(20 - 10, basis.realisedUsd(), EPSILON);
+    }
+
+    @Test
+    void transferInIsBookedAtZeroCost() {
+        CostBasis basis = CostBasis.EMPTY.apply(100, 100).apply(100, Double.NaN);
+
+        assertEquals(200, basis.quantity(), EPSILON);
+        assertEquals(100, basis.costUsd(), EPSILON);
+        assertEquals(0.5, basis.averageCostUsd(), EPSILON);
+    }
+
+    @Test
+    void transferOutRemovesCostWithoutRealising() {
+        CostBasis basis = CostBasis.EMPTY.apply(100, 100).apply(-25, Double.NaN);
+
+        assertEquals(75, basis.quantity(), EPSILON);
+        assertEquals(75, basis.costUsd(), EPSILON);
+        assertEquals(0, basis.realisedUsd(), EPSILON);
+    }
+
+    @Test
+    void unrealisedIsMarketValueLessRemainingCost() {
+        CostBasis basis = CostBasis.EMPTY.apply(100, 50).apply(-50, 40);
+
+        assertEquals(50 * 2.0 - 25, basis.unrealisedUsd(2.0), EPSILON);
+        assertEquals(0, CostBasis.EMPTY.averageCostUsd(), EPSILON);
+    }
+}
@@ -0,0 +1,159 @@
+package org.core.transactions;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransactionParserTest {
+
+    private static final double EPSILON = 1e-9;
+    private static final String WALLET = "Wa11et1111111111111111111111111111111111111";
+    private static final String OTHER_WALLET = "0ther11111111111111111111111111111111111111";
+    private static final String MINT = "Mint111111111111111111111111111111111111pump";
+    private static final String OTHER_MINT = "Mint222222222222222222222222222222222222pump";
+    private static final String USDC_MINT = "EPjFWdd5AufqSSqeM2qN1xzybapC8G4wEGGkZwyTDt1v";
+
+    private static final long FEE_LAMPORTS = 5_000;
+    private static final long RENT_LAMPORTS = 2_039_280; // New token account
+
+    @Test
+    void tokenBoughtWithSolIsASwapQuotedInSol() {
+        JSONObject transaction = transaction(-1_000_000_000L - FEE_LAMPORTS,
+                List.of(), List.of(balance(WALLET, MINT, "1000")));
+
+        List<TokenBalanceDelta> deltas = TransactionParser.parse("sig", transaction, WALLET);
+
+        assertEquals(1, deltas.size());
+        TokenBalanceDelta delta = deltas.get(0);
+        assertEquals(MINT, delta.mintAddress());
+        assertEquals(1000, delta.amountDelta(), EPSILON);
+        assertEquals(-1.000005, delta.quoteSol(), EPSILON);
+        assertTrue(delta.swap());
+        assertEquals(42, delta.slot());
+        assertEquals(1_700_000_000L, delta.blockTimeSeconds());
+    }
+
+    @Test
+    void tokenSoldForStableIsASwapQuotedInUsdWithoutAStableDelta() {
+        JSONObject transaction = transaction(-FEE_LAMPORTS,
+                List.of(balance(WALLET, MINT, "50"), balance(WALLET, USDC_MINT, "0")),
+                List.of(balance(WALLET, MINT, "0"), balance(WALLET, USDC_MINT, "25.5")));
+
+        List<TokenBalanceDelta> deltas = TransactionParser.parse("sig", transaction, WALLET);
+
+        assertEquals(1, deltas.size());
+        assertEquals(-50, deltas.get(0).amountDelta(), EPSILON);
+        assertEquals(25.5, deltas.get(0).quoteStableUsd(), EPSILON);
+        assertTrue(deltas.get(0).swap());
+    }
+
+    @Test
+    void wrappedSolCountsTowardsTheSolQuote() {
+        JSONObject transaction = transaction(-FEE_LAMPORTS,
+                List.of(balance(WALLET, TransactionParser.WRAPPED_SOL_MINT, "2")),
+                List.of(balance(WALLET, TransactionParser.WRAPPED_SOL_MINT, "0"), balance(WALLET, MINT, "100")));
+
+        List<TokenBalanceDelta> deltas = TransactionParser.parse("sig", transaction, WALLET);
+
+        assertEquals(1, deltas.size());
+        assertEquals(-2.000005, deltas.get(0).quoteSol(), EPSILON);
+        assertTrue(deltas.get(0).swap());
+    }
+
+    @Test
+    void feeAndRentAloneDoNotMakeAnAirdropASwap() {
+        JSONObject transaction = transaction(-FEE_LAMPORTS - RENT_LAMPORTS,
+                List.of(), List.of(balance(WALLET, MINT, "10")));
+
+        List<TokenBalanceDelta> deltas = TransactionParser.parse("sig", transaction, WALLET);
+
+        assertEquals(1, deltas.size());
+        assertFalse(deltas.get(0).swap());
+    }
+
+    @Test
+    void quoteMovingTheSameWayAsTheTokenIsNotASwap() {
+        // Received both the token and SOL - e.g. a transfer bundled with a refund
+        JSONObject transaction = transaction(1_000_000_000L, List.of(), List.of(balance(WALLET, MINT, "10")));
+
+        assertFalse(TransactionParser.parse("sig", transaction, WALLET).get(0).swap());
+    }
+
+    @Test
+    void multiTokenTransactionsAreNotSwaps() {
+        JSONObject transaction = transaction(-1_000_000_000L,
+                List.of(balance(WALLET, OTHER_MINT, "5")),
+                List.of(balance(WALLET, MINT, "10"), balance(WALLET, OTHER_MINT, "0")));
+
+        List<TokenBalanceDelta> deltas = TransactionParser.parse("sig", transaction, WALLET);
+
+        assertEquals(2, deltas.size());
+        for (TokenBalanceDelta delta : deltas) {
+            assertFalse(delta.swap());
+        }
+    }
+
+    @Test
+    void otherOwnersBalancesAndUnchangedMintsAreIgnored() {
+        JSONObject transaction = transaction(-1_000_000_000L,
+                List.of(balance(OTHER_WALLET, MINT, "500"), balance(WALLET, OTHER_MINT, "7")),
+                List.of(balance(OTHER_WALLET, MINT, "0"), balance(WALLET, OTHER_MINT, "7"), balance(WALLET, MINT, "500")));
+
+        List<TokenBalanceDelta> deltas = TransactionParser.parse("sig", transaction, WALLET);
+
+        assertEquals(1, deltas.size());
+        assertEquals(MINT, deltas.get(0).mintAddress());
+        assertEquals(500, deltas.get(0).amountDelta(), EPSILON);
+    }
+
+    @Test
+    void failedTransactionsHaveNoDeltas() {
+        JSONObject transaction = transaction(-FEE_LAMPORTS, List.of(), List.of(balance(WALLET, MINT, "10")));
+        transaction.getJSONObject("meta").put("err", new JSONObject(Map.of("InstructionError", new JSONArray())));
+
+        assertTrue(TransactionParser.parse("sig", transaction, WALLET).isEmpty());
+    }
+
+    @Test
+    void plainStringAccountKeysAreSupported() {
+        JSONObject transaction = transaction(-1_000_000_000L, List.of(), List.of(balance(WALLET, MINT, "1")));
+        transaction.getJSONObject("transaction").getJSONObject("message").put("accountKeys", new JSONArray(List.of(OTHER_WALLET, WALLET)));
+
+        assertEquals(-1, TransactionParser.parse("sig", transaction, WALLET).get(0).quoteSol(), EPSILON);
+    }
+
+    /**
+     * jsonParsed getTransaction result with the wallet as the second account key.
+     */
+    private static JSONObject transaction(long walletLamportChange, List<JSONObject> preTokenBalances, List<JSONObject> postTokenBalances) {
+        long preLamports = 10_000_000_000L;
+        JSONObject meta = new JSONObject()
+                .put("err", JSONObject.NULL)
+                .put("preBalances", new JSONArray(List.of(1_000_000L, preLamports)))
+                .put("postBalances", new JSONArray(List.of(1_000_000L, preLamports + walletLamportChange)))
+                .put("preTokenBalances", new JSONArray(preTokenBalances))
+                .put("postTokenBalances", new JSONArray(postTokenBalances));
+        JSONArray accountKeys = new JSONArray()
+                .put(new JSONObject().put("pubkey", OTHER_WALLET))
+                .put(new JSONObject().put("pubkey", WALLET));
+        return new JSONObject()
+                .put("slot", 42)
+                .put("blockTime", 1_700_000_000L)
+                .put("meta", meta)
+                .put("transaction", new JSONObject().put("message", new JSONObject().put("accountKeys", accountKeys)));
+    }
+
+    private static JSONObject balance(String owner, String mint, String uiAmount) {
+        return new JSONObject()
+                .put("owner", owner)
+                .put("mint", mint)
+                .put("uiTokenAmount", new JSONObject().put("uiAmountString", uiAmount));
+    }
+}